@@ -0,0 +1,92 @@
+package com.zenvia.challenge.caixa.arch.admissao;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.zenvia.challenge.caixa.impl.rest.v1.CaixaEletronicoRest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Custo do controle de admissão para uma requisição admitida: o limitador isolado (um cliente por thread e um único
+ * cliente disputado por quatro threads) e o filtro completo, com a identificação do cliente pelo cabeçalho.
+ * A taxa configurada é alta o bastante para que todas as requisições sejam admitidas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LimitadorRequisicoesBenchmark {
+	
+	private static final FilterChain CADEIA_VAZIA = (request, response) -> { };
+	
+	private LimitadorRequisicoes limitador;
+	
+	private FiltroAdmissao filtro;
+	
+	@Setup
+	public void setup() {
+		limitador = new LimitadorRequisicoes(Integer.MAX_VALUE, 1e9, 30, TimeUnit.SECONDS);
+		filtro = new FiltroAdmissao(new LimitadorRequisicoes(Integer.MAX_VALUE, 1e9, 30, TimeUnit.SECONDS), new SimpleMeterRegistry());
+	}
+	
+	@State(Scope.Thread)
+	public static class Cliente {
+		
+		private String chave;
+		
+		private MockHttpServletRequest request;
+		
+		private MockHttpServletResponse response;
+		
+		@Setup
+		public void setup() {
+			chave = "chave:" + Thread.currentThread().getId();
+			request = new MockHttpServletRequest("GET", CaixaEletronicoRest.PATH + "/calcula-cedulas/380");
+			request.addHeader(FiltroAdmissao.HEADER_CHAVE_API, chave);
+			response = new MockHttpServletResponse();
+		}
+	}
+	
+	@Benchmark
+	public long admitir(Cliente cliente) {
+		return limitador.admitir(cliente.chave);
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public long admitirQuatroThreadsClientesDistintos(Cliente cliente) {
+		return limitador.admitir(cliente.chave);
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public long admitirQuatroThreadsMesmoCliente() {
+		return limitador.admitir("chave:compartilhada");
+	}
+	
+	@Benchmark
+	public MockHttpServletResponse filtrar(Cliente cliente) throws ServletException, IOException {
+		filtro.doFilter(cliente.request, cliente.response, CADEIA_VAZIA);
+		return cliente.response;
+	}
+}
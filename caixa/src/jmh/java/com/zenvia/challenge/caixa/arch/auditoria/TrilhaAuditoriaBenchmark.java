@@ -0,0 +1,125 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.config.AuditoriaProperties;
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+import com.zenvia.challenge.caixa.enums.PoliticaBufferAuditoriaEnum;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Custo da auditoria de um saque para a thread da requisição, com uma e com quatro threads:
+ * <ul>
+ * <li>publicação no {@link AnelAuditoria} da {@link TrilhaAuditoria}, com a gravação em um diretório temporário
+ * feita pela thread consumidora, para cada política de buffer cheio;</li>
+ * <li>gravação síncrona da mesma linha JSON no arquivo, sob lock, como referência.</li>
+ * </ul>
+ * Com DESCARTAR e AMOSTRAR, a vazão medida pode superar a da gravação: os eventos perdidos são impressos no fim de cada
+ * iteração.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrilhaAuditoriaBenchmark {
+	
+	private static final List<String> RESUMOS = Arrays.asList("Entregar 1 cédula(s) de R$100,00.", "Entregar 1 cédula(s) de R$50,00.");
+	
+	private static final BigDecimal VALOR = BigDecimal.valueOf(150);
+	
+	@Param({"BLOQUEAR", "DESCARTAR", "AMOSTRAR"})
+	private PoliticaBufferAuditoriaEnum politica;
+	
+	private Path diretorio;
+	
+	private TrilhaAuditoria auditoria;
+	
+	private Writer sincrono;
+	
+	@Setup(Level.Iteration)
+	public void setup() throws IOException {
+		diretorio = Files.createTempDirectory("auditoria-benchmark");
+		AuditoriaProperties properties = new AuditoriaProperties();
+		properties.setDiretorio(diretorio.resolve("anel").toString());
+		properties.setPoliticaBufferCheio(politica);
+		auditoria = new TrilhaAuditoria(properties, new CompositeMeterRegistry());
+		sincrono = Files.newBufferedWriter(diretorio.resolve("sincrono.ndjson"), StandardCharsets.UTF_8);
+	}
+	
+	@TearDown(Level.Iteration)
+	public void tearDown() throws Exception {
+		auditoria.encerrar();
+		sincrono.close();
+		System.out.printf("%ndescartados %d, não amostrados %d%n", auditoria.getDescartados(), auditoria.getNaoAmostrados());
+		try (Stream<Path> arquivos = Files.walk(diretorio)) {
+			arquivos.sorted((a, b) -> b.compareTo(a)).forEach(arquivo -> arquivo.toFile().delete());
+		}
+	}
+	
+	@Benchmark
+	public boolean publicar() {
+		return auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, VALOR, RESUMOS, null, 1000);
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public boolean publicarQuatroThreads() {
+		return auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, VALOR, RESUMOS, null, 1000);
+	}
+	
+	@Benchmark
+	public void gravarSincrono() throws IOException {
+		gravar();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public void gravarSincronoQuatroThreads() throws IOException {
+		gravar();
+	}
+	
+	/**
+	 * Mesma linha gravada pela trilha, montada e escrita no arquivo pela própria thread.
+	 */
+	private void gravar() throws IOException {
+		StringBuilder linha = new StringBuilder(256);
+		linha.append("{\"instante\":\"").append(Instant.now()).append("\",\"operacao\":\"CALCULO\",\"terminal\":null,\"valor\":\"")
+				.append(VALOR.toPlainString()).append("\",\"situacao\":\"ATENDIDO\",\"cedulas\":[");
+		for (int i = 0; i < RESUMOS.size(); i++) {
+			linha.append(i == 0 ? "\"" : ",\"").append(RESUMOS.get(i)).append('"');
+		}
+		linha.append("],\"mensagem\":null,\"duracaoNanos\":1000}\n");
+		synchronized (sincrono) {
+			sincrono.write(linha.toString());
+			sincrono.flush();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.zenvia.challenge.caixa.arch.conversores;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+/**
+ * Custo de serialização dos três formatos de resposta do {@code calcula-cedulas}: lista de mensagens (padrão),
+ * composição estruturada em JSON e composição binária com varints. Os resultados são calculados no setup,
+ * de modo que apenas a serialização é medida; o tamanho médio do payload de cada formato é impresso ao final.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatosRespostaBenchmark {
+	
+	@Param({"PEQUENOS", "CENTENAS_REDONDAS"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	
+	private List<List<String>> mensagens;
+	
+	private ComposicaoSaque[] composicoes;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		SaqueService saqueService = new SaqueService();
+		BigDecimal[] valores = distribuicao.gerarValores();
+		mensagens = new ArrayList<>(valores.length);
+		composicoes = new ComposicaoSaque[valores.length];
+		
+		for (int i = 0; i < valores.length; i++) {
+			mensagens.add(saqueService.processarSaque(valores[i]));
+			composicoes[i] = saqueService.processarComposicao(valores[i]);
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void imprimirTamanhos() throws JsonProcessingException {
+		long lista = 0;
+		long json = 0;
+		long binario = 0;
+		for (int i = 0; i < composicoes.length; i++) {
+			lista += objectMapper.writeValueAsBytes(mensagens.get(i)).length;
+			json += objectMapper.writeValueAsBytes(composicoes[i]).length;
+			binario += ComposicaoSaqueBinariaHttpMessageConverter.codificar(composicoes[i]).length;
+		}
+		System.out.println(String.format("%nTamanho médio do payload (%s): mensagens %.1f B, JSON estruturado %.1f B, binário %.1f B",
+				distribuicao, (double) lista / composicoes.length, (double) json / composicoes.length, (double) binario / composicoes.length));
+	}
+	
+	@Benchmark
+	public byte[] listaMensagens() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(mensagens.get(proximoIndice()));
+	}
+	
+	@Benchmark
+	public byte[] composicaoJson() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(composicoes[proximoIndice()]);
+	}
+	
+	@Benchmark
+	public byte[] composicaoBinaria() {
+		return ComposicaoSaqueBinariaHttpMessageConverter.codificar(composicoes[proximoIndice()]);
+	}
+	
+	private int proximoIndice() {
+		int i = indice;
+		indice = (i + 1) & (composicoes.length - 1);
+		return i;
+	}
+}
@@ -0,0 +1,119 @@
+package com.zenvia.challenge.caixa.arch.idempotencia;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.arch.idempotencia.CacheIdempotencia.Registro;
+
+/**
+ * Cache de idempotência cheio até a capacidade, com respostas do tamanho de um saque em terminal:
+ * <ul>
+ * <li>consulta de chaves existentes (repetições) com uma e com quatro threads;</li>
+ * <li>registro de chaves novas, cada uma descartando a mais antiga;</li>
+ * <li>memória ocupada por chave, medida pelo heap após coleta ({@code bytesPorChave}, em modo de disparo único).</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheIdempotenciaBenchmark {
+	
+	private static final byte[] CORPO = "[\"Entregar 1 cédula(s) de R$100,00.\",\"Entregar 1 cédula(s) de R$50,00.\"]".getBytes(StandardCharsets.UTF_8);
+	
+	@Param({"100000"})
+	private int capacidade;
+	
+	private CacheIdempotencia<RespostaArmazenada> cache;
+	
+	private String[] chaves;
+	
+	private long sequencia;
+	
+	@Setup
+	public void setup() {
+		cache = new CacheIdempotencia<>(capacidade, 1, TimeUnit.HOURS);
+		chaves = new String[capacidade];
+		for (int i = 0; i < capacidade; i++) {
+			chaves[i] = "saque-" + i;
+			registrar(cache, chaves[i]);
+		}
+	}
+	
+	@Benchmark
+	public Registro<RespostaArmazenada> consultarChaveExistente() {
+		return cache.registrar(chaves[ThreadLocalRandom.current().nextInt(chaves.length)]);
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public Registro<RespostaArmazenada> consultarChaveExistenteQuatroThreads() {
+		return cache.registrar(chaves[ThreadLocalRandom.current().nextInt(chaves.length)]);
+	}
+	
+	@Benchmark
+	public Registro<RespostaArmazenada> registrarChaveNova() {
+		return registrar(cache, "nova-" + sequencia++);
+	}
+	
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Memoria {
+		
+		public long bytesPorChave;
+		
+		@Setup(Level.Iteration)
+		public void limpar() {
+			bytesPorChave = 0;
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 3)
+	public CacheIdempotencia<RespostaArmazenada> ocuparCapacidade(Memoria memoria) {
+		long antes = heapOcupado();
+		CacheIdempotencia<RespostaArmazenada> cheio = new CacheIdempotencia<>(capacidade, 1, TimeUnit.HOURS);
+		for (int i = 0; i < capacidade; i++) {
+			registrar(cheio, "saque-" + i);
+		}
+		memoria.bytesPorChave = (heapOcupado() - antes) / capacidade;
+		return cheio;
+	}
+	
+	private static Registro<RespostaArmazenada> registrar(CacheIdempotencia<RespostaArmazenada> cache, String chave) {
+		Registro<RespostaArmazenada> registro = cache.registrar(chave);
+		if (registro.assumir()) {
+			registro.concluir(new RespostaArmazenada("POST /terminais/ATM-1/saque/150", 200, "application/json", CORPO.clone()));
+		}
+		return registro;
+	}
+	
+	private static long heapOcupado() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,160 @@
+package com.zenvia.challenge.caixa.arch.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.enums.TipoEventoTerminalEnum;
+
+/**
+ * Custo do journal dos terminais: latência de um evento durável com várias threads gravando ao mesmo tempo
+ * (os percentis mostram o efeito do group commit) e tempo de recuperação na inicialização.
+ */
+@Fork(1)
+public class JournalMapeadoBenchmark {
+	
+	private static final long TAMANHO_SEGMENTO = 64L * 1024 * 1024;
+	
+	private static final int QUANTIDADE_TERMINAIS = 1024;
+	
+	@State(Scope.Benchmark)
+	public static class JournalAberto {
+		
+		@Param({"true", "false"})
+		private boolean sincronizar;
+		
+		private Path diretorio;
+		
+		private JournalMapeado journal;
+		
+		private String[] idsTerminais;
+		
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			diretorio = Files.createTempDirectory("journal-benchmark");
+			journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, sincronizar);
+			idsTerminais = cadastrarTerminais(journal);
+		}
+		
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			journal.close();
+			apagar(diretorio);
+		}
+	}
+	
+	@State(Scope.Benchmark)
+	public static class JournalGravado {
+		
+		@Param({"1000000", "4000000"})
+		private int quantidadeEventos;
+		
+		/**
+		 * Se true, um snapshot é gravado antes dos últimos 10% dos eventos e apenas essa cauda é reaplicada.
+		 */
+		@Param({"false", "true"})
+		private boolean comSnapshot;
+		
+		private Path diretorio;
+		
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			diretorio = Files.createTempDirectory("journal-benchmark");
+			
+			try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, false)) {
+				String[] idsTerminais = cadastrarTerminais(journal);
+				int[] quantidades = new int[TipoCedulaEnum.values().length];
+				quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = 1;
+				
+				for (int i = 0; i < quantidadeEventos; i++) {
+					if (comSnapshot && i == quantidadeEventos - quantidadeEventos / 10) {
+						journal.gravarSnapshot();
+					}
+					journal.registrar(TipoEventoTerminalEnum.SAQUE, idsTerminais[i % idsTerminais.length], quantidades);
+				}
+			}
+		}
+		
+		@TearDown(Level.Trial)
+		public void tearDown() throws IOException {
+			apagar(diretorio);
+		}
+	}
+	
+	/**
+	 * Grava um evento de saque e aguarda a sua durabilidade.
+	 * @param estado
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	@Warmup(iterations = 3, time = 2)
+	@Measurement(iterations = 5, time = 2)
+	@Threads(16)
+	public long registrarSaque(JournalAberto estado) throws IOException {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = 1;
+		String idTerminal = estado.idsTerminais[ThreadLocalRandom.current().nextInt(estado.idsTerminais.length)];
+		
+		return estado.journal.registrar(TipoEventoTerminalEnum.SAQUE, idTerminal, quantidades);
+	}
+	
+	/**
+	 * Abre o journal gravado, recuperando o estado dos terminais.
+	 * @param estado
+	 * @return
+	 * @throws IOException
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 5)
+	public long recuperar(JournalGravado estado) throws IOException {
+		try (JournalMapeado journal = JournalMapeado.abrir(estado.diretorio, TAMANHO_SEGMENTO, false)) {
+			return journal.getSequencia();
+		}
+	}
+	
+	private static String[] cadastrarTerminais(JournalMapeado journal) throws IOException {
+		String[] idsTerminais = new String[QUANTIDADE_TERMINAIS];
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			quantidades[tipoCedula.ordinal()] = Integer.MAX_VALUE / 2;
+		}
+		
+		for (int i = 0; i < QUANTIDADE_TERMINAIS; i++) {
+			idsTerminais[i] = "ATM-" + i;
+			journal.registrar(TipoEventoTerminalEnum.CADASTRO, idsTerminais[i], quantidades);
+		}
+		return idsTerminais;
+	}
+	
+	private static void apagar(Path diretorio) throws IOException {
+		try (Stream<Path> arquivos = Files.walk(diretorio)) {
+			arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.zenvia.challenge.caixa.arch.metricas;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+/**
+ * Custo da instrumentação do saque: a mesma operação sem métricas e com métricas publicadas em um registro Prometheus.
+ * A diferença de tempo e de alocação (profiler gc) entre os dois casos é o custo das métricas por requisição.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricasSaqueBenchmark {
+	
+	@Param({"false", "true"})
+	private boolean comMetricas;
+	
+	@Param({"PEQUENOS", "INVALIDOS"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	private CaixaEletronicoOperationService operationService;
+	
+	private BigDecimal[] valores;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		MetricasSaque metricas = comMetricas
+				? new MetricasSaque(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT))
+				: MetricasSaque.desabilitadas();
+		operationService = new CaixaEletronicoOperationService(new SaqueService(metricas), new RegistroTerminaisService(), metricas);
+		valores = distribuicao.gerarValores();
+	}
+	
+	@Benchmark
+	public List<String> saque() {
+		try {
+			return operationService.saque(valores[proximoIndice()]);
+		} catch (BusinessException e) {
+			return null;
+		}
+	}
+	
+	private int proximoIndice() {
+		int i = indice;
+		indice = (i + 1) & (valores.length - 1);
+		return i;
+	}
+}
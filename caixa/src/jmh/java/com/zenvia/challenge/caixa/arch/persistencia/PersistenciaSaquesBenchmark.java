@@ -0,0 +1,101 @@
+package com.zenvia.challenge.caixa.arch.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.config.PersistenciaSaquesProperties;
+
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Vazão da gravação de saques em um arquivo local, sincronizado com o disco a cada lote, para vários tamanhos de lote
+ * (lote 1 equivale a uma escrita e uma sincronização por saque):
+ * <ul>
+ * <li>{@code registrarAguardando}: 16 requisições que esperam a gravação do próprio saque, como quem precisa de
+ * durabilidade; os saques em espera formam os lotes.</li>
+ * <li>{@code registrarSemAguardar}: requisições que só entregam o saque, limitadas pela fila cheia à vazão da gravação.</li>
+ * </ul>
+ * O arquivo fica no diretório temporário ({@code java.io.tmpdir}); os números dependem do disco dele.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenciaSaquesBenchmark {
+	
+	@Param({"1", "16", "128", "1024"})
+	private int tamanhoLote;
+	
+	@Param({"200"})
+	private long janelaLoteMicrossegundos;
+	
+	private Path diretorio;
+	
+	private PersistenciaSaques persistencia;
+	
+	private String[] idsTerminais;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		diretorio = Files.createTempDirectory("persistencia-saques");
+		PersistenciaSaquesProperties properties = new PersistenciaSaquesProperties();
+		properties.setArquivo(diretorio.resolve("saques.trilha").toString());
+		properties.setTamanhoLote(tamanhoLote);
+		properties.setJanelaLoteMicrossegundos(janelaLoteMicrossegundos);
+		properties.setCapacidadeFila(16 * 1024);
+		properties.setEsperaFilaCheiaMilissegundos(TimeUnit.MINUTES.toMillis(1));
+		properties.setSincronizar(true);
+		persistencia = new PersistenciaSaques(properties, new CompositeMeterRegistry());
+		
+		idsTerminais = new String[64];
+		for (int i = 0; i < idsTerminais.length; i++) {
+			idsTerminais[i] = "ATM-" + i;
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		persistencia.encerrar();
+		Files.deleteIfExists(diretorio.resolve("saques.trilha"));
+		Files.deleteIfExists(diretorio);
+	}
+	
+	@Benchmark
+	@Threads(16)
+	public void registrarAguardando() {
+		registrar().join();
+	}
+	
+	@Benchmark
+	@Threads(2)
+	public CompletableFuture<Void> registrarSemAguardar() {
+		return registrar();
+	}
+	
+	private CompletableFuture<Void> registrar() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return persistencia.registrar(idsTerminais[random.nextInt(idsTerminais.length)], System.currentTimeMillis(),
+				(10 + random.nextInt(100) * 10) * 100L);
+	}
+}
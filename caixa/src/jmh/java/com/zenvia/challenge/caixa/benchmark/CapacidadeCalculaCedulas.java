@@ -0,0 +1,250 @@
+package com.zenvia.challenge.caixa.benchmark;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.impl.rest.v1.CaixaEletronicoRest;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Capacidade de uma instância no {@code calcula-cedulas}: quantos saques por segundo são sustentados com o p99 abaixo do alvo.
+ * <p>
+ * A aplicação sobe em uma porta aleatória de localhost e recebe, para cada taxa de {@code carga.taxas}, chegadas em
+ * laço aberto a intervalos constantes: cada requisição tem um instante previsto de envio e é disparada nele, sem esperar
+ * as anteriores, e a latência é medida a partir desse instante. Assim, um servidor que atrasa não reduz a carga recebida
+ * (omissão coordenada), e o atraso do próprio gerador também aparece nas latências. As latências vão para um histograma
+ * HDR (precisão de 3 dígitos).
+ * <p>
+ * Os valores seguem a mistura de {@code carga.mistura}, sobre as amostras de semente fixa de {@link DistribuicaoValoresSaque}.
+ * Conta como erro a requisição sem resposta ou com status diferente de 200, 400 e 422 (as rejeições dos valores
+ * inválidos são respostas esperadas).
+ * <p>
+ * O relatório (vazão, p50, p99, p99.9, máximo e erros por taxa, e a maior taxa dentro do alvo) é impresso e gravado em
+ * {@code carga.relatorio}/capacidade.txt, com a distribuição completa de cada taxa em latencias-&lt;taxa&gt;.hgrm.
+ * Gerador e servidor dividem a máquina: os números servem para comparar commits na mesma máquina.
+ * <p>
+ * Parâmetros (propriedades de sistema): {@code carga.taxas} (padrão 500,1000,2000,4000 requisições por segundo),
+ * {@code carga.duracao-segundos} (padrão 10 por taxa), {@code carga.aquecimento-segundos} (padrão 5),
+ * {@code carga.mistura} (padrão PEQUENOS:70,CENTENAS_REDONDAS:15,INVALIDOS:10,ENORMES:5), {@code carga.p99-alvo-ms}
+ * (padrão 5), {@code carga.conexoes} (padrão 256) e {@code carga.relatorio} (padrão build/reports/carga).
+ * Execução: {@code ./gradlew cargaCapacidade}.
+ */
+public class CapacidadeCalculaCedulas {
+	
+	private static final String TAXAS = System.getProperty("carga.taxas", "500,1000,2000,4000");
+	
+	private static final int DURACAO_SEGUNDOS = Integer.getInteger("carga.duracao-segundos", 10);
+	
+	private static final int AQUECIMENTO_SEGUNDOS = Integer.getInteger("carga.aquecimento-segundos", 5);
+	
+	private static final String MISTURA = System.getProperty("carga.mistura", "PEQUENOS:70,CENTENAS_REDONDAS:15,INVALIDOS:10,ENORMES:5");
+	
+	private static final double P99_ALVO_MS = Double.parseDouble(System.getProperty("carga.p99-alvo-ms", "5"));
+	
+	private static final int CONEXOES = Integer.getInteger("carga.conexoes", 256);
+	
+	private static final String RELATORIO = System.getProperty("carga.relatorio", "build/reports/carga");
+	
+	/**
+	 * Tamanho do plano de requisições, percorrido em ciclo; potência de 2 para indexação por máscara.
+	 */
+	private static final int TAMANHO_PLANO = 1 << 16;
+	
+	private static final long SEMENTE = 20200301L;
+	
+	/**
+	 * Tempo máximo de espera pelas respostas pendentes ao fim de cada taxa; as que não chegam contam como erro.
+	 */
+	private static final long ESPERA_PENDENTES_SEGUNDOS = 30;
+	
+	private static final String FORMATO_CABECALHO = "%10s %12s %10s %10s %10s %10s %10s";
+	
+	private static final String FORMATO_LINHA = "%10d %12.0f %10.3f %10.3f %10.3f %10.3f %10d";
+	
+	private static final byte[] CORPO_VAZIO = new byte[0];
+	
+	public static void main(String[] args) throws Exception {
+		String[] uris = planejar(MISTURA);
+		List<Integer> taxas = new ArrayList<>();
+		for (String taxa : TAXAS.split(",")) {
+			taxas.add(Integer.valueOf(taxa.trim()));
+		}
+		
+		ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CaixaApplication.class)
+				.properties("server.port=0", "server.address=127.0.0.1", "spring.main.banner-mode=off", "logging.level.root=WARN",
+						"caixa.admissao.habilitado=false", "caixa.swagger.habilitado=false")
+				.run();
+		ConnectionProvider conexoes = ConnectionProvider.builder("capacidade").maxConnections(CONEXOES)
+				.pendingAcquireMaxCount(-1).pendingAcquireTimeout(Duration.ofMinutes(1)).build();
+		
+		try {
+			int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			HttpClient cliente = HttpClient.create(conexoes).baseUrl("http://127.0.0.1:" + porta + CaixaEletronicoRest.PATH);
+			
+			medir(cliente, uris, taxas.get(0), AQUECIMENTO_SEGUNDOS);
+			
+			Path diretorio = Paths.get(RELATORIO);
+			Files.createDirectories(diretorio);
+			
+			List<String> linhas = new ArrayList<>();
+			linhas.add(String.format("Capacidade do calcula-cedulas - %s, Java %s, %d processador(es)", LocalDateTime.now().withNano(0),
+					System.getProperty("java.version"), Runtime.getRuntime().availableProcessors()));
+			linhas.add(String.format("mistura %s, %d s por taxa, %d conexões, p99 alvo %.1f ms", MISTURA, DURACAO_SEGUNDOS, CONEXOES, P99_ALVO_MS));
+			linhas.add("");
+			linhas.add(String.format(FORMATO_CABECALHO, "taxa", "vazão (r/s)", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "máx (ms)", "erros"));
+			linhas.forEach(System.out::println);
+			
+			int capacidade = 0;
+			for (int taxa : taxas) {
+				Medicao medicao = medir(cliente, uris, taxa, DURACAO_SEGUNDOS);
+				Histogram latencias = medicao.latencias;
+				
+				String linha = String.format(FORMATO_LINHA, taxa, medicao.vazao, ms(latencias.getValueAtPercentile(50)),
+						ms(latencias.getValueAtPercentile(99)), ms(latencias.getValueAtPercentile(99.9)), ms(latencias.getMaxValue()), medicao.erros);
+				System.out.println(linha);
+				linhas.add(linha);
+				
+				try (PrintStream saida = new PrintStream(Files.newOutputStream(diretorio.resolve("latencias-" + taxa + ".hgrm")), false,
+						StandardCharsets.UTF_8.name())) {
+					latencias.outputPercentileDistribution(saida, 1e6);
+				}
+				
+				if (medicao.erros == 0 && ms(latencias.getValueAtPercentile(99)) < P99_ALVO_MS && medicao.vazao >= 0.99 * taxa) {
+					capacidade = Math.max(capacidade, taxa);
+				}
+			}
+			
+			String conclusao = capacidade > 0
+					? String.format("capacidade: %d saques/s com p99 < %.1f ms", capacidade, P99_ALVO_MS)
+					: String.format("capacidade: nenhuma taxa medida sustentou p99 < %.1f ms", P99_ALVO_MS);
+			System.out.println();
+			System.out.println(conclusao);
+			linhas.add("");
+			linhas.add(conclusao);
+			
+			Path relatorio = diretorio.resolve("capacidade.txt");
+			Files.write(relatorio, linhas, StandardCharsets.UTF_8);
+			System.out.println("relatório: " + relatorio.toAbsolutePath());
+		} finally {
+			conexoes.disposeLater().block();
+			contexto.close();
+		}
+		System.exit(0);
+	}
+	
+	/**
+	 * Dispara requisições à taxa constante durante o período, cada uma no seu instante previsto, e aguarda as respostas.
+	 * @param cliente
+	 * @param uris Plano de requisições.
+	 * @param taxa Requisições por segundo.
+	 * @param segundos
+	 * @return
+	 * @throws InterruptedException
+	 */
+	private static Medicao medir(HttpClient cliente, String[] uris, int taxa, int segundos) throws InterruptedException {
+		int quantidade = (int) Math.min(Integer.MAX_VALUE, (long) taxa * segundos);
+		double intervalo = (double) TimeUnit.SECONDS.toNanos(1) / taxa;
+		Recorder recorder = new Recorder(3);
+		AtomicInteger erros = new AtomicInteger();
+		CountDownLatch pendentes = new CountDownLatch(quantidade);
+		
+		long inicio = System.nanoTime();
+		for (int n = 0; n < quantidade; n++) {
+			long previsto = inicio + (long) (n * intervalo);
+			long espera;
+			while ((espera = previsto - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(espera);
+			}
+			
+			cliente.get().uri(uris[n & (TAMANHO_PLANO - 1)])
+					.responseSingle((resposta, corpo) -> corpo.asByteArray().defaultIfEmpty(CORPO_VAZIO)
+							.map(bytes -> resposta.status().code()))
+					.onErrorResume(erro -> Mono.just(-1))
+					.subscribe(status -> {
+						recorder.recordValue(System.nanoTime() - previsto);
+						if (status != 200 && status != 400 && status != 422) {
+							erros.incrementAndGet();
+						}
+						pendentes.countDown();
+					});
+		}
+		
+		boolean concluido = pendentes.await(ESPERA_PENDENTES_SEGUNDOS, TimeUnit.SECONDS);
+		double decorrido = (System.nanoTime() - inicio) / 1e9;
+		long semResposta = concluido ? 0 : pendentes.getCount();
+		
+		return new Medicao(recorder.getIntervalHistogram(), (quantidade - semResposta) / decorrido, erros.get() + semResposta);
+	}
+	
+	/**
+	 * Monta o plano de requisições sorteando, com semente fixa, a distribuição de cada requisição conforme os pesos da mistura.
+	 * @param mistura Pesos no formato {@code DISTRIBUICAO:peso,...}.
+	 * @return
+	 */
+	private static String[] planejar(String mistura) {
+		String[] itens = mistura.split(",");
+		String[][] valores = new String[itens.length][];
+		int[] pesosAcumulados = new int[itens.length];
+		int total = 0;
+		for (int i = 0; i < itens.length; i++) {
+			String[] item = itens[i].trim().split(":");
+			valores[i] = DistribuicaoValoresSaque.valueOf(item[0].trim()).gerarValoresTexto();
+			total += Integer.parseInt(item[1].trim());
+			pesosAcumulados[i] = total;
+		}
+		
+		Random random = new Random(SEMENTE);
+		String[] uris = new String[TAMANHO_PLANO];
+		for (int n = 0; n < uris.length; n++) {
+			int sorteio = random.nextInt(total);
+			int i = 0;
+			while (sorteio >= pesosAcumulados[i]) {
+				i++;
+			}
+			String valor = valores[i][random.nextInt(valores[i].length)];
+			uris[n] = CaixaEletronicoRest.PATH_CALCULAR_CEDULAS.replace("{valor-saque}", valor);
+		}
+		return uris;
+	}
+	
+	private static double ms(long nanos) {
+		return nanos / 1e6;
+	}
+	
+	private static final class Medicao {
+		
+		private final Histogram latencias;
+		
+		private final double vazao;
+		
+		private final long erros;
+		
+		private Medicao(Histogram latencias, double vazao, long erros) {
+			this.latencias = latencias;
+			this.vazao = vazao;
+			this.erros = erros;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.zenvia.challenge.caixa.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.impl.rest.v1.CaixaEletronicoRest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Teste de carga local do {@code calcula-cedulas}, comparando a API servlet (MVC sobre Tomcat) com a variante
+ * reativa (WebFlux sobre Netty, perfil {@code reativo}) sob alta concorrência.
+ * <p>
+ * Cada variante sobe em uma porta aleatória e recebe o mesmo volume de requisições, mantendo uma quantidade fixa
+ * em andamento com um cliente não bloqueante. São reportados vazão, percentis de latência e a quantidade de
+ * threads do servidor HTTP ao fim da carga.
+ * <p>
+ * Parâmetros (propriedades de sistema): {@code carga.concorrencia} (padrão 2000) e {@code carga.requisicoes} (padrão 200000).
+ * Execução: {@code ./gradlew cargaWeb}.
+ */
+public class CargaCalculaCedulas {
+	
+	private static final int CONCORRENCIA = Integer.getInteger("carga.concorrencia", 2000);
+	
+	private static final int REQUISICOES = Integer.getInteger("carga.requisicoes", 200_000);
+	
+	private static final int AQUECIMENTO = Math.min(REQUISICOES, 20_000);
+	
+	public static void main(String[] args) {
+		System.out.println(String.format("%-8s %12s %10s %10s %10s %10s %10s", "variante", "req/s", "p50 (ms)", "p99 (ms)", "p99.9 (ms)", "erros", "threads"));
+		executar("servlet", "http-nio-");
+		executar("reativo", "reactor-http-");
+		System.exit(0);
+	}
+	
+	private static void executar(String perfil, String prefixoThreadsServidor) {
+		ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CaixaApplication.class)
+				.profiles(perfil)
+				.properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN", "caixa.admissao.habilitado=false",
+						"spring.main.web-application-type=" + ("reativo".equals(perfil) ? "reactive" : "servlet"))
+				.run();
+		try {
+			int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			ConnectionProvider conexoes = ConnectionProvider.builder("carga").maxConnections(CONCORRENCIA)
+					.pendingAcquireMaxCount(-1).pendingAcquireTimeout(Duration.ofMinutes(1)).build();
+			HttpClient cliente = HttpClient.create(conexoes).baseUrl("http://localhost:" + porta + CaixaEletronicoRest.PATH);
+			
+			disparar(cliente, AQUECIMENTO, new long[AQUECIMENTO]);
+			
+			long[] latencias = new long[REQUISICOES];
+			long inicio = System.nanoTime();
+			int erros = disparar(cliente, REQUISICOES, latencias);
+			double segundos = (System.nanoTime() - inicio) / 1e9;
+			
+			long threadsServidor = Thread.getAllStackTraces().keySet().stream()
+					.filter(thread -> thread.getName().startsWith(prefixoThreadsServidor))
+					.count();
+			
+			Arrays.sort(latencias);
+			System.out.println(String.format("%-8s %12.0f %10.2f %10.2f %10.2f %10d %10d", perfil, REQUISICOES / segundos,
+					percentil(latencias, 0.50), percentil(latencias, 0.99), percentil(latencias, 0.999), erros, threadsServidor));
+			
+			conexoes.disposeLater().block();
+		} finally {
+			contexto.close();
+		}
+	}
+	
+	/**
+	 * Envia as requisições mantendo {@link #CONCORRENCIA} em andamento e registra a latência de cada uma.
+	 * @return Quantidade de respostas com erro.
+	 */
+	private static int disparar(HttpClient cliente, int quantidade, long[] latencias) {
+		AtomicInteger erros = new AtomicInteger();
+		
+		Flux.range(0, quantidade)
+				.flatMap(i -> {
+					String uri = CaixaEletronicoRest.PATH_CALCULAR_CEDULAS.replace("{valor-saque}", valor(i).toPlainString());
+					long inicio = System.nanoTime();
+					return cliente.get().uri(uri)
+							.responseSingle((resposta, corpo) -> corpo.asString().defaultIfEmpty("")
+									.map(texto -> resposta.status().code()))
+							.onErrorResume(erro -> Mono.just(-1))
+							.doOnNext(status -> {
+								latencias[i] = System.nanoTime() - inicio;
+								if (status != 200) {
+									erros.incrementAndGet();
+								}
+							});
+				}, CONCORRENCIA)
+				.blockLast();
+		
+		return erros.get();
+	}
+	
+	private static BigDecimal valor(int i) {
+		return BigDecimal.valueOf(10L * (1 + (i * 7919L) % 100_000));
+	}
+	
+	private static double percentil(long[] latenciasOrdenadas, double percentil) {
+		int indice = (int) Math.min(latenciasOrdenadas.length - 1, Math.ceil(percentil * latenciasOrdenadas.length) - 1);
+		return latenciasOrdenadas[Math.max(indice, 0)] / 1e6;
+	}
+}
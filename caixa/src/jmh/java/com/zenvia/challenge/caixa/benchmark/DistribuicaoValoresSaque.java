@@ -0,0 +1,92 @@
+package com.zenvia.challenge.caixa.benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Distribuições de valores de saque usadas como parâmetro dos benchmarks.
+ * Os valores são gerados com semente fixa para que execuções sejam comparáveis entre commits.
+ */
+public enum DistribuicaoValoresSaque {
+
+	/** Saques pequenos, múltiplos de 10,00 entre 10,00 e 500,00. */
+	PEQUENOS {
+		@Override
+		protected BigDecimal gerarValor(Random random) {
+			return BigDecimal.valueOf(10L * (1 + random.nextInt(50)));
+		}
+	},
+	
+	/** Centenas redondas entre 100,00 e 10.000,00. */
+	CENTENAS_REDONDAS {
+		@Override
+		protected BigDecimal gerarValor(Random random) {
+			return BigDecimal.valueOf(100L * (1 + random.nextInt(100)));
+		}
+	},
+	
+	/** Valores muito grandes, metade dentro e metade acima do limite do cálculo primitivo. */
+	ENORMES {
+		@Override
+		protected BigDecimal gerarValor(Random random) {
+			BigDecimal valor = BigDecimal.valueOf(10L * (100_000_000L + random.nextInt(Integer.MAX_VALUE - 100_000_000)));
+			return random.nextBoolean() ? valor : valor.multiply(BigDecimal.TEN.pow(12));
+		}
+	},
+	
+	/** Valores rejeitados pela validação: zero, negativos, abaixo do mínimo, não múltiplos de 10,00 e com centavos. */
+	INVALIDOS {
+		@Override
+		protected BigDecimal gerarValor(Random random) {
+			switch (random.nextInt(5)) {
+			case 0:
+				return BigDecimal.ZERO;
+			case 1:
+				return BigDecimal.valueOf(-10L * (1 + random.nextInt(100)));
+			case 2:
+				return BigDecimal.valueOf(1 + random.nextInt(9));
+			case 3:
+				return BigDecimal.valueOf(10L * random.nextInt(1000) + 1 + random.nextInt(9));
+			default:
+				return BigDecimal.valueOf(10L * (1 + random.nextInt(1000)) * 100 + 1 + random.nextInt(99), 2);
+			}
+		}
+	};
+	
+	/** Quantidade de valores gerados por distribuição; potência de 2 para indexação por máscara. */
+	public static final int QUANTIDADE_VALORES = 1024;
+	
+	private static final long SEMENTE = 20200301L;
+	
+	protected abstract BigDecimal gerarValor(Random random);
+	
+	/**
+	 * Gera a amostra de valores da distribuição.
+	 * @return
+	 */
+	public BigDecimal[] gerarValores() {
+		Random random = new Random(SEMENTE + ordinal());
+		BigDecimal[] valores = new BigDecimal[QUANTIDADE_VALORES];
+		
+		for (int i = 0; i < valores.length; i++) {
+			valores[i] = gerarValor(random);
+		}
+		
+		return valores;
+	}
+	
+	/**
+	 * Gera a amostra de valores da distribuição em texto, como chegam na variável de caminho da requisição.
+	 * @return
+	 */
+	public String[] gerarValoresTexto() {
+		BigDecimal[] valores = gerarValores();
+		String[] textos = new String[valores.length];
+		
+		for (int i = 0; i < valores.length; i++) {
+			textos[i] = valores[i].toPlainString();
+		}
+		
+		return textos;
+	}
+}
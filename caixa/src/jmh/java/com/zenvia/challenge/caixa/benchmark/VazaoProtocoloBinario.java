@@ -0,0 +1,233 @@
+package com.zenvia.challenge.caixa.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.arch.protocolo.ProtocoloBinarioTerminal;
+import com.zenvia.challenge.caixa.arch.protocolo.ServidorBinarioTerminais;
+import com.zenvia.challenge.caixa.enums.CodigoRespostaTerminalEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.rest.v1.CaixaEletronicoRest;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+import com.zenvia.challenge.caixa.impl.services.EstoqueCedulas;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Vazão local de saques em terminal pelo protocolo binário TCP, comparada com o endpoint HTTP
+ * {@code POST /terminais/{id-terminal}/saque/{valor-saque}} da mesma instância.
+ * <p>
+ * A aplicação sobe com os dois listeners em portas aleatórias de localhost e um terminal com estoque suficiente para
+ * toda a carga. No protocolo binário, cada conexão envia um bloco de {@code carga.profundidade} requisições antes de ler
+ * as respostas (pipelining), e a medição se repete com profundidade 1 para isolar o ganho do encadeamento. No HTTP, o
+ * cliente não bloqueante mantém uma requisição em andamento por conexão. São reportados a vazão e as respostas com erro.
+ * <p>
+ * Parâmetros (propriedades de sistema): {@code carga.conexoes} (padrão 64), {@code carga.profundidade} (padrão 32),
+ * {@code carga.requisicoes} (padrão 200000) e {@code carga.threads-cliente} (padrão 2).
+ * Execução: {@code ./gradlew cargaProtocoloBinario}.
+ */
+public class VazaoProtocoloBinario {
+	
+	private static final int CONEXOES = Integer.getInteger("carga.conexoes", 64);
+	
+	private static final int PROFUNDIDADE = Integer.getInteger("carga.profundidade", 32);
+	
+	private static final int REQUISICOES = Integer.getInteger("carga.requisicoes", 200_000);
+	
+	private static final int THREADS_CLIENTE = Integer.getInteger("carga.threads-cliente", 2);
+	
+	private static final int AQUECIMENTO = Math.min(REQUISICOES, 50_000);
+	
+	private static final String TERMINAL = "ATM-CARGA";
+	
+	private static final String FORMATO_LINHA = "%-10s %10d %12d %12.0f %10d";
+	
+	public static void main(String[] args) throws Exception {
+		ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CaixaApplication.class)
+				.properties("server.port=0", "server.address=127.0.0.1", "spring.main.banner-mode=off", "logging.level.root=WARN",
+						"caixa.admissao.habilitado=false", "caixa.swagger.habilitado=false")
+				// argumentos, e não propriedades padrão, para prevalecer sobre o application.properties
+				.run("--caixa.protocolo-binario.habilitado=true", "--caixa.protocolo-binario.endereco=127.0.0.1",
+						"--caixa.protocolo-binario.porta=0");
+		ConnectionProvider conexoes = ConnectionProvider.builder("protocolo-binario").maxConnections(CONEXOES)
+				.pendingAcquireMaxCount(-1).pendingAcquireTimeout(Duration.ofMinutes(1)).build();
+		
+		try {
+			ConjuntoCedulas conjunto = contexto.getBean(CaixaEletronicoOperationService.class).getConjuntoCedulas();
+			int[] estoque = new int[TipoCedulaEnum.values().length];
+			for (int i = 0; i < conjunto.getQuantidadeTipos(); i++) {
+				estoque[conjunto.getTipo(i).ordinal()] = 1_000_000_000;
+			}
+			contexto.getBean(RegistroTerminaisService.class).cadastrar(TERMINAL, new EstoqueCedulas(estoque));
+			
+			int portaBinaria = contexto.getBean(ServidorBinarioTerminais.class).getPorta();
+			int portaHttp = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			HttpClient cliente = HttpClient.create(conexoes).baseUrl("http://127.0.0.1:" + portaHttp + CaixaEletronicoRest.PATH);
+			
+			medirBinario(portaBinaria, PROFUNDIDADE, AQUECIMENTO);
+			dispararHttp(cliente, AQUECIMENTO);
+			
+			System.out.println(String.format("%-10s %10s %12s %12s %10s", "variante", "conexões", "profundidade", "req/s", "erros"));
+			
+			long inicio = System.nanoTime();
+			long erros = medirBinario(portaBinaria, PROFUNDIDADE, REQUISICOES);
+			System.out.println(String.format(FORMATO_LINHA, "binário", CONEXOES, PROFUNDIDADE, REQUISICOES / segundos(inicio), erros));
+			
+			inicio = System.nanoTime();
+			erros = medirBinario(portaBinaria, 1, REQUISICOES);
+			System.out.println(String.format(FORMATO_LINHA, "binário", CONEXOES, 1, REQUISICOES / segundos(inicio), erros));
+			
+			inicio = System.nanoTime();
+			erros = dispararHttp(cliente, REQUISICOES);
+			System.out.println(String.format(FORMATO_LINHA, "http", CONEXOES, 1, REQUISICOES / segundos(inicio), erros));
+		} finally {
+			conexoes.disposeLater().block();
+			contexto.close();
+		}
+		System.exit(0);
+	}
+	
+	/**
+	 * Divide as conexões entre as threads do cliente; cada thread envia um bloco de requisições em cada uma das suas
+	 * conexões e só então lê as respostas, até completar a sua parte das requisições.
+	 * @return Quantidade de respostas recusadas ou fora de ordem.
+	 */
+	private static long medirBinario(int porta, int profundidade, int quantidade) throws Exception {
+		AtomicLong erros = new AtomicLong();
+		AtomicInteger restantes = new AtomicInteger(quantidade);
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < THREADS_CLIENTE; t++) {
+			int conexoesDaThread = CONEXOES / THREADS_CLIENTE + (t < CONEXOES % THREADS_CLIENTE ? 1 : 0);
+			Thread thread = new Thread(() -> {
+				try {
+					erros.addAndGet(executarBinario(porta, conexoesDaThread, profundidade, restantes));
+				} catch (IOException e) {
+					erros.addAndGet(restantes.getAndSet(0));
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return erros.get();
+	}
+	
+	private static long executarBinario(int porta, int quantidadeConexoes, int profundidade, AtomicInteger restantes) throws IOException {
+		SocketChannel[] canais = new SocketChannel[quantidadeConexoes];
+		ByteBuffer requisicoes = ByteBuffer.allocateDirect(profundidade * ProtocoloBinarioTerminal.TAMANHO_REQUISICAO);
+		ByteBuffer respostas = ByteBuffer.allocateDirect(profundidade * ProtocoloBinarioTerminal.TAMANHO_RESPOSTA);
+		int[] enviadas = new int[quantidadeConexoes];
+		long erros = 0;
+		int rastreio = 0;
+		
+		try {
+			for (int c = 0; c < canais.length; c++) {
+				canais[c] = SocketChannel.open(new InetSocketAddress("127.0.0.1", porta));
+				canais[c].socket().setTcpNoDelay(true);
+			}
+			
+			while (true) {
+				int emAndamento = 0;
+				for (int c = 0; c < canais.length; c++) {
+					int bloco = Math.min(profundidade, Math.max(0, restantes.getAndAdd(-profundidade)));
+					enviadas[c] = bloco;
+					if (bloco == 0) {
+						continue;
+					}
+					requisicoes.clear();
+					for (int n = 0; n < bloco; n++) {
+						ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_SAQUE_TERMINAL, null,
+								rastreio + n, 100L * valor(rastreio + n), TERMINAL);
+					}
+					requisicoes.flip();
+					while (requisicoes.hasRemaining()) {
+						canais[c].write(requisicoes);
+					}
+					emAndamento += bloco;
+				}
+				if (emAndamento == 0) {
+					return erros;
+				}
+				
+				for (int c = 0; c < canais.length; c++) {
+					if (enviadas[c] == 0) {
+						continue;
+					}
+					respostas.clear().limit(enviadas[c] * ProtocoloBinarioTerminal.TAMANHO_RESPOSTA);
+					while (respostas.hasRemaining()) {
+						if (canais[c].read(respostas) < 0) {
+							throw new IOException("Conexão encerrada pelo servidor");
+						}
+					}
+					respostas.flip();
+					for (int n = 0; n < enviadas[c]; n++) {
+						int posicao = n * ProtocoloBinarioTerminal.TAMANHO_RESPOSTA;
+						if (respostas.getShort(posicao + 2) != CodigoRespostaTerminalEnum.APROVADO.getCodigo()
+								|| respostas.getInt(posicao + 4) != rastreio + n) {
+							erros++;
+						}
+					}
+				}
+				rastreio += profundidade;
+			}
+		} finally {
+			for (SocketChannel canal : canais) {
+				if (canal != null) {
+					canal.close();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Envia os saques mantendo uma requisição em andamento por conexão.
+	 * @return Quantidade de respostas com erro.
+	 */
+	private static long dispararHttp(HttpClient cliente, int quantidade) {
+		AtomicLong erros = new AtomicLong();
+		Flux.range(0, quantidade)
+				.flatMap(i -> cliente.headers(cabecalhos -> cabecalhos.set(HttpHeaderNames.CONTENT_LENGTH, 0)).post()
+						.uri(CaixaEletronicoRest.PATH_SAQUE_TERMINAL.replace("{id-terminal}", TERMINAL).replace("{valor-saque}", Long.toString(valor(i))))
+						.responseSingle((resposta, corpo) -> corpo.asByteArray().defaultIfEmpty(new byte[0])
+								.map(bytes -> resposta.status().code()))
+						.onErrorResume(erro -> Mono.just(-1))
+						.doOnNext(status -> {
+							if (status != 200) {
+								erros.incrementAndGet();
+							}
+						}), CONEXOES)
+				.blockLast();
+		return erros.get();
+	}
+	
+	/**
+	 * Valores de saque em reais, múltiplos de 10 entre 10 e 1000.
+	 */
+	private static long valor(int i) {
+		return 10L * (1 + (i * 7919L) % 100);
+	}
+	
+	private static double segundos(long inicio) {
+		return (System.nanoTime() - inicio) / 1e9;
+	}
+}
@@ -0,0 +1,28 @@
+package com.zenvia.challenge.caixa.enums;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark da ordenação decrescente dos tipos de cédula, que não depende do valor do saque.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TipoCedulaEnumBenchmark {
+
+	@Benchmark
+	public List<TipoCedulaEnum> getDecrescentValues() {
+		return TipoCedulaEnum.getDecrescentValues();
+	}
+}
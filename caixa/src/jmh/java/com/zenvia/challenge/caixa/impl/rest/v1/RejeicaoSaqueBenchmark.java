@@ -0,0 +1,82 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessExceptionHandler;
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+import com.zenvia.challenge.caixa.config.CacheRespostasProperties;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+/**
+ * Vazão de requisições do {@code calcula-cedulas} pelo DispatcherServlet (MockMvc, sem rede), em requisições por segundo.
+ * <p>
+ * {@code INVALIDOS} reproduz o tráfego de retentativas, digitação errada e varreduras: valores zerados, negativos,
+ * abaixo do mínimo, não múltiplos de 10,00, com centavos e, a cada oitava requisição, texto que não é um número.
+ * {@code PEQUENOS} serve de controle para o caminho de sucesso.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RejeicaoSaqueBenchmark {
+	
+	private static final int MASCARA_INDICE = DistribuicaoValoresSaque.QUANTIDADE_VALORES - 1;
+	
+	private static final String[] VALORES_MALFORMADOS = { "dez", "1O0", "100reais", "--10", "12.3.4", "0x64", "1e", "NaN" };
+	
+	@Param({"INVALIDOS", "PEQUENOS"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	private MockMvc mvc;
+	
+	private String[] uris;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		// sem o contexto Spring Boot o logging fica em DEBUG, e cada requisição rejeitada seria registrada
+		LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+		
+		CaixaEletronicoOperationService operationService = new CaixaEletronicoOperationService(new SaqueService(), new RegistroTerminaisService());
+		mvc = MockMvcBuilders.standaloneSetup(new CaixaEletronicoRest(operationService, null, new CacheRespostasProperties()))
+				.setControllerAdvice(new BusinessExceptionHandler())
+				.build();
+		
+		String[] valores = distribuicao.gerarValoresTexto();
+		uris = new String[valores.length];
+		for (int i = 0; i < valores.length; i++) {
+			String valor = distribuicao == DistribuicaoValoresSaque.INVALIDOS && (i & 7) == 7
+					? VALORES_MALFORMADOS[(i >> 3) % VALORES_MALFORMADOS.length]
+					: valores[i];
+			uris[i] = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS.replace("{valor-saque}", valor);
+		}
+	}
+	
+	@Benchmark
+	public int calcularCedulas() throws Exception {
+		return mvc.perform(get(uris[indice++ & MASCARA_INDICE])).andReturn().getResponse().getStatus();
+	}
+}
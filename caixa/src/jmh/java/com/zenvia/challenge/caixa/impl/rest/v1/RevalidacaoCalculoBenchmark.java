@@ -0,0 +1,86 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessExceptionHandler;
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+import com.zenvia.challenge.caixa.config.CacheRespostasProperties;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+/**
+ * Vazão do {@code calcula-cedulas} pelo DispatcherServlet (MockMvc, sem rede), em requisições por segundo:
+ * {@code completa} calcula e serializa a resposta; {@code revalidada} envia a ETag recebida antes em If-None-Match
+ * e recebe 304, como um terminal ou proxy revalidando o seu cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RevalidacaoCalculoBenchmark {
+	
+	private static final int MASCARA_INDICE = DistribuicaoValoresSaque.QUANTIDADE_VALORES - 1;
+	
+	@Param({"PEQUENOS", "ENORMES"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	private MockMvc mvc;
+	
+	private String[] uris;
+	
+	private String[] etags;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() throws Exception {
+		// sem o contexto Spring Boot o logging fica em DEBUG
+		LoggingSystem.get(getClass().getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+		
+		CaixaEletronicoOperationService operationService = new CaixaEletronicoOperationService(new SaqueService(), new RegistroTerminaisService());
+		mvc = MockMvcBuilders.standaloneSetup(new CaixaEletronicoRest(operationService, null, new CacheRespostasProperties()))
+				.setControllerAdvice(new BusinessExceptionHandler())
+				.build();
+		
+		String[] valores = distribuicao.gerarValoresTexto();
+		uris = new String[valores.length];
+		etags = new String[valores.length];
+		for (int i = 0; i < valores.length; i++) {
+			uris[i] = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS.replace("{valor-saque}", valores[i]);
+			etags[i] = mvc.perform(get(uris[i])).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		}
+	}
+	
+	@Benchmark
+	public int completa() throws Exception {
+		return mvc.perform(get(uris[indice++ & MASCARA_INDICE])).andReturn().getResponse().getStatus();
+	}
+	
+	@Benchmark
+	public int revalidada() throws Exception {
+		int i = indice++ & MASCARA_INDICE;
+		return mvc.perform(get(uris[i]).header(HttpHeaders.IF_NONE_MATCH, etags[i])).andReturn().getResponse().getStatus();
+	}
+}
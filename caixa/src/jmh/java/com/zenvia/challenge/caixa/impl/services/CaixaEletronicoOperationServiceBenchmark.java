@@ -0,0 +1,89 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+
+/**
+ * Benchmarks do caminho completo de um saque: {@link CaixaEletronicoOperationService#saque(BigDecimal)}
+ * e a serialização Jackson da resposta {@code List<String>}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CaixaEletronicoOperationServiceBenchmark {
+	
+	private static final int MASCARA_INDICE = DistribuicaoValoresSaque.QUANTIDADE_VALORES - 1;
+	
+	@Param({"PEQUENOS", "CENTENAS_REDONDAS", "ENORMES", "INVALIDOS"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	private CaixaEletronicoOperationService operationService;
+	
+	private ObjectWriter writer;
+	
+	private BigDecimal[] valores;
+	
+	private Object[] respostas;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		operationService = new CaixaEletronicoOperationService(new SaqueService(), new RegistroTerminaisService());
+		writer = new ObjectMapper().writer();
+		valores = distribuicao.gerarValores();
+		respostas = new Object[valores.length];
+		
+		for (int i = 0; i < valores.length; i++) {
+			respostas[i] = saque(valores[i]);
+		}
+	}
+	
+	private int proximoIndice() {
+		return indice++ & MASCARA_INDICE;
+	}
+	
+	private Object saque(BigDecimal valor) {
+		try {
+			return operationService.saque(valor);
+		} catch (BusinessException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Benchmark
+	public Object saque() {
+		return saque(valores[proximoIndice()]);
+	}
+	
+	@Benchmark
+	public byte[] serializarResposta() throws JsonProcessingException {
+		return writer.writeValueAsBytes(respostas[proximoIndice()]);
+	}
+	
+	@Benchmark
+	public byte[] saqueSerializado() throws JsonProcessingException {
+		return writer.writeValueAsBytes(saque(valores[proximoIndice()]));
+	}
+}
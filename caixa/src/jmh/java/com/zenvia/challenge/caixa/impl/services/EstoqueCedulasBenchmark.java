@@ -0,0 +1,73 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Benchmark de contenção: todas as threads disputam o estoque de um único terminal.
+ * Cada operação reserva e cancela, mantendo o estoque constante durante a medição.
+ * A quantidade de threads pode ser alterada com {@code -t}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class EstoqueCedulasBenchmark {
+	
+	private static final int CEDULAS_POR_CASSETE = 1_000_000;
+	
+	private static final BigDecimal VALOR_SAQUE = BigDecimal.valueOf(380);
+	
+	private SaqueService saqueService;
+	
+	private EstoqueCedulas estoque;
+	
+	private int[] composicao;
+	
+	@Setup
+	public void setup() {
+		saqueService = new SaqueService();
+		
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			quantidades[tipoCedula.ordinal()] = CEDULAS_POR_CASSETE;
+		}
+		estoque = new EstoqueCedulas(quantidades);
+		
+		composicao = new int[TipoCedulaEnum.values().length];
+		saqueService.calcularCedulas(VALOR_SAQUE.longValue(), composicao);
+	}
+
+	@Benchmark
+	public boolean reservarECancelar() {
+		ReservaCedulas reserva = estoque.reservar(composicao);
+		return reserva != null && reserva.cancelar();
+	}
+	
+	@Benchmark
+	public boolean reservarSaqueECancelar() {
+		try {
+			return saqueService.reservarSaque(VALOR_SAQUE, estoque).cancelar();
+		} catch (BusinessException e) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Latência de cada estratégia de dispensação ({@link EstrategiaDispensacao#calcular}) sobre um estoque fixo de terminal,
+ * com cassetes equilibrados e com a cédula de 100,00 acabando, para saques pequenos e centenas redondas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EstrategiaDispensacaoBenchmark {
+	
+	private static final int MASCARA_INDICE = DistribuicaoValoresSaque.QUANTIDADE_VALORES - 1;
+	
+	@Param({"MENOR_QUANTIDADE", "TROCO", "EQUILIBRIO", "PRESERVACAO"})
+	private EstrategiaDispensacaoEnum estrategia;
+	
+	@Param({"PEQUENOS", "CENTENAS_REDONDAS"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	/** EQUILIBRADO: 2.000 cédulas de cada tipo; ESCASSA_100: 15 cédulas de 100,00. */
+	@Param({"EQUILIBRADO", "ESCASSA_100"})
+	private String estoque;
+	
+	private EstrategiaDispensacao dispensacao;
+	
+	private long[] valores;
+	
+	private int[] disponiveis;
+	
+	private int[] quantidades;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		dispensacao = new SaqueService().getEstrategia(estrategia);
+		BigDecimal[] amostra = distribuicao.gerarValores();
+		valores = new long[amostra.length];
+		for (int i = 0; i < amostra.length; i++) {
+			valores[i] = amostra[i].longValueExact();
+		}
+		
+		disponiveis = new int[TipoCedulaEnum.values().length];
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.getDecrescentValues()) {
+			disponiveis[tipoCedula.ordinal()] = 2000;
+		}
+		if ("ESCASSA_100".equals(estoque)) {
+			disponiveis[TipoCedulaEnum.CEDULA_100.ordinal()] = 15;
+		}
+		quantidades = new int[TipoCedulaEnum.values().length];
+	}
+	
+	@Benchmark
+	public boolean calcular() {
+		return dispensacao.calcular(valores[indice++ & MASCARA_INDICE], quantidades, disponiveis);
+	}
+}
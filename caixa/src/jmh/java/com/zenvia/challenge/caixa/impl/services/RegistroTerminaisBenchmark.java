@@ -0,0 +1,84 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Vazão de saques com a carga distribuída entre terminais da frota.
+ * Com muitos terminais a vazão deve crescer linearmente com a quantidade de threads; com um único terminal
+ * todas as threads disputam os mesmos contadores. Para medir a escala, executar com {@code -t 1}, {@code -t 2}, {@code -t 4}...
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistroTerminaisBenchmark {
+	
+	private static final int CEDULAS_POR_CASSETE = 1_000_000;
+	
+	private static final BigDecimal VALOR_SAQUE = BigDecimal.valueOf(380);
+	
+	@Param({"1", "64", "20000"})
+	private int quantidadeTerminais;
+	
+	private SaqueService saqueService;
+	
+	private RegistroTerminaisService registroTerminais;
+	
+	private String[] idsTerminais;
+	
+	@Setup
+	public void setup() {
+		saqueService = new SaqueService();
+		registroTerminais = new RegistroTerminaisService();
+		idsTerminais = new String[quantidadeTerminais];
+		
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			quantidades[tipoCedula.ordinal()] = CEDULAS_POR_CASSETE;
+		}
+		
+		for (int i = 0; i < quantidadeTerminais; i++) {
+			idsTerminais[i] = "ATM-" + i;
+			registroTerminais.cadastrar(idsTerminais[i], new EstoqueCedulas(quantidades));
+		}
+	}
+	
+	/**
+	 * Consulta um terminal aleatório e reserva e cancela um saque no seu estoque.
+	 * @return
+	 */
+	@Benchmark
+	public boolean saqueEmTerminalAleatorio() {
+		String idTerminal = idsTerminais[ThreadLocalRandom.current().nextInt(idsTerminais.length)];
+		
+		try {
+			return saqueService.reservarSaque(VALOR_SAQUE, registroTerminais.obter(idTerminal).getEstoque()).cancelar();
+		} catch (BusinessException e) {
+			return false;
+		}
+	}
+	
+	@Benchmark
+	public Terminal consultarTerminal() {
+		return registroTerminais.obter(idsTerminais[ThreadLocalRandom.current().nextInt(idsTerminais.length)]);
+	}
+}
@@ -0,0 +1,94 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.services.RenderizadorResumos.ModeloResumo;
+
+/**
+ * Comparação da renderização de uma linha de resumo pelos modelos compilados de {@link RenderizadorResumos}
+ * com a montagem anterior por {@link StringBuilder} a cada chamada.
+ * <p>
+ * {@code quantidadeMaxima} 16 mantém todas as quantidades nas linhas prontas; 100000 força a montagem sob demanda.
+ * Com {@code -prof gc} a alocação por operação fica evidente: zero nas linhas prontas e uma única String fora delas.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderizadorResumosBenchmark {
+	
+	private static final int QUANTIDADE_CASOS = 1024;
+	
+	private static final int MASCARA_INDICE = QUANTIDADE_CASOS - 1;
+	
+	@Param({"16", "100000"})
+	private int quantidadeMaxima;
+	
+	@Param({"pt-BR", "en"})
+	private String idioma;
+	
+	private ModeloResumo modelo;
+	
+	private TipoCedulaEnum[] tipos;
+	
+	private int[] quantidades;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		modelo = new RenderizadorResumos().getModelo(Locale.forLanguageTag(idioma));
+		tipos = new TipoCedulaEnum[QUANTIDADE_CASOS];
+		quantidades = new int[QUANTIDADE_CASOS];
+		
+		TipoCedulaEnum[] valores = TipoCedulaEnum.values();
+		Random aleatorio = new Random(42);
+		for (int i = 0; i < QUANTIDADE_CASOS; i++) {
+			tipos[i] = valores[aleatorio.nextInt(valores.length)];
+			quantidades[i] = 1 + aleatorio.nextInt(quantidadeMaxima);
+		}
+	}
+	
+	/**
+	 * Montagem da linha como era feita em {@code SaqueService.gerarResumo} antes dos modelos compilados (apenas português).
+	 */
+	private static String gerarResumoComStringBuilder(TipoCedulaEnum tipoCedula, Number quantidadeDeCedulas) {
+		StringBuilder resumo = new StringBuilder("Entregar ");
+		
+		resumo.append(quantidadeDeCedulas);
+		resumo.append(" cédula(s) de R$");
+		resumo.append(tipoCedula.getValorFaceCedula());
+		resumo.append(",00.");
+
+		return resumo.toString();
+	}
+	
+	@Benchmark
+	public String stringBuilderPorChamada() {
+		int i = indice++ & MASCARA_INDICE;
+		return gerarResumoComStringBuilder(tipos[i], quantidades[i]);
+	}
+	
+	@Benchmark
+	public String modeloCompilado() {
+		int i = indice++ & MASCARA_INDICE;
+		return modelo.renderizar(tipos[i], quantidades[i]);
+	}
+}
@@ -0,0 +1,109 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.benchmark.DistribuicaoValoresSaque;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Benchmarks de cada etapa do processamento de um saque em {@link SaqueService}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SaqueServiceBenchmark {
+	
+	private static final int MASCARA_INDICE = DistribuicaoValoresSaque.QUANTIDADE_VALORES - 1;
+	
+	@Param({"PEQUENOS", "CENTENAS_REDONDAS", "ENORMES", "INVALIDOS"})
+	private DistribuicaoValoresSaque distribuicao;
+	
+	private SaqueService saqueService;
+	
+	private BigDecimal[] valores;
+	
+	private TipoCedulaEnum[] tiposResumo;
+	
+	private int[] quantidadesResumo;
+	
+	private int indice;
+	
+	@Setup
+	public void setup() {
+		saqueService = new SaqueService();
+		valores = distribuicao.gerarValores();
+		tiposResumo = new TipoCedulaEnum[valores.length];
+		quantidadesResumo = new int[valores.length];
+		
+		// gerarResumo recebe a maior cédula da composição de cada valor (ou uma cédula de 10,00 para valores inválidos)
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		for (int i = 0; i < valores.length; i++) {
+			tiposResumo[i] = TipoCedulaEnum.CEDULA_10;
+			quantidadesResumo[i] = 1;
+			
+			long valor = saqueService.converterParaValorPrimitivo(valores[i]);
+			if (valor > 0) {
+				saqueService.calcularCedulas(valor, quantidades);
+				for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.getDecrescentValues()) {
+					if (quantidades[tipoCedula.ordinal()] > 0) {
+						tiposResumo[i] = tipoCedula;
+						quantidadesResumo[i] = quantidades[tipoCedula.ordinal()];
+						break;
+					}
+				}
+			}
+		}
+	}
+	
+	private int proximoIndice() {
+		return indice++ & MASCARA_INDICE;
+	}
+
+	@Benchmark
+	public Object processarSaque() {
+		try {
+			return saqueService.processarSaque(valores[proximoIndice()]);
+		} catch (BusinessException e) {
+			return e.getMessage();
+		}
+	}
+	
+	@Benchmark
+	public Object validarValorPretendidoSaque() {
+		try {
+			saqueService.validarValorPretendidoSaque(valores[proximoIndice()]);
+			return null;
+		} catch (BusinessException e) {
+			return e.getMessage();
+		}
+	}
+	
+	@Benchmark
+	public List<String> calcularCedulas() {
+		return saqueService.calcularCedulas(valores[proximoIndice()].abs());
+	}
+	
+	@Benchmark
+	public String gerarResumo() {
+		int i = proximoIndice();
+		return saqueService.gerarResumo(tiposResumo[i], quantidadesResumo[i]);
+	}
+}
@@ -0,0 +1,124 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.EsgotamentoTerminal;
+
+/**
+ * Simulação de um mês de saques (2.000 terminais, 50 saques por terminal por dia, 3 milhões de registros) a partir de
+ * uma trilha gerada com semente fixa, em CSV e no formato binário. Cada execução percorre a trilha inteira com o pool
+ * comum; o tempo inclui a leitura mapeada, a dispensação e a montagem dos resultados.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SimuladorEsgotamentoBenchmark {
+	
+	private static final int TERMINAIS = 2000;
+	
+	private static final int DIAS = 30;
+	
+	private static final int SAQUES_POR_DIA = 50;
+	
+	private static final long INICIO = 1583020800000L;
+	
+	private static final long MILISSEGUNDOS_POR_SAQUE = 86_400_000L / SAQUES_POR_DIA;
+	
+	@Param({"BINARIO", "CSV"})
+	private String formato;
+	
+	@Param({"1500"})
+	private int abastecimento;
+	
+	private Path trilha;
+	
+	private SimuladorEsgotamento simulador;
+	
+	private int[] abastecimentos;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		trilha = Files.createTempFile("trilha-", "BINARIO".equals(formato) ? ".bin" : ".csv");
+		Random random = new Random(20200301L);
+		
+		if ("BINARIO".equals(formato)) {
+			try (TrilhaSaques.Gravador gravador = new TrilhaSaques.Gravador(trilha)) {
+				gerar(random, (terminal, instante, valor) -> gravador.gravar(terminal, instante, valor * 100));
+			}
+		} else {
+			try (BufferedWriter saida = Files.newBufferedWriter(trilha, StandardCharsets.UTF_8)) {
+				saida.write("terminal,instante,valor\n");
+				gerar(random, (terminal, instante, valor) -> saida.append(terminal).append(',').append(Long.toString(instante))
+						.append(',').append(Integer.toString(valor)).append('\n'));
+			}
+		}
+		
+		simulador = new SimuladorEsgotamento(new SaqueService(), ForkJoinPool.commonPool());
+		abastecimentos = new int[TipoCedulaEnum.values().length];
+		Arrays.fill(abastecimentos, abastecimento);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(trilha);
+	}
+	
+	@Benchmark
+	public List<EsgotamentoTerminal> simularMes() throws IOException {
+		return simulador.simular(Collections.singletonList(trilha), abastecimentos);
+	}
+	
+	/**
+	 * Gera os saques em ordem cronológica; os valores, em reais, são em maioria múltiplos de 10 até 500, com alguns
+	 * valores não pagáveis.
+	 */
+	private static void gerar(Random random, Saque saque) throws IOException {
+		String[] terminais = new String[TERMINAIS];
+		for (int i = 0; i < TERMINAIS; i++) {
+			terminais[i] = "ATM-" + i;
+		}
+		
+		for (long n = 0; n < (long) DIAS * SAQUES_POR_DIA; n++) {
+			long instante = INICIO + n * MILISSEGUNDOS_POR_SAQUE;
+			for (int i = 0; i < TERMINAIS; i++) {
+				int valor = random.nextInt(20) == 0 ? 5 + random.nextInt(500) : 10 * (1 + random.nextInt(50));
+				saque.gravar(terminais[i], instante + i, valor);
+			}
+		}
+	}
+	
+	@FunctionalInterface
+	private interface Saque {
+		
+		void gravar(String terminal, long instante, int valor) throws IOException;
+	}
+}
@@ -0,0 +1,73 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Compara o cálculo do solucionador montado para cada conjunto de cédulas (guloso para o padrão, tabelado para as
+ * cédulas de 2,00 a 200,00) com a programação dinâmica que seria necessária, a cada saque, sem a tabela.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolucionadorCedulasBenchmark {
+	
+	@Param({"10,20,50,100", "2,5,10,20,50,100,200"})
+	private String cedulas;
+	
+	@Param({"380", "98736"})
+	private long valorSaque;
+	
+	private SolucionadorCedulas solucionador;
+	
+	private int[] valoresFace;
+	
+	private int[] minimo;
+	
+	private int[] quantidades;
+	
+	@Setup
+	public void setup() {
+		ConjuntoCedulas conjunto = ConjuntoCedulas.de(Arrays.stream(cedulas.split(",")).map(Integer::valueOf).toArray(Integer[]::new));
+		solucionador = SolucionadorCedulas.compilar(conjunto);
+		valoresFace = Arrays.stream(conjunto.getTiposDecrescentes()).mapToInt(TipoCedulaEnum::getValorFaceCedula).toArray();
+		minimo = new int[(int) valorSaque + 1];
+		quantidades = new int[TipoCedulaEnum.values().length];
+	}
+	
+	@Benchmark
+	public long solucionadorCompilado() {
+		return solucionador.calcular(valorSaque, quantidades);
+	}
+	
+	@Benchmark
+	public int programacaoDinamicaPorSaque() {
+		Arrays.fill(minimo, 1, minimo.length, Integer.MAX_VALUE);
+		for (int valor = 1; valor < minimo.length; valor++) {
+			for (int valorFace : valoresFace) {
+				if (valorFace <= valor && minimo[valor - valorFace] != Integer.MAX_VALUE) {
+					minimo[valor] = Math.min(minimo[valor], minimo[valor - valorFace] + 1);
+				}
+			}
+		}
+		return minimo[minimo.length - 1];
+	}
+}
@@ -0,0 +1,62 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Compara a latência da decomposição gulosa limitada ao estoque com a da busca exata usada quando ela falha.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolucionadorCedulasLimitadasBenchmark {
+	
+	/** Valores que a decomposição gulosa não paga com o estoque abaixo (sem cédulas de 10,00 e com uma de 50,00). */
+	@Param({"60", "1130", "98730"})
+	private long valorSaque;
+	
+	private SaqueService saqueService;
+	
+	private SolucionadorCedulasLimitadas solucionador;
+	
+	private int[] disponiveis;
+	
+	private int[] quantidades;
+	
+	@Setup
+	public void setup() {
+		saqueService = new SaqueService();
+		solucionador = new SolucionadorCedulasLimitadas(TipoCedulaEnum.getDecrescentValues().toArray(new TipoCedulaEnum[0]));
+		disponiveis = new int[TipoCedulaEnum.values().length];
+		disponiveis[TipoCedulaEnum.CEDULA_100.ordinal()] = 2000;
+		disponiveis[TipoCedulaEnum.CEDULA_50.ordinal()] = 1;
+		disponiveis[TipoCedulaEnum.CEDULA_20.ordinal()] = 2000;
+		quantidades = new int[TipoCedulaEnum.values().length];
+	}
+	
+	@Benchmark
+	public long decomposicaoGulosa() {
+		return saqueService.calcularCedulas(valorSaque, quantidades, disponiveis);
+	}
+
+	@Benchmark
+	public boolean buscaExata() {
+		return solucionador.resolver(valorSaque, disponiveis, quantidades);
+	}
+}
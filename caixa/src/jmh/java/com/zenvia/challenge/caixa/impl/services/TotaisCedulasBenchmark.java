@@ -0,0 +1,83 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.model.FechamentoCedulas;
+
+/**
+ * Custo de somar um saque aos totais da conciliação com três threads registrando saques, sem e com uma quarta thread
+ * tirando fotografias dos totais sem pausa ({@code comConsulta}, o pior caso para os saques). O tempo do registro
+ * nos dois grupos deve ser equivalente: a fotografia troca o segmento ativo e não bloqueia os saques.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class TotaisCedulasBenchmark {
+
+	@Param({"64"})
+	private int quantidadeTerminais;
+
+	private TotaisCedulasService totais;
+
+	private String[] idsTerminais;
+
+	private ComposicaoSaque saque;
+
+	@Setup
+	public void setup() {
+		totais = TotaisCedulasService.semViradaAutomatica(ConjuntoCedulas.PADRAO);
+		idsTerminais = new String[quantidadeTerminais];
+		for (int i = 0; i < quantidadeTerminais; i++) {
+			idsTerminais[i] = "ATM-" + i;
+		}
+
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = 3;
+		quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = 1;
+		quantidades[TipoCedulaEnum.CEDULA_20.ordinal()] = 1;
+		quantidades[TipoCedulaEnum.CEDULA_10.ordinal()] = 1;
+		saque = new ComposicaoSaque(quantidades, ConjuntoCedulas.PADRAO);
+	}
+
+	@Benchmark
+	@Group("semConsulta")
+	@GroupThreads(3)
+	public void registrarSemConsulta() {
+		totais.registrar(idsTerminais[ThreadLocalRandom.current().nextInt(idsTerminais.length)], saque);
+	}
+
+	@Benchmark
+	@Group("comConsulta")
+	@GroupThreads(3)
+	public void registrarComConsulta() {
+		totais.registrar(idsTerminais[ThreadLocalRandom.current().nextInt(idsTerminais.length)], saque);
+	}
+
+	@Benchmark
+	@Group("comConsulta")
+	@GroupThreads(1)
+	public FechamentoCedulas consultar() {
+		return totais.consultar();
+	}
+}
@@ -0,0 +1,92 @@
+package com.zenvia.challenge.caixa.arch.admissao;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Controle de admissão na frente da API de operação: cada cliente tem o seu balde de fichas no
+ * {@link LimitadorRequisicoes}, e uma requisição sem ficha recebe 429 com {@code Retry-After} diretamente no filtro,
+ * sem passar pelo DispatcherServlet nem pelos serviços.
+ * <p>
+ * O cliente é identificado pelo cabeçalho {@value #HEADER_CHAVE_API}; na falta dele, pelo terminal do caminho
+ * ({@code /terminais/{id-terminal}/...}) e, por último, pelo endereço de origem.
+ */
+public class FiltroAdmissao extends OncePerRequestFilter {
+	
+	public static final String HEADER_CHAVE_API = "X-Api-Key";
+	
+	public static final String MSG_LIMITE_REQUISICOES_EXCEDIDO = "Limite de requisições do cliente excedido; tente novamente mais tarde.";
+	
+	public static final String METRICA_REJEICOES = "caixa.admissao.rejeicoes";
+	
+	private static final String SEGMENTO_TERMINAIS = "/terminais/";
+	
+	private static final byte[] CORPO_LIMITE_EXCEDIDO = MSG_LIMITE_REQUISICOES_EXCEDIDO.getBytes(StandardCharsets.UTF_8);
+	
+	private static final String CONTENT_TYPE_LIMITE_EXCEDIDO = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+	
+	private final LimitadorRequisicoes limitador;
+	
+	private final Counter rejeicoes;
+	
+	public FiltroAdmissao(LimitadorRequisicoes limitador, MeterRegistry registry) {
+		this.limitador = limitador;
+		this.rejeicoes = Counter.builder(METRICA_REJEICOES)
+				.description("Requisições recusadas pelo limite de requisições por cliente.")
+				.register(registry);
+	}
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long espera = limitador.admitir(identificarCliente(request));
+		
+		if (espera == 0) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		rejeicoes.increment();
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1L, (espera + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+		response.setContentType(CONTENT_TYPE_LIMITE_EXCEDIDO);
+		response.setContentLength(CORPO_LIMITE_EXCEDIDO.length);
+		response.getOutputStream().write(CORPO_LIMITE_EXCEDIDO);
+	}
+	
+	/**
+	 * Identificador do cliente da requisição, com um prefixo por origem para que uma chave de API não se confunda com um terminal.
+	 * @param request
+	 * @return
+	 */
+	static String identificarCliente(HttpServletRequest request) {
+		String chave = request.getHeader(HEADER_CHAVE_API);
+		if (chave != null && !chave.isEmpty()) {
+			return "chave:" + chave;
+		}
+		
+		String uri = request.getRequestURI();
+		int inicio = uri.indexOf(SEGMENTO_TERMINAIS);
+		if (inicio >= 0) {
+			inicio += SEGMENTO_TERMINAIS.length();
+			int fim = uri.indexOf('/', inicio);
+			return "terminal:" + (fim < 0 ? uri.substring(inicio) : uri.substring(inicio, fim));
+		}
+		
+		return "ip:" + request.getRemoteAddr();
+	}
+}
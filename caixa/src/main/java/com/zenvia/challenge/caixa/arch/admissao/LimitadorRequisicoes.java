@@ -0,0 +1,145 @@
+package com.zenvia.challenge.caixa.arch.admissao;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Controle de admissão por cliente com baldes de fichas, sem bloqueio.
+ * <p>
+ * Cada balde é um único {@link AtomicLong} com o instante teórico da próxima chegada (GCRA): admitir uma requisição
+ * avança esse instante em um intervalo de emissão ({@code 1 s / taxa}) com um único CAS, e a requisição é recusada
+ * quando o instante ficaria mais de {@code capacidade} intervalos à frente do relógio. O resultado é o de um balde de
+ * {@code capacidade} fichas reposto à taxa configurada, sem um segundo campo para a quantidade de fichas.
+ * <p>
+ * Um balde cujo instante já passou está cheio e não guarda informação além da sua existência: as varreduras, feitas
+ * a cada intervalo por uma única thread de requisição eleita por CAS, removem esses baldes, que são recriados idênticos
+ * na próxima requisição do cliente. Assim a memória fica limitada aos clientes ativos nos últimos
+ * {@code capacidade / taxa} segundos mais um intervalo de varredura.
+ */
+public class LimitadorRequisicoes {
+	
+	/**
+	 * Marca de um balde retirado do mapa por uma varredura; quem o encontra busca (ou cria) o balde atual do cliente.
+	 */
+	private static final long REMOVIDO = Long.MIN_VALUE;
+	
+	private final ConcurrentHashMap<String, AtomicLong> baldes = new ConcurrentHashMap<>();
+	
+	private final long intervaloEmissao;
+	
+	private final long tolerancia;
+	
+	private final long intervaloVarredura;
+	
+	private final AtomicLong proximaVarredura;
+	
+	private final LongSupplier relogio;
+	
+	/**
+	 * @param capacidade Quantidade máxima de requisições admitidas em rajada por um cliente.
+	 * @param requisicoesPorSegundo Taxa de reposição das fichas de cada cliente.
+	 * @param intervaloVarredura Intervalo entre as varreduras dos baldes ociosos.
+	 * @param unidade Unidade do intervalo de varredura.
+	 */
+	public LimitadorRequisicoes(int capacidade, double requisicoesPorSegundo, long intervaloVarredura, TimeUnit unidade) {
+		this(capacidade, requisicoesPorSegundo, unidade.toNanos(intervaloVarredura), System::nanoTime);
+	}
+	
+	/**
+	 * @param capacidade
+	 * @param requisicoesPorSegundo
+	 * @param intervaloVarreduraNanos
+	 * @param relogio Fonte de tempo em nanossegundos, como {@link System#nanoTime()}.
+	 */
+	public LimitadorRequisicoes(int capacidade, double requisicoesPorSegundo, long intervaloVarreduraNanos, LongSupplier relogio) {
+		if (capacidade < 1 || !(requisicoesPorSegundo > 0) || intervaloVarreduraNanos < 0) {
+			throw new IllegalArgumentException("Capacidade, taxa e intervalo de varredura devem ser positivos.");
+		}
+		
+		this.intervaloEmissao = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / requisicoesPorSegundo));
+		this.tolerancia = capacidade * intervaloEmissao;
+		this.intervaloVarredura = intervaloVarreduraNanos;
+		this.relogio = relogio;
+		this.proximaVarredura = new AtomicLong(relogio.getAsLong() + intervaloVarreduraNanos);
+	}
+	
+	/**
+	 * Consome uma ficha do cliente, se houver.
+	 * @param cliente Identificador do cliente (chave de API, terminal ou endereço).
+	 * @return Zero se a requisição foi admitida; caso contrário, a espera em nanossegundos até a próxima ficha.
+	 */
+	public long admitir(String cliente) {
+		long agora = relogio.getAsLong();
+		varrerSeNecessario(agora);
+		
+		while (true) {
+			AtomicLong balde = baldes.get(cliente);
+			if (balde == null) {
+				// balde novo, cheio, já com a ficha desta requisição consumida
+				balde = baldes.putIfAbsent(cliente, new AtomicLong(agora + intervaloEmissao));
+				if (balde == null) {
+					return 0L;
+				}
+			}
+			
+			long instante;
+			long proximo;
+			do {
+				instante = balde.get();
+				if (instante == REMOVIDO) {
+					break;
+				}
+				
+				proximo = Math.max(instante, agora) + intervaloEmissao;
+				long excesso = proximo - agora - tolerancia;
+				if (excesso > 0) {
+					return excesso;
+				}
+			} while (!balde.compareAndSet(instante, proximo));
+			
+			if (instante != REMOVIDO) {
+				return 0L;
+			}
+			baldes.remove(cliente, balde);
+		}
+	}
+	
+	/**
+	 * Remove os baldes cheios.
+	 * @return Quantidade de baldes removidos.
+	 */
+	public int varrer() {
+		return varrer(relogio.getAsLong());
+	}
+	
+	public int getQuantidadeClientes() {
+		return baldes.size();
+	}
+	
+	private void varrerSeNecessario(long agora) {
+		long prevista = proximaVarredura.get();
+		if (agora - prevista >= 0 && proximaVarredura.compareAndSet(prevista, agora + intervaloVarredura)) {
+			varrer(agora);
+		}
+	}
+	
+	private int varrer(long agora) {
+		int removidos = 0;
+		
+		for (Map.Entry<String, AtomicLong> entrada : baldes.entrySet()) {
+			AtomicLong balde = entrada.getValue();
+			long instante = balde.get();
+			
+			// o CAS para REMOVIDO falha se o cliente consumiu uma ficha depois da leitura, e o balde fica no mapa
+			if (instante != REMOVIDO && instante - agora <= 0 && balde.compareAndSet(instante, REMOVIDO)) {
+				baldes.remove(entrada.getKey(), balde);
+				removidos++;
+			}
+		}
+		
+		return removidos;
+	}
+}
@@ -0,0 +1,226 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+import com.zenvia.challenge.caixa.enums.PoliticaBufferAuditoriaEnum;
+
+/**
+ * Buffer circular de eventos de auditoria com vários produtores (as threads das requisições) e um único consumidor.
+ * <p>
+ * As posições ({@link EventoAuditoria}) são criadas na construção e reaproveitadas a cada volta: publicar um evento
+ * não aloca nem usa locks. O produtor reserva a próxima sequência com uma troca atômica do cursor, preenche a posição
+ * e a marca como publicada gravando nela a sua sequência; o consumidor lê as posições em ordem enquanto a marca
+ * corresponde à sequência esperada e, ao fim de cada lote, libera as posições lidas avançando a sequência consumida.
+ * <p>
+ * O buffer está cheio quando o cursor está uma volta inteira à frente da sequência consumida; nesse caso vale a
+ * {@link PoliticaBufferAuditoriaEnum} configurada.
+ */
+public class AnelAuditoria {
+	
+	/**
+	 * Pausa de um produtor bloqueado entre as verificações de espaço no buffer.
+	 */
+	private static final long ESPERA_BLOQUEIO_NANOS = 50_000;
+	
+	private static final long NAO_RESERVADA = -1;
+	
+	private final EventoAuditoria[] eventos;
+	
+	private final int mascara;
+	
+	/**
+	 * Sequência publicada em cada posição; {@link #NAO_RESERVADA} enquanto a posição não foi usada.
+	 */
+	private final AtomicLongArray publicados;
+	
+	/**
+	 * Próxima sequência a reservar.
+	 */
+	private final AtomicLong cursor = new AtomicLong();
+	
+	/**
+	 * Próxima sequência a consumir: as posições das sequências anteriores estão livres. Gravada apenas pelo consumidor.
+	 */
+	private final AtomicLong consumido = new AtomicLong();
+	
+	private final PoliticaBufferAuditoriaEnum politica;
+	
+	private final int taxaAmostragem;
+	
+	private final AtomicLong contadorAmostragem = new AtomicLong();
+	
+	private final LongAdder descartados = new LongAdder();
+	
+	private final LongAdder naoAmostrados = new LongAdder();
+	
+	private volatile boolean fechado;
+	
+	/**
+	 * @param capacidade Quantidade de posições, arredondada para a potência de 2 seguinte.
+	 * @param politica Comportamento da publicação com o buffer cheio.
+	 * @param taxaAmostragem Com {@link PoliticaBufferAuditoriaEnum#AMOSTRAR}, publica um a cada taxaAmostragem eventos
+	 * a partir de metade da capacidade.
+	 */
+	public AnelAuditoria(int capacidade, PoliticaBufferAuditoriaEnum politica, int taxaAmostragem) {
+		if (capacidade < 2 || capacidade > 1 << 30) {
+			throw new IllegalArgumentException("Capacidade do buffer de auditoria fora do intervalo: " + capacidade);
+		}
+		if (taxaAmostragem < 1) {
+			throw new IllegalArgumentException("Taxa de amostragem deve ser maior que zero: " + taxaAmostragem);
+		}
+		int tamanho = Integer.bitCount(capacidade) == 1 ? capacidade : Integer.highestOneBit(capacidade) << 1;
+		
+		this.eventos = new EventoAuditoria[tamanho];
+		this.publicados = new AtomicLongArray(tamanho);
+		for (int i = 0; i < tamanho; i++) {
+			eventos[i] = new EventoAuditoria();
+			publicados.set(i, NAO_RESERVADA);
+		}
+		this.mascara = tamanho - 1;
+		this.politica = politica;
+		this.taxaAmostragem = taxaAmostragem;
+	}
+	
+	/**
+	 * Publica um evento.
+	 * @param operacao
+	 * @param terminal Terminal do saque, ou null.
+	 * @param valor Valor em reais, ou {@link EventoAuditoria#VALOR_NAO_PRIMITIVO}.
+	 * @param valorOriginal Valor como recebido, usado quando não há valor em reais.
+	 * @param resultado Cédulas entregues, ou null para uma rejeição.
+	 * @param mensagem Mensagem da rejeição, ou null para um saque atendido.
+	 * @param instante Milissegundos desde a época.
+	 * @param duracaoNanos
+	 * @return false se o evento foi descartado ou não amostrado.
+	 */
+	public boolean publicar(OperacaoAuditadaEnum operacao, String terminal, long valor, Object valorOriginal, Object resultado,
+			String mensagem, long instante, long duracaoNanos) {
+		long sequencia = reservar();
+		if (sequencia == NAO_RESERVADA) {
+			return false;
+		}
+		
+		int posicao = (int) (sequencia & mascara);
+		EventoAuditoria evento = eventos[posicao];
+		evento.sequencia = sequencia;
+		evento.preencher(operacao, terminal, valor, valorOriginal, resultado, mensagem, instante, duracaoNanos);
+		publicados.lazySet(posicao, sequencia);
+		return true;
+	}
+	
+	private long reservar() {
+		boolean amostrado = false;
+		while (true) {
+			if (fechado) {
+				descartados.increment();
+				return NAO_RESERVADA;
+			}
+			
+			long sequencia = cursor.get();
+			long ocupacao = sequencia - consumido.get();
+			if (ocupacao > mascara) {
+				if (politica != PoliticaBufferAuditoriaEnum.BLOQUEAR) {
+					descartados.increment();
+					return NAO_RESERVADA;
+				}
+				LockSupport.parkNanos(ESPERA_BLOQUEIO_NANOS);
+				continue;
+			}
+			
+			if (politica == PoliticaBufferAuditoriaEnum.AMOSTRAR && !amostrado && ocupacao > mascara >> 1) {
+				if (contadorAmostragem.getAndIncrement() % taxaAmostragem != 0) {
+					naoAmostrados.increment();
+					return NAO_RESERVADA;
+				}
+				amostrado = true;
+			}
+			
+			if (cursor.compareAndSet(sequencia, sequencia + 1)) {
+				return sequencia;
+			}
+		}
+	}
+	
+	/**
+	 * Entrega ao leitor, em ordem, os eventos publicados a partir da sequência consumida, e libera as suas posições.
+	 * Deve ser chamado sempre pela mesma thread.
+	 * @param leitor Recebe cada evento; o evento não pode ser guardado após a chamada.
+	 * @param maximo Quantidade máxima de eventos do lote.
+	 * @return A quantidade de eventos lidos.
+	 */
+	public int drenar(Consumer<EventoAuditoria> leitor, int maximo) {
+		long proxima = consumido.get();
+		int lidos = 0;
+		while (lidos < maximo) {
+			int posicao = (int) (proxima & mascara);
+			if (publicados.get(posicao) != proxima) {
+				break;
+			}
+			EventoAuditoria evento = eventos[posicao];
+			leitor.accept(evento);
+			evento.limpar();
+			proxima++;
+			lidos++;
+		}
+		
+		if (lidos > 0) {
+			consumido.lazySet(proxima);
+		}
+		return lidos;
+	}
+	
+	/**
+	 * Recusa as publicações seguintes (contadas como descartadas), inclusive as que esperam espaço no buffer.
+	 */
+	public void fechar() {
+		fechado = true;
+	}
+	
+	/**
+	 * @return true se todos os eventos reservados já foram consumidos.
+	 */
+	public boolean isVazio() {
+		return consumido.get() == cursor.get();
+	}
+	
+	public int getCapacidade() {
+		return eventos.length;
+	}
+	
+	public PoliticaBufferAuditoriaEnum getPolitica() {
+		return politica;
+	}
+	
+	/**
+	 * @return Eventos reservados e ainda não consumidos.
+	 */
+	public long getPendentes() {
+		return cursor.get() - consumido.get();
+	}
+	
+	/**
+	 * @return Eventos publicados desde a criação.
+	 */
+	public long getPublicados() {
+		return cursor.get();
+	}
+	
+	/**
+	 * @return Eventos perdidos por buffer cheio ou fechado.
+	 */
+	public long getDescartados() {
+		return descartados.sum();
+	}
+	
+	/**
+	 * @return Eventos deixados de fora pela amostragem.
+	 */
+	public long getNaoAmostrados() {
+		return naoAmostrados.sum();
+	}
+}
@@ -0,0 +1,86 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Arquivos da trilha de auditoria em um diretório local: cada lote é acrescentado ao arquivo corrente, e um novo arquivo
+ * é aberto quando o lote faria o corrente passar do tamanho máximo. Os nomes começam pelo instante de abertura em UTC,
+ * de modo que a ordem alfabética é a ordem dos eventos. Usado apenas pela thread consumidora.
+ */
+final class ArquivoAuditoriaRotativo implements Closeable {
+	
+	static final String PREFIXO = "auditoria-";
+	
+	static final String EXTENSAO = ".ndjson";
+	
+	private static final DateTimeFormatter FORMATO_NOME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+	
+	private final Path diretorio;
+	
+	private final long tamanhoMaximo;
+	
+	private FileChannel canal;
+	
+	private long tamanho;
+	
+	private int numero;
+	
+	ArquivoAuditoriaRotativo(Path diretorio, long tamanhoMaximo) throws IOException {
+		this.diretorio = Files.createDirectories(diretorio);
+		this.tamanhoMaximo = tamanhoMaximo;
+		abrirProximo();
+	}
+	
+	/**
+	 * Acrescenta os bytes restantes do buffer, sem esperar que cheguem ao disco.
+	 * @param dados
+	 * @throws IOException
+	 */
+	void escrever(ByteBuffer dados) throws IOException {
+		if (tamanho > 0 && tamanho + dados.remaining() > tamanhoMaximo) {
+			canal.force(true);
+			canal.close();
+			abrirProximo();
+		}
+		while (dados.hasRemaining()) {
+			tamanho += canal.write(dados);
+		}
+	}
+	
+	/**
+	 * Aguarda até que os bytes escritos no arquivo corrente estejam em disco.
+	 * @throws IOException
+	 */
+	void sincronizar() throws IOException {
+		canal.force(false);
+	}
+	
+	private void abrirProximo() throws IOException {
+		String instante = FORMATO_NOME.format(Instant.now());
+		Path arquivo;
+		do {
+			arquivo = diretorio.resolve(String.format("%s%s-%04d%s", PREFIXO, instante, numero++, EXTENSAO));
+		} while (Files.exists(arquivo));
+		
+		canal = FileChannel.open(arquivo, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		tamanho = 0;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			canal.force(true);
+		} finally {
+			canal.close();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+
+/**
+ * Posição do {@link AnelAuditoria}, criada uma única vez e preenchida a cada volta do anel. Os campos só podem ser lidos
+ * pelo consumidor entre a publicação e a liberação da posição; fora disso, outra requisição pode estar preenchendo-os.
+ */
+public final class EventoAuditoria {
+	
+	/**
+	 * Valor de {@link #getValor()} quando o valor do saque está em {@link #getValorOriginal()}.
+	 */
+	public static final long VALOR_NAO_PRIMITIVO = Long.MIN_VALUE;
+	
+	long sequencia;
+	
+	OperacaoAuditadaEnum operacao;
+	
+	String terminal;
+	
+	long valor;
+	
+	Object valorOriginal;
+	
+	Object resultado;
+	
+	String mensagem;
+	
+	long instante;
+	
+	long duracaoNanos;
+	
+	EventoAuditoria() {
+	}
+	
+	void preencher(OperacaoAuditadaEnum operacao, String terminal, long valor, Object valorOriginal, Object resultado,
+			String mensagem, long instante, long duracaoNanos) {
+		this.operacao = operacao;
+		this.terminal = terminal;
+		this.valor = valor;
+		this.valorOriginal = valorOriginal;
+		this.resultado = resultado;
+		this.mensagem = mensagem;
+		this.instante = instante;
+		this.duracaoNanos = duracaoNanos;
+	}
+	
+	/**
+	 * Solta as referências do evento já consumido, para que as respostas não fiquem retidas até a próxima volta do anel.
+	 */
+	void limpar() {
+		terminal = null;
+		valorOriginal = null;
+		resultado = null;
+		mensagem = null;
+	}
+	
+	/**
+	 * Ordem de publicação do evento, contando a partir de zero.
+	 * @return
+	 */
+	public long getSequencia() {
+		return sequencia;
+	}
+	
+	public OperacaoAuditadaEnum getOperacao() {
+		return operacao;
+	}
+	
+	/**
+	 * @return O terminal do saque, ou null para os cálculos.
+	 */
+	public String getTerminal() {
+		return terminal;
+	}
+	
+	/**
+	 * @return O valor do saque em reais, ou {@link #VALOR_NAO_PRIMITIVO}.
+	 */
+	public long getValor() {
+		return valor;
+	}
+	
+	/**
+	 * @return O valor do saque como recebido (BigDecimal ou texto), quando não é um valor em reais já convertido.
+	 */
+	public Object getValorOriginal() {
+		return valorOriginal;
+	}
+	
+	/**
+	 * @return As cédulas entregues (mensagens ou composição), ou null para as rejeições.
+	 */
+	public Object getResultado() {
+		return resultado;
+	}
+	
+	/**
+	 * @return A mensagem da rejeição, ou null para os saques atendidos.
+	 */
+	public String getMensagem() {
+		return mensagem;
+	}
+	
+	public boolean isRejeitado() {
+		return mensagem != null;
+	}
+	
+	/**
+	 * @return Milissegundos desde a época.
+	 */
+	public long getInstante() {
+		return instante;
+	}
+	
+	public long getDuracaoNanos() {
+		return duracaoNanos;
+	}
+}
@@ -0,0 +1,403 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.config.AuditoriaProperties;
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Trilha de auditoria dos saques: cada cálculo e cada rejeição, com o valor, as cédulas entregues ou a mensagem da
+ * rejeição, o instante e a duração.
+ * <p>
+ * As requisições apenas publicam o evento no {@link AnelAuditoria}, guardando referências ao valor e à resposta que
+ * já existem; uma thread consumidora grava os eventos em lotes, uma linha JSON por evento, nos
+ * {@link ArquivoAuditoriaRotativo arquivos rotativos} do diretório configurado. A gravação chega ao disco no máximo
+ * a cada intervalo de sincronização, e no encerramento os eventos pendentes são gravados e sincronizados antes de
+ * fechar o arquivo. Sem diretório configurado, os eventos são apenas descartados.
+ * <p>
+ * Os eventos publicados, descartados e não amostrados e os perdidos por falha de escrita são expostos na métrica
+ * {@value #METRICA_EVENTOS}.
+ */
+@Component
+public class TrilhaAuditoria {
+	
+	public static final String METRICA_EVENTOS = "caixa.auditoria.eventos";
+	
+	public static final String METRICA_PENDENTES = "caixa.auditoria.pendentes";
+	
+	/**
+	 * Pausa do consumidor quando não há eventos publicados.
+	 */
+	private static final long PAUSA_CONSUMIDOR_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	
+	/**
+	 * Tempo máximo de espera, no encerramento, pela gravação dos eventos pendentes.
+	 */
+	private static final long ESPERA_ENCERRAMENTO_MILISSEGUNDOS = 10_000;
+	
+	private static final int TAMANHO_BUFFER_ESCRITA = 256 * 1024;
+	
+	private static final DateTimeFormatter FORMATO_SEGUNDO = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss").withZone(ZoneOffset.UTC);
+	
+	private final AnelAuditoria anel;
+	
+	private final ArquivoAuditoriaRotativo arquivo;
+	
+	private final Thread consumidor;
+	
+	private final int loteMaximo;
+	
+	private final long intervaloSincronizacaoNanos;
+	
+	private final LongAdder perdidosEscrita = new LongAdder();
+	
+	private final LongAdder perdidosCodificacao = new LongAdder();
+	
+	private volatile boolean encerrando;
+	
+	/**
+	 * Linhas do lote em codificação; este campo e os seguintes são usados apenas pela thread consumidora.
+	 */
+	private final StringBuilder linhas = new StringBuilder(TAMANHO_BUFFER_ESCRITA);
+	
+	private final CharsetEncoder codificador = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	
+	private final ByteBuffer saida = ByteBuffer.allocate(TAMANHO_BUFFER_ESCRITA);
+	
+	private final Consumer<EventoAuditoria> leitor = this::codificarProtegido;
+	
+	private long segundoFormatado = Long.MIN_VALUE;
+	
+	private String textoSegundo;
+	
+	@Autowired
+	public TrilhaAuditoria(AuditoriaProperties properties, MeterRegistry registry) throws IOException {
+		if (properties.getDiretorio() == null || properties.getDiretorio().trim().isEmpty()) {
+			this.anel = null;
+			this.arquivo = null;
+			this.consumidor = null;
+			this.loteMaximo = 0;
+			this.intervaloSincronizacaoNanos = 0;
+			return;
+		}
+		
+		this.anel = new AnelAuditoria(properties.getCapacidade(), properties.getPoliticaBufferCheio(), properties.getTaxaAmostragem());
+		this.arquivo = new ArquivoAuditoriaRotativo(Paths.get(properties.getDiretorio()), properties.getTamanhoArquivo());
+		this.loteMaximo = properties.getLoteMaximo();
+		this.intervaloSincronizacaoNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIntervaloSincronizacaoMilissegundos());
+		
+		contador("publicados", anel, AnelAuditoria::getPublicados, registry);
+		contador("descartados", anel, AnelAuditoria::getDescartados, registry);
+		contador("nao-amostrados", anel, AnelAuditoria::getNaoAmostrados, registry);
+		contador("perdidos-escrita", perdidosEscrita, LongAdder::sum, registry);
+		contador("perdidos-codificacao", perdidosCodificacao, LongAdder::sum, registry);
+		Gauge.builder(METRICA_PENDENTES, anel, AnelAuditoria::getPendentes)
+				.description("Eventos de auditoria aguardando gravação.")
+				.register(registry);
+		
+		this.consumidor = new Thread(this::consumir, "auditoria-consumidor");
+		consumidor.setDaemon(true);
+		consumidor.start();
+	}
+	
+	private static <T> void contador(String situacao, T origem, ToDoubleFunction<T> funcao, MeterRegistry registry) {
+		FunctionCounter.builder(METRICA_EVENTOS, origem, funcao)
+				.description("Eventos da trilha de auditoria.")
+				.tag("situacao", situacao)
+				.register(registry);
+	}
+	
+	/**
+	 * Trilha desabilitada, para uso fora do contexto Spring.
+	 * @return
+	 */
+	public static TrilhaAuditoria desabilitada() {
+		try {
+			return new TrilhaAuditoria(new AuditoriaProperties(), new CompositeMeterRegistry());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public boolean isHabilitada() {
+		return anel != null;
+	}
+	
+	/**
+	 * Registra um saque atendido ou rejeitado cujo valor já foi convertido para reais.
+	 * @param operacao
+	 * @param terminal Terminal do saque, ou null.
+	 * @param valor Valor em reais.
+	 * @param resultado Cédulas entregues (mensagens ou {@link ComposicaoSaque}), ou null para uma rejeição.
+	 * @param mensagem Mensagem da rejeição, ou null para um saque atendido.
+	 * @param duracaoNanos
+	 * @return false se o evento não foi publicado (trilha desabilitada, buffer cheio ou fora da amostragem).
+	 */
+	public boolean registrar(OperacaoAuditadaEnum operacao, String terminal, long valor, Object resultado, String mensagem, long duracaoNanos) {
+		return anel != null
+				&& anel.publicar(operacao, terminal, valor, null, resultado, mensagem, System.currentTimeMillis(), duracaoNanos);
+	}
+	
+	/**
+	 * Registra um saque atendido ou rejeitado com o valor como recebido.
+	 * @param operacao
+	 * @param terminal Terminal do saque, ou null.
+	 * @param valor Valor recebido (BigDecimal ou texto).
+	 * @param resultado Cédulas entregues (mensagens ou {@link ComposicaoSaque}), ou null para uma rejeição.
+	 * @param mensagem Mensagem da rejeição, ou null para um saque atendido.
+	 * @param duracaoNanos
+	 * @return false se o evento não foi publicado (trilha desabilitada, buffer cheio ou fora da amostragem).
+	 */
+	public boolean registrar(OperacaoAuditadaEnum operacao, String terminal, Object valor, Object resultado, String mensagem, long duracaoNanos) {
+		return anel != null && anel.publicar(operacao, terminal, EventoAuditoria.VALOR_NAO_PRIMITIVO, valor, resultado, mensagem,
+				System.currentTimeMillis(), duracaoNanos);
+	}
+	
+	/**
+	 * @return Eventos perdidos por buffer cheio ou após o encerramento.
+	 */
+	public long getDescartados() {
+		return anel == null ? 0 : anel.getDescartados();
+	}
+	
+	/**
+	 * @return Eventos deixados de fora pela amostragem.
+	 */
+	public long getNaoAmostrados() {
+		return anel == null ? 0 : anel.getNaoAmostrados();
+	}
+	
+	/**
+	 * @return Eventos consumidos cuja gravação falhou.
+	 */
+	public long getPerdidosEscrita() {
+		return perdidosEscrita.sum();
+	}
+	
+	/**
+	 * @return Eventos consumidos que não puderam ser codificados e foram descartados.
+	 */
+	public long getPerdidosCodificacao() {
+		return perdidosCodificacao.sum();
+	}
+	
+	private void consumir() {
+		try {
+			long ultimaSincronizacao = System.nanoTime();
+			boolean naoSincronizado = false;
+			while (true) {
+				int lidos = anel.drenar(leitor, loteMaximo);
+				if (lidos > 0) {
+					gravar(lidos);
+					naoSincronizado = true;
+				} else if (encerrando && anel.isVazio()) {
+					break;
+				} else {
+					LockSupport.parkNanos(PAUSA_CONSUMIDOR_NANOS);
+				}
+				
+				if (naoSincronizado && System.nanoTime() - ultimaSincronizacao >= intervaloSincronizacaoNanos) {
+					sincronizar();
+					ultimaSincronizacao = System.nanoTime();
+					naoSincronizado = false;
+				}
+			}
+		} finally {
+			try {
+				arquivo.close();
+			} catch (IOException e) {
+				// não há mais para onde gravar: o que não chegou ao disco fica por conta do sistema operacional
+			}
+		}
+	}
+	
+	private void gravar(int eventos) {
+		try {
+			CharBuffer texto = CharBuffer.wrap(linhas);
+			codificador.reset();
+			while (codificador.encode(texto, saida, true).isOverflow()) {
+				escrever();
+			}
+			while (codificador.flush(saida).isOverflow()) {
+				escrever();
+			}
+			escrever();
+		} catch (IOException e) {
+			// o lote é perdido e contado; os próximos tentam novamente
+			perdidosEscrita.add(eventos);
+			saida.clear();
+		} finally {
+			linhas.setLength(0);
+		}
+	}
+	
+	private void escrever() throws IOException {
+		saida.flip();
+		try {
+			arquivo.escrever(saida);
+		} finally {
+			saida.clear();
+		}
+	}
+	
+	private void sincronizar() {
+		try {
+			arquivo.sincronizar();
+		} catch (IOException e) {
+			// os eventos continuam no cache do sistema operacional; a próxima sincronização tenta novamente
+		}
+	}
+	
+	/**
+	 * Codifica o evento sem deixar que uma falha dele interrompa a thread consumidora: a linha parcial é desfeita,
+	 * o evento é contado como perdido e a drenagem segue para os próximos.
+	 * @param evento
+	 */
+	private void codificarProtegido(EventoAuditoria evento) {
+		int inicioLinha = linhas.length();
+		try {
+			codificar(evento);
+		} catch (RuntimeException | Error e) {
+			linhas.setLength(inicioLinha);
+			perdidosCodificacao.increment();
+		}
+	}
+	
+	/**
+	 * Acrescenta o evento às linhas do lote em JSON, copiando tudo o que é preciso antes da liberação da posição.
+	 * @param evento
+	 */
+	private void codificar(EventoAuditoria evento) {
+		StringBuilder linha = linhas;
+		linha.append("{\"sequencia\":").append(evento.getSequencia());
+		linha.append(",\"instante\":\"");
+		instante(evento.getInstante());
+		linha.append("\",\"operacao\":\"").append(evento.getOperacao().name()).append('"');
+		linha.append(",\"terminal\":");
+		texto(evento.getTerminal());
+		
+		linha.append(",\"valor\":");
+		if (evento.getValor() != EventoAuditoria.VALOR_NAO_PRIMITIVO) {
+			linha.append('"').append(evento.getValor()).append('"');
+		} else if (evento.getValorOriginal() instanceof BigDecimal) {
+			// toString, e não toPlainString: um expoente grande não é expandido em dígitos
+			linha.append('"').append(evento.getValorOriginal()).append('"');
+		} else {
+			texto(evento.getValorOriginal() == null ? null : evento.getValorOriginal().toString());
+		}
+		
+		linha.append(",\"situacao\":\"").append(evento.isRejeitado() ? "REJEITADO" : "ATENDIDO").append('"');
+		linha.append(",\"cedulas\":");
+		Object resultado = evento.getResultado();
+		if (resultado instanceof ComposicaoSaque) {
+			ComposicaoSaque composicao = (ComposicaoSaque) resultado;
+			char separador = '{';
+			for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+				int quantidade = composicao.getQuantidade(tipoCedula);
+				if (quantidade > 0) {
+					linha.append(separador).append('"').append(tipoCedula.name()).append("\":").append(quantidade);
+					separador = ',';
+				}
+			}
+			linha.append(separador == '{' ? "{}" : "}");
+		} else if (resultado instanceof List) {
+			char separador = '[';
+			for (Object resumo : (List<?>) resultado) {
+				linha.append(separador);
+				texto(String.valueOf(resumo));
+				separador = ',';
+			}
+			linha.append(separador == '[' ? "[]" : "]");
+		} else {
+			linha.append("null");
+		}
+		
+		linha.append(",\"mensagem\":");
+		texto(evento.getMensagem());
+		linha.append(",\"duracaoNanos\":").append(evento.getDuracaoNanos()).append("}\n");
+	}
+	
+	/**
+	 * Instante em UTC com milissegundos ({@code 2020-03-01T12:00:00.123Z}); a parte até os segundos é formatada
+	 * uma vez por segundo, já que os eventos de um lote costumam ser do mesmo segundo.
+	 * @param instante
+	 */
+	private void instante(long instante) {
+		long segundo = Math.floorDiv(instante, 1000L);
+		if (segundo != segundoFormatado) {
+			segundoFormatado = segundo;
+			textoSegundo = FORMATO_SEGUNDO.format(Instant.ofEpochSecond(segundo));
+		}
+		int milissegundos = (int) Math.floorMod(instante, 1000L);
+		linhas.append(textoSegundo).append('.')
+				.append((char) ('0' + milissegundos / 100))
+				.append((char) ('0' + milissegundos / 10 % 10))
+				.append((char) ('0' + milissegundos % 10))
+				.append('Z');
+	}
+	
+	private void texto(String valor) {
+		StringBuilder linha = linhas;
+		if (valor == null) {
+			linha.append("null");
+			return;
+		}
+		linha.append('"');
+		for (int i = 0; i < valor.length(); i++) {
+			char c = valor.charAt(i);
+			if (c == '"' || c == '\\') {
+				linha.append('\\').append(c);
+			} else if (c < 0x20) {
+				linha.append(String.format("\\u%04x", (int) c));
+			} else {
+				linha.append(c);
+			}
+		}
+		linha.append('"');
+	}
+	
+	/**
+	 * Recusa novos eventos, grava e sincroniza os pendentes e fecha o arquivo corrente.
+	 * @throws InterruptedException
+	 */
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		if (anel == null || encerrando) {
+			return;
+		}
+		anel.fechar();
+		encerrando = true;
+		consumidor.join(ESPERA_ENCERRAMENTO_MILISSEGUNDOS);
+	}
+}
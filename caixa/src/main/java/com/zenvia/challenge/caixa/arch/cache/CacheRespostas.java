@@ -0,0 +1,142 @@
+package com.zenvia.challenge.caixa.arch.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * ETag forte, resposta 304 a If-None-Match e Cache-Control para respostas que são função do caminho e da configuração,
+ * como o cálculo de cédulas.
+ * <p>
+ * A ETag é montada com a versão da configuração, o valor canônico e a variante da representação (idioma ou formato),
+ * sem calcular o corpo: uma revalidação cuja ETag confere recebe 304 antes de chegar aos serviços. Como a versão
+ * faz parte da ETag, uma troca de configuração invalida todas as ETags emitidas antes dela.
+ */
+public final class CacheRespostas {
+	
+	private static final CacheRespostas DESABILITADO = new CacheRespostas(null, CacheControl.empty());
+	
+	private final String versao;
+	
+	private final CacheControl cacheControl;
+	
+	/**
+	 * @param versao Versão da configuração de que as respostas dependem.
+	 * @param maxIdade Tempo durante o qual terminais e proxies podem reutilizar a resposta sem revalidá-la.
+	 * @param unidade
+	 */
+	public CacheRespostas(String versao, long maxIdade, TimeUnit unidade) {
+		this(versao, CacheControl.maxAge(maxIdade, unidade).cachePublic());
+	}
+	
+	private CacheRespostas(String versao, CacheControl cacheControl) {
+		this.versao = versao;
+		this.cacheControl = cacheControl;
+	}
+	
+	/**
+	 * Respostas sem ETag nem Cache-Control, sempre calculadas.
+	 * @return
+	 */
+	public static CacheRespostas desabilitado() {
+		return DESABILITADO;
+	}
+	
+	public boolean isHabilitado() {
+		return versao != null;
+	}
+	
+	/**
+	 * ETag forte (entre aspas) da representação.
+	 * @param valor Valor canônico do caminho, por exemplo "150".
+	 * @param variante Variante da representação, sem espaços nem aspas, por exemplo "resumo-pt-BR".
+	 * @return
+	 */
+	public String etag(String valor, String variante) {
+		return '"' + versao + '-' + valor + '-' + variante + '"';
+	}
+	
+	/**
+	 * Responde 304 se a ETag da representação está em If-None-Match; senão, calcula o corpo e o retorna com ETag e Cache-Control.
+	 * @param ifNoneMatch Cabeçalho If-None-Match da requisição, ou {@code null}.
+	 * @param valor Valor canônico do caminho.
+	 * @param variante Variante da representação.
+	 * @param vary Cabeçalho da requisição que escolhe a variante.
+	 * @param contentType Tipo da representação, ou {@code null} para deixar a escolha à negociação do Spring.
+	 * @param corpo Cálculo do corpo, executado apenas quando a resposta é 200.
+	 * @return
+	 */
+	public ResponseEntity<?> responder(String ifNoneMatch, String valor, String variante, String vary, MediaType contentType,
+			Supplier<?> corpo) {
+		if (!isHabilitado()) {
+			return contentType == null
+					? ResponseEntity.ok(corpo.get())
+					: ResponseEntity.ok().contentType(contentType).body(corpo.get());
+		}
+		
+		String etag = etag(valor, variante);
+		if (isNaoModificado(ifNoneMatch, etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(etag)
+					.cacheControl(cacheControl)
+					.varyBy(vary)
+					.build();
+		}
+		
+		ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+				.eTag(etag)
+				.cacheControl(cacheControl)
+				.varyBy(vary);
+		if (contentType != null) {
+			resposta.contentType(contentType);
+		}
+		return resposta.body(corpo.get());
+	}
+	
+	/**
+	 * Comparação fraca de If-None-Match (RFC 7232, 3.2): {@code W/"x"} confere com {@code "x"}. O percurso é feito sem alocação.
+	 * <p>
+	 * {@code *} é ignorado: a resposta é calculada normalmente, o que é sempre uma resposta válida a uma requisição condicional.
+	 * @param ifNoneMatch Lista de ETags separadas por vírgula, ou {@code null}.
+	 * @param etag ETag entre aspas.
+	 * @return
+	 */
+	public static boolean isNaoModificado(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		
+		int tamanho = ifNoneMatch.length();
+		int i = 0;
+		while (i < tamanho) {
+			char c = ifNoneMatch.charAt(i);
+			
+			if (c == ' ' || c == '\t' || c == ',') {
+				i++;
+			} else if (c == 'W' && ifNoneMatch.startsWith("W/", i)) {
+				i += 2;
+			} else if (c == '"') {
+				int fim = ifNoneMatch.indexOf('"', i + 1);
+				if (fim < 0) {
+					return false;
+				}
+				if (fim + 1 - i == etag.length() && ifNoneMatch.regionMatches(i, etag, 0, etag.length())) {
+					return true;
+				}
+				i = fim + 1;
+			} else {
+				// "*" ou ETag malformada: ignorada até a próxima vírgula
+				int virgula = ifNoneMatch.indexOf(',', i);
+				if (virgula < 0) {
+					return false;
+				}
+				i = virgula + 1;
+			}
+		}
+		return false;
+	}
+}
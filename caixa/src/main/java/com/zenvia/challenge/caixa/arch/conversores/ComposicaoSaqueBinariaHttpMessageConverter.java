@@ -0,0 +1,138 @@
+package com.zenvia.challenge.caixa.arch.conversores;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Formato binário compacto da composição de um saque, para terminais em links lentos.
+ * <p>
+ * Layout fixo: um byte com a quantidade de tipos de cédula, seguido da quantidade de cédulas de cada tipo do
+ * {@link ConjuntoCedulas} da instalação, em ordem decrescente de valor de face, codificada como varint sem sinal
+ * (7 bits por byte, bit mais alto indicando continuação). Com as cédulas padrão um saque comum ocupa 5 bytes;
+ * o valor total é derivado das quantidades.
+ */
+public class ComposicaoSaqueBinariaHttpMessageConverter extends AbstractHttpMessageConverter<ComposicaoSaque> {
+	
+	public static final String MEDIA_TYPE_COMPOSICAO_BINARIA = "application/vnd.caixa.composicao.varint";
+	
+	private static final int TAMANHO_MAXIMO_VARINT = 5;
+	
+	/**
+	 * Cédulas esperadas nas composições recebidas.
+	 */
+	private final ConjuntoCedulas conjunto;
+	
+	public ComposicaoSaqueBinariaHttpMessageConverter() {
+		this(ConjuntoCedulas.PADRAO);
+	}
+	
+	public ComposicaoSaqueBinariaHttpMessageConverter(ConjuntoCedulas conjunto) {
+		super(MediaType.parseMediaType(MEDIA_TYPE_COMPOSICAO_BINARIA));
+		this.conjunto = conjunto;
+	}
+	
+	/**
+	 * Codifica uma composição no formato binário, com as cédulas do conjunto da composição.
+	 * @param composicao
+	 * @return
+	 */
+	public static byte[] codificar(ComposicaoSaque composicao) {
+		ConjuntoCedulas conjunto = composicao.getConjunto();
+		byte[] buffer = new byte[tamanho(composicao)];
+		int posicao = 0;
+		
+		buffer[posicao++] = (byte) conjunto.getQuantidadeTipos();
+		for (int i = 0; i < conjunto.getQuantidadeTipos(); i++) {
+			int quantidade = composicao.getQuantidade(conjunto.getTipo(i));
+			while ((quantidade & ~0x7F) != 0) {
+				buffer[posicao++] = (byte) ((quantidade & 0x7F) | 0x80);
+				quantidade >>>= 7;
+			}
+			buffer[posicao++] = (byte) quantidade;
+		}
+		
+		return buffer;
+	}
+	
+	/**
+	 * Decodifica uma composição do formato binário.
+	 * @param buffer
+	 * @param conjunto Cédulas com que a composição foi codificada.
+	 * @return
+	 * @throws IllegalArgumentException Se o conteúdo não estiver no formato esperado.
+	 */
+	public static ComposicaoSaque decodificar(byte[] buffer, ConjuntoCedulas conjunto) {
+		if (buffer.length == 0 || buffer[0] != conjunto.getQuantidadeTipos()) {
+			throw new IllegalArgumentException("Quantidade de tipos de cédula inválida.");
+		}
+		
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		int posicao = 1;
+		for (int i = 0; i < conjunto.getQuantidadeTipos(); i++) {
+			TipoCedulaEnum tipoCedula = conjunto.getTipo(i);
+			int quantidade = 0;
+			for (int deslocamento = 0; ; deslocamento += 7) {
+				if (posicao >= buffer.length || deslocamento >= 7 * TAMANHO_MAXIMO_VARINT) {
+					throw new IllegalArgumentException("Quantidade de cédulas truncada ou inválida.");
+				}
+				byte b = buffer[posicao++];
+				quantidade |= (b & 0x7F) << deslocamento;
+				if ((b & 0x80) == 0) {
+					break;
+				}
+			}
+			quantidades[tipoCedula.ordinal()] = quantidade;
+		}
+		
+		return new ComposicaoSaque(quantidades, conjunto);
+	}
+	
+	/**
+	 * Tamanho da composição codificada, em bytes.
+	 * @param composicao
+	 * @return
+	 */
+	public static int tamanho(ComposicaoSaque composicao) {
+		ConjuntoCedulas conjunto = composicao.getConjunto();
+		int tamanho = 1;
+		for (int i = 0; i < conjunto.getQuantidadeTipos(); i++) {
+			int bits = 32 - Integer.numberOfLeadingZeros(composicao.getQuantidade(conjunto.getTipo(i)));
+			tamanho += Math.max(1, (bits + 6) / 7);
+		}
+		return tamanho;
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return ComposicaoSaque.class.isAssignableFrom(clazz);
+	}
+	
+	@Override
+	protected Long getContentLength(ComposicaoSaque composicao, MediaType contentType) {
+		return (long) tamanho(composicao);
+	}
+
+	@Override
+	protected ComposicaoSaque readInternal(Class<? extends ComposicaoSaque> clazz, HttpInputMessage inputMessage) throws IOException {
+		try {
+			return decodificar(StreamUtils.copyToByteArray(inputMessage.getBody()), conjunto);
+		} catch (IllegalArgumentException e) {
+			throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+		}
+	}
+
+	@Override
+	protected void writeInternal(ComposicaoSaque composicao, HttpOutputMessage outputMessage) throws IOException {
+		outputMessage.getBody().write(codificar(composicao));
+	}
+}
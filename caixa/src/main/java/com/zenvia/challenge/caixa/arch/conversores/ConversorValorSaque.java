@@ -0,0 +1,151 @@
+package com.zenvia.challenge.caixa.arch.conversores;
+
+import java.math.BigDecimal;
+
+import org.springframework.util.StringUtils;
+
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Conversão do valor do saque recebido como texto na variável de caminho, com a validação feita na mesma passada.
+ * <p>
+ * Substitui a conversão do Spring para {@link BigDecimal} seguida de {@code SaqueService#validarValorPretendidoSaque}:
+ * o texto é percorrido uma única vez, sem alocação, e o resultado é um {@code long} que carrega o valor em reais
+ * (zero ou positivo) ou o código da rejeição (negativo), sem lançar exceções. Apenas notação científica e valores com mais
+ * de 18 dígitos ficam de fora ({@link #VALOR_NAO_CONVERTIDO}) e devem ser convertidos por {@link #converterComBigDecimal(String)}.
+ * <p>
+ * As regras são as mesmas da validação em {@link BigDecimal}: espaços são ignorados, como na conversão do Spring,
+ * e a mesma ordem de precedência é mantida (obrigatório, maior que zero, mínimo e múltiplo). O mínimo e o múltiplo vêm do
+ * {@link ConjuntoCedulas}; se o valor é de fato pagável com as cédulas (o que só pode falhar em conjuntos não canônicos)
+ * é verificado pelo {@code SaqueService} no cálculo.
+ */
+public final class ConversorValorSaque {
+	
+	/**
+	 * Indica que o texto não foi tratado pela conversão rápida e deve ser convertido em {@link BigDecimal}.
+	 */
+	public static final long VALOR_NAO_CONVERTIDO = -1L;
+	
+	private static final long PRIMEIRO_CODIGO_REJEICAO = -2L;
+	
+	private static final ResultadoValidacaoSaqueEnum[] RESULTADOS = ResultadoValidacaoSaqueEnum.values();
+	
+	/**
+	 * Maior valor acumulado que ainda aceita mais um dígito sem estourar o long.
+	 */
+	private static final long LIMITE_ACUMULACAO = (Long.MAX_VALUE - 9) / 10;
+	
+	/**
+	 * Maior quantidade de dígitos na parte inteira aceita na conversão em {@link BigDecimal}: a de um valor em notação comum
+	 * que ainda cabe na linha da requisição (8 KB no Tomcat). Sem o limite, um expoente como {@code 1e500000000} levaria
+	 * a validação e o cálculo a operar com centenas de milhões de dígitos.
+	 */
+	public static final int DIGITOS_MAXIMOS_BIG_DECIMAL = 8192;
+	
+	private ConversorValorSaque() {
+	}
+	
+	/**
+	 * Converte e valida o valor do saque.
+	 * @param texto Valor como recebido na requisição.
+	 * @param conjunto Cédulas das quais são derivados o valor mínimo e o múltiplo.
+	 * @return Valor em reais (múltiplo do mdc das cédulas e a partir do mínimo), {@link #VALOR_NAO_CONVERTIDO} ou o código de uma rejeição,
+	 * a ser lido por {@link #getRejeicao(long)}.
+	 */
+	public static long converter(String texto, ConjuntoCedulas conjunto) {
+		int tamanho = texto == null ? 0 : texto.length();
+		int i = 0;
+		
+		while (i < tamanho && Character.isWhitespace(texto.charAt(i))) {
+			i++;
+		}
+		if (i == tamanho) {
+			return codigo(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_OBRIGATORIO);
+		}
+		
+		boolean negativo = false;
+		char c = texto.charAt(i);
+		if (c == '-' || c == '+') {
+			negativo = c == '-';
+			i++;
+		}
+		
+		long parteInteira = 0;
+		int digitos = 0;
+		boolean separadorDecimal = false;
+		boolean fracaoNaoNula = false;
+		
+		for (; i < tamanho; i++) {
+			c = texto.charAt(i);
+			
+			if (c >= '0' && c <= '9') {
+				digitos++;
+				if (separadorDecimal) {
+					fracaoNaoNula |= c != '0';
+				} else if (parteInteira > LIMITE_ACUMULACAO) {
+					return VALOR_NAO_CONVERTIDO;
+				} else {
+					parteInteira = parteInteira * 10 + (c - '0');
+				}
+			} else if (c == '.' && !separadorDecimal) {
+				separadorDecimal = true;
+			} else if (c == 'e' || c == 'E') {
+				return VALOR_NAO_CONVERTIDO;
+			} else if (!Character.isWhitespace(c)) {
+				return codigo(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO);
+			}
+		}
+		
+		if (digitos == 0) {
+			return codigo(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO);
+		} else if (negativo || (parteInteira == 0 && !fracaoNaoNula)) {
+			return codigo(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_MAIOR_QUE_ZERO);
+		} else if (parteInteira < conjunto.getValorMinimoSaque()) {
+			return codigo(ResultadoValidacaoSaqueEnum.VALOR_MINIMO_SAQUE);
+		} else if (fracaoNaoNula || parteInteira % conjunto.getMultiploSaque() != 0) {
+			return codigo(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_DEVE_SER_MULTIPLO);
+		}
+		
+		return parteInteira;
+	}
+	
+	/**
+	 * Conversão em {@link BigDecimal} para os textos não tratados por {@link #converter(String, ConjuntoCedulas)}.
+	 * @param texto
+	 * @return O valor, ou null se o texto não for um número ou a sua parte inteira passar de {@link #DIGITOS_MAXIMOS_BIG_DECIMAL} dígitos.
+	 */
+	public static BigDecimal converterComBigDecimal(String texto) {
+		BigDecimal valor;
+		try {
+			valor = new BigDecimal(StringUtils.trimAllWhitespace(texto));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		
+		// precisão e escala são lidas sem expandir o valor
+		return (long) valor.precision() - valor.scale() > DIGITOS_MAXIMOS_BIG_DECIMAL ? null : valor;
+	}
+	
+	/**
+	 * Indica se o resultado de {@link #converter(String, ConjuntoCedulas)} é uma rejeição.
+	 * @param resultado
+	 * @return
+	 */
+	public static boolean isRejeicao(long resultado) {
+		return resultado <= PRIMEIRO_CODIGO_REJEICAO;
+	}
+	
+	/**
+	 * Motivo da rejeição de um resultado de {@link #converter(String, ConjuntoCedulas)}.
+	 * @param resultado
+	 * @return O motivo, ou {@link ResultadoValidacaoSaqueEnum#VALIDO} se o resultado não for uma rejeição.
+	 */
+	public static ResultadoValidacaoSaqueEnum getRejeicao(long resultado) {
+		return isRejeicao(resultado) ? RESULTADOS[(int) (PRIMEIRO_CODIGO_REJEICAO - resultado)] : ResultadoValidacaoSaqueEnum.VALIDO;
+	}
+	
+	private static long codigo(ResultadoValidacaoSaqueEnum rejeicao) {
+		return PRIMEIRO_CODIGO_REJEICAO - rejeicao.ordinal();
+	}
+}
@@ -1,5 +1,11 @@
 package com.zenvia.challenge.caixa.arch.exceptions.handlers;
 
+/**
+ * Rejeição de uma regra de negócio, respondida com 422 por {@link BusinessExceptionHandler}.
+ * <p>
+ * A pilha de chamadas não é preenchida: a rejeição é um resultado esperado (valores inválidos são boa parte do tráfego),
+ * o tratamento usa apenas a mensagem e o preenchimento da pilha seria o maior custo do lançamento.
+ */
 public class BusinessException extends RuntimeException {
 	
 	private static final long serialVersionUID = -58113886014038265L;
@@ -7,7 +13,7 @@ public class BusinessException extends RuntimeException {
 	private String message;
 
 	public BusinessException(String message) {
-		super();
+		super(null, null, false, false);
 		this.message = message;
 	}
 
@@ -0,0 +1,210 @@
+package com.zenvia.challenge.caixa.arch.idempotencia;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache de resultados por chave de idempotência, limitado em quantidade e em validade.
+ * <p>
+ * A primeira requisição de uma chave registra uma entrada em andamento e assume a execução; as duplicatas
+ * encontram a mesma entrada e aguardam o seu resultado em vez de executar de novo. Como todas as entradas têm a mesma
+ * validade, a ordem de inserção é também a ordem de expiração: uma fila FIFO basta para remover, em O(1) por entrada,
+ * as expiradas e as mais antigas quando a quantidade máxima é excedida. As consultas são um {@code get} do mapa,
+ * sem bloqueio.
+ * <p>
+ * A capacidade deve ser bem maior que a quantidade de execuções simultâneas: uma entrada em andamento removida por
+ * excesso de capacidade deixa de ser encontrada pelas duplicatas que chegarem depois.
+ * @param <V> Tipo do resultado armazenado, que deve ser imutável, pois é compartilhado entre as requisições.
+ */
+public class CacheIdempotencia<V> {
+	
+	private final ConcurrentHashMap<String, Registro<V>> registros = new ConcurrentHashMap<>();
+	
+	/**
+	 * Registros em ordem de inserção; os já retirados do mapa (cancelados ou substituídos) são descartados ao chegar à frente.
+	 */
+	private final ConcurrentLinkedQueue<Registro<V>> ordemInsercao = new ConcurrentLinkedQueue<>();
+	
+	private final AtomicInteger quantidadeRegistros = new AtomicInteger();
+	
+	private final AtomicInteger quantidadeNaFila = new AtomicInteger();
+	
+	private final int capacidade;
+	
+	private final long validade;
+	
+	private final LongSupplier relogio;
+	
+	/**
+	 * @param capacidade Quantidade máxima de chaves mantidas.
+	 * @param validade Tempo durante o qual uma chave é lembrada, contado do seu registro.
+	 * @param unidade Unidade da validade.
+	 */
+	public CacheIdempotencia(int capacidade, long validade, TimeUnit unidade) {
+		this(capacidade, unidade.toNanos(validade), System::nanoTime);
+	}
+	
+	/**
+	 * @param capacidade
+	 * @param validadeNanos
+	 * @param relogio Fonte de tempo em nanossegundos, como {@link System#nanoTime()}.
+	 */
+	public CacheIdempotencia(int capacidade, long validadeNanos, LongSupplier relogio) {
+		if (capacidade < 1 || validadeNanos < 1) {
+			throw new IllegalArgumentException("Capacidade e validade devem ser positivas.");
+		}
+		
+		this.capacidade = capacidade;
+		this.validade = validadeNanos;
+		this.relogio = relogio;
+	}
+	
+	/**
+	 * Registra a chave ou encontra o seu registro vigente. Quem {@link Registro#assumir() assumir} o registro executa a
+	 * requisição e deve concluí-lo ou cancelá-lo; os demais aguardam o resultado.
+	 * @param chave
+	 * @return
+	 */
+	public Registro<V> registrar(String chave) {
+		long agora = relogio.getAsLong();
+		
+		while (true) {
+			Registro<V> existente = registros.get(chave);
+			if (existente != null && !existente.isExpirado(agora)) {
+				return existente;
+			}
+			
+			Registro<V> novo = new Registro<>(this, chave, agora + validade);
+			boolean registrado = existente == null
+					? registros.putIfAbsent(chave, novo) == null
+					: registros.replace(chave, existente, novo);
+			
+			if (registrado) {
+				if (existente == null) {
+					quantidadeRegistros.incrementAndGet();
+				}
+				ordemInsercao.offer(novo);
+				quantidadeNaFila.incrementAndGet();
+				expurgar(agora);
+				return novo;
+			}
+		}
+	}
+	
+	/**
+	 * Consulta o registro vigente de uma chave, sem registrá-la.
+	 * @param chave
+	 * @return
+	 */
+	public Registro<V> consultar(String chave) {
+		Registro<V> registro = registros.get(chave);
+		return registro == null || registro.isExpirado(relogio.getAsLong()) ? null : registro;
+	}
+	
+	public int getQuantidadeChaves() {
+		return quantidadeRegistros.get();
+	}
+	
+	public int getCapacidade() {
+		return capacidade;
+	}
+	
+	/**
+	 * Remove da frente da fila as entradas expiradas e as excedentes; a fila também é limitada, a duas vezes a
+	 * capacidade, para que os registros cancelados não se acumulem até expirar.
+	 * @param agora
+	 */
+	private void expurgar(long agora) {
+		Registro<V> maisAntigo;
+		while ((maisAntigo = ordemInsercao.peek()) != null
+				&& (quantidadeRegistros.get() > capacidade || quantidadeNaFila.get() > 2 * capacidade || maisAntigo.isExpirado(agora))) {
+			if (ordemInsercao.remove(maisAntigo)) {
+				quantidadeNaFila.decrementAndGet();
+				if (registros.remove(maisAntigo.chave, maisAntigo)) {
+					quantidadeRegistros.decrementAndGet();
+				}
+			}
+		}
+	}
+	
+	private void retirar(Registro<V> registro) {
+		if (registros.remove(registro.chave, registro)) {
+			quantidadeRegistros.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Registro de uma chave: em andamento até ser concluído com o resultado da requisição original, ou cancelado.
+	 * @param <V>
+	 */
+	public static final class Registro<V> {
+		
+		private final CacheIdempotencia<V> cache;
+		
+		private final String chave;
+		
+		private final long expiraEm;
+		
+		private final AtomicBoolean assumido = new AtomicBoolean();
+		
+		private final CompletableFuture<V> resultado = new CompletableFuture<>();
+		
+		private Registro(CacheIdempotencia<V> cache, String chave, long expiraEm) {
+			this.cache = cache;
+			this.chave = chave;
+			this.expiraEm = expiraEm;
+		}
+		
+		/**
+		 * Reivindica a execução da requisição: somente a primeira chamada, de qualquer thread, retorna true.
+		 * @return
+		 */
+		public boolean assumir() {
+			return !assumido.get() && assumido.compareAndSet(false, true);
+		}
+		
+		/**
+		 * Armazena o resultado da requisição original e libera as duplicatas em espera.
+		 * @param valor
+		 */
+		public void concluir(V valor) {
+			resultado.complete(valor);
+		}
+		
+		/**
+		 * Esquece a chave, para que uma nova tentativa execute de novo; as duplicatas em espera recebem null.
+		 */
+		public void cancelar() {
+			cache.retirar(this);
+			resultado.cancel(false);
+		}
+		
+		/**
+		 * Aguarda o resultado da requisição original.
+		 * @param espera
+		 * @param unidade
+		 * @return O resultado, ou null se a requisição original foi cancelada.
+		 * @throws TimeoutException Se a requisição original não terminou dentro da espera.
+		 * @throws InterruptedException
+		 */
+		public V aguardar(long espera, TimeUnit unidade) throws TimeoutException, InterruptedException {
+			try {
+				return resultado.isCancelled() ? null : resultado.get(espera, unidade);
+			} catch (CancellationException | ExecutionException e) {
+				return null;
+			}
+		}
+		
+		private boolean isExpirado(long agora) {
+			return agora - expiraEm >= 0;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.zenvia.challenge.caixa.arch.idempotencia;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.zenvia.challenge.caixa.arch.idempotencia.CacheIdempotencia.Registro;
+
+/**
+ * Idempotência dos saques: uma requisição POST com o cabeçalho {@value #HEADER_CHAVE_IDEMPOTENCIA} é executada uma
+ * única vez, e as repetições da mesma chave recebem a resposta original byte a byte, sem passar pelos serviços.
+ * Repetições que chegam enquanto a original está em andamento aguardam o seu término.
+ * <p>
+ * Respostas 5xx, e requisições que terminam com exceção, não são armazenadas: a chave é esquecida e a próxima
+ * tentativa executa de novo. Isso só é seguro para falhas anteriores ao efeito da operação: depois de efetivar o saque,
+ * os serviços não deixam que uma falha chegue à resposta (ela é contada em {@code caixa.saque.falhas.apos.confirmacao}),
+ * e a resposta, armazenada, impede que a repetição entregue as cédulas de novo. Requisições sem o cabeçalho não são afetadas.
+ */
+public class FiltroIdempotencia extends OncePerRequestFilter {
+	
+	public static final String HEADER_CHAVE_IDEMPOTENCIA = "Idempotency-Key";
+	
+	public static final String HEADER_REPETICAO = "Idempotent-Replayed";
+	
+	public static final String MSG_CHAVE_REUTILIZADA = "Idempotency-Key já utilizada em outra requisição.";
+	
+	public static final String MSG_REQUISICAO_EM_ANDAMENTO = "A requisição original desta Idempotency-Key ainda está em andamento.";
+	
+	private static final String CONTENT_TYPE_MENSAGEM = MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8";
+	
+	private final CacheIdempotencia<RespostaArmazenada> cache;
+	
+	private final long esperaMaxima;
+	
+	/**
+	 * @param cache
+	 * @param esperaMaxima Tempo máximo que uma repetição aguarda a requisição original.
+	 * @param unidade
+	 */
+	public FiltroIdempotencia(CacheIdempotencia<RespostaArmazenada> cache, long esperaMaxima, TimeUnit unidade) {
+		this.cache = cache;
+		this.esperaMaxima = unidade.toNanos(esperaMaxima);
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String chave = request.getHeader(HEADER_CHAVE_IDEMPOTENCIA);
+		return chave == null || chave.isEmpty() || !HttpMethod.POST.matches(request.getMethod());
+	}
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String chave = request.getHeader(HEADER_CHAVE_IDEMPOTENCIA);
+		String query = request.getQueryString();
+		String impressao = request.getMethod() + ' ' + (query == null ? request.getRequestURI() : request.getRequestURI() + '?' + query);
+		
+		while (true) {
+			Registro<RespostaArmazenada> registro = cache.registrar(chave);
+			if (registro.assumir()) {
+				executar(registro, impressao, request, response, filterChain);
+				return;
+			}
+			
+			RespostaArmazenada original;
+			try {
+				original = registro.aguardar(esperaMaxima, TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				escreverMensagem(response, HttpStatus.CONFLICT, MSG_REQUISICAO_EM_ANDAMENTO);
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				escreverMensagem(response, HttpStatus.CONFLICT, MSG_REQUISICAO_EM_ANDAMENTO);
+				return;
+			}
+			
+			if (original == null) {
+				// a original falhou e a chave foi esquecida: esta repetição passa a ser a nova tentativa
+				continue;
+			}
+			
+			if (original.isMesmaRequisicao(impressao)) {
+				original.reproduzir(response);
+			} else {
+				escreverMensagem(response, HttpStatus.UNPROCESSABLE_ENTITY, MSG_CHAVE_REUTILIZADA);
+			}
+			return;
+		}
+	}
+	
+	private void executar(Registro<RespostaArmazenada> registro, String impressao, HttpServletRequest request,
+			HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+		ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+		boolean concluido = false;
+		
+		try {
+			filterChain.doFilter(request, resposta);
+			
+			if (resposta.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value() && !request.isAsyncStarted()) {
+				registro.concluir(new RespostaArmazenada(impressao, resposta.getStatus(), resposta.getContentType(),
+						cabecalhos(resposta), resposta.getContentAsByteArray()));
+				concluido = true;
+			}
+		} finally {
+			if (!concluido) {
+				registro.cancelar();
+			}
+		}
+		
+		resposta.copyBodyToResponse();
+	}
+	
+	/**
+	 * Cabeçalhos da resposta original (Content-Language, Vary, ETag...), exceto os que descrevem o corpo e são
+	 * reescritos na reprodução.
+	 * @param resposta
+	 * @return Nomes e valores alternados.
+	 */
+	private static String[] cabecalhos(HttpServletResponse resposta) {
+		List<String> cabecalhos = new ArrayList<>();
+		for (String nome : new LinkedHashSet<>(resposta.getHeaderNames())) {
+			if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(nome) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(nome)
+					|| HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(nome)) {
+				continue;
+			}
+			for (String valor : resposta.getHeaders(nome)) {
+				cabecalhos.add(nome);
+				cabecalhos.add(valor);
+			}
+		}
+		return cabecalhos.toArray(new String[0]);
+	}
+	
+	private static void escreverMensagem(HttpServletResponse response, HttpStatus status, String mensagem) throws IOException {
+		byte[] corpo = mensagem.getBytes(StandardCharsets.UTF_8);
+		response.setStatus(status.value());
+		response.setContentType(CONTENT_TYPE_MENSAGEM);
+		response.setContentLength(corpo.length);
+		response.getOutputStream().write(corpo);
+	}
+}
@@ -0,0 +1,88 @@
+package com.zenvia.challenge.caixa.arch.idempotencia;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Resposta da requisição original de uma chave de idempotência, reproduzida byte a byte nas repetições: status,
+ * cabeçalhos e corpo.
+ */
+public final class RespostaArmazenada {
+	
+	private static final String[] SEM_CABECALHOS = new String[0];
+	
+	/**
+	 * Método, URI e query string da requisição original: a chave só é aceita de novo para a mesma operação.
+	 */
+	private final String impressao;
+	
+	private final int status;
+	
+	private final String contentType;
+	
+	/**
+	 * Nomes e valores dos cabeçalhos, alternados; um cabeçalho com vários valores aparece uma vez por valor.
+	 */
+	private final String[] cabecalhos;
+	
+	private final byte[] corpo;
+	
+	public RespostaArmazenada(String impressao, int status, String contentType, byte[] corpo) {
+		this(impressao, status, contentType, SEM_CABECALHOS, corpo);
+	}
+	
+	/**
+	 * @param impressao
+	 * @param status
+	 * @param contentType
+	 * @param cabecalhos Nomes e valores dos cabeçalhos da resposta, alternados, sem Content-Type nem Content-Length.
+	 * @param corpo
+	 */
+	public RespostaArmazenada(String impressao, int status, String contentType, String[] cabecalhos, byte[] corpo) {
+		this.impressao = impressao;
+		this.status = status;
+		this.contentType = contentType;
+		this.cabecalhos = cabecalhos;
+		this.corpo = corpo;
+	}
+	
+	public boolean isMesmaRequisicao(String impressao) {
+		return this.impressao.equals(impressao);
+	}
+	
+	public int getStatus() {
+		return status;
+	}
+	
+	public String getContentType() {
+		return contentType;
+	}
+	
+	public int getTamanhoCorpo() {
+		return corpo.length;
+	}
+	
+	/**
+	 * Escreve a resposta original.
+	 * @param response
+	 * @throws IOException
+	 */
+	public void reproduzir(HttpServletResponse response) throws IOException {
+		response.setStatus(status);
+		for (int i = 0; i < cabecalhos.length; i += 2) {
+			// o primeiro valor substitui o que os filtros anteriores já tenham escrito nesta resposta
+			if (i == 0 || !cabecalhos[i].equalsIgnoreCase(cabecalhos[i - 2])) {
+				response.setHeader(cabecalhos[i], cabecalhos[i + 1]);
+			} else {
+				response.addHeader(cabecalhos[i], cabecalhos[i + 1]);
+			}
+		}
+		if (contentType != null) {
+			response.setContentType(contentType);
+		}
+		response.setHeader(FiltroIdempotencia.HEADER_REPETICAO, Boolean.TRUE.toString());
+		response.setContentLength(corpo.length);
+		response.getOutputStream().write(corpo);
+	}
+}
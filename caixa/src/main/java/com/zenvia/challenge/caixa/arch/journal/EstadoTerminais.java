@@ -0,0 +1,74 @@
+package com.zenvia.challenge.caixa.arch.journal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.zenvia.challenge.caixa.enums.TipoEventoTerminalEnum;
+
+/**
+ * Estado dos terminais reconstruído a partir dos eventos do journal: quantidade de cédulas de cada tipo por terminal.
+ * Não é thread-safe; o {@link JournalMapeado} o atualiza sob o mesmo bloqueio da escrita dos eventos,
+ * de modo que o estado e a sequência do journal são sempre consistentes entre si.
+ */
+public class EstadoTerminais {
+	
+	private final Map<String, int[]> estoques;
+	
+	public EstadoTerminais() {
+		this.estoques = new HashMap<>();
+	}
+	
+	private EstadoTerminais(Map<String, int[]> estoques) {
+		this.estoques = estoques;
+	}
+
+	/**
+	 * Aplica um evento ao estado. Eventos de terminais não cadastrados são ignorados
+	 * (por exemplo, um saque concluído depois da retirada do terminal).
+	 * @param tipo
+	 * @param idTerminal
+	 * @param quantidades
+	 */
+	public void aplicar(TipoEventoTerminalEnum tipo, String idTerminal, int[] quantidades) {
+		switch (tipo) {
+		case CADASTRO:
+			estoques.put(idTerminal, quantidades.clone());
+			break;
+		case RETIRADA:
+			estoques.remove(idTerminal);
+			break;
+		case ABASTECIMENTO:
+		case SAQUE:
+			int[] estoque = estoques.get(idTerminal);
+			if (estoque != null && estoque.length < quantidades.length) {
+				// terminal cadastrado antes da inclusão de novos tipos de cédula
+				estoque = Arrays.copyOf(estoque, quantidades.length);
+				estoques.put(idTerminal, estoque);
+			}
+			if (estoque != null) {
+				int sinal = tipo == TipoEventoTerminalEnum.SAQUE ? -1 : 1;
+				for (int i = 0; i < Math.min(estoque.length, quantidades.length); i++) {
+					estoque[i] += sinal * quantidades[i];
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Tipo de evento desconhecido: " + tipo);
+		}
+	}
+	
+	/**
+	 * Retorna o estoque de cada terminal, indexado pelo ordinal do tipo de cédula.
+	 * @return
+	 */
+	public Map<String, int[]> getEstoques() {
+		return estoques;
+	}
+	
+	public EstadoTerminais copiar() {
+		Map<String, int[]> copia = new HashMap<>(estoques.size() * 2);
+		estoques.forEach((idTerminal, estoque) -> copia.put(idTerminal, estoque.clone()));
+		return new EstadoTerminais(copia);
+	}
+}
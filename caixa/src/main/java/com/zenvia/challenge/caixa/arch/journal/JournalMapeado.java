@@ -0,0 +1,607 @@
+package com.zenvia.challenge.caixa.arch.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import com.zenvia.challenge.caixa.enums.TipoEventoTerminalEnum;
+
+/**
+ * Journal durável, somente de acréscimo, dos eventos dos terminais, gravado em segmentos mapeados em memória.
+ * <p>
+ * Cada evento é copiado para o segmento corrente sob um bloqueio curto e o chamador aguarda até que ele
+ * esteja em disco. Uma única thread gravadora executa {@code force()} para todos os eventos pendentes,
+ * de modo que muitas requisições simultâneas compartilham a mesma sincronização (group commit).
+ * <p>
+ * Layout de um registro: {@code [int tamanho][int crc32][long sequência][long instante][byte tipo]
+ * [short tamanho do id][id UTF-8][byte tipos de cédula][int quantidade...]}. Um tamanho zero marca o fim
+ * dos dados; um registro com CRC ou sequência inválidos (escrita interrompida) também encerra a leitura.
+ * <p>
+ * Snapshots compactos do estado são gravados periodicamente; na inicialização o estado é recuperado do
+ * último snapshot e apenas a cauda do journal posterior a ele é reaplicada.
+ */
+public class JournalMapeado implements Closeable {
+	
+	/** Tamanho mínimo de um segmento: deve comportar com folga o maior registro possível. */
+	public static final long TAMANHO_MINIMO_SEGMENTO = 64 * 1024;
+	
+	private static final String PREFIXO_SEGMENTO = "journal-";
+	
+	private static final String SUFIXO_SEGMENTO = ".log";
+	
+	private static final String PREFIXO_SNAPSHOT = "snapshot-";
+	
+	private static final String SUFIXO_SNAPSHOT = ".bin";
+	
+	private static final String SUFIXO_DESCARTADO = ".descartado";
+	
+	private static final long MARCA_SNAPSHOT = 0x4341495841534E50L;
+	
+	private static final int CABECALHO_REGISTRO = 8;
+	
+	private static final int FIM_DE_DADOS = 4;
+	
+	private static final int TAMANHO_MAXIMO_ID = 1024;
+	
+	private final Path diretorio;
+	
+	private final long tamanhoSegmento;
+	
+	private final boolean sincronizar;
+	
+	private final ReentrantLock bloqueio = new ReentrantLock();
+	
+	private final Condition escritaPendente = bloqueio.newCondition();
+	
+	private final Condition escritaDuravel = bloqueio.newCondition();
+	
+	private final CRC32 crc = new CRC32();
+	
+	private final EstadoTerminais estado;
+	
+	private final Object bloqueioSnapshot = new Object();
+	
+	private Thread gravador;
+	
+	private FileChannel canalSegmento;
+	
+	private MappedByteBuffer segmento;
+	
+	private long primeiraSequenciaSegmento;
+	
+	private long sequencia;
+	
+	private long sequenciaSnapshot;
+	
+	private long posicaoEscrita;
+	
+	private long posicaoDuravel;
+	
+	private IOException falha;
+	
+	private boolean aberto = true;
+	
+	private JournalMapeado(Path diretorio, long tamanhoSegmento, boolean sincronizar, EstadoTerminais estado) {
+		this.diretorio = diretorio;
+		this.tamanhoSegmento = tamanhoSegmento;
+		this.sincronizar = sincronizar;
+		this.estado = estado;
+	}
+	
+	/**
+	 * Abre o journal de um diretório, recuperando o estado do último snapshot e da cauda do journal.
+	 * @param diretorio Diretório dos segmentos e snapshots (criado se não existir).
+	 * @param tamanhoSegmento Tamanho de cada segmento mapeado, em bytes.
+	 * @param sincronizar Se true, {@link #registrar} só retorna depois que o evento está em disco.
+	 * @return
+	 * @throws IOException
+	 */
+	public static JournalMapeado abrir(Path diretorio, long tamanhoSegmento, boolean sincronizar) throws IOException {
+		if (tamanhoSegmento < TAMANHO_MINIMO_SEGMENTO || tamanhoSegmento > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Tamanho de segmento inválido: " + tamanhoSegmento);
+		}
+		Files.createDirectories(diretorio);
+		
+		JournalMapeado journal = new JournalMapeado(diretorio, tamanhoSegmento, sincronizar, new EstadoTerminais());
+		journal.recuperar();
+		
+		if (sincronizar) {
+			journal.gravador = new Thread(journal::sincronizarContinuamente, "journal-gravador");
+			journal.gravador.setDaemon(true);
+			journal.gravador.start();
+		}
+		
+		return journal;
+	}
+	
+	/**
+	 * Acrescenta um evento ao journal e o aplica ao estado.
+	 * @param tipo
+	 * @param idTerminal
+	 * @param quantidades Quantidades de cédulas do evento, indexadas pelo ordinal do tipo de cédula.
+	 * @return Sequência atribuída ao evento.
+	 * @throws IOException Se o journal estiver fechado ou a gravação em disco falhar.
+	 */
+	public long registrar(TipoEventoTerminalEnum tipo, String idTerminal, int[] quantidades) throws IOException {
+		byte[] id = idTerminal.getBytes(StandardCharsets.UTF_8);
+		if (id.length > TAMANHO_MAXIMO_ID) {
+			throw new IllegalArgumentException("Identificador de terminal excede " + TAMANHO_MAXIMO_ID + " bytes.");
+		}
+		int tamanhoCorpo = 8 + 8 + 1 + 2 + id.length + 1 + 4 * quantidades.length;
+		long sequenciaEvento;
+		long fim;
+		
+		bloqueio.lock();
+		try {
+			verificarDisponivel();
+			if (segmento.remaining() < CABECALHO_REGISTRO + tamanhoCorpo + FIM_DE_DADOS) {
+				rolarSegmento();
+			}
+			
+			sequenciaEvento = ++sequencia;
+			int inicio = segmento.position();
+			segmento.position(inicio + CABECALHO_REGISTRO);
+			segmento.putLong(sequenciaEvento);
+			segmento.putLong(System.currentTimeMillis());
+			segmento.put(tipo.getCodigo());
+			segmento.putShort((short) id.length);
+			segmento.put(id);
+			segmento.put((byte) quantidades.length);
+			for (int quantidade : quantidades) {
+				segmento.putInt(quantidade);
+			}
+			
+			ByteBuffer corpo = segmento.duplicate();
+			corpo.position(inicio + CABECALHO_REGISTRO).limit(inicio + CABECALHO_REGISTRO + tamanhoCorpo);
+			crc.reset();
+			crc.update(corpo);
+			
+			// o tamanho é gravado por último: até aqui o registro continua marcado como fim dos dados
+			segmento.putInt(inicio + 4, (int) crc.getValue());
+			segmento.putInt(segmento.position(), 0);
+			segmento.putInt(inicio, tamanhoCorpo);
+			
+			estado.aplicar(tipo, idTerminal, quantidades);
+			posicaoEscrita += CABECALHO_REGISTRO + tamanhoCorpo;
+			fim = posicaoEscrita;
+			
+			if (sincronizar) {
+				escritaPendente.signal();
+			} else {
+				posicaoDuravel = fim;
+			}
+		} finally {
+			bloqueio.unlock();
+		}
+		
+		if (sincronizar) {
+			aguardarDurabilidade(fim);
+		}
+		
+		return sequenciaEvento;
+	}
+	
+	/**
+	 * Grava um snapshot do estado e remove os segmentos e snapshots que ele torna desnecessários.
+	 * @return Sequência do último evento incluído no snapshot.
+	 * @throws IOException
+	 */
+	public long gravarSnapshot() throws IOException {
+		synchronized (bloqueioSnapshot) {
+			EstadoTerminais copia;
+			long sequenciaCopia;
+			long primeiraSequenciaAtual;
+			long fim;
+			
+			bloqueio.lock();
+			try {
+				if (sequencia == sequenciaSnapshot) {
+					return sequenciaSnapshot;
+				}
+				copia = estado.copiar();
+				sequenciaCopia = sequencia;
+				primeiraSequenciaAtual = primeiraSequenciaSegmento;
+				fim = posicaoEscrita;
+			} finally {
+				bloqueio.unlock();
+			}
+			
+			// o snapshot não pode conter eventos que ainda não estão no journal em disco
+			aguardarDurabilidade(fim);
+			
+			Path temporario = diretorio.resolve(PREFIXO_SNAPSHOT + "tmp");
+			try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				CheckedOutputStream checagem = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)), new CRC32());
+				DataOutputStream saida = new DataOutputStream(checagem);
+				
+				saida.writeLong(MARCA_SNAPSHOT);
+				saida.writeLong(sequenciaCopia);
+				saida.writeInt(copia.getEstoques().size());
+				for (Map.Entry<String, int[]> terminal : copia.getEstoques().entrySet()) {
+					saida.writeUTF(terminal.getKey());
+					saida.writeByte(terminal.getValue().length);
+					for (int quantidade : terminal.getValue()) {
+						saida.writeInt(quantidade);
+					}
+				}
+				long valorCrc = checagem.getChecksum().getValue();
+				saida.writeLong(valorCrc);
+				saida.flush();
+				canal.force(true);
+			}
+			Files.move(temporario, arquivoSnapshot(sequenciaCopia), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			
+			bloqueio.lock();
+			try {
+				sequenciaSnapshot = sequenciaCopia;
+			} finally {
+				bloqueio.unlock();
+			}
+			
+			removerObsoletos(sequenciaCopia, primeiraSequenciaAtual);
+			return sequenciaCopia;
+		}
+	}
+	
+	/**
+	 * Copia o estado corrente dos terminais.
+	 * @return
+	 */
+	public EstadoTerminais copiarEstado() {
+		bloqueio.lock();
+		try {
+			return estado.copiar();
+		} finally {
+			bloqueio.unlock();
+		}
+	}
+	
+	public long getSequencia() {
+		bloqueio.lock();
+		try {
+			return sequencia;
+		} finally {
+			bloqueio.unlock();
+		}
+	}
+	
+	/**
+	 * Quantidade de eventos registrados desde o último snapshot.
+	 * @return
+	 */
+	public long getEventosDesdeSnapshot() {
+		bloqueio.lock();
+		try {
+			return sequencia - sequenciaSnapshot;
+		} finally {
+			bloqueio.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		bloqueio.lock();
+		try {
+			if (!aberto) {
+				return;
+			}
+			aberto = false;
+			escritaPendente.signalAll();
+		} finally {
+			bloqueio.unlock();
+		}
+		
+		if (gravador != null) {
+			try {
+				gravador.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		bloqueio.lock();
+		try {
+			segmento.force();
+			posicaoDuravel = posicaoEscrita;
+			escritaDuravel.signalAll();
+			canalSegmento.close();
+		} finally {
+			bloqueio.unlock();
+		}
+	}
+	
+	/**
+	 * Laço da thread gravadora: sincroniza com o disco tudo o que foi escrito desde a última sincronização.
+	 */
+	private void sincronizarContinuamente() {
+		while (true) {
+			long alvo;
+			MappedByteBuffer buffer;
+			
+			bloqueio.lock();
+			try {
+				while (aberto && posicaoEscrita == posicaoDuravel) {
+					escritaPendente.awaitUninterruptibly();
+				}
+				if (!aberto) {
+					return;
+				}
+				alvo = posicaoEscrita;
+				buffer = segmento;
+			} finally {
+				bloqueio.unlock();
+			}
+			
+			RuntimeException erro = null;
+			try {
+				buffer.force();
+			} catch (RuntimeException e) {
+				erro = e;
+			}
+			
+			bloqueio.lock();
+			try {
+				if (erro != null) {
+					falha = new IOException("Falha ao sincronizar o journal com o disco.", erro);
+					escritaDuravel.signalAll();
+					return;
+				}
+				posicaoDuravel = Math.max(posicaoDuravel, alvo);
+				escritaDuravel.signalAll();
+			} finally {
+				bloqueio.unlock();
+			}
+		}
+	}
+	
+	private void aguardarDurabilidade(long fim) throws IOException {
+		bloqueio.lock();
+		try {
+			while (posicaoDuravel < fim) {
+				if (falha != null) {
+					throw falha;
+				}
+				escritaDuravel.await();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrompido aguardando a gravação do journal.");
+		} finally {
+			bloqueio.unlock();
+		}
+	}
+	
+	private void verificarDisponivel() throws IOException {
+		if (!aberto) {
+			throw new IOException("Journal fechado.");
+		}
+		if (falha != null) {
+			throw falha;
+		}
+	}
+	
+	/**
+	 * Fecha o segmento corrente, já sincronizado com o disco, e abre o próximo. Executado sob o bloqueio.
+	 * @throws IOException
+	 */
+	private void rolarSegmento() throws IOException {
+		segmento.force();
+		posicaoDuravel = posicaoEscrita;
+		escritaDuravel.signalAll();
+		canalSegmento.close();
+		
+		abrirSegmento(sequencia + 1, 0);
+	}
+	
+	private void abrirSegmento(long primeiraSequencia, int posicao) throws IOException {
+		canalSegmento = FileChannel.open(arquivoSegmento(primeiraSequencia),
+				StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		segmento = canalSegmento.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+		segmento.position(posicao);
+		primeiraSequenciaSegmento = primeiraSequencia;
+	}
+	
+	/**
+	 * Recupera o estado: carrega o último snapshot e reaplica os eventos posteriores a ele.
+	 * A escrita continua no fim dos dados válidos do último segmento; segmentos posteriores a uma
+	 * lacuna ou a um registro inválido são renomeados e não são reaplicados.
+	 * @throws IOException
+	 */
+	private void recuperar() throws IOException {
+		sequenciaSnapshot = carregarSnapshot();
+		sequencia = sequenciaSnapshot;
+		
+		List<Long> segmentos = listar(PREFIXO_SEGMENTO, SUFIXO_SEGMENTO);
+		long ultimaLida = -1;
+		for (int i = 0; i < segmentos.size(); i++) {
+			long primeira = segmentos.get(i);
+			boolean ultimo = i == segmentos.size() - 1;
+			
+			// segmento inteiramente coberto pelo snapshot
+			if (!ultimo && segmentos.get(i + 1) - 1 <= sequenciaSnapshot) {
+				ultimaLida = segmentos.get(i + 1) - 1;
+				continue;
+			}
+			
+			if ((ultimaLida >= 0 && primeira != ultimaLida + 1) || primeira > sequencia + 1) {
+				descartar(segmentos.subList(i, segmentos.size()));
+				break;
+			}
+			
+			abrirSegmento(primeira, 0);
+			ultimaLida = reaplicar(primeira);
+			
+			if (ultimo && ultimaLida == sequencia) {
+				return;
+			}
+			canalSegmento.close();
+		}
+		
+		abrirSegmento(sequencia + 1, 0);
+	}
+	
+	/**
+	 * Reaplica os eventos do segmento aberto e posiciona a escrita no fim dos dados válidos.
+	 * @param primeiraSequencia
+	 * @return Sequência do último registro válido do segmento.
+	 */
+	private long reaplicar(long primeiraSequencia) {
+		ByteBuffer buffer = segmento.duplicate();
+		long esperada = primeiraSequencia;
+		int fimDados = 0;
+		int[] quantidades = null;
+		
+		while (buffer.remaining() >= CABECALHO_REGISTRO) {
+			int tamanhoCorpo = buffer.getInt();
+			if (tamanhoCorpo <= 0 || tamanhoCorpo > buffer.remaining() - 4) {
+				break;
+			}
+			
+			int crcGravado = buffer.getInt();
+			ByteBuffer corpo = buffer.slice();
+			corpo.limit(tamanhoCorpo);
+			crc.reset();
+			crc.update(corpo.duplicate());
+			if ((int) crc.getValue() != crcGravado || corpo.getLong() != esperada) {
+				break;
+			}
+			
+			corpo.getLong();
+			TipoEventoTerminalEnum tipo = TipoEventoTerminalEnum.getByCodigo(corpo.get());
+			byte[] id = new byte[corpo.getShort()];
+			corpo.get(id);
+			int tiposCedula = corpo.get();
+			if (quantidades == null || quantidades.length != tiposCedula) {
+				quantidades = new int[tiposCedula];
+			}
+			for (int i = 0; i < tiposCedula; i++) {
+				quantidades[i] = corpo.getInt();
+			}
+			if (tipo == null) {
+				break;
+			}
+			
+			if (esperada > sequenciaSnapshot) {
+				estado.aplicar(tipo, new String(id, StandardCharsets.UTF_8), quantidades);
+				sequencia = esperada;
+			}
+			esperada++;
+			fimDados += CABECALHO_REGISTRO + tamanhoCorpo;
+			buffer.position(fimDados);
+		}
+		
+		segmento.position(fimDados);
+		return esperada - 1;
+	}
+	
+	/**
+	 * Carrega o snapshot mais recente.
+	 * @return Sequência do último evento incluído no snapshot, ou zero se não houver snapshot.
+	 * @throws IOException
+	 */
+	private long carregarSnapshot() throws IOException {
+		List<Long> snapshots = listar(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT);
+		if (snapshots.isEmpty()) {
+			return 0L;
+		}
+		
+		long sequenciaArquivo = snapshots.get(snapshots.size() - 1);
+		try (CheckedInputStream checagem = new CheckedInputStream(
+				new BufferedInputStream(Files.newInputStream(arquivoSnapshot(sequenciaArquivo))), new CRC32())) {
+			DataInputStream entrada = new DataInputStream(checagem);
+			
+			if (entrada.readLong() != MARCA_SNAPSHOT) {
+				throw new IOException("Snapshot inválido: " + arquivoSnapshot(sequenciaArquivo));
+			}
+			long sequenciaConteudo = entrada.readLong();
+			int quantidadeTerminais = entrada.readInt();
+			for (int i = 0; i < quantidadeTerminais; i++) {
+				String idTerminal = entrada.readUTF();
+				int[] quantidades = new int[entrada.readUnsignedByte()];
+				for (int j = 0; j < quantidades.length; j++) {
+					quantidades[j] = entrada.readInt();
+				}
+				estado.aplicar(TipoEventoTerminalEnum.CADASTRO, idTerminal, quantidades);
+			}
+			
+			long crcCalculado = checagem.getChecksum().getValue();
+			if (entrada.readLong() != crcCalculado || sequenciaConteudo != sequenciaArquivo) {
+				throw new IOException("Snapshot corrompido: " + arquivoSnapshot(sequenciaArquivo));
+			}
+			return sequenciaConteudo;
+		}
+	}
+	
+	private void removerObsoletos(long sequenciaSnapshotGravado, long primeiraSequenciaAtual) throws IOException {
+		for (long snapshot : listar(PREFIXO_SNAPSHOT, SUFIXO_SNAPSHOT)) {
+			if (snapshot < sequenciaSnapshotGravado) {
+				Files.deleteIfExists(arquivoSnapshot(snapshot));
+			}
+		}
+		
+		List<Long> segmentos = listar(PREFIXO_SEGMENTO, SUFIXO_SEGMENTO);
+		for (int i = 0; i < segmentos.size() - 1; i++) {
+			long primeira = segmentos.get(i);
+			if (primeira < primeiraSequenciaAtual && segmentos.get(i + 1) - 1 <= sequenciaSnapshotGravado) {
+				Files.deleteIfExists(arquivoSegmento(primeira));
+			}
+		}
+	}
+	
+	private void descartar(List<Long> segmentos) throws IOException {
+		for (long primeira : segmentos) {
+			Path arquivo = arquivoSegmento(primeira);
+			Files.move(arquivo, arquivo.resolveSibling(arquivo.getFileName() + SUFIXO_DESCARTADO), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	private List<Long> listar(String prefixo, String sufixo) throws IOException {
+		List<Long> sequencias = new ArrayList<>();
+		
+		try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, prefixo + "*" + sufixo)) {
+			for (Path arquivo : arquivos) {
+				String nome = arquivo.getFileName().toString();
+				String numero = nome.substring(prefixo.length(), nome.length() - sufixo.length());
+				try {
+					sequencias.add(Long.parseLong(numero));
+				} catch (NumberFormatException e) {
+					// arquivo que não pertence ao journal
+				}
+			}
+		}
+		
+		Collections.sort(sequencias);
+		return sequencias;
+	}
+	
+	private Path arquivoSegmento(long primeiraSequencia) {
+		return diretorio.resolve(String.format("%s%020d%s", PREFIXO_SEGMENTO, primeiraSequencia, SUFIXO_SEGMENTO));
+	}
+	
+	private Path arquivoSnapshot(long sequenciaSnapshot) {
+		return diretorio.resolve(String.format("%s%020d%s", PREFIXO_SNAPSHOT, sequenciaSnapshot, SUFIXO_SNAPSHOT));
+	}
+}
@@ -0,0 +1,116 @@
+package com.zenvia.challenge.caixa.arch.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.config.JournalProperties;
+import com.zenvia.challenge.caixa.enums.TipoEventoTerminalEnum;
+
+/**
+ * Ponto de acesso da aplicação ao {@link JournalMapeado}: abre o journal configurado, agenda os snapshots
+ * periódicos e o fecha no encerramento. Sem diretório configurado, os eventos são apenas descartados.
+ */
+@Component
+public class JournalTerminais {
+	
+	private final JournalMapeado journal;
+	
+	private final Map<String, int[]> estoquesRecuperados;
+	
+	private final ScheduledExecutorService agendador;
+	
+	@Autowired
+	public JournalTerminais(JournalProperties properties) throws IOException {
+		if (properties.getDiretorio() == null || properties.getDiretorio().trim().isEmpty()) {
+			this.journal = null;
+			this.estoquesRecuperados = Collections.emptyMap();
+			this.agendador = null;
+			return;
+		}
+		
+		this.journal = JournalMapeado.abrir(Paths.get(properties.getDiretorio()), properties.getTamanhoSegmento(), properties.isSincronizar());
+		this.estoquesRecuperados = journal.copiarEstado().getEstoques();
+		this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+			Thread thread = new Thread(tarefa, "journal-snapshot");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		long intervalo = properties.getIntervaloSnapshotSegundos();
+		agendador.scheduleWithFixedDelay(this::gravarSnapshot, intervalo, intervalo, TimeUnit.SECONDS);
+	}
+	
+	/**
+	 * Journal desabilitado, para uso fora do contexto Spring.
+	 * @return
+	 */
+	public static JournalTerminais desabilitado() {
+		try {
+			return new JournalTerminais(new JournalProperties());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public boolean isHabilitado() {
+		return journal != null;
+	}
+	
+	/**
+	 * Estoque de cada terminal recuperado do journal na inicialização, indexado pelo ordinal do tipo de cédula.
+	 * @return
+	 */
+	public Map<String, int[]> getEstoquesRecuperados() {
+		return estoquesRecuperados;
+	}
+	
+	/**
+	 * Registra um evento de forma durável.
+	 * @param tipo
+	 * @param idTerminal
+	 * @param quantidades
+	 * @throws UncheckedIOException Se o evento não puder ser gravado; nesse caso a operação não deve ser efetivada.
+	 */
+	public void registrar(TipoEventoTerminalEnum tipo, String idTerminal, int[] quantidades) {
+		if (journal == null) {
+			return;
+		}
+		try {
+			journal.registrar(tipo, idTerminal, quantidades);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void gravarSnapshot() {
+		try {
+			journal.gravarSnapshot();
+		} catch (IOException e) {
+			// o journal continua completo; o próximo snapshot agendado tenta novamente
+		}
+	}
+	
+	@PreDestroy
+	public void encerrar() throws IOException {
+		if (journal == null) {
+			return;
+		}
+		agendador.shutdownNow();
+		try {
+			journal.gravarSnapshot();
+		} finally {
+			journal.close();
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package com.zenvia.challenge.caixa.arch.metricas;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Métricas de latência e vazão das etapas de um saque, expostas pelo Actuator (inclusive no formato Prometheus).
+ * <p>
+ * Todos os medidores são registrados na construção, com as suas tags já resolvidas: no caminho da requisição
+ * apenas se registra a duração, medida com {@link System#nanoTime()}, ou se incrementa um contador,
+ * sem montar tags nem consultar o registro a cada chamada.
+ */
+@Component
+public class MetricasSaque {
+	
+	public static final String METRICA_OPERACAO = "caixa.saque.operacao";
+	
+	public static final String METRICA_ETAPA = "caixa.saque.etapa";
+	
+	public static final String METRICA_REJEICOES = "caixa.saque.rejeicoes";
+	
+	public static final String METRICA_CEDULAS_DISPENSADAS = "caixa.cedulas.dispensadas";
+	
+	public static final String METRICA_FALHAS_APOS_CONFIRMACAO = "caixa.saque.falhas.apos.confirmacao";
+	
+	private static final String MOTIVO_OUTROS = "OUTROS";
+	
+	private final Timer operacaoCalculo;
+	
+	private final Timer operacaoTerminal;
+	
+	private final Timer etapaValidacao;
+	
+	private final Timer etapaCalculo;
+	
+	private final Timer etapaResumo;
+	
+	/**
+	 * Contadores de rejeição indexados pela mensagem da {@link BusinessException}; somente leitura após a construção.
+	 */
+	private final Map<String, Counter> rejeicoes = new HashMap<>();
+	
+	private final Counter rejeicoesOutras;
+	
+	/**
+	 * Contadores de rejeição indexados pelo ordinal de {@link ResultadoValidacaoSaqueEnum}, para os chamadores que não lançam exceção.
+	 */
+	private final Counter[] rejeicoesPorResultado = new Counter[ResultadoValidacaoSaqueEnum.values().length];
+	
+	/**
+	 * Contadores de cédulas dispensadas pelos terminais, indexados pelo ordinal de {@link TipoCedulaEnum}.
+	 */
+	private final Counter[] cedulasDispensadas = new Counter[TipoCedulaEnum.values().length];
+	
+	private final Counter falhasAposConfirmacao;
+	
+	@Autowired
+	public MetricasSaque(MeterRegistry registry) {
+		this.operacaoCalculo = temporizador(METRICA_OPERACAO, "Duração de uma requisição de saque.", "tipo", "calculo", registry);
+		this.operacaoTerminal = temporizador(METRICA_OPERACAO, "Duração de uma requisição de saque.", "tipo", "terminal", registry);
+		this.etapaValidacao = temporizador(METRICA_ETAPA, "Duração de uma etapa do saque.", "etapa", "validacao", registry);
+		this.etapaCalculo = temporizador(METRICA_ETAPA, "Duração de uma etapa do saque.", "etapa", "calculo", registry);
+		this.etapaResumo = temporizador(METRICA_ETAPA, "Duração de uma etapa do saque.", "etapa", "resumo", registry);
+		
+		registrarMotivo(SaqueService.MSG_VALOR_SAQUE_OBRIGATORIO, "VALOR_SAQUE_OBRIGATORIO", registry);
+		registrarMotivo(SaqueService.MSG_VALOR_SAQUE_INVALIDO, "VALOR_SAQUE_INVALIDO", registry);
+		registrarMotivo(SaqueService.MSG_VALOR_SAQUE_MAIOR_QUE_ZERO, "VALOR_SAQUE_MAIOR_QUE_ZERO", registry);
+		registrarMotivo(SaqueService.MSG_VALOR_MINIMO_SAQUE, "VALOR_MINIMO_SAQUE", registry);
+		// a mensagem de valor mínimo depende da menor cédula do conjunto configurado
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			registrarMotivo(String.format(SaqueService.MODELO_MSG_VALOR_MINIMO_SAQUE, tipoCedula.getValorFaceCedula()), "VALOR_MINIMO_SAQUE", registry);
+		}
+		registrarMotivo(SaqueService.MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO, "VALOR_SAQUE_DEVE_SER_MULTIPLO", registry);
+		registrarMotivo(SaqueService.MSG_CEDULAS_INSUFICIENTES, "CEDULAS_INSUFICIENTES", registry);
+		registrarMotivo(SaqueService.MSG_VALOR_SAQUE_ACIMA_DO_LIMITE, "VALOR_SAQUE_ACIMA_DO_LIMITE", registry);
+		this.rejeicoesOutras = contadorRejeicao(MOTIVO_OUTROS, registry);
+		
+		for (ResultadoValidacaoSaqueEnum resultado : ResultadoValidacaoSaqueEnum.values()) {
+			Counter contador = resultado.getMensagem() == null ? null : rejeicoes.get(resultado.getMensagem());
+			rejeicoesPorResultado[resultado.ordinal()] = contador != null ? contador : rejeicoesOutras;
+		}
+		
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			cedulasDispensadas[tipoCedula.ordinal()] = Counter.builder(METRICA_CEDULAS_DISPENSADAS)
+					.description("Quantidade de cédulas dispensadas pelos terminais.")
+					.baseUnit("cedulas")
+					.tag("cedula", tipoCedula.name())
+					.register(registry);
+		}
+		
+		this.falhasAposConfirmacao = Counter.builder(METRICA_FALHAS_APOS_CONFIRMACAO)
+				.description("Falhas nos registros de saques já confirmados (totais, auditoria, gravação), que não desfazem o saque.")
+				.register(registry);
+	}
+	
+	/**
+	 * Métricas sem registro de destino, para uso fora do contexto Spring: as medições são descartadas.
+	 * @return
+	 */
+	public static MetricasSaque desabilitadas() {
+		return new MetricasSaque(new CompositeMeterRegistry());
+	}
+	
+	public void registrarOperacaoCalculo(long duracaoNanos) {
+		operacaoCalculo.record(duracaoNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	public void registrarOperacaoTerminal(long duracaoNanos) {
+		operacaoTerminal.record(duracaoNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	public void registrarValidacao(long duracaoNanos) {
+		etapaValidacao.record(duracaoNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	public void registrarCalculo(long duracaoNanos) {
+		etapaCalculo.record(duracaoNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	public void registrarResumo(long duracaoNanos) {
+		etapaResumo.record(duracaoNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Conta uma rejeição pelo seu motivo (mensagem da {@link BusinessException}).
+	 * @param rejeicao
+	 */
+	public void registrarRejeicao(BusinessException rejeicao) {
+		String mensagem = rejeicao.getMessage();
+		Counter contador = mensagem == null ? null : rejeicoes.get(mensagem);
+		
+		(contador != null ? contador : rejeicoesOutras).increment();
+	}
+	
+	/**
+	 * Conta uma rejeição da validação do valor do saque.
+	 * @param resultado
+	 */
+	public void registrarRejeicao(ResultadoValidacaoSaqueEnum resultado) {
+		if (!resultado.isValido()) {
+			rejeicoesPorResultado[resultado.ordinal()].increment();
+		}
+	}
+	
+	public void registrarCedulasDispensadas(TipoCedulaEnum tipoCedula, double quantidade) {
+		if (quantidade > 0) {
+			cedulasDispensadas[tipoCedula.ordinal()].increment(quantidade);
+		}
+	}
+	
+	/**
+	 * Conta as cédulas entregues por um terminal. Os cálculos sem terminal não dispensam cédulas e não são contados.
+	 * @param composicao
+	 */
+	public void registrarCedulasDispensadas(ComposicaoSaque composicao) {
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			registrarCedulasDispensadas(tipoCedula, composicao.getQuantidade(tipoCedula));
+		}
+	}
+	
+	/**
+	 * Conta uma falha em um registro posterior à confirmação de um saque em terminal.
+	 */
+	public void registrarFalhaAposConfirmacao() {
+		falhasAposConfirmacao.increment();
+	}
+	
+	private void registrarMotivo(String mensagem, String motivo, MeterRegistry registry) {
+		rejeicoes.put(mensagem, contadorRejeicao(motivo, registry));
+	}
+	
+	private static Counter contadorRejeicao(String motivo, MeterRegistry registry) {
+		return Counter.builder(METRICA_REJEICOES)
+				.description("Quantidade de saques rejeitados, por motivo.")
+				.tag("motivo", motivo)
+				.register(registry);
+	}
+	
+	private static Timer temporizador(String nome, String descricao, String chaveTag, String valorTag, MeterRegistry registry) {
+		return Timer.builder(nome)
+				.description(descricao)
+				.tag(chaveTag, valorTag)
+				.publishPercentileHistogram()
+				.minimumExpectedValue(Duration.ofNanos(100))
+				.maximumExpectedValue(Duration.ofSeconds(10))
+				.register(registry);
+	}
+}
@@ -0,0 +1,450 @@
+package com.zenvia.challenge.caixa.arch.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.config.PersistenciaSaquesProperties;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Gravação em segundo plano dos saques atendidos, no formato binário de {@link TrilhaSaques} (os arquivos podem ser
+ * percorridos e simulados como qualquer trilha).
+ * <p>
+ * As requisições apenas colocam o saque em uma fila limitada e recebem um {@link CompletableFuture}, concluído quando
+ * o saque é gravado (e sincronizado com o disco, se configurado); quem precisa de durabilidade espera por ele. Uma thread
+ * gravadora retira os saques em lotes: a partir do primeiro saque, espera pela janela do lote ou até completar o tamanho
+ * do lote, e grava o lote inteiro com uma única escrita no fim do arquivo, seguida de uma única sincronização. O custo
+ * da escrita e da sincronização é dividido entre os saques do lote.
+ * <p>
+ * Com a fila cheia, a requisição espera por espaço até o limite configurado; esgotado o limite, o saque não é gravado
+ * e o futuro falha com {@link RejectedExecutionException}. Um lote cuja escrita falha é perdido inteiro, e os seus
+ * futuros falham com a {@link IOException}. Gravados, rejeitados e perdidos são expostos na métrica
+ * {@value #METRICA_SAQUES}.
+ * <p>
+ * Na abertura, um registro incompleto no fim do arquivo (lote interrompido por queda do processo) é descartado.
+ */
+@Component
+public class PersistenciaSaques {
+	
+	public static final String METRICA_SAQUES = "caixa.persistencia.saques";
+	
+	public static final String METRICA_LOTES = "caixa.persistencia.lotes";
+	
+	public static final String METRICA_PENDENTES = "caixa.persistencia.pendentes";
+	
+	public static final String MSG_FILA_CHEIA = "Fila de gravação de saques cheia.";
+	
+	public static final String MSG_ENCERRADA = "Gravação de saques encerrada.";
+	
+	public static final String MSG_ID_TERMINAL_INVALIDO = "Identificador de terminal deve ter de 1 a " + TrilhaSaques.TAMANHO_MAXIMO_ID
+			+ " bytes.";
+	
+	/**
+	 * Futuro dos saques quando a gravação está desabilitada.
+	 */
+	private static final CompletableFuture<Void> CONCLUIDO = CompletableFuture.completedFuture(null);
+	
+	/**
+	 * Pausa da thread gravadora sem saques na fila, para observar o encerramento.
+	 */
+	private static final long PAUSA_GRAVADOR_MILISSEGUNDOS = 100;
+	
+	/**
+	 * Tempo máximo de espera, no encerramento, pela gravação dos saques pendentes.
+	 */
+	private static final long ESPERA_ENCERRAMENTO_MILISSEGUNDOS = 10_000;
+	
+	private static final int CABECALHO = 8;
+	
+	/**
+	 * Tamanho do registro além do identificador: tamanho do identificador, instante e valor.
+	 */
+	private static final int CAMPOS_REGISTRO = 2 + 8 + 8;
+	
+	private final BlockingQueue<Pendente> fila;
+	
+	private final FileChannel canal;
+	
+	private final Thread gravador;
+	
+	private final int tamanhoLote;
+	
+	private final long janelaLoteNanos;
+	
+	private final long esperaFilaCheiaNanos;
+	
+	private final boolean sincronizar;
+	
+	private final LongAdder gravados = new LongAdder();
+	
+	private final LongAdder rejeitados = new LongAdder();
+	
+	private final LongAdder perdidosEscrita = new LongAdder();
+	
+	private final LongAdder lotes = new LongAdder();
+	
+	private volatile boolean encerrando;
+	
+	/**
+	 * Lote em gravação e o seu buffer; usados apenas pela thread gravadora.
+	 */
+	private final List<Pendente> lote;
+	
+	private ByteBuffer saida;
+	
+	@Autowired
+	public PersistenciaSaques(PersistenciaSaquesProperties properties, MeterRegistry registry) throws IOException {
+		if (properties.getArquivo() == null || properties.getArquivo().trim().isEmpty()) {
+			this.fila = null;
+			this.canal = null;
+			this.gravador = null;
+			this.tamanhoLote = 0;
+			this.janelaLoteNanos = 0;
+			this.esperaFilaCheiaNanos = 0;
+			this.sincronizar = false;
+			this.lote = null;
+			return;
+		}
+		
+		this.fila = new ArrayBlockingQueue<>(properties.getCapacidadeFila());
+		this.canal = abrir(Paths.get(properties.getArquivo()));
+		this.tamanhoLote = Math.max(1, properties.getTamanhoLote());
+		this.janelaLoteNanos = TimeUnit.MICROSECONDS.toNanos(properties.getJanelaLoteMicrossegundos());
+		this.esperaFilaCheiaNanos = TimeUnit.MILLISECONDS.toNanos(properties.getEsperaFilaCheiaMilissegundos());
+		this.sincronizar = properties.isSincronizar();
+		this.lote = new ArrayList<>(tamanhoLote);
+		this.saida = ByteBuffer.allocate(64 * 1024);
+		
+		contador("gravados", gravados, registry);
+		contador("rejeitados", rejeitados, registry);
+		contador("perdidos-escrita", perdidosEscrita, registry);
+		FunctionCounter.builder(METRICA_LOTES, lotes, LongAdder::sum)
+				.description("Lotes de saques gravados.")
+				.register(registry);
+		Gauge.builder(METRICA_PENDENTES, fila, BlockingQueue::size)
+				.description("Saques aguardando gravação.")
+				.register(registry);
+		
+		this.gravador = new Thread(this::gravarContinuamente, "persistencia-saques");
+		gravador.setDaemon(true);
+		gravador.start();
+	}
+	
+	private static void contador(String situacao, LongAdder origem, MeterRegistry registry) {
+		FunctionCounter.builder(METRICA_SAQUES, origem, LongAdder::sum)
+				.description("Saques entregues à gravação em segundo plano.")
+				.tag("situacao", situacao)
+				.register(registry);
+	}
+	
+	/**
+	 * Gravação desabilitada, para uso fora do contexto Spring.
+	 * @return
+	 */
+	public static PersistenciaSaques desabilitada() {
+		try {
+			return new PersistenciaSaques(new PersistenciaSaquesProperties(), new CompositeMeterRegistry());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public boolean isHabilitada() {
+		return fila != null;
+	}
+	
+	/**
+	 * Entrega um saque atendido à gravação, esperando por espaço na fila se ela estiver cheia.
+	 * @param idTerminal
+	 * @param instante Milissegundos desde a época.
+	 * @param valorCentavos
+	 * @return Futuro concluído quando o saque estiver gravado; já concluído se a gravação estiver desabilitada. Falha
+	 * com {@link IllegalArgumentException}, sem gravar, para um identificador que não cabe na trilha.
+	 */
+	public CompletableFuture<Void> registrar(String idTerminal, long instante, long valorCentavos) {
+		if (fila == null) {
+			return CONCLUIDO;
+		}
+		
+		// o saque já foi atendido: um identificador inválido falha o futuro, e não quem atendeu o saque
+		byte[] terminal = idTerminal.getBytes(StandardCharsets.UTF_8);
+		Pendente pendente = new Pendente(terminal, instante, valorCentavos);
+		if (terminal.length == 0 || terminal.length > TrilhaSaques.TAMANHO_MAXIMO_ID) {
+			rejeitados.increment();
+			pendente.conclusao.completeExceptionally(new IllegalArgumentException(MSG_ID_TERMINAL_INVALIDO));
+			return pendente.conclusao;
+		}
+		if (encerrando) {
+			return rejeitar(pendente, MSG_ENCERRADA);
+		}
+		try {
+			if (!fila.offer(pendente) && !fila.offer(pendente, esperaFilaCheiaNanos, TimeUnit.NANOSECONDS)) {
+				return rejeitar(pendente, MSG_FILA_CHEIA);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return rejeitar(pendente, MSG_FILA_CHEIA);
+		}
+		return pendente.conclusao;
+	}
+	
+	private CompletableFuture<Void> rejeitar(Pendente pendente, String mensagem) {
+		rejeitados.increment();
+		pendente.conclusao.completeExceptionally(new RejectedExecutionException(mensagem));
+		return pendente.conclusao;
+	}
+	
+	/**
+	 * @return Saques gravados.
+	 */
+	public long getGravados() {
+		return gravados.sum();
+	}
+	
+	/**
+	 * @return Saques não aceitos por fila cheia, após o encerramento ou por identificador de terminal inválido.
+	 */
+	public long getRejeitados() {
+		return rejeitados.sum();
+	}
+	
+	/**
+	 * @return Saques de lotes cuja gravação falhou.
+	 */
+	public long getPerdidosEscrita() {
+		return perdidosEscrita.sum();
+	}
+	
+	/**
+	 * @return Lotes gravados.
+	 */
+	public long getLotes() {
+		return lotes.sum();
+	}
+	
+	/**
+	 * Abre o arquivo para acréscimo, gravando o cabeçalho de um arquivo novo ou descartando um registro incompleto
+	 * no fim de um arquivo existente.
+	 * @param arquivo
+	 * @return
+	 * @throws IOException Se o arquivo existente não for uma trilha binária, ou estiver corrompido.
+	 */
+	private static FileChannel abrir(Path arquivo) throws IOException {
+		Path diretorio = arquivo.toAbsolutePath().getParent();
+		if (diretorio != null) {
+			Files.createDirectories(diretorio);
+		}
+		FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (canal.size() < CABECALHO) {
+				ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO);
+				cabecalho.putInt(TrilhaSaques.MARCA_BINARIA).putInt(TrilhaSaques.VERSAO_BINARIA).flip();
+				canal.truncate(0);
+				while (cabecalho.hasRemaining()) {
+					canal.write(cabecalho, cabecalho.position());
+				}
+				canal.force(true);
+				canal.position(CABECALHO);
+				return canal;
+			}
+			
+			long fim = fimRegistrosCompletos(canal);
+			if (fim < canal.size()) {
+				canal.truncate(fim);
+			}
+			canal.position(fim);
+			return canal;
+		} catch (IOException | RuntimeException e) {
+			canal.close();
+			throw e;
+		}
+	}
+	
+	private static long fimRegistrosCompletos(FileChannel canal) throws IOException {
+		long tamanho = canal.size();
+		DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal.position(0)), 1 << 16));
+		if (entrada.readInt() != TrilhaSaques.MARCA_BINARIA || entrada.readInt() != TrilhaSaques.VERSAO_BINARIA) {
+			throw new IOException("Arquivo de saques não é uma trilha binária.");
+		}
+		
+		long fim = CABECALHO;
+		while (tamanho - fim >= 2) {
+			int tamanhoId = entrada.readUnsignedShort();
+			long proximo = fim + CAMPOS_REGISTRO + tamanhoId;
+			if (tamanhoId == 0 || tamanhoId > TrilhaSaques.TAMANHO_MAXIMO_ID) {
+				throw new IOException("Arquivo de saques corrompido na posição " + fim + ".");
+			}
+			if (proximo > tamanho) {
+				break;
+			}
+			entrada.skipBytes(CAMPOS_REGISTRO - 2 + tamanhoId);
+			fim = proximo;
+		}
+		return fim;
+	}
+	
+	private void gravarContinuamente() {
+		try {
+			while (true) {
+				Pendente primeiro = fila.poll(PAUSA_GRAVADOR_MILISSEGUNDOS, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					if (encerrando && fila.isEmpty()) {
+						break;
+					}
+					continue;
+				}
+				
+				lote.add(primeiro);
+				completarLote();
+				gravarLote();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			Pendente pendente;
+			while ((pendente = fila.poll()) != null) {
+				rejeitar(pendente, MSG_ENCERRADA);
+			}
+			try {
+				canal.close();
+			} catch (IOException e) {
+				// os lotes concluídos já foram escritos; não há mais nada a gravar
+			}
+		}
+	}
+	
+	/**
+	 * Acrescenta ao lote os saques que chegam até o fim da janela, ou até o lote ficar completo.
+	 * @throws InterruptedException
+	 */
+	private void completarLote() throws InterruptedException {
+		long limite = System.nanoTime() + janelaLoteNanos;
+		while (lote.size() < tamanhoLote) {
+			fila.drainTo(lote, tamanhoLote - lote.size());
+			long restante = limite - System.nanoTime();
+			if (lote.size() >= tamanhoLote || restante <= 0) {
+				return;
+			}
+			Pendente proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+			if (proximo == null) {
+				return;
+			}
+			lote.add(proximo);
+		}
+	}
+	
+	private void gravarLote() {
+		int tamanho = 0;
+		for (Pendente pendente : lote) {
+			tamanho += CAMPOS_REGISTRO + pendente.terminal.length;
+		}
+		if (saida.capacity() < tamanho) {
+			saida = ByteBuffer.allocate(Integer.highestOneBit(tamanho - 1) << 1);
+		}
+		
+		saida.clear();
+		for (Pendente pendente : lote) {
+			saida.putShort((short) pendente.terminal.length).put(pendente.terminal)
+					.putLong(pendente.instante).putLong(pendente.valorCentavos);
+		}
+		saida.flip();
+		
+		long inicio = -1;
+		try {
+			inicio = canal.position();
+			while (saida.hasRemaining()) {
+				canal.write(saida);
+			}
+			if (sincronizar) {
+				canal.force(false);
+			}
+			lotes.increment();
+			gravados.add(lote.size());
+			for (Pendente pendente : lote) {
+				pendente.conclusao.complete(null);
+			}
+		} catch (IOException e) {
+			descartarEscritaParcial(inicio);
+			perdidosEscrita.add(lote.size());
+			for (Pendente pendente : lote) {
+				pendente.conclusao.completeExceptionally(e);
+			}
+		} finally {
+			lote.clear();
+		}
+	}
+	
+	/**
+	 * Remove o que uma escrita interrompida deixou no fim do arquivo, para que o próximo lote comece em um registro inteiro.
+	 * @param inicio Posição do arquivo antes da escrita, ou -1 se nem ela pôde ser lida.
+	 */
+	private void descartarEscritaParcial(long inicio) {
+		if (inicio < 0) {
+			return;
+		}
+		try {
+			canal.truncate(inicio);
+			canal.position(inicio);
+		} catch (IOException e) {
+			// o registro incompleto será descartado na próxima abertura do arquivo
+		}
+	}
+	
+	/**
+	 * Recusa novos saques, grava os pendentes e fecha o arquivo.
+	 * @throws InterruptedException
+	 */
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		if (fila == null || encerrando) {
+			return;
+		}
+		encerrando = true;
+		gravador.join(ESPERA_ENCERRAMENTO_MILISSEGUNDOS);
+	}
+	
+	private static final class Pendente {
+		
+		private final byte[] terminal;
+		
+		private final long instante;
+		
+		private final long valorCentavos;
+		
+		private final CompletableFuture<Void> conclusao = new CompletableFuture<>();
+		
+		private Pendente(byte[] terminal, long instante, long valorCentavos) {
+			this.terminal = terminal;
+			this.instante = instante;
+			this.valorCentavos = valorCentavos;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.zenvia.challenge.caixa.arch.protocolo;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Buffers diretos de tamanho fixo reaproveitados entre as conexões de um reator. Os buffers iniciais são fatias de uma
+ * única área alocada na criação; esgotado o pool, novos buffers são alocados e, na devolução, ficam retidos até a
+ * quantidade inicial. Usado apenas pela thread do reator, sem sincronização.
+ */
+final class PoolBuffersDiretos {
+	
+	private final ArrayDeque<ByteBuffer> livres;
+	
+	private final int tamanhoBuffer;
+	
+	private final int maximoRetidos;
+	
+	private long alocadosForaDoPool;
+	
+	PoolBuffersDiretos(int tamanhoBuffer, int quantidade) {
+		this.livres = new ArrayDeque<>(quantidade);
+		this.tamanhoBuffer = tamanhoBuffer;
+		this.maximoRetidos = quantidade;
+		
+		ByteBuffer area = ByteBuffer.allocateDirect(tamanhoBuffer * quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			area.limit((i + 1) * tamanhoBuffer).position(i * tamanhoBuffer);
+			livres.push(area.slice());
+		}
+	}
+	
+	/**
+	 * @return Um buffer vazio, pronto para escrita.
+	 */
+	ByteBuffer obter() {
+		ByteBuffer buffer = livres.poll();
+		if (buffer == null) {
+			alocadosForaDoPool++;
+			return ByteBuffer.allocateDirect(tamanhoBuffer);
+		}
+		return buffer;
+	}
+	
+	void devolver(ByteBuffer buffer) {
+		if (livres.size() < maximoRetidos) {
+			buffer.clear();
+			livres.push(buffer);
+		}
+	}
+	
+	int getLivres() {
+		return livres.size();
+	}
+	
+	long getAlocadosForaDoPool() {
+		return alocadosForaDoPool;
+	}
+}
@@ -0,0 +1,165 @@
+package com.zenvia.challenge.caixa.arch.protocolo;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.CodigoRespostaTerminalEnum;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+
+/**
+ * Mensagens de tamanho fixo do protocolo binário dos terminais, nos moldes da ISO 8583, e o seu atendimento pelo
+ * {@link CaixaEletronicoOperationService}. Os campos numéricos são big-endian.
+ * <p>
+ * Requisição ({@value #TAMANHO_REQUISICAO} bytes):
+ * <ul>
+ * <li>0: tipo de mensagem (short): {@value #MTI_CONSULTA_COMPOSICAO} para o cálculo da composição de um valor,
+ * {@value #MTI_SAQUE_TERMINAL} para o saque no estoque do terminal;</li>
+ * <li>2: estratégia de dispensação (byte): 0 para a estratégia do terminal, ou o ordinal de {@link EstrategiaDispensacaoEnum} mais 1;</li>
+ * <li>3: reservado (byte);</li>
+ * <li>4: número de rastreio (int), devolvido na resposta;</li>
+ * <li>8: valor em centavos (long);</li>
+ * <li>16: identificador do terminal ({@value #TAMANHO_TERMINAL} bytes ASCII, completados com espaços ou zeros).</li>
+ * </ul>
+ * Resposta ({@value #TAMANHO_RESPOSTA} bytes):
+ * <ul>
+ * <li>0: tipo de mensagem (short): o da requisição mais 10;</li>
+ * <li>2: código de resposta (short), de {@link CodigoRespostaTerminalEnum};</li>
+ * <li>4: número de rastreio (int) da requisição;</li>
+ * <li>8: quantidade de cédulas (int) de cada tipo, na ordem de {@link #CEDULAS_RESPOSTA} (de 200,00 a 2,00); zeros quando
+ * o código não é {@link CodigoRespostaTerminalEnum#APROVADO}.</li>
+ * </ul>
+ * As instâncias não guardam estado e podem ser usadas por várias threads ao mesmo tempo.
+ */
+public class ProtocoloBinarioTerminal {
+	
+	public static final int TAMANHO_REQUISICAO = 32;
+	
+	public static final int TAMANHO_RESPOSTA = 36;
+	
+	public static final int TAMANHO_TERMINAL = 16;
+	
+	public static final short MTI_CONSULTA_COMPOSICAO = 100;
+	
+	public static final short MTI_SAQUE_TERMINAL = 200;
+	
+	public static final short INCREMENTO_MTI_RESPOSTA = 10;
+	
+	/**
+	 * Ordem das quantidades de cédulas na resposta.
+	 */
+	public static final List<TipoCedulaEnum> CEDULAS_RESPOSTA = TipoCedulaEnum.getDecrescentValues();
+	
+	private static final TipoCedulaEnum[] CEDULAS = CEDULAS_RESPOSTA.toArray(new TipoCedulaEnum[0]);
+	
+	private static final EstrategiaDispensacaoEnum[] ESTRATEGIAS = EstrategiaDispensacaoEnum.values();
+	
+	private final CaixaEletronicoOperationService operationService;
+	
+	public ProtocoloBinarioTerminal(CaixaEletronicoOperationService operationService) {
+		this.operationService = operationService;
+	}
+	
+	/**
+	 * Indica se a próxima requisição da entrada pode bloquear a thread que a atende: o saque em terminal espera a
+	 * sincronização do journal dos terminais e, com a fila cheia, a persistência dos saques. A consulta da composição
+	 * é calculada em memória.
+	 * @param entrada Com ao menos {@value #TAMANHO_REQUISICAO} bytes restantes; a posição não é alterada.
+	 * @return
+	 */
+	public static boolean isBloqueante(ByteBuffer entrada) {
+		return entrada.getShort(entrada.position()) == MTI_SAQUE_TERMINAL;
+	}
+	
+	/**
+	 * Consome uma requisição da entrada e grava a sua resposta na saída. Um saque em terminal pode bloquear
+	 * (ver {@link #isBloqueante(ByteBuffer)}).
+	 * @param entrada Com ao menos {@value #TAMANHO_REQUISICAO} bytes restantes.
+	 * @param saida Com ao menos {@value #TAMANHO_RESPOSTA} bytes restantes.
+	 */
+	public void atender(ByteBuffer entrada, ByteBuffer saida) {
+		short mti = entrada.getShort();
+		int codigoEstrategia = entrada.get() & 0xFF;
+		entrada.get();
+		int rastreio = entrada.getInt();
+		long centavos = entrada.getLong();
+		int posicaoTerminal = entrada.position();
+		entrada.position(posicaoTerminal + TAMANHO_TERMINAL);
+		
+		ComposicaoSaque composicao = null;
+		CodigoRespostaTerminalEnum resposta;
+		try {
+			if (mti == MTI_CONSULTA_COMPOSICAO) {
+				composicao = operationService.saqueComposicao(BigDecimal.valueOf(centavos, 2));
+				resposta = CodigoRespostaTerminalEnum.APROVADO;
+			} else if (mti == MTI_SAQUE_TERMINAL && codigoEstrategia <= ESTRATEGIAS.length) {
+				composicao = operationService.saqueComposicao(lerTerminal(entrada, posicaoTerminal), BigDecimal.valueOf(centavos, 2),
+						codigoEstrategia == 0 ? null : ESTRATEGIAS[codigoEstrategia - 1]);
+				resposta = CodigoRespostaTerminalEnum.APROVADO;
+			} else {
+				resposta = CodigoRespostaTerminalEnum.TRANSACAO_INVALIDA;
+			}
+		} catch (BusinessException e) {
+			resposta = CodigoRespostaTerminalEnum.getByRejeicao(e.getMessage());
+		} catch (RuntimeException e) {
+			// a conexão continua atendendo as requisições seguintes
+			resposta = CodigoRespostaTerminalEnum.ERRO_SISTEMA;
+		}
+		
+		saida.putShort((short) (mti + INCREMENTO_MTI_RESPOSTA));
+		saida.putShort(resposta.getCodigo());
+		saida.putInt(rastreio);
+		for (TipoCedulaEnum tipoCedula : CEDULAS) {
+			saida.putInt(composicao == null ? 0 : composicao.getQuantidade(tipoCedula));
+		}
+	}
+	
+	/**
+	 * Identificador do terminal sem o preenchimento final de espaços ou zeros.
+	 * @param entrada
+	 * @param inicio Posição do campo na entrada.
+	 * @return
+	 */
+	private static String lerTerminal(ByteBuffer entrada, int inicio) {
+		int tamanho = TAMANHO_TERMINAL;
+		while (tamanho > 0 && (entrada.get(inicio + tamanho - 1) == ' ' || entrada.get(inicio + tamanho - 1) == 0)) {
+			tamanho--;
+		}
+		byte[] terminal = new byte[tamanho];
+		for (int i = 0; i < tamanho; i++) {
+			terminal[i] = entrada.get(inicio + i);
+		}
+		return new String(terminal, StandardCharsets.US_ASCII);
+	}
+	
+	/**
+	 * Grava uma requisição, para os clientes do protocolo.
+	 * @param saida
+	 * @param mti
+	 * @param estrategia Estratégia de dispensação, ou null para a do terminal.
+	 * @param rastreio
+	 * @param centavos
+	 * @param idTerminal Até {@value #TAMANHO_TERMINAL} caracteres ASCII, ou null.
+	 */
+	public static void gravarRequisicao(ByteBuffer saida, short mti, EstrategiaDispensacaoEnum estrategia, int rastreio, long centavos,
+			String idTerminal) {
+		saida.putShort(mti);
+		saida.put((byte) (estrategia == null ? 0 : estrategia.ordinal() + 1));
+		saida.put((byte) 0);
+		saida.putInt(rastreio);
+		saida.putLong(centavos);
+		byte[] terminal = idTerminal == null ? new byte[0] : idTerminal.getBytes(StandardCharsets.US_ASCII);
+		if (terminal.length > TAMANHO_TERMINAL) {
+			throw new IllegalArgumentException("Identificador do terminal excede " + TAMANHO_TERMINAL + " caracteres: " + idTerminal);
+		}
+		saida.put(terminal);
+		for (int i = terminal.length; i < TAMANHO_TERMINAL; i++) {
+			saida.put((byte) ' ');
+		}
+	}
+}
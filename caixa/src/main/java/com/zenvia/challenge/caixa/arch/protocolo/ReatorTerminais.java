@@ -0,0 +1,336 @@
+package com.zenvia.challenge.caixa.arch.protocolo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thread com um {@link Selector} que atende as conexões recebidas do aceitador.
+ * <p>
+ * A cada leitura, todas as requisições completas do buffer são atendidas em ordem, e as respostas acumuladas são
+ * enviadas de uma vez: um terminal pode enviar várias requisições sem esperar as respostas (pipelining). Uma conexão
+ * ociosa não retém buffers: eles vêm do {@link PoolBuffersDiretos} do reator enquanto há bytes de uma requisição
+ * incompleta ou respostas não enviadas. Quando o terminal não consome as respostas, a conexão deixa de ser lida até
+ * que as respostas pendentes sejam enviadas.
+ * <p>
+ * As consultas de composição são atendidas na própria thread do reator: o cálculo é feito em memória. Já o saque em
+ * terminal espera a sincronização do journal e, com a fila cheia, a persistência dos saques; atendido no reator, ele
+ * pararia todas as conexões do seletor durante a espera. Ao encontrar um saque, o reator envia as respostas anteriores
+ * e entrega os buffers da conexão a uma thread de atendimento, que responde o saque e as requisições seguintes já lidas.
+ * Enquanto isso a conexão não é lida nem escrita, o que preserva a ordem das respostas; ao terminar, a thread devolve
+ * a conexão por uma fila e acorda o seletor, e o reator envia as respostas e retoma a conexão.
+ */
+final class ReatorTerminais implements Runnable {
+	
+	private final Selector seletor;
+	
+	private final PoolBuffersDiretos pool;
+	
+	private final ProtocoloBinarioTerminal protocolo;
+	
+	/**
+	 * Atendimento das requisições que podem bloquear, fora da thread do reator.
+	 */
+	private final Executor atendimentoBloqueante;
+	
+	private final Queue<SocketChannel> novas = new ConcurrentLinkedQueue<>();
+	
+	/**
+	 * Conexões cujas requisições delegadas já foram atendidas, devolvidas pelas threads de atendimento.
+	 */
+	private final Queue<Conexao> atendidas = new ConcurrentLinkedQueue<>();
+	
+	private final Thread thread;
+	
+	private volatile boolean ativo = true;
+	
+	ReatorTerminais(String nome, ProtocoloBinarioTerminal protocolo, Executor atendimentoBloqueante, int tamanhoBuffer,
+			int buffersNoPool) throws IOException {
+		this.seletor = Selector.open();
+		this.pool = new PoolBuffersDiretos(tamanhoBuffer, buffersNoPool);
+		this.protocolo = protocolo;
+		this.atendimentoBloqueante = atendimentoBloqueante;
+		this.thread = new Thread(this, nome);
+		thread.setDaemon(true);
+	}
+	
+	void iniciar() {
+		thread.start();
+	}
+	
+	/**
+	 * Entrega uma conexão aceita ao reator; chamado pela thread do aceitador.
+	 * @param canal
+	 */
+	void registrar(SocketChannel canal) {
+		novas.add(canal);
+		seletor.wakeup();
+	}
+	
+	@Override
+	public void run() {
+		try {
+			while (ativo) {
+				seletor.select();
+				registrarNovas();
+				retomarAtendidas();
+				
+				Iterator<SelectionKey> chaves = seletor.selectedKeys().iterator();
+				while (chaves.hasNext()) {
+					SelectionKey chave = chaves.next();
+					chaves.remove();
+					Conexao conexao = (Conexao) chave.attachment();
+					try {
+						if (chave.isWritable()) {
+							if (descarregar(conexao)) {
+								atender(conexao);
+							}
+						} else if (chave.isReadable()) {
+							ler(conexao);
+						}
+					} catch (IOException e) {
+						fechar(conexao);
+					}
+				}
+			}
+		} catch (IOException e) {
+			// seletor inutilizado: as conexões deste reator são fechadas abaixo
+		} finally {
+			for (SelectionKey chave : seletor.keys()) {
+				fechar((Conexao) chave.attachment());
+			}
+			SocketChannel canal;
+			while ((canal = novas.poll()) != null) {
+				fecharCanal(canal);
+			}
+			try {
+				seletor.close();
+			} catch (IOException e) {
+				// encerrando
+			}
+		}
+	}
+	
+	private void registrarNovas() {
+		SocketChannel canal;
+		while ((canal = novas.poll()) != null) {
+			try {
+				canal.configureBlocking(false);
+				Conexao conexao = new Conexao(canal);
+				conexao.chave = canal.register(seletor, SelectionKey.OP_READ, conexao);
+			} catch (IOException e) {
+				fecharCanal(canal);
+			}
+		}
+	}
+	
+	/**
+	 * Envia as respostas das requisições delegadas e retoma as conexões.
+	 */
+	private void retomarAtendidas() {
+		Conexao conexao;
+		while ((conexao = atendidas.poll()) != null) {
+			conexao.delegada = false;
+			if (!conexao.chave.isValid()) {
+				// fechada durante o atendimento: os buffers só voltam ao pool agora
+				fechar(conexao);
+				continue;
+			}
+			try {
+				processar(conexao);
+			} catch (IOException e) {
+				fechar(conexao);
+			}
+		}
+	}
+	
+	private void ler(Conexao conexao) throws IOException {
+		if (conexao.leitura == null) {
+			conexao.leitura = pool.obter();
+		}
+		if (conexao.canal.read(conexao.leitura) < 0) {
+			fechar(conexao);
+			return;
+		}
+		atender(conexao);
+	}
+	
+	/**
+	 * Atende as requisições completas já lidas e envia as respostas. Se o terminal não aceitar todas as respostas,
+	 * a conexão passa a aguardar a escrita, e as requisições restantes ficam no buffer de leitura.
+	 * @param conexao
+	 * @throws IOException
+	 */
+	private void atender(Conexao conexao) throws IOException {
+		ByteBuffer leitura = conexao.leitura;
+		if (leitura == null) {
+			conexao.chave.interestOps(SelectionKey.OP_READ);
+			return;
+		}
+		
+		leitura.flip();
+		processar(conexao);
+	}
+	
+	/**
+	 * Continua o atendimento com o buffer de leitura já preparado para a leitura das requisições.
+	 * @param conexao
+	 * @throws IOException
+	 */
+	private void processar(Conexao conexao) throws IOException {
+		ByteBuffer leitura = conexao.leitura;
+		boolean descarregado = true;
+		while (leitura.remaining() >= ProtocoloBinarioTerminal.TAMANHO_REQUISICAO) {
+			if (ProtocoloBinarioTerminal.isBloqueante(leitura)) {
+				// as respostas anteriores saem antes: a thread de atendimento recebe um buffer de escrita vazio
+				descarregado = descarregar(conexao);
+				if (descarregado) {
+					delegar(conexao);
+					return;
+				}
+				break;
+			}
+			if (conexao.escrita == null) {
+				conexao.escrita = pool.obter();
+			} else if (conexao.escrita.remaining() < ProtocoloBinarioTerminal.TAMANHO_RESPOSTA) {
+				descarregado = descarregar(conexao);
+				if (!descarregado) {
+					break;
+				}
+				continue;
+			}
+			protocolo.atender(leitura, conexao.escrita);
+		}
+		leitura.compact();
+		if (leitura.position() == 0) {
+			pool.devolver(leitura);
+			conexao.leitura = null;
+		}
+		
+		if (descarregado) {
+			descarregado = descarregar(conexao);
+		}
+		conexao.chave.interestOps(descarregado ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+	}
+	
+	/**
+	 * Entrega as requisições já lidas a uma thread de atendimento, a partir de uma que pode bloquear. Até a devolução
+	 * da conexão, os buffers pertencem à thread de atendimento e a conexão não é lida nem escrita.
+	 * @param conexao Sem respostas por enviar.
+	 * @throws IOException Se o atendimento foi encerrado.
+	 */
+	private void delegar(Conexao conexao) throws IOException {
+		ByteBuffer leitura = conexao.leitura;
+		ByteBuffer escrita = pool.obter();
+		conexao.escrita = escrita;
+		conexao.chave.interestOps(0);
+		conexao.delegada = true;
+		try {
+			atendimentoBloqueante.execute(() -> {
+				try {
+					while (leitura.remaining() >= ProtocoloBinarioTerminal.TAMANHO_REQUISICAO
+							&& escrita.remaining() >= ProtocoloBinarioTerminal.TAMANHO_RESPOSTA) {
+						protocolo.atender(leitura, escrita);
+					}
+				} finally {
+					atendidas.add(conexao);
+					seletor.wakeup();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			conexao.delegada = false;
+			throw new IOException("Atendimento dos saques encerrado", e);
+		}
+	}
+	
+	/**
+	 * Envia as respostas pendentes.
+	 * @param conexao
+	 * @return true se não restaram respostas por enviar.
+	 * @throws IOException
+	 */
+	private boolean descarregar(Conexao conexao) throws IOException {
+		ByteBuffer escrita = conexao.escrita;
+		if (escrita == null) {
+			return true;
+		}
+		escrita.flip();
+		conexao.canal.write(escrita);
+		if (escrita.hasRemaining()) {
+			escrita.compact();
+			return false;
+		}
+		pool.devolver(escrita);
+		conexao.escrita = null;
+		return true;
+	}
+	
+	private void fechar(Conexao conexao) {
+		conexao.chave.cancel();
+		fecharCanal(conexao.canal);
+		if (conexao.delegada) {
+			// os buffers estão com a thread de atendimento e voltam ao pool na devolução da conexão
+			return;
+		}
+		if (conexao.leitura != null) {
+			pool.devolver(conexao.leitura);
+			conexao.leitura = null;
+		}
+		if (conexao.escrita != null) {
+			pool.devolver(conexao.escrita);
+			conexao.escrita = null;
+		}
+	}
+	
+	private static void fecharCanal(SocketChannel canal) {
+		try {
+			canal.close();
+		} catch (IOException e) {
+			// a conexão já está perdida
+		}
+	}
+	
+	/**
+	 * Fecha as conexões do reator e aguarda o fim da sua thread.
+	 * @param esperaMilissegundos
+	 * @throws InterruptedException
+	 */
+	void encerrar(long esperaMilissegundos) throws InterruptedException {
+		ativo = false;
+		seletor.wakeup();
+		thread.join(esperaMilissegundos);
+	}
+	
+	private static final class Conexao {
+		
+		private final SocketChannel canal;
+		
+		private SelectionKey chave;
+		
+		/**
+		 * Bytes recebidos de uma requisição incompleta, ou null.
+		 */
+		private ByteBuffer leitura;
+		
+		/**
+		 * Respostas ainda não enviadas, ou null.
+		 */
+		private ByteBuffer escrita;
+		
+		/**
+		 * Indica que as requisições estão com uma thread de atendimento; alterado apenas pela thread do reator.
+		 */
+		private boolean delegada;
+		
+		private Conexao(SocketChannel canal) {
+			this.canal = canal;
+		}
+	}
+}
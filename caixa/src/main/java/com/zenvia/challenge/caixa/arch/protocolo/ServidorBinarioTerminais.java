@@ -0,0 +1,145 @@
+package com.zenvia.challenge.caixa.arch.protocolo;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.config.ProtocoloBinarioProperties;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+
+/**
+ * Listener TCP do {@link ProtocoloBinarioTerminal}, para os terminais que não falam HTTP: as requisições são atendidas
+ * diretamente pelo {@link CaixaEletronicoOperationService}, sem passar pelo Spring MVC.
+ * <p>
+ * Uma thread aceita as conexões e as distribui em rodízio entre os {@link ReatorTerminais reatores}; cada reator atende
+ * milhares de conexões com um único seletor. Os saques em terminal, que esperam a gravação em disco, são atendidos por
+ * um pool de threads compartilhado pelos reatores ({@code caixa.protocolo-binario.threads-saque}), para não parar o
+ * seletor. Desabilitado por padrão ({@code caixa.protocolo-binario.habilitado}).
+ */
+@Component
+public class ServidorBinarioTerminais {
+	
+	private static final long ESPERA_ENCERRAMENTO_MILISSEGUNDOS = 5000;
+	
+	private final ServerSocketChannel servidor;
+	
+	private final ReatorTerminais[] reatores;
+	
+	private final ExecutorService atendimentoSaques;
+	
+	private final Thread aceitador;
+	
+	@Autowired
+	public ServidorBinarioTerminais(ProtocoloBinarioProperties properties, CaixaEletronicoOperationService operationService) throws IOException {
+		if (!properties.isHabilitado()) {
+			this.servidor = null;
+			this.reatores = new ReatorTerminais[0];
+			this.atendimentoSaques = null;
+			this.aceitador = null;
+			return;
+		}
+		if (properties.getTamanhoBuffer() < Math.max(ProtocoloBinarioTerminal.TAMANHO_REQUISICAO, ProtocoloBinarioTerminal.TAMANHO_RESPOSTA)) {
+			throw new IllegalArgumentException("Buffer menor que uma mensagem do protocolo: " + properties.getTamanhoBuffer());
+		}
+		
+		ProtocoloBinarioTerminal protocolo = new ProtocoloBinarioTerminal(operationService);
+		this.atendimentoSaques = Executors.newFixedThreadPool(Math.max(1, properties.getThreadsSaque()), new SaqueThreadFactory());
+		this.reatores = new ReatorTerminais[Math.max(1, properties.getReatores())];
+		for (int i = 0; i < reatores.length; i++) {
+			reatores[i] = new ReatorTerminais("protocolo-binario-" + i, protocolo, atendimentoSaques,
+					properties.getTamanhoBuffer(), properties.getBuffersPorReator());
+		}
+		
+		this.servidor = ServerSocketChannel.open();
+		InetSocketAddress endereco = properties.getEndereco() == null || properties.getEndereco().trim().isEmpty()
+				? new InetSocketAddress(properties.getPorta())
+				: new InetSocketAddress(properties.getEndereco().trim(), properties.getPorta());
+		servidor.bind(endereco, properties.getFilaConexoes());
+		
+		for (ReatorTerminais reator : reatores) {
+			reator.iniciar();
+		}
+		this.aceitador = new Thread(this::aceitar, "protocolo-binario-aceitador");
+		aceitador.setDaemon(true);
+		aceitador.start();
+	}
+	
+	public boolean isHabilitado() {
+		return servidor != null;
+	}
+	
+	/**
+	 * Porta em que o listener aceita conexões.
+	 * @return A porta, ou -1 se o listener estiver desabilitado.
+	 */
+	public int getPorta() {
+		if (servidor == null) {
+			return -1;
+		}
+		try {
+			return ((InetSocketAddress) servidor.getLocalAddress()).getPort();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+	
+	private void aceitar() {
+		int proximo = 0;
+		while (servidor.isOpen()) {
+			try {
+				SocketChannel canal = servidor.accept();
+				try {
+					// respostas pequenas e já agrupadas por leitura: não há ganho em retê-las no socket
+					canal.socket().setTcpNoDelay(true);
+				} catch (IOException e) {
+					// a conexão segue com o padrão do sistema
+				}
+				reatores[proximo].registrar(canal);
+				proximo = (proximo + 1) % reatores.length;
+			} catch (ClosedChannelException e) {
+				return;
+			} catch (IOException e) {
+				// falha em uma conexão recém-aceita não interrompe o aceitador
+			}
+		}
+	}
+	
+	@PreDestroy
+	public void encerrar() throws IOException, InterruptedException {
+		if (servidor == null) {
+			return;
+		}
+		servidor.close();
+		aceitador.join(ESPERA_ENCERRAMENTO_MILISSEGUNDOS);
+		for (ReatorTerminais reator : reatores) {
+			reator.encerrar(ESPERA_ENCERRAMENTO_MILISSEGUNDOS);
+		}
+		// os saques em andamento terminam: já foram confirmados ou estão à espera da gravação
+		atendimentoSaques.shutdown();
+		atendimentoSaques.awaitTermination(ESPERA_ENCERRAMENTO_MILISSEGUNDOS, TimeUnit.MILLISECONDS);
+	}
+	
+	private static class SaqueThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger contador = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "protocolo-binario-saque-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,507 @@
+package com.zenvia.challenge.caixa.arch.trilhas;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitura de trilhas de saques (terminal, instante, valor) em janelas mapeadas em memória: o arquivo não é carregado no heap,
+ * e cada registro é entregue ao {@link Consumidor} em um {@link Registro} reutilizado, sem alocação por registro.
+ * <p>
+ * Dois formatos são aceitos, distinguidos pelos primeiros bytes do arquivo:
+ * <ul>
+ * <li>CSV, uma linha por saque: {@code terminal,instante,valor}. O instante é em milissegundos desde a época ou
+ * ISO-8601 em UTC ({@code 2020-03-01T10:15:30}, com espaço no lugar do {@code T}, milissegundos e {@code Z} opcionais);
+ * o valor é em reais, com até dois decimais separados por ponto. Uma primeira linha sem instante válido é tratada
+ * como cabeçalho; as demais linhas malformadas são entregues com {@link #VALOR_INVALIDO}.</li>
+ * <li>Binário ({@link Gravador}): {@code [int marca][int versão]} seguido de registros
+ * {@code [short tamanho do id][id UTF-8][long instante em ms][long valor em centavos]}.</li>
+ * </ul>
+ * Um registro nunca é dividido entre janelas: a janela seguinte começa no primeiro registro incompleto.
+ */
+public final class TrilhaSaques {
+	
+	/** Primeiros bytes de uma trilha binária ("CXTR"). */
+	public static final int MARCA_BINARIA = 0x43585452;
+	
+	public static final int VERSAO_BINARIA = 1;
+	
+	/** Valor de um registro cujo valor, instante ou terminal não pôde ser lido. */
+	public static final long VALOR_INVALIDO = -1L;
+	
+	/** Tamanho padrão das janelas mapeadas. */
+	public static final long TAMANHO_JANELA = 64L * 1024 * 1024;
+	
+	/** Maior identificador de terminal aceito, em bytes UTF-8. */
+	public static final int TAMANHO_MAXIMO_ID = 1024;
+	
+	private static final int CABECALHO_BINARIO = 8;
+	
+	private static final int CAMPOS_BINARIOS = 16;
+	
+	private static final long MILISSEGUNDOS_POR_DIA = 86_400_000L;
+	
+	/**
+	 * Maior valor em centavos acumulado que ainda aceita mais um dígito sem estourar o long.
+	 */
+	private static final long LIMITE_ACUMULACAO = (Long.MAX_VALUE - 9) / 10;
+	
+	private TrilhaSaques() {
+	}
+	
+	/**
+	 * Recebe os registros de uma trilha, na ordem do arquivo.
+	 */
+	@FunctionalInterface
+	public interface Consumidor {
+		
+		/**
+		 * @param registro Vista do registro corrente, válida apenas durante a chamada.
+		 */
+		void aceitar(Registro registro);
+	}
+	
+	/**
+	 * Percorre uma trilha em janelas de {@link #TAMANHO_JANELA}.
+	 * @param arquivo
+	 * @param consumidor
+	 * @throws IOException Se o arquivo não puder ser lido, ou se uma trilha binária estiver corrompida.
+	 */
+	public static void percorrer(Path arquivo, Consumidor consumidor) throws IOException {
+		percorrer(arquivo, TAMANHO_JANELA, consumidor);
+	}
+	
+	/**
+	 * Percorre uma trilha em janelas do tamanho informado, que deve comportar o maior registro.
+	 * @param arquivo
+	 * @param tamanhoJanela
+	 * @param consumidor
+	 * @throws IOException
+	 */
+	public static void percorrer(Path arquivo, long tamanhoJanela, Consumidor consumidor) throws IOException {
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			long tamanho = canal.size();
+			boolean binario = isBinario(canal, tamanho);
+			Registro registro = new Registro();
+			long posicao = binario ? CABECALHO_BINARIO : 0;
+			boolean primeiraLinha = !binario;
+			
+			while (posicao < tamanho) {
+				long tamanhoMapeado = Math.min(tamanhoJanela, tamanho - posicao);
+				boolean ultimaJanela = posicao + tamanhoMapeado == tamanho;
+				MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoMapeado);
+				registro.janela = janela;
+				
+				int consumido = binario
+						? percorrerBinario(janela, registro, consumidor)
+						: percorrerCsv(janela, ultimaJanela, primeiraLinha, registro, consumidor);
+				if (consumido == 0 && !ultimaJanela) {
+					throw new IOException("Registro maior que a janela de " + tamanhoJanela + " bytes em " + arquivo + ", posição " + posicao + ".");
+				}
+				if (binario && consumido < tamanhoMapeado && ultimaJanela) {
+					throw new IOException("Trilha binária truncada: " + arquivo);
+				}
+				
+				primeiraLinha = primeiraLinha && consumido == 0;
+				posicao += consumido;
+				if (ultimaJanela) {
+					break;
+				}
+			}
+		}
+	}
+	
+	private static boolean isBinario(FileChannel canal, long tamanho) throws IOException {
+		if (tamanho < CABECALHO_BINARIO) {
+			return false;
+		}
+		
+		ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO_BINARIO);
+		while (cabecalho.hasRemaining() && canal.read(cabecalho, cabecalho.position()) >= 0) {
+			// lê o cabeçalho por completo
+		}
+		if (cabecalho.getInt(0) != MARCA_BINARIA) {
+			return false;
+		}
+		if (cabecalho.getInt(4) != VERSAO_BINARIA) {
+			throw new IOException("Versão de trilha binária não suportada: " + cabecalho.getInt(4));
+		}
+		return true;
+	}
+	
+	/**
+	 * @return Bytes consumidos: o início do primeiro registro incompleto, ou o tamanho da janela.
+	 */
+	private static int percorrerBinario(ByteBuffer janela, Registro registro, Consumidor consumidor) throws IOException {
+		int limite = janela.limit();
+		int i = 0;
+		
+		while (limite - i >= 2) {
+			int tamanhoId = janela.getShort(i) & 0xFFFF;
+			if (tamanhoId == 0 || tamanhoId > TAMANHO_MAXIMO_ID) {
+				throw new IOException("Trilha binária corrompida: identificador de terminal com " + tamanhoId + " bytes.");
+			}
+			int fim = i + 2 + tamanhoId + CAMPOS_BINARIOS;
+			if (fim > limite) {
+				break;
+			}
+			
+			int inicioId = i + 2;
+			registro.definirTerminal(inicioId, tamanhoId, hash(janela, inicioId, inicioId + tamanhoId));
+			registro.instante = janela.getLong(inicioId + tamanhoId);
+			registro.valorCentavos = janela.getLong(inicioId + tamanhoId + 8);
+			consumidor.aceitar(registro);
+			i = fim;
+		}
+		
+		return i;
+	}
+	
+	/**
+	 * @return Bytes consumidos: o início da primeira linha sem quebra (exceto na última janela), ou o tamanho da janela.
+	 */
+	private static int percorrerCsv(ByteBuffer janela, boolean ultimaJanela, boolean primeiraLinha, Registro registro,
+			Consumidor consumidor) {
+		int limite = janela.limit();
+		int i = 0;
+		
+		while (i < limite) {
+			int fimLinha = i;
+			while (fimLinha < limite && janela.get(fimLinha) != '\n') {
+				fimLinha++;
+			}
+			if (fimLinha == limite && !ultimaJanela) {
+				break;
+			}
+			
+			int fimConteudo = fimLinha;
+			while (fimConteudo > i && (janela.get(fimConteudo - 1) == '\r' || janela.get(fimConteudo - 1) == ' ')) {
+				fimConteudo--;
+			}
+			
+			if (fimConteudo > i) {
+				boolean valido = lerLinhaCsv(janela, i, fimConteudo, registro);
+				if (valido || !primeiraLinha) {
+					consumidor.aceitar(registro);
+				}
+				primeiraLinha = false;
+			}
+			i = Math.min(fimLinha + 1, limite);
+		}
+		
+		return i;
+	}
+	
+	/**
+	 * Lê os campos de uma linha, marcando o valor como {@link #VALOR_INVALIDO} se algum campo não puder ser lido.
+	 * @return false se o instante não pôde ser lido (linha de cabeçalho, se for a primeira).
+	 */
+	private static boolean lerLinhaCsv(ByteBuffer janela, int inicio, int fim, Registro registro) {
+		int virgulaTerminal = indice(janela, inicio, fim, (byte) ',');
+		int virgulaInstante = indice(janela, virgulaTerminal + 1, fim, (byte) ',');
+		
+		int inicioId = pularEspacos(janela, inicio, virgulaTerminal);
+		int fimId = virgulaTerminal;
+		while (fimId > inicioId && janela.get(fimId - 1) == ' ') {
+			fimId--;
+		}
+		registro.definirTerminal(inicioId, fimId - inicioId, hash(janela, inicioId, fimId));
+		registro.instante = virgulaTerminal < fim
+				? lerInstante(janela, pularEspacos(janela, virgulaTerminal + 1, virgulaInstante), virgulaInstante)
+				: Long.MIN_VALUE;
+		registro.valorCentavos = virgulaInstante < fim
+				? lerValor(janela, pularEspacos(janela, virgulaInstante + 1, fim), fim)
+				: VALOR_INVALIDO;
+		
+		if (registro.instante == Long.MIN_VALUE || fimId == inicioId || fimId - inicioId > TAMANHO_MAXIMO_ID) {
+			registro.valorCentavos = VALOR_INVALIDO;
+		}
+		return registro.instante != Long.MIN_VALUE;
+	}
+	
+	/**
+	 * Instante em milissegundos desde a época, ou em ISO-8601 (UTC).
+	 * @return {@link Long#MIN_VALUE} se o texto não for um instante.
+	 */
+	private static long lerInstante(ByteBuffer janela, int inicio, int fim) {
+		int tamanho = fim - inicio;
+		while (tamanho > 0 && janela.get(inicio + tamanho - 1) == ' ') {
+			tamanho--;
+		}
+		if (tamanho == 0) {
+			return Long.MIN_VALUE;
+		}
+		
+		if (tamanho < 19 || janela.get(inicio + 4) != '-') {
+			long milissegundos = 0;
+			for (int i = inicio; i < inicio + tamanho; i++) {
+				int digito = janela.get(i) - '0';
+				if (digito < 0 || digito > 9 || milissegundos > LIMITE_ACUMULACAO) {
+					return Long.MIN_VALUE;
+				}
+				milissegundos = milissegundos * 10 + digito;
+			}
+			return milissegundos;
+		}
+		
+		// aaaa-mm-ddThh:mm:ss[.fff...][Z]
+		int ano = numero(janela, inicio, 4);
+		int mes = numero(janela, inicio + 5, 2);
+		int dia = numero(janela, inicio + 8, 2);
+		int hora = numero(janela, inicio + 11, 2);
+		int minuto = numero(janela, inicio + 14, 2);
+		int segundo = numero(janela, inicio + 17, 2);
+		byte separador = janela.get(inicio + 10);
+		if (ano < 0 || mes < 1 || mes > 12 || dia < 1 || dia > 31 || hora < 0 || hora > 23 || minuto < 0 || minuto > 59
+				|| segundo < 0 || segundo > 59 || (separador != 'T' && separador != ' ')
+				|| janela.get(inicio + 7) != '-' || janela.get(inicio + 13) != ':' || janela.get(inicio + 16) != ':') {
+			return Long.MIN_VALUE;
+		}
+		
+		int i = inicio + 19;
+		int fimTexto = inicio + tamanho;
+		int milissegundos = 0;
+		if (i < fimTexto && janela.get(i) == '.') {
+			int casas = 0;
+			for (i++; i < fimTexto && janela.get(i) >= '0' && janela.get(i) <= '9'; i++, casas++) {
+				if (casas < 3) {
+					milissegundos = milissegundos * 10 + janela.get(i) - '0';
+				}
+			}
+			if (casas == 0) {
+				return Long.MIN_VALUE;
+			}
+			for (; casas < 3; casas++) {
+				milissegundos *= 10;
+			}
+		}
+		if (i < fimTexto && janela.get(i) == 'Z') {
+			i++;
+		}
+		if (i != fimTexto) {
+			return Long.MIN_VALUE;
+		}
+		
+		return diasDesdeEpoca(ano, mes, dia) * MILISSEGUNDOS_POR_DIA
+				+ ((hora * 60L + minuto) * 60L + segundo) * 1000L + milissegundos;
+	}
+	
+	/**
+	 * Valor em reais com até dois decimais, convertido em centavos.
+	 * @return {@link #VALOR_INVALIDO} se o texto não for um valor não negativo.
+	 */
+	private static long lerValor(ByteBuffer janela, int inicio, int fim) {
+		long centavos = 0;
+		int casasDecimais = -1;
+		int digitos = 0;
+		
+		for (int i = inicio; i < fim; i++) {
+			byte c = janela.get(i);
+			if (c >= '0' && c <= '9') {
+				if (casasDecimais == 2 || centavos > LIMITE_ACUMULACAO / 100) {
+					return VALOR_INVALIDO;
+				}
+				centavos = centavos * 10 + (c - '0');
+				digitos++;
+				if (casasDecimais >= 0) {
+					casasDecimais++;
+				}
+			} else if (c == '.' && casasDecimais < 0) {
+				casasDecimais = 0;
+			} else {
+				return VALOR_INVALIDO;
+			}
+		}
+		if (digitos == 0) {
+			return VALOR_INVALIDO;
+		}
+		
+		for (int casas = Math.max(casasDecimais, 0); casas < 2; casas++) {
+			centavos *= 10;
+		}
+		return centavos;
+	}
+	
+	/**
+	 * Dias entre 1970-01-01 e a data do calendário gregoriano proléptico (algoritmo "days from civil").
+	 */
+	private static long diasDesdeEpoca(int ano, int mes, int dia) {
+		long a = mes <= 2 ? ano - 1 : ano;
+		long era = Math.floorDiv(a, 400);
+		long anoDaEra = a - era * 400;
+		long diaDoAno = (153 * (mes + (mes > 2 ? -3 : 9)) + 2) / 5 + dia - 1;
+		long diaDaEra = anoDaEra * 365 + anoDaEra / 4 - anoDaEra / 100 + diaDoAno;
+		return era * 146_097 + diaDaEra - 719_468;
+	}
+	
+	private static int numero(ByteBuffer janela, int inicio, int digitos) {
+		int numero = 0;
+		for (int i = inicio; i < inicio + digitos; i++) {
+			int digito = janela.get(i) - '0';
+			if (digito < 0 || digito > 9) {
+				return -1;
+			}
+			numero = numero * 10 + digito;
+		}
+		return numero;
+	}
+	
+	private static int indice(ByteBuffer janela, int inicio, int fim, byte procurado) {
+		int i = inicio;
+		while (i < fim && janela.get(i) != procurado) {
+			i++;
+		}
+		return i;
+	}
+	
+	private static int pularEspacos(ByteBuffer janela, int inicio, int fim) {
+		int i = inicio;
+		while (i < fim && janela.get(i) == ' ') {
+			i++;
+		}
+		return i;
+	}
+	
+	private static int hash(ByteBuffer janela, int inicio, int fim) {
+		int hash = 0;
+		for (int i = inicio; i < fim; i++) {
+			hash = 31 * hash + janela.get(i);
+		}
+		return hash;
+	}
+	
+	/**
+	 * Vista do registro corrente de uma trilha, reutilizada a cada registro.
+	 */
+	public static final class Registro {
+		
+		private ByteBuffer janela;
+		
+		private int inicioTerminal;
+		
+		private int tamanhoTerminal;
+		
+		private int hashTerminal;
+		
+		private long instante;
+		
+		private long valorCentavos;
+		
+		private Registro() {
+		}
+		
+		private void definirTerminal(int inicio, int tamanho, int hash) {
+			this.inicioTerminal = inicio;
+			this.tamanhoTerminal = tamanho;
+			this.hashTerminal = hash;
+		}
+		
+		/**
+		 * Hash dos bytes do identificador do terminal, igual ao de {@link String#hashCode()} para identificadores ASCII.
+		 * @return
+		 */
+		public int getHashTerminal() {
+			return hashTerminal;
+		}
+		
+		/**
+		 * Compara o identificador do terminal com os bytes informados, sem alocação.
+		 * @param terminal Identificador em UTF-8.
+		 * @return
+		 */
+		public boolean isTerminal(byte[] terminal) {
+			if (terminal.length != tamanhoTerminal) {
+				return false;
+			}
+			for (int i = 0; i < tamanhoTerminal; i++) {
+				if (janela.get(inicioTerminal + i) != terminal[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * Copia o identificador do terminal, em UTF-8.
+		 * @return
+		 */
+		public byte[] copiarTerminal() {
+			byte[] terminal = new byte[tamanhoTerminal];
+			for (int i = 0; i < tamanhoTerminal; i++) {
+				terminal[i] = janela.get(inicioTerminal + i);
+			}
+			return terminal;
+		}
+		
+		public String getTerminal() {
+			return new String(copiarTerminal(), StandardCharsets.UTF_8);
+		}
+		
+		/**
+		 * @return Instante do saque, em milissegundos desde a época.
+		 */
+		public long getInstante() {
+			return instante;
+		}
+		
+		/**
+		 * @return Valor do saque em centavos, ou {@link TrilhaSaques#VALOR_INVALIDO}.
+		 */
+		public long getValorCentavos() {
+			return valorCentavos;
+		}
+	}
+	
+	/**
+	 * Gravação de uma trilha no formato binário, a ser percorrida em ordem cronológica.
+	 */
+	public static final class Gravador implements Closeable {
+		
+		private final DataOutputStream saida;
+		
+		public Gravador(Path arquivo) throws IOException {
+			this.saida = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(arquivo), 1 << 16));
+			saida.writeInt(MARCA_BINARIA);
+			saida.writeInt(VERSAO_BINARIA);
+		}
+		
+		/**
+		 * @param terminal
+		 * @param instante Milissegundos desde a época.
+		 * @param valorCentavos
+		 * @throws IOException
+		 */
+		public void gravar(String terminal, long instante, long valorCentavos) throws IOException {
+			gravar(terminal.getBytes(StandardCharsets.UTF_8), instante, valorCentavos);
+		}
+		
+		/**
+		 * @param terminal Identificador em UTF-8, com 1 a 1024 bytes.
+		 * @param instante Milissegundos desde a época.
+		 * @param valorCentavos
+		 * @throws IOException
+		 */
+		public void gravar(byte[] terminal, long instante, long valorCentavos) throws IOException {
+			if (terminal.length == 0 || terminal.length > TAMANHO_MAXIMO_ID) {
+				throw new IllegalArgumentException("Identificador de terminal deve ter de 1 a " + TAMANHO_MAXIMO_ID + " bytes.");
+			}
+			saida.writeShort(terminal.length);
+			saida.write(terminal);
+			saida.writeLong(instante);
+			saida.writeLong(valorCentavos);
+		}
+		
+		@Override
+		public void close() throws IOException {
+			saida.close();
+		}
+	}
+}
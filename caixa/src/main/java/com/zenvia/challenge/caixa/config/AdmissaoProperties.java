@@ -0,0 +1,64 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração do controle de admissão por cliente na API de operação (prefixo {@code caixa.admissao}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.admissao")
+public class AdmissaoProperties {
+	
+	/**
+	 * Liga o limite de requisições por cliente.
+	 */
+	private boolean habilitado = true;
+	
+	/**
+	 * Quantidade máxima de requisições admitidas em rajada por um cliente.
+	 */
+	private int capacidade = 200;
+	
+	/**
+	 * Taxa sustentada de requisições admitidas por cliente.
+	 */
+	private double requisicoesPorSegundo = 100;
+	
+	/**
+	 * Intervalo entre as varreduras que removem os clientes ociosos.
+	 */
+	private long intervaloVarreduraSegundos = 30;
+	
+	public boolean isHabilitado() {
+		return habilitado;
+	}
+	
+	public void setHabilitado(boolean habilitado) {
+		this.habilitado = habilitado;
+	}
+	
+	public int getCapacidade() {
+		return capacidade;
+	}
+	
+	public void setCapacidade(int capacidade) {
+		this.capacidade = capacidade;
+	}
+	
+	public double getRequisicoesPorSegundo() {
+		return requisicoesPorSegundo;
+	}
+	
+	public void setRequisicoesPorSegundo(double requisicoesPorSegundo) {
+		this.requisicoesPorSegundo = requisicoesPorSegundo;
+	}
+	
+	public long getIntervaloVarreduraSegundos() {
+		return intervaloVarreduraSegundos;
+	}
+	
+	public void setIntervaloVarreduraSegundos(long intervaloVarreduraSegundos) {
+		this.intervaloVarreduraSegundos = intervaloVarreduraSegundos;
+	}
+}
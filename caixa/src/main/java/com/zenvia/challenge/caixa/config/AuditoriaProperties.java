@@ -0,0 +1,105 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.enums.PoliticaBufferAuditoriaEnum;
+
+/**
+ * Configuração da trilha de auditoria dos saques (prefixo {@code caixa.auditoria}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.auditoria")
+public class AuditoriaProperties {
+	
+	/**
+	 * Diretório dos arquivos da trilha. Se não for informado, a auditoria fica desabilitada.
+	 */
+	private String diretorio;
+	
+	/**
+	 * Eventos que cabem no buffer entre as requisições e a gravação (arredondado para potência de 2).
+	 */
+	private int capacidade = 65536;
+	
+	/**
+	 * Comportamento com o buffer cheio.
+	 */
+	private PoliticaBufferAuditoriaEnum politicaBufferCheio = PoliticaBufferAuditoriaEnum.DESCARTAR;
+	
+	/**
+	 * Com a política AMOSTRAR, um a cada quantos eventos é gravado a partir de metade da capacidade.
+	 */
+	private int taxaAmostragem = 10;
+	
+	/**
+	 * Máximo de eventos gravados de uma vez.
+	 */
+	private int loteMaximo = 4096;
+	
+	/**
+	 * Tamanho a partir do qual um novo arquivo é aberto, em bytes.
+	 */
+	private long tamanhoArquivo = 64L * 1024 * 1024;
+	
+	/**
+	 * Intervalo máximo entre a gravação de um evento e a sua sincronização com o disco, em milissegundos.
+	 */
+	private long intervaloSincronizacaoMilissegundos = 1000;
+
+	public String getDiretorio() {
+		return diretorio;
+	}
+
+	public void setDiretorio(String diretorio) {
+		this.diretorio = diretorio;
+	}
+
+	public int getCapacidade() {
+		return capacidade;
+	}
+
+	public void setCapacidade(int capacidade) {
+		this.capacidade = capacidade;
+	}
+
+	public PoliticaBufferAuditoriaEnum getPoliticaBufferCheio() {
+		return politicaBufferCheio;
+	}
+
+	public void setPoliticaBufferCheio(PoliticaBufferAuditoriaEnum politicaBufferCheio) {
+		this.politicaBufferCheio = politicaBufferCheio;
+	}
+
+	public int getTaxaAmostragem() {
+		return taxaAmostragem;
+	}
+
+	public void setTaxaAmostragem(int taxaAmostragem) {
+		this.taxaAmostragem = taxaAmostragem;
+	}
+
+	public int getLoteMaximo() {
+		return loteMaximo;
+	}
+
+	public void setLoteMaximo(int loteMaximo) {
+		this.loteMaximo = loteMaximo;
+	}
+
+	public long getTamanhoArquivo() {
+		return tamanhoArquivo;
+	}
+
+	public void setTamanhoArquivo(long tamanhoArquivo) {
+		this.tamanhoArquivo = tamanhoArquivo;
+	}
+
+	public long getIntervaloSincronizacaoMilissegundos() {
+		return intervaloSincronizacaoMilissegundos;
+	}
+
+	public void setIntervaloSincronizacaoMilissegundos(long intervaloSincronizacaoMilissegundos) {
+		this.intervaloSincronizacaoMilissegundos = intervaloSincronizacaoMilissegundos;
+	}
+}
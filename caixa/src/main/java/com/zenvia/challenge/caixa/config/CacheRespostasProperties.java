@@ -0,0 +1,39 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração do cache HTTP das respostas do cálculo de cédulas (prefixo {@code caixa.cache-respostas}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.cache-respostas")
+public class CacheRespostasProperties {
+	
+	/**
+	 * Liga o envio de ETag e Cache-Control e as respostas 304 a If-None-Match.
+	 */
+	private boolean habilitado = true;
+	
+	/**
+	 * Tempo durante o qual terminais e proxies podem reutilizar uma resposta sem revalidá-la (max-age).
+	 * Depois de uma troca das cédulas configuradas, é o tempo máximo em que uma composição antiga ainda pode ser usada.
+	 */
+	private long maxIdadeSegundos = 300;
+	
+	public boolean isHabilitado() {
+		return habilitado;
+	}
+	
+	public void setHabilitado(boolean habilitado) {
+		this.habilitado = habilitado;
+	}
+	
+	public long getMaxIdadeSegundos() {
+		return maxIdadeSegundos;
+	}
+	
+	public void setMaxIdadeSegundos(long maxIdadeSegundos) {
+		this.maxIdadeSegundos = maxIdadeSegundos;
+	}
+}
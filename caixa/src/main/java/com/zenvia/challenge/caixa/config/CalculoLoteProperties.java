@@ -0,0 +1,51 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração do cálculo de cédulas em lote (prefixo {@code caixa.lote}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.lote")
+public class CalculoLoteProperties {
+	
+	/**
+	 * Quantidade máxima de valores aceitos em um lote.
+	 */
+	private int tamanhoMaximo = 100_000;
+	
+	/**
+	 * Quantidade de threads que calculam os itens dos lotes.
+	 */
+	private int paralelismo = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * Quantidade máxima de itens em cálculo por thread antes que a leitura do lote aguarde a escrita dos resultados.
+	 */
+	private int itensEmCalculoPorThread = 64;
+
+	public int getTamanhoMaximo() {
+		return tamanhoMaximo;
+	}
+
+	public void setTamanhoMaximo(int tamanhoMaximo) {
+		this.tamanhoMaximo = tamanhoMaximo;
+	}
+
+	public int getParalelismo() {
+		return paralelismo;
+	}
+
+	public void setParalelismo(int paralelismo) {
+		this.paralelismo = paralelismo;
+	}
+
+	public int getItensEmCalculoPorThread() {
+		return itensEmCalculoPorThread;
+	}
+
+	public void setItensEmCalculoPorThread(int itensEmCalculoPorThread) {
+		this.itensEmCalculoPorThread = itensEmCalculoPorThread;
+	}
+}
@@ -0,0 +1,30 @@
+package com.zenvia.challenge.caixa.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração das cédulas atendidas pela instalação (prefixo {@code caixa.cedulas}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.cedulas")
+public class CedulasProperties {
+	
+	/**
+	 * Valores de face das cédulas, entre 2, 5, 10, 20, 50, 100 e 200. O cálculo das cédulas é montado
+	 * para esse conjunto na inicialização, e os terminais só aceitam estoque desses tipos.
+	 */
+	private List<Integer> valores = new ArrayList<>(Arrays.asList(10, 20, 50, 100));
+	
+	public List<Integer> getValores() {
+		return valores;
+	}
+	
+	public void setValores(List<Integer> valores) {
+		this.valores = valores;
+	}
+}
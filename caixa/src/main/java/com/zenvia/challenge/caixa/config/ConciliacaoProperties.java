@@ -0,0 +1,51 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração dos totais de cédulas dispensadas e do fechamento diário (prefixo {@code caixa.conciliacao}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.conciliacao")
+public class ConciliacaoProperties {
+	
+	/**
+	 * Fuso horário que define a virada do dia.
+	 */
+	private String fuso = "America/Sao_Paulo";
+	
+	/**
+	 * Se true, a data de movimento é encerrada automaticamente à meia-noite do fuso.
+	 */
+	private boolean viradaAutomatica = true;
+	
+	/**
+	 * Quantidade de fechamentos mantidos para consulta.
+	 */
+	private int diasRetidos = 31;
+	
+	public String getFuso() {
+		return fuso;
+	}
+	
+	public void setFuso(String fuso) {
+		this.fuso = fuso;
+	}
+	
+	public boolean isViradaAutomatica() {
+		return viradaAutomatica;
+	}
+	
+	public void setViradaAutomatica(boolean viradaAutomatica) {
+		this.viradaAutomatica = viradaAutomatica;
+	}
+	
+	public int getDiasRetidos() {
+		return diasRetidos;
+	}
+	
+	public void setDiasRetidos(int diasRetidos) {
+		this.diasRetidos = diasRetidos;
+	}
+}
@@ -0,0 +1,64 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração das chaves de idempotência dos saques em terminal (prefixo {@code caixa.idempotencia}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.idempotencia")
+public class IdempotenciaProperties {
+	
+	/**
+	 * Liga o tratamento do cabeçalho Idempotency-Key.
+	 */
+	private boolean habilitado = true;
+	
+	/**
+	 * Quantidade máxima de chaves lembradas; as mais antigas são esquecidas primeiro.
+	 */
+	private int capacidade = 100_000;
+	
+	/**
+	 * Tempo durante o qual uma chave é lembrada, contado da requisição original.
+	 */
+	private long validadeSegundos = 3_600;
+	
+	/**
+	 * Tempo máximo que uma repetição aguarda a requisição original em andamento antes de receber 409.
+	 */
+	private long esperaMaximaSegundos = 30;
+	
+	public boolean isHabilitado() {
+		return habilitado;
+	}
+	
+	public void setHabilitado(boolean habilitado) {
+		this.habilitado = habilitado;
+	}
+	
+	public int getCapacidade() {
+		return capacidade;
+	}
+	
+	public void setCapacidade(int capacidade) {
+		this.capacidade = capacidade;
+	}
+	
+	public long getValidadeSegundos() {
+		return validadeSegundos;
+	}
+	
+	public void setValidadeSegundos(long validadeSegundos) {
+		this.validadeSegundos = validadeSegundos;
+	}
+	
+	public long getEsperaMaximaSegundos() {
+		return esperaMaximaSegundos;
+	}
+	
+	public void setEsperaMaximaSegundos(long esperaMaximaSegundos) {
+		this.esperaMaximaSegundos = esperaMaximaSegundos;
+	}
+}
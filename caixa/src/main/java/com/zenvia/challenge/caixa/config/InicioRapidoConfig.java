@@ -0,0 +1,88 @@
+package com.zenvia.challenge.caixa.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.arch.conversores.ConversorValorSaque;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.services.RenderizadorResumos;
+import com.zenvia.challenge.caixa.impl.services.RenderizadorResumos.ModeloResumo;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+/**
+ * Configuração do modo de inicialização rápida (perfil {@code rapido}), para instâncias criadas sob demanda.
+ * <p>
+ * As propriedades do perfil desligam a documentação Swagger e as autoconfigurações que o caixa não usa, e tornam
+ * preguiçosa a criação dos beans do framework. Os beans do próprio caixa continuam sendo criados na inicialização,
+ * porque montam as tabelas de cálculo e os modelos de mensagens, e o caminho do calcula-cedulas é exercitado uma vez
+ * antes de o servidor aceitar conexões, sem registrar métricas de saque.
+ */
+@Configuration
+@Profile(InicioRapidoConfig.PERFIL)
+public class InicioRapidoConfig implements SmartInitializingSingleton {
+	
+	public static final String PERFIL = "rapido";
+	
+	private static final String PACOTE_CAIXA = CaixaApplication.class.getPackage().getName() + ".";
+	
+	private static final String VALOR_AQUECIMENTO = "380";
+	
+	private final SaqueService saqueService;
+	
+	private final RenderizadorResumos renderizador;
+	
+	private final ObjectMapper objectMapper;
+	
+	public InicioRapidoConfig(SaqueService saqueService, RenderizadorResumos renderizador, ObjectMapper objectMapper) {
+		this.saqueService = saqueService;
+		this.renderizador = renderizador;
+		this.objectMapper = objectMapper;
+	}
+	
+	/**
+	 * Mantém a criação antecipada dos beans do caixa quando {@code spring.main.lazy-initialization} está ligado.
+	 * @return
+	 */
+	@Bean
+	public static LazyInitializationExcludeFilter beansDoCaixaNaInicializacao() {
+		return (nome, definicao, tipo) -> tipo != null && tipo.getName().startsWith(PACOTE_CAIXA);
+	}
+	
+	/**
+	 * Aquecimento do calcula-cedulas: conversão do valor, cálculo, mensagens de todos os idiomas e serialização JSON,
+	 * para que a carga dessas classes não recaia sobre a primeira requisição.
+	 */
+	@Override
+	public void afterSingletonsInstantiated() {
+		long valorSaque = ConversorValorSaque.converter(VALOR_AQUECIMENTO, saqueService.getConjuntoCedulas());
+		if (ConversorValorSaque.isRejeicao(valorSaque)) {
+			valorSaque = saqueService.getConjuntoCedulas().getValorMinimoSaque();
+		}
+		saqueService.validar(valorSaque);
+		
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		saqueService.calcularCedulas(valorSaque, quantidades);
+		
+		try {
+			for (int i = 0; i < renderizador.getQuantidadeIdiomas(); i++) {
+				ModeloResumo modelo = renderizador.getModelo(i);
+				List<String> resumos = new ArrayList<>();
+				for (TipoCedulaEnum tipoCedula : saqueService.getConjuntoCedulas().getTiposDecrescentes()) {
+					resumos.add(modelo.renderizar(tipoCedula, quantidades[tipoCedula.ordinal()]));
+				}
+				objectMapper.writeValueAsBytes(resumos);
+			}
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Falha no aquecimento do calcula-cedulas", e);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração do journal durável dos terminais (prefixo {@code caixa.journal}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.journal")
+public class JournalProperties {
+	
+	/**
+	 * Diretório dos segmentos e snapshots do journal. Se não for informado, o journal fica desabilitado
+	 * e o estado dos terminais existe apenas em memória.
+	 */
+	private String diretorio;
+	
+	/**
+	 * Tamanho de cada segmento mapeado em memória, em bytes.
+	 */
+	private long tamanhoSegmento = 64L * 1024 * 1024;
+	
+	/**
+	 * Se true, cada operação só é concluída depois que o seu evento está em disco.
+	 */
+	private boolean sincronizar = true;
+	
+	/**
+	 * Intervalo entre snapshots do estado, em segundos.
+	 */
+	private long intervaloSnapshotSegundos = 300;
+
+	public String getDiretorio() {
+		return diretorio;
+	}
+
+	public void setDiretorio(String diretorio) {
+		this.diretorio = diretorio;
+	}
+
+	public long getTamanhoSegmento() {
+		return tamanhoSegmento;
+	}
+
+	public void setTamanhoSegmento(long tamanhoSegmento) {
+		this.tamanhoSegmento = tamanhoSegmento;
+	}
+
+	public boolean isSincronizar() {
+		return sincronizar;
+	}
+
+	public void setSincronizar(boolean sincronizar) {
+		this.sincronizar = sincronizar;
+	}
+
+	public long getIntervaloSnapshotSegundos() {
+		return intervaloSnapshotSegundos;
+	}
+
+	public void setIntervaloSnapshotSegundos(long intervaloSnapshotSegundos) {
+		this.intervaloSnapshotSegundos = intervaloSnapshotSegundos;
+	}
+}
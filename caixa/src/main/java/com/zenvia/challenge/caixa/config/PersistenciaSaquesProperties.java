@@ -0,0 +1,90 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração da gravação em segundo plano dos saques atendidos (prefixo {@code caixa.persistencia-saques}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.persistencia-saques")
+public class PersistenciaSaquesProperties {
+	
+	/**
+	 * Arquivo dos saques, no formato binário das trilhas de saque. Se não for informado, a gravação fica desabilitada.
+	 */
+	private String arquivo;
+	
+	/**
+	 * Saques que cabem na fila entre as requisições e a gravação.
+	 */
+	private int capacidadeFila = 65536;
+	
+	/**
+	 * Máximo de saques gravados de uma vez.
+	 */
+	private int tamanhoLote = 512;
+	
+	/**
+	 * Tempo máximo de espera, a partir do primeiro saque de um lote, por mais saques antes da gravação.
+	 */
+	private long janelaLoteMicrossegundos = 1000;
+	
+	/**
+	 * Tempo máximo de espera de uma requisição com a fila cheia; depois dele o saque não é gravado.
+	 */
+	private long esperaFilaCheiaMilissegundos = 100;
+	
+	/**
+	 * Se true, cada lote é sincronizado com o disco antes da conclusão dos seus saques.
+	 */
+	private boolean sincronizar = true;
+	
+	public String getArquivo() {
+		return arquivo;
+	}
+	
+	public void setArquivo(String arquivo) {
+		this.arquivo = arquivo;
+	}
+	
+	public int getCapacidadeFila() {
+		return capacidadeFila;
+	}
+	
+	public void setCapacidadeFila(int capacidadeFila) {
+		this.capacidadeFila = capacidadeFila;
+	}
+	
+	public int getTamanhoLote() {
+		return tamanhoLote;
+	}
+	
+	public void setTamanhoLote(int tamanhoLote) {
+		this.tamanhoLote = tamanhoLote;
+	}
+	
+	public long getJanelaLoteMicrossegundos() {
+		return janelaLoteMicrossegundos;
+	}
+	
+	public void setJanelaLoteMicrossegundos(long janelaLoteMicrossegundos) {
+		this.janelaLoteMicrossegundos = janelaLoteMicrossegundos;
+	}
+	
+	public long getEsperaFilaCheiaMilissegundos() {
+		return esperaFilaCheiaMilissegundos;
+	}
+	
+	public void setEsperaFilaCheiaMilissegundos(long esperaFilaCheiaMilissegundos) {
+		this.esperaFilaCheiaMilissegundos = esperaFilaCheiaMilissegundos;
+	}
+	
+	public boolean isSincronizar() {
+		return sincronizar;
+	}
+	
+	public void setSincronizar(boolean sincronizar) {
+		this.sincronizar = sincronizar;
+	}
+}
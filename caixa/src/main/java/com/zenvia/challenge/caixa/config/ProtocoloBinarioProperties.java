@@ -0,0 +1,116 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuração do protocolo binário TCP dos terminais (prefixo {@code caixa.protocolo-binario}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.protocolo-binario")
+public class ProtocoloBinarioProperties {
+	
+	/**
+	 * Liga o listener TCP do protocolo binário.
+	 */
+	private boolean habilitado = false;
+	
+	/**
+	 * Endereço local do listener; se não for informado, todas as interfaces.
+	 */
+	private String endereco;
+	
+	/**
+	 * Porta do listener; 0 para uma porta livre.
+	 */
+	private int porta = 9100;
+	
+	/**
+	 * Threads que atendem as conexões, cada uma com o seu seletor.
+	 */
+	private int reatores = 2;
+	
+	/**
+	 * Threads que atendem os saques em terminal, compartilhadas pelos reatores: o saque espera a gravação em disco.
+	 */
+	private int threadsSaque = 16;
+	
+	/**
+	 * Tamanho de cada buffer de leitura ou escrita de uma conexão, em bytes.
+	 */
+	private int tamanhoBuffer = 4096;
+	
+	/**
+	 * Buffers diretos pré-alocados por reator.
+	 */
+	private int buffersPorReator = 256;
+	
+	/**
+	 * Conexões aguardando aceitação.
+	 */
+	private int filaConexoes = 1024;
+
+	public boolean isHabilitado() {
+		return habilitado;
+	}
+
+	public void setHabilitado(boolean habilitado) {
+		this.habilitado = habilitado;
+	}
+
+	public String getEndereco() {
+		return endereco;
+	}
+
+	public void setEndereco(String endereco) {
+		this.endereco = endereco;
+	}
+
+	public int getPorta() {
+		return porta;
+	}
+
+	public void setPorta(int porta) {
+		this.porta = porta;
+	}
+
+	public int getReatores() {
+		return reatores;
+	}
+
+	public void setReatores(int reatores) {
+		this.reatores = reatores;
+	}
+
+	public int getThreadsSaque() {
+		return threadsSaque;
+	}
+
+	public void setThreadsSaque(int threadsSaque) {
+		this.threadsSaque = threadsSaque;
+	}
+
+	public int getTamanhoBuffer() {
+		return tamanhoBuffer;
+	}
+
+	public void setTamanhoBuffer(int tamanhoBuffer) {
+		this.tamanhoBuffer = tamanhoBuffer;
+	}
+
+	public int getBuffersPorReator() {
+		return buffersPorReator;
+	}
+
+	public void setBuffersPorReator(int buffersPorReator) {
+		this.buffersPorReator = buffersPorReator;
+	}
+
+	public int getFilaConexoes() {
+		return filaConexoes;
+	}
+
+	public void setFilaConexoes(int filaConexoes) {
+		this.filaConexoes = filaConexoes;
+	}
+}
@@ -0,0 +1,21 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração da aplicação reativa (perfil {@code reativo}).
+ * O Tomcat também está no classpath por causa da API servlet; o Netty é declarado explicitamente
+ * para que a variante reativa rode sobre o event loop e não sobre o adaptador servlet.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReativoConfig {
+	
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+}
@@ -0,0 +1,40 @@
+package com.zenvia.challenge.caixa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+
+/**
+ * Configuração do registro de terminais (prefixo {@code caixa.terminais}).
+ */
+@Component
+@ConfigurationProperties(prefix = "caixa.terminais")
+public class RegistroTerminaisProperties {
+	
+	/**
+	 * Quantidade de terminais esperada, usada para dimensionar o registro e evitar redimensionamentos.
+	 */
+	private int capacidadeInicial = 16_384;
+	
+	/**
+	 * Estratégia de dispensação dos terminais cadastrados sem estratégia e dos restaurados do journal.
+	 */
+	private EstrategiaDispensacaoEnum estrategiaPadrao = EstrategiaDispensacaoEnum.MENOR_QUANTIDADE;
+	
+	public int getCapacidadeInicial() {
+		return capacidadeInicial;
+	}
+	
+	public void setCapacidadeInicial(int capacidadeInicial) {
+		this.capacidadeInicial = capacidadeInicial;
+	}
+	
+	public EstrategiaDispensacaoEnum getEstrategiaPadrao() {
+		return estrategiaPadrao;
+	}
+	
+	public void setEstrategiaPadrao(EstrategiaDispensacaoEnum estrategiaPadrao) {
+		this.estrategiaPadrao = estrategiaPadrao;
+	}
+}
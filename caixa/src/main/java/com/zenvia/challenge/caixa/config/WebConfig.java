@@ -0,0 +1,80 @@
+package com.zenvia.challenge.caixa.config;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zenvia.challenge.caixa.arch.admissao.FiltroAdmissao;
+import com.zenvia.challenge.caixa.arch.admissao.LimitadorRequisicoes;
+import com.zenvia.challenge.caixa.arch.conversores.ComposicaoSaqueBinariaHttpMessageConverter;
+import com.zenvia.challenge.caixa.arch.idempotencia.CacheIdempotencia;
+import com.zenvia.challenge.caixa.arch.idempotencia.FiltroIdempotencia;
+import com.zenvia.challenge.caixa.arch.idempotencia.RespostaArmazenada;
+import com.zenvia.challenge.caixa.impl.rest.v1.CaixaEletronicoRest;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Configuração da API servlet: registra os formatos de resposta próprios do caixa eletrônico, o controle de admissão
+ * por cliente na frente da API de operação e a idempotência dos saques em terminal.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+	
+	private final SaqueService saqueService;
+	
+	public WebConfig(SaqueService saqueService) {
+		this.saqueService = saqueService;
+	}
+	
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new ComposicaoSaqueBinariaHttpMessageConverter(saqueService.getConjuntoCedulas()));
+	}
+	
+	/**
+	 * Filtro de admissão antes dos demais, para que uma requisição recusada custe o mínimo.
+	 * @param admissao
+	 * @param registry
+	 * @return
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "caixa.admissao", name = "habilitado", havingValue = "true", matchIfMissing = true)
+	public FilterRegistrationBean<FiltroAdmissao> filtroAdmissao(AdmissaoProperties admissao, MeterRegistry registry) {
+		LimitadorRequisicoes limitador = new LimitadorRequisicoes(admissao.getCapacidade(), admissao.getRequisicoesPorSegundo(),
+				admissao.getIntervaloVarreduraSegundos(), TimeUnit.SECONDS);
+		
+		FilterRegistrationBean<FiltroAdmissao> registro = new FilterRegistrationBean<>(new FiltroAdmissao(limitador, registry));
+		registro.addUrlPatterns(CaixaEletronicoRest.PATH + "/*");
+		registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registro;
+	}
+	
+	/**
+	 * Filtro de idempotência dos saques em terminal, depois da admissão: uma repetição também consome uma ficha do cliente.
+	 * @param idempotencia
+	 * @return
+	 */
+	@Bean
+	@ConditionalOnProperty(prefix = "caixa.idempotencia", name = "habilitado", havingValue = "true", matchIfMissing = true)
+	public FilterRegistrationBean<FiltroIdempotencia> filtroIdempotencia(IdempotenciaProperties idempotencia) {
+		CacheIdempotencia<RespostaArmazenada> cache = new CacheIdempotencia<>(idempotencia.getCapacidade(),
+				idempotencia.getValidadeSegundos(), TimeUnit.SECONDS);
+		
+		FilterRegistrationBean<FiltroIdempotencia> registro = new FilterRegistrationBean<>(
+				new FiltroIdempotencia(cache, idempotencia.getEsperaMaximaSegundos(), TimeUnit.SECONDS));
+		registro.addUrlPatterns(CaixaEletronicoRest.PATH + "/terminais/*");
+		registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+		return registro;
+	}
+}
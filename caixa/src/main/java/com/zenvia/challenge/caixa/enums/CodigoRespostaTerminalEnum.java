@@ -0,0 +1,76 @@
+package com.zenvia.challenge.caixa.enums;
+
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+/**
+ * Código de resposta do protocolo binário dos terminais, nos moldes do campo 39 da ISO 8583.
+ */
+public enum CodigoRespostaTerminalEnum {
+	
+	APROVADO(0),
+	
+	/**
+	 * Tipo de mensagem não atendido.
+	 */
+	TRANSACAO_INVALIDA(12),
+	
+	/**
+	 * Valor rejeitado pelas regras de saque.
+	 */
+	VALOR_INVALIDO(13),
+	
+	/**
+	 * O estoque do terminal não compõe o valor.
+	 */
+	CEDULAS_INSUFICIENTES(51),
+	
+	/**
+	 * Terminal não informado ou não cadastrado.
+	 */
+	TERMINAL_NAO_PERMITIDO(58),
+	
+	/**
+	 * Falha inesperada no processamento.
+	 */
+	ERRO_SISTEMA(96);
+	
+	private final short codigo;
+	
+	private CodigoRespostaTerminalEnum(int codigo) {
+		this.codigo = (short) codigo;
+	}
+	
+	public short getCodigo() {
+		return codigo;
+	}
+	
+	/**
+	 * Código correspondente a uma rejeição de negócio.
+	 * @param mensagem Mensagem da {@link com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException}.
+	 * @return
+	 */
+	public static CodigoRespostaTerminalEnum getByRejeicao(String mensagem) {
+		if (SaqueService.MSG_CEDULAS_INSUFICIENTES.equals(mensagem)) {
+			return CEDULAS_INSUFICIENTES;
+		}
+		if (RegistroTerminaisService.MSG_TERMINAL_NAO_CADASTRADO.equals(mensagem)
+				|| RegistroTerminaisService.MSG_ID_TERMINAL_OBRIGATORIO.equals(mensagem)) {
+			return TERMINAL_NAO_PERMITIDO;
+		}
+		return VALOR_INVALIDO;
+	}
+	
+	/**
+	 * @param codigo
+	 * @return O código de resposta, ou null se não existir.
+	 */
+	public static CodigoRespostaTerminalEnum getByCodigo(int codigo) {
+		for (CodigoRespostaTerminalEnum resposta : values()) {
+			if (resposta.codigo == codigo) {
+				return resposta;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,29 @@
+package com.zenvia.challenge.caixa.enums;
+
+/**
+ * Políticas de escolha das cédulas de um saque limitado ao estoque de um terminal. Todas pagam exatamente o valor
+ * quando alguma composição dentro do estoque o paga; diferem apenas em qual composição preferem.
+ */
+public enum EstrategiaDispensacaoEnum {
+	
+	/**
+	 * Menor número de cédulas (política original do serviço).
+	 */
+	MENOR_QUANTIDADE,
+	
+	/**
+	 * Saques pequenos com cédulas variadas, que facilitam o troco (100,00 como 50,00 + 20,00 + 20,00 + 10,00);
+	 * acima do limite de saque pequeno, menor número de cédulas.
+	 */
+	TROCO,
+	
+	/**
+	 * Retira as cédulas proporcionalmente ao estoque de cada cassete, equilibrando o desgaste e o esgotamento.
+	 */
+	EQUILIBRIO,
+	
+	/**
+	 * Evita a cédula com menor estoque no terminal, usando-a apenas quando nenhuma composição a dispensa.
+	 */
+	PRESERVACAO;
+}
@@ -0,0 +1,27 @@
+package com.zenvia.challenge.caixa.enums;
+
+/**
+ * Operação registrada na trilha de auditoria.
+ */
+public enum OperacaoAuditadaEnum {
+	
+	/**
+	 * Cálculo das cédulas de um saque com resposta em mensagens.
+	 */
+	CALCULO,
+	
+	/**
+	 * Cálculo das cédulas de um saque com resposta estruturada.
+	 */
+	COMPOSICAO,
+	
+	/**
+	 * Saque em um terminal, limitado ao estoque de cédulas.
+	 */
+	TERMINAL,
+	
+	/**
+	 * Valor rejeitado na conversão, antes de chegar ao serviço.
+	 */
+	CONVERSAO;
+}
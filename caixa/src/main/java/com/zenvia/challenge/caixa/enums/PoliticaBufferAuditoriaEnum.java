@@ -0,0 +1,24 @@
+package com.zenvia.challenge.caixa.enums;
+
+/**
+ * Comportamento da publicação de um evento de auditoria quando o buffer está cheio, isto é, quando o consumidor
+ * não acompanha o ritmo das requisições.
+ */
+public enum PoliticaBufferAuditoriaEnum {
+	
+	/**
+	 * A requisição espera até haver espaço: nenhum evento é perdido, ao custo de atrasar as requisições.
+	 */
+	BLOQUEAR,
+	
+	/**
+	 * O evento é descartado e contado, sem atrasar a requisição.
+	 */
+	DESCARTAR,
+	
+	/**
+	 * A partir de metade da capacidade, apenas um a cada N eventos é publicado e os demais são contados como não amostrados;
+	 * com o buffer cheio, o evento é descartado e contado.
+	 */
+	AMOSTRAR;
+}
@@ -0,0 +1,45 @@
+package com.zenvia.challenge.caixa.enums;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+/**
+ * Resultado da validação do valor de um saque, para os chamadores que tratam a rejeição sem capturar exceções.
+ * <p>
+ * Cada rejeição tem a sua {@link BusinessException} criada uma única vez: como a exceção não tem pilha de chamadas
+ * nem aceita exceções suprimidas, a mesma instância pode ser lançada por qualquer thread.
+ */
+public enum ResultadoValidacaoSaqueEnum {
+
+	VALIDO(null),
+	VALOR_SAQUE_OBRIGATORIO(SaqueService.MSG_VALOR_SAQUE_OBRIGATORIO),
+	VALOR_SAQUE_INVALIDO(SaqueService.MSG_VALOR_SAQUE_INVALIDO),
+	VALOR_SAQUE_MAIOR_QUE_ZERO(SaqueService.MSG_VALOR_SAQUE_MAIOR_QUE_ZERO),
+	VALOR_MINIMO_SAQUE(SaqueService.MSG_VALOR_MINIMO_SAQUE),
+	VALOR_SAQUE_DEVE_SER_MULTIPLO(SaqueService.MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO);
+	
+	private String mensagem;
+	
+	private BusinessException excecao;
+	
+	private ResultadoValidacaoSaqueEnum(String mensagem) {
+		this.mensagem = mensagem;
+		this.excecao = mensagem == null ? null : new BusinessException(mensagem);
+	}
+
+	public String getMensagem() {
+		return mensagem;
+	}
+	
+	/**
+	 * Exceção correspondente à rejeição, compartilhada entre as chamadas.
+	 * @return A exceção, ou null para {@link #VALIDO}.
+	 */
+	public BusinessException getExcecao() {
+		return excecao;
+	}
+	
+	public boolean isValido() {
+		return this == VALIDO;
+	}
+}
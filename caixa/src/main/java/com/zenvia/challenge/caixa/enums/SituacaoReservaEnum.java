@@ -0,0 +1,6 @@
+package com.zenvia.challenge.caixa.enums;
+
+public enum SituacaoReservaEnum {
+
+	PENDENTE, CONFIRMADA, CANCELADA;
+}
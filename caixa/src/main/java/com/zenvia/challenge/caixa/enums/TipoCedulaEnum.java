@@ -2,11 +2,17 @@ package com.zenvia.challenge.caixa.enums;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 public enum TipoCedulaEnum {
 
-	CEDULA_10(10), CEDULA_20(20), CEDULA_50(50), CEDULA_100(100);
+	// novos tipos entram sempre no final: o ordinal indexa as quantidades gravadas no journal dos terminais
+	CEDULA_10(10), CEDULA_20(20), CEDULA_50(50), CEDULA_100(100), CEDULA_2(2), CEDULA_5(5), CEDULA_200(200);
+	
+	private static final List<TipoCedulaEnum> DECRESCENTES = Collections.unmodifiableList(ordenarDecrescente());
 	
 	private Integer valorFaceCedula;
 	
@@ -30,13 +36,26 @@ public enum TipoCedulaEnum {
 	 * @return
 	 */
 	public static List<TipoCedulaEnum> getDecrescentValues() {
-		List<TipoCedulaEnum> tiposCedula = new ArrayList<>();
-		
-		tiposCedula.add(CEDULA_100);
-		tiposCedula.add(CEDULA_50);
-		tiposCedula.add(CEDULA_20);
-		tiposCedula.add(CEDULA_10);
-		
+		return new ArrayList<>(DECRESCENTES);
+	}
+	
+	/**
+	 * Retorna o tipo de cédula de um valor de face.
+	 * @param valorFaceCedula
+	 * @return O tipo, ou null se não houver cédula com esse valor.
+	 */
+	public static TipoCedulaEnum getByValorFace(int valorFaceCedula) {
+		for (TipoCedulaEnum tipoCedula : values()) {
+			if (tipoCedula.valorFaceCedula == valorFaceCedula) {
+				return tipoCedula;
+			}
+		}
+		return null;
+	}
+	
+	private static List<TipoCedulaEnum> ordenarDecrescente() {
+		List<TipoCedulaEnum> tiposCedula = new ArrayList<>(Arrays.asList(values()));
+		tiposCedula.sort(Comparator.comparing(TipoCedulaEnum::getValorFaceCedula).reversed());
 		return tiposCedula;
 	}
 }
@@ -0,0 +1,30 @@
+package com.zenvia.challenge.caixa.enums;
+
+public enum TipoEventoTerminalEnum {
+
+	CADASTRO(1), ABASTECIMENTO(2), SAQUE(3), RETIRADA(4);
+	
+	private byte codigo;
+	
+	private TipoEventoTerminalEnum(int codigo) {
+		this.codigo = (byte) codigo;
+	}
+
+	public byte getCodigo() {
+		return codigo;
+	}
+	
+	/**
+	 * Retorna o tipo de evento correspondente ao código gravado no journal
+	 * @param codigo
+	 * @return O tipo de evento, ou null se o código for desconhecido.
+	 */
+	public static TipoEventoTerminalEnum getByCodigo(byte codigo) {
+		for (TipoEventoTerminalEnum tipo : values()) {
+			if (tipo.codigo == codigo) {
+				return tipo;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,117 @@
+package com.zenvia.challenge.caixa.impl.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Composição imutável de um saque: quantidade de cédulas de cada {@link TipoCedulaEnum}.
+ * As quantidades são indexadas pelo ordinal do tipo de cédula; as cédulas listadas são as do {@link ConjuntoCedulas} da composição.
+ */
+@JsonPropertyOrder({"cedulas", "valorTotal", "quantidadeTotalCedulas"})
+public final class ComposicaoSaque {
+	
+	private final int[] quantidades;
+	
+	private final long valorTotal;
+	
+	private final ConjuntoCedulas conjunto;
+	
+	public ComposicaoSaque(int[] quantidades) {
+		this(quantidades, ConjuntoCedulas.TODAS);
+	}
+	
+	/**
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param conjunto Cédulas listadas pela composição.
+	 */
+	public ComposicaoSaque(int[] quantidades, ConjuntoCedulas conjunto) {
+		if (quantidades.length != TipoCedulaEnum.values().length) {
+			throw new IllegalArgumentException("Quantidade de tipos de cédula inválida: " + quantidades.length);
+		}
+		this.quantidades = quantidades.clone();
+		this.conjunto = conjunto;
+		
+		long total = 0;
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			total += (long) tipoCedula.getValorFaceCedula() * this.quantidades[tipoCedula.ordinal()];
+		}
+		this.valorTotal = total;
+	}
+
+	/**
+	 * Retorna a quantidade de cédulas de um tipo.
+	 * @param tipoCedula
+	 * @return
+	 */
+	public int getQuantidade(TipoCedulaEnum tipoCedula) {
+		return quantidades[tipoCedula.ordinal()];
+	}
+	
+	/**
+	 * Retorna a quantidade de cédulas de cada tipo do conjunto, em ordem decrescente de valor de face.
+	 * @return
+	 */
+	public Map<TipoCedulaEnum, Integer> getCedulas() {
+		Map<TipoCedulaEnum, Integer> cedulas = new LinkedHashMap<>();
+		for (int i = 0; i < conjunto.getQuantidadeTipos(); i++) {
+			TipoCedulaEnum tipoCedula = conjunto.getTipo(i);
+			cedulas.put(tipoCedula, quantidades[tipoCedula.ordinal()]);
+		}
+		return cedulas;
+	}
+	
+	@JsonIgnore
+	public ConjuntoCedulas getConjunto() {
+		return conjunto;
+	}
+	
+	/**
+	 * Copia as quantidades para um vetor fornecido pelo chamador (indexado pelo ordinal do tipo de cédula).
+	 * @param destino
+	 */
+	public void copiarQuantidades(int[] destino) {
+		System.arraycopy(quantidades, 0, destino, 0, quantidades.length);
+	}
+
+	public long getValorTotal() {
+		return valorTotal;
+	}
+	
+	/**
+	 * Retorna o total de cédulas da composição.
+	 * @return
+	 */
+	public int getQuantidadeTotalCedulas() {
+		int total = 0;
+		for (int quantidade : quantidades) {
+			total += quantidade;
+		}
+		return total;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ComposicaoSaque)) {
+			return false;
+		}
+		return Arrays.equals(quantidades, ((ComposicaoSaque) obj).quantidades);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(quantidades);
+	}
+
+	@Override
+	public String toString() {
+		return "ComposicaoSaque [valorTotal=" + valorTotal + ", quantidades=" + Arrays.toString(quantidades) + "]";
+	}
+}
@@ -0,0 +1,197 @@
+package com.zenvia.challenge.caixa.impl.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Conjunto imutável dos tipos de cédula com que uma instalação trabalha.
+ * <p>
+ * O valor mínimo e o múltiplo dos saques são derivados do conjunto: o mínimo é a menor cédula e o múltiplo é o
+ * máximo divisor comum dos valores de face (para 10,00, 20,00, 50,00 e 100,00, ambos valem 10,00).
+ */
+public final class ConjuntoCedulas {
+	
+	/**
+	 * Menor valor aceito para a maior cédula do conjunto: garante que a quantidade de cédulas do cálculo primitivo caiba em um int.
+	 */
+	public static final int VALOR_MINIMO_MAIOR_CEDULA = 10;
+	
+	/**
+	 * Cédulas atendidas originalmente: 10,00, 20,00, 50,00 e 100,00.
+	 */
+	public static final ConjuntoCedulas PADRAO = new ConjuntoCedulas(EnumSet.of(
+			TipoCedulaEnum.CEDULA_10, TipoCedulaEnum.CEDULA_20, TipoCedulaEnum.CEDULA_50, TipoCedulaEnum.CEDULA_100));
+	
+	/**
+	 * Todos os tipos de {@link TipoCedulaEnum}.
+	 */
+	public static final ConjuntoCedulas TODAS = new ConjuntoCedulas(EnumSet.allOf(TipoCedulaEnum.class));
+	
+	private final Set<TipoCedulaEnum> tipos;
+	
+	private final TipoCedulaEnum[] decrescentes;
+	
+	private final int multiplo;
+	
+	private final String versao;
+	
+	private ConjuntoCedulas(Set<TipoCedulaEnum> tipos) {
+		this.tipos = tipos;
+		
+		List<TipoCedulaEnum> decrescentes = new ArrayList<>();
+		int mdc = 0;
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.getDecrescentValues()) {
+			if (tipos.contains(tipoCedula)) {
+				decrescentes.add(tipoCedula);
+				mdc = mdc(mdc, tipoCedula.getValorFaceCedula());
+			}
+		}
+		this.decrescentes = decrescentes.toArray(new TipoCedulaEnum[0]);
+		this.multiplo = mdc;
+		
+		CRC32 crc = new CRC32();
+		crc.update(getDescricao().getBytes(StandardCharsets.US_ASCII));
+		this.versao = String.format("%08x", crc.getValue());
+	}
+	
+	/**
+	 * Cria o conjunto a partir dos valores de face das cédulas.
+	 * @param valoresFace
+	 * @return
+	 * @throws IllegalArgumentException Se o conjunto for vazio, repetir ou desconhecer algum valor, ou se a maior cédula
+	 * for inferior a {@link #VALOR_MINIMO_MAIOR_CEDULA}.
+	 */
+	public static ConjuntoCedulas de(Collection<Integer> valoresFace) {
+		if (valoresFace == null || valoresFace.isEmpty()) {
+			throw new IllegalArgumentException("O conjunto de cédulas deve ter ao menos um tipo de cédula.");
+		}
+		
+		Set<TipoCedulaEnum> tipos = EnumSet.noneOf(TipoCedulaEnum.class);
+		int maiorValor = 0;
+		for (Integer valorFace : valoresFace) {
+			TipoCedulaEnum tipoCedula = valorFace == null ? null : TipoCedulaEnum.getByValorFace(valorFace);
+			if (tipoCedula == null) {
+				throw new IllegalArgumentException("Cédula desconhecida: " + valorFace);
+			}
+			if (!tipos.add(tipoCedula)) {
+				throw new IllegalArgumentException("Cédula repetida: " + valorFace);
+			}
+			maiorValor = Math.max(maiorValor, valorFace);
+		}
+		if (maiorValor < VALOR_MINIMO_MAIOR_CEDULA) {
+			throw new IllegalArgumentException("A maior cédula do conjunto deve valer ao menos " + VALOR_MINIMO_MAIOR_CEDULA + ".");
+		}
+		
+		return new ConjuntoCedulas(tipos);
+	}
+	
+	public static ConjuntoCedulas de(Integer... valoresFace) {
+		return de(Arrays.asList(valoresFace));
+	}
+	
+	public boolean contem(TipoCedulaEnum tipoCedula) {
+		return tipos.contains(tipoCedula);
+	}
+	
+	/**
+	 * Retorna os tipos de cédula do conjunto em ordem decrescente de valor de face.
+	 * @return Cópia do vetor, que pode ser alterada pelo chamador.
+	 */
+	public TipoCedulaEnum[] getTiposDecrescentes() {
+		return decrescentes.clone();
+	}
+	
+	public int getQuantidadeTipos() {
+		return decrescentes.length;
+	}
+	
+	/**
+	 * Tipo de cédula em uma posição da ordem decrescente de valor de face, sem copiar o vetor.
+	 * @param posicao Entre zero e {@link #getQuantidadeTipos()} - 1.
+	 * @return
+	 */
+	public TipoCedulaEnum getTipo(int posicao) {
+		return decrescentes[posicao];
+	}
+	
+	public TipoCedulaEnum getMaiorCedula() {
+		return decrescentes[0];
+	}
+	
+	public TipoCedulaEnum getMenorCedula() {
+		return decrescentes[decrescentes.length - 1];
+	}
+	
+	/**
+	 * Menor valor aceito para um saque, em reais: o valor da menor cédula.
+	 * @return
+	 */
+	public int getValorMinimoSaque() {
+		return getMenorCedula().getValorFaceCedula();
+	}
+	
+	/**
+	 * Valor do qual todo saque deve ser múltiplo, em reais: o máximo divisor comum dos valores de face.
+	 * @return
+	 */
+	public int getMultiploSaque() {
+		return multiplo;
+	}
+	
+	/**
+	 * Descrição estável do conjunto (valores de face em ordem decrescente), por exemplo "100,50,20,10".
+	 * @return
+	 */
+	public String getDescricao() {
+		StringBuilder descricao = new StringBuilder();
+		for (TipoCedulaEnum tipoCedula : decrescentes) {
+			if (descricao.length() > 0) {
+				descricao.append(',');
+			}
+			descricao.append(tipoCedula.getValorFaceCedula());
+		}
+		return descricao.toString();
+	}
+	
+	/**
+	 * Identificador curto do conjunto (8 dígitos hexadecimais, derivados da descrição): é o mesmo em toda inicialização
+	 * com as mesmas cédulas e muda quando as cédulas configuradas mudam.
+	 * @return
+	 */
+	public String getVersao() {
+		return versao;
+	}
+	
+	private static int mdc(int a, int b) {
+		return b == 0 ? a : mdc(b, a % b);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ConjuntoCedulas)) {
+			return false;
+		}
+		return tipos.equals(((ConjuntoCedulas) obj).tipos);
+	}
+	
+	@Override
+	public int hashCode() {
+		return tipos.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return "ConjuntoCedulas [" + getDescricao() + "]";
+	}
+}
@@ -0,0 +1,83 @@
+package com.zenvia.challenge.caixa.impl.model;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Resultado da simulação de um terminal: saques atendidos e rejeitados, cédulas restantes e o instante em que cada
+ * tipo de cédula se esgotou.
+ */
+public final class EsgotamentoTerminal {
+	
+	/**
+	 * Instante de esgotamento de um tipo de cédula que não se esgotou na simulação.
+	 */
+	public static final long SEM_ESGOTAMENTO = Long.MIN_VALUE;
+	
+	private final String terminal;
+	
+	private final long saquesAtendidos;
+	
+	private final long rejeitadosPorValor;
+	
+	private final long rejeitadosPorCedulas;
+	
+	private final int[] restantes;
+	
+	private final long[] esgotamentos;
+	
+	/**
+	 * @param terminal
+	 * @param saquesAtendidos
+	 * @param rejeitadosPorValor Saques com valor inválido para o conjunto de cédulas.
+	 * @param rejeitadosPorCedulas Saques válidos que as cédulas restantes não pagavam.
+	 * @param restantes Cédulas restantes, indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param esgotamentos Instantes de esgotamento em milissegundos desde a época, indexados pelo ordinal de {@link TipoCedulaEnum}.
+	 */
+	public EsgotamentoTerminal(String terminal, long saquesAtendidos, long rejeitadosPorValor, long rejeitadosPorCedulas,
+			int[] restantes, long[] esgotamentos) {
+		this.terminal = terminal;
+		this.saquesAtendidos = saquesAtendidos;
+		this.rejeitadosPorValor = rejeitadosPorValor;
+		this.rejeitadosPorCedulas = rejeitadosPorCedulas;
+		this.restantes = restantes.clone();
+		this.esgotamentos = esgotamentos.clone();
+	}
+	
+	public String getTerminal() {
+		return terminal;
+	}
+	
+	public long getSaquesAtendidos() {
+		return saquesAtendidos;
+	}
+	
+	public long getRejeitadosPorValor() {
+		return rejeitadosPorValor;
+	}
+	
+	public long getRejeitadosPorCedulas() {
+		return rejeitadosPorCedulas;
+	}
+	
+	public long getRejeitados() {
+		return rejeitadosPorValor + rejeitadosPorCedulas;
+	}
+	
+	public int getRestantes(TipoCedulaEnum tipoCedula) {
+		return restantes[tipoCedula.ordinal()];
+	}
+	
+	/**
+	 * Instante do saque que retirou a última cédula do tipo.
+	 * @param tipoCedula
+	 * @return Milissegundos desde a época, ou {@link #SEM_ESGOTAMENTO}.
+	 */
+	public long getEsgotamento(TipoCedulaEnum tipoCedula) {
+		return esgotamentos[tipoCedula.ordinal()];
+	}
+	
+	@Override
+	public String toString() {
+		return "EsgotamentoTerminal [terminal=" + terminal + ", saquesAtendidos=" + saquesAtendidos + ", rejeitados=" + getRejeitados() + "]";
+	}
+}
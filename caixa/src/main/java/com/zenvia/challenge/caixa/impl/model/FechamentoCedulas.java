@@ -0,0 +1,71 @@
+package com.zenvia.challenge.caixa.impl.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Fotografia consistente das cédulas dispensadas em uma data de movimento, no total e por terminal: cada saque
+ * aparece inteiro ou não aparece. Com {@link #isEncerrado()}, são os números de fechamento da data.
+ */
+@JsonPropertyOrder({"data", "encerrado", "instante", "total", "terminais"})
+public final class FechamentoCedulas {
+	
+	private final LocalDate data;
+	
+	private final boolean encerrado;
+	
+	private final Instant instante;
+	
+	private final TotaisCedulas total;
+	
+	private final Map<String, TotaisCedulas> terminais;
+	
+	/**
+	 * @param data Data de movimento.
+	 * @param encerrado Se a data foi encerrada.
+	 * @param instante Instante da fotografia.
+	 * @param total
+	 * @param terminais Totais de cada terminal com saques na data.
+	 */
+	public FechamentoCedulas(LocalDate data, boolean encerrado, Instant instante, TotaisCedulas total, Map<String, TotaisCedulas> terminais) {
+		this.data = data;
+		this.encerrado = encerrado;
+		this.instante = instante;
+		this.total = total;
+		this.terminais = Collections.unmodifiableMap(new TreeMap<>(terminais));
+	}
+	
+	public LocalDate getData() {
+		return data;
+	}
+	
+	public boolean isEncerrado() {
+		return encerrado;
+	}
+	
+	public Instant getInstante() {
+		return instante;
+	}
+	
+	public TotaisCedulas getTotal() {
+		return total;
+	}
+	
+	/**
+	 * Totais por terminal, em ordem de identificador.
+	 * @return
+	 */
+	public Map<String, TotaisCedulas> getTerminais() {
+		return terminais;
+	}
+	
+	@Override
+	public String toString() {
+		return "FechamentoCedulas [data=" + data + ", encerrado=" + encerrado + ", total=" + total + "]";
+	}
+}
@@ -0,0 +1,54 @@
+package com.zenvia.challenge.caixa.impl.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Resultado do cálculo de um item de um lote, serializado como uma linha NDJSON.
+ * Contém as mensagens de entrega de cédulas ou, em caso de falha, a mensagem de erro do item.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"indice", "valor", "cedulas", "erro"})
+public class ResultadoItemLote {
+	
+	private final long indice;
+	
+	private final String valor;
+	
+	private final List<String> cedulas;
+	
+	private final String erro;
+	
+	private ResultadoItemLote(long indice, String valor, List<String> cedulas, String erro) {
+		this.indice = indice;
+		this.valor = valor;
+		this.cedulas = cedulas;
+		this.erro = erro;
+	}
+	
+	public static ResultadoItemLote sucesso(long indice, String valor, List<String> cedulas) {
+		return new ResultadoItemLote(indice, valor, cedulas, null);
+	}
+	
+	public static ResultadoItemLote erro(long indice, String valor, String erro) {
+		return new ResultadoItemLote(indice, valor, null, erro);
+	}
+
+	public long getIndice() {
+		return indice;
+	}
+
+	public String getValor() {
+		return valor;
+	}
+
+	public List<String> getCedulas() {
+		return cedulas;
+	}
+
+	public String getErro() {
+		return erro;
+	}
+}
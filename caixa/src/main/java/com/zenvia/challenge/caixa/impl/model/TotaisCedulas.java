@@ -0,0 +1,84 @@
+package com.zenvia.challenge.caixa.impl.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Totais imutáveis de cédulas dispensadas em um período: quantidade de saques e de cédulas de cada {@link TipoCedulaEnum}.
+ */
+@JsonPropertyOrder({"saques", "valorTotal", "quantidadeTotalCedulas", "cedulas"})
+public final class TotaisCedulas {
+	
+	private final long saques;
+	
+	private final long[] quantidades;
+	
+	private final long valorTotal;
+	
+	private final ConjuntoCedulas conjunto;
+	
+	/**
+	 * @param saques
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param conjunto Cédulas listadas pelos totais.
+	 */
+	public TotaisCedulas(long saques, long[] quantidades, ConjuntoCedulas conjunto) {
+		if (quantidades.length != TipoCedulaEnum.values().length) {
+			throw new IllegalArgumentException("Quantidade de tipos de cédula inválida: " + quantidades.length);
+		}
+		this.saques = saques;
+		this.quantidades = quantidades.clone();
+		this.conjunto = conjunto;
+		
+		long total = 0;
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			total += tipoCedula.getValorFaceCedula() * this.quantidades[tipoCedula.ordinal()];
+		}
+		this.valorTotal = total;
+	}
+	
+	public long getSaques() {
+		return saques;
+	}
+	
+	public long getQuantidade(TipoCedulaEnum tipoCedula) {
+		return quantidades[tipoCedula.ordinal()];
+	}
+	
+	/**
+	 * Retorna a quantidade de cédulas de cada tipo do conjunto, em ordem decrescente de valor de face.
+	 * @return
+	 */
+	public Map<TipoCedulaEnum, Long> getCedulas() {
+		Map<TipoCedulaEnum, Long> cedulas = new LinkedHashMap<>();
+		for (int i = 0; i < conjunto.getQuantidadeTipos(); i++) {
+			TipoCedulaEnum tipoCedula = conjunto.getTipo(i);
+			cedulas.put(tipoCedula, quantidades[tipoCedula.ordinal()]);
+		}
+		return cedulas;
+	}
+	
+	/**
+	 * Valor total dispensado, em reais.
+	 * @return
+	 */
+	public long getValorTotal() {
+		return valorTotal;
+	}
+	
+	public long getQuantidadeTotalCedulas() {
+		long total = 0;
+		for (long quantidade : quantidades) {
+			total += quantidade;
+		}
+		return total;
+	}
+	
+	@Override
+	public String toString() {
+		return "TotaisCedulas [saques=" + saques + ", valorTotal=" + valorTotal + ", cedulas=" + getCedulas() + "]";
+	}
+}
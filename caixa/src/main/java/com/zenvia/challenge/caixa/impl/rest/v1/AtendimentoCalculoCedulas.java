@@ -0,0 +1,123 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.zenvia.challenge.caixa.arch.cache.CacheRespostas;
+import com.zenvia.challenge.caixa.arch.conversores.ConversorValorSaque;
+import com.zenvia.challenge.caixa.config.CacheRespostasProperties;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+
+/**
+ * Atendimento do cálculo de cédulas comum às variantes servlet ({@link CaixaEletronicoRest}) e reativa
+ * ({@link CaixaEletronicoReativoRest}): conversão do valor por {@link ConversorValorSaque}, rejeições sem exceção,
+ * mensagens no idioma pedido e ETag/304 por {@link CacheRespostas}.
+ */
+final class AtendimentoCalculoCedulas {
+	
+	private static final String VARIANTE_RESUMO = "resumo-";
+	
+	private static final int PRECISAO_MAXIMA_LONG = 18;
+	
+	private final CaixaEletronicoOperationService operationService;
+	
+	private final ConjuntoCedulas conjuntoCedulas;
+	
+	private final CacheRespostas cacheRespostas;
+	
+	/**
+	 * @param operationService
+	 * @param cacheRespostas Cache HTTP do cálculo de cédulas: as ETags levam a versão do conjunto de cédulas configurado.
+	 */
+	AtendimentoCalculoCedulas(CaixaEletronicoOperationService operationService, CacheRespostasProperties cacheRespostas) {
+		this.operationService = operationService;
+		this.conjuntoCedulas = operationService.getConjuntoCedulas();
+		this.cacheRespostas = cacheRespostas.isHabilitado()
+				? new CacheRespostas(conjuntoCedulas.getVersao(), cacheRespostas.getMaxIdadeSegundos(), TimeUnit.SECONDS)
+				: CacheRespostas.desabilitado();
+	}
+	
+	ConjuntoCedulas getConjuntoCedulas() {
+		return conjuntoCedulas;
+	}
+	
+	CacheRespostas getCacheRespostas() {
+		return cacheRespostas;
+	}
+	
+	/**
+	 * Resumos do saque no idioma pedido, com ETag e Cache-Control, ou 304 para uma revalidação cuja ETag confere.
+	 * @param valorSaque Valor como recebido na variável de caminho.
+	 * @param ifNoneMatch Cabeçalho If-None-Match da requisição, ou {@code null}.
+	 * @param idioma Idioma de Accept-Language, ou {@code null} para o idioma padrão.
+	 * @return
+	 */
+	ResponseEntity<?> calcularCedulas(String valorSaque, String ifNoneMatch, Locale idioma) {
+		long valor = ConversorValorSaque.converter(valorSaque, conjuntoCedulas);
+		
+		if (ConversorValorSaque.isRejeicao(valor)) {
+			return rejeitar(ConversorValorSaque.getRejeicao(valor), null, valorSaque);
+		}
+		
+		// a variante é o idioma em que as mensagens são geradas: "en-US" e "en" compartilham a mesma ETag
+		String variante = VARIANTE_RESUMO + operationService.getIdiomaAtendido(idioma).toLanguageTag();
+		if (valor == ConversorValorSaque.VALOR_NAO_CONVERTIDO) {
+			BigDecimal valorDecimal = ConversorValorSaque.converterComBigDecimal(valorSaque);
+			ResultadoValidacaoSaqueEnum resultado = validar(valorDecimal);
+			return resultado.isValido()
+					? cacheRespostas.responder(ifNoneMatch, chave(valorDecimal), variante,
+							HttpHeaders.ACCEPT_LANGUAGE, null, () -> operationService.saque(valorDecimal, idioma))
+					: rejeitar(resultado, null, valorSaque);
+		}
+		
+		return cacheRespostas.responder(ifNoneMatch, Long.toString(valor), variante,
+				HttpHeaders.ACCEPT_LANGUAGE, null, () -> operationService.saque(valor, idioma));
+	}
+	
+	/**
+	 * Validação de um valor convertido por {@link ConversorValorSaque#converterComBigDecimal(String)}, com as regras do
+	 * serviço de saque. Deve preceder a ETag e a resposta 304: um valor rejeitado recebe a rejeição, qualquer que seja If-None-Match.
+	 * @param valorDecimal Valor convertido, ou null se o texto não é um número.
+	 * @return
+	 */
+	ResultadoValidacaoSaqueEnum validar(BigDecimal valorDecimal) {
+		return valorDecimal == null ? ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO : operationService.validar(valorDecimal);
+	}
+	
+	/**
+	 * Valor canônico de um saque válido para a ETag: "150" para 150, 150.00 e 1.5E+2. Valores além de um long ficam na
+	 * notação científica, cujo tamanho não depende do expoente.
+	 * @param valorDecimal Valor já validado.
+	 * @return
+	 */
+	static String chave(BigDecimal valorDecimal) {
+		BigDecimal canonico = valorDecimal.stripTrailingZeros();
+		return (long) canonico.precision() - canonico.scale() <= PRECISAO_MAXIMA_LONG
+				? canonico.toPlainString()
+				: canonico.toString();
+	}
+	
+	/**
+	 * Resposta para um valor de saque rejeitado na conversão, sem lançar exceção: 400 para um texto que não é número
+	 * e 422, como em {@link com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessExceptionHandler}, para as regras de saque.
+	 * @param rejeicao
+	 * @param idTerminal Terminal do saque, ou null para os cálculos.
+	 * @param valorSaque Valor como recebido.
+	 * @return
+	 */
+	ResponseEntity<?> rejeitar(ResultadoValidacaoSaqueEnum rejeicao, String idTerminal, String valorSaque) {
+		operationService.registrarRejeicao(rejeicao, idTerminal, valorSaque);
+		
+		HttpStatus status = rejeicao == ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO
+				? HttpStatus.BAD_REQUEST
+				: HttpStatus.UNPROCESSABLE_ENTITY;
+		return ResponseEntity.status(status).body(operationService.getMensagemRejeicao(rejeicao));
+	}
+}
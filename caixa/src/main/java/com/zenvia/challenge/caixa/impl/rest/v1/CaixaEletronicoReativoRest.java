@@ -0,0 +1,46 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.zenvia.challenge.caixa.config.CacheRespostasProperties;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Variante não bloqueante da API de operação, ativa quando a aplicação sobe como reativa (perfil {@code reativo}).
+ * Mantém o contrato do cálculo de cédulas de {@link CaixaEletronicoRest}, com o mesmo atendimento: conversão do valor,
+ * rejeições, idioma de Accept-Language (resolvido pela {@link ServerWebExchange}) e ETag/304. O cálculo é feito em memória
+ * e não bloqueia, portanto é executado diretamente na thread do event loop, sem troca de thread por requisição.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(value = CaixaEletronicoRest.PATH)
+@CrossOrigin(origins = "*")
+public class CaixaEletronicoReativoRest {
+	
+	private AtendimentoCalculoCedulas atendimento;
+	
+	@Autowired
+	public CaixaEletronicoReativoRest(CaixaEletronicoOperationService operationService, CacheRespostasProperties cacheRespostas) {
+		this.atendimento = new AtendimentoCalculoCedulas(operationService, cacheRespostas);
+	}
+
+	@GetMapping(value = CaixaEletronicoRest.PATH_CALCULAR_CEDULAS)
+	public Mono<ResponseEntity<?>> calcularCedulas(
+			@PathVariable(value = "valor-saque") String valorSaque,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			ServerWebExchange exchange) {
+		return Mono.fromSupplier(() -> atendimento.calcularCedulas(valorSaque, ifNoneMatch, exchange.getLocaleContext().getLocale()));
+	}
+}
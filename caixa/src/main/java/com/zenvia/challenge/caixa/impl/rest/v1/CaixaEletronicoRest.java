@@ -1,23 +1,49 @@
 package com.zenvia.challenge.caixa.impl.rest.v1;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.zenvia.challenge.caixa.arch.cache.CacheRespostas;
+import com.zenvia.challenge.caixa.arch.conversores.ComposicaoSaqueBinariaHttpMessageConverter;
+import com.zenvia.challenge.caixa.arch.conversores.ConversorValorSaque;
+import com.zenvia.challenge.caixa.config.CacheRespostasProperties;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
 import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+import com.zenvia.challenge.caixa.impl.services.CalculoLoteService;
+import com.zenvia.challenge.caixa.impl.services.SaqueTerminal;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import springfox.documentation.annotations.ApiIgnore;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(value = CaixaEletronicoRest.PATH)
 @Api(value = "API de atendimento de requisições de caixa eletrônico")
 @CrossOrigin(origins = "*")
@@ -27,20 +53,180 @@ public class CaixaEletronicoRest {
 	
 	public static final String PATH_CALCULAR_CEDULAS = "/calcula-cedulas/{valor-saque}";
 	
+	public static final String PATH_CALCULAR_CEDULAS_LOTE = "/calcula-cedulas/lote";
+	
+	public static final String PATH_SAQUE_TERMINAL = "/terminais/{id-terminal}/saque/{valor-saque}";
+	
+	public static final String MEDIA_TYPE_COMPOSICAO_JSON = "application/vnd.caixa.composicao+json";
+	
+	public static final String MEDIA_TYPE_COMPOSICAO_BINARIA = ComposicaoSaqueBinariaHttpMessageConverter.MEDIA_TYPE_COMPOSICAO_BINARIA;
+	
+	private static final MediaType COMPOSICAO_JSON = MediaType.parseMediaType(MEDIA_TYPE_COMPOSICAO_JSON);
+	
+	private static final MediaType COMPOSICAO_BINARIA = MediaType.parseMediaType(MEDIA_TYPE_COMPOSICAO_BINARIA);
+	
+	private static final String VARIANTE_COMPOSICAO_JSON = "composicao-json";
+	
+	private static final String VARIANTE_COMPOSICAO_BINARIA = "composicao-binaria";
+	
 	private CaixaEletronicoOperationService operationService;
 	
+	private CalculoLoteService calculoLoteService;
+	
+	private AtendimentoCalculoCedulas atendimento;
+	
+	private ConjuntoCedulas conjuntoCedulas;
+	
+	private CacheRespostas cacheRespostas;
+	
+	/**
+	 * @param operationService
+	 * @param calculoLoteService
+	 * @param cacheRespostas Cache HTTP do cálculo de cédulas: as ETags levam a versão do conjunto de cédulas configurado.
+	 */
 	@Autowired
-	public CaixaEletronicoRest(CaixaEletronicoOperationService operationService) {
+	public CaixaEletronicoRest(CaixaEletronicoOperationService operationService, CalculoLoteService calculoLoteService,
+			CacheRespostasProperties cacheRespostas) {
 		this.operationService = operationService;
+		this.calculoLoteService = calculoLoteService;
+		this.atendimento = new AtendimentoCalculoCedulas(operationService, cacheRespostas);
+		this.conjuntoCedulas = atendimento.getConjuntoCedulas();
+		this.cacheRespostas = atendimento.getCacheRespostas();
 	}
-
+	
 	@GetMapping(value = CaixaEletronicoRest.PATH_CALCULAR_CEDULAS)
-	@ApiOperation(value = "Determina a composição do valor de um saque no caixa eletrônico (quantidade e valor de face das cédulas).")
-	public ResponseEntity<List<String>> calcularCedulas(
+	@ApiOperation(value = "Determina a composição do valor de um saque no caixa eletrônico (quantidade e valor de face das cédulas), com as mensagens no idioma do cabeçalho Accept-Language. "
+			+ "A resposta traz ETag e Cache-Control, e uma revalidação com If-None-Match recebe 304.")
+	public ResponseEntity<?> calcularCedulas(
+			@PathVariable(value = "valor-saque") 
+			@ApiParam(value = "Valor pretendido do saque.", required = true) 
+			String valorSaque,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+			@ApiParam(value = "ETags de respostas anteriores.")
+			String ifNoneMatch,
+			@ApiIgnore Locale idioma) {
+		
+		return atendimento.calcularCedulas(valorSaque, ifNoneMatch, idioma);
+	}
+	
+	@GetMapping(value = CaixaEletronicoRest.PATH_CALCULAR_CEDULAS,
+			produces = {CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_JSON, CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA})
+	@ApiOperation(value = "Determina a composição do valor de um saque como quantidade de cédulas de cada tipo, em JSON estruturado ou no formato binário compacto, conforme o cabeçalho Accept. "
+			+ "A resposta traz ETag e Cache-Control, e uma revalidação com If-None-Match recebe 304.")
+	public ResponseEntity<?> calcularComposicao(
 			@PathVariable(value = "valor-saque") 
 			@ApiParam(value = "Valor pretendido do saque.", required = true) 
-			BigDecimal valorSaque) {
+			String valorSaque,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+			@ApiParam(value = "ETags de respostas anteriores.")
+			String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+			@ApiIgnore
+			String accept) {
+		
+		long valor = ConversorValorSaque.converter(valorSaque, conjuntoCedulas);
+		
+		if (ConversorValorSaque.isRejeicao(valor)) {
+			return rejeitar(ConversorValorSaque.getRejeicao(valor), null, valorSaque);
+		}
+		
+		BigDecimal valorDecimal;
+		if (valor == ConversorValorSaque.VALOR_NAO_CONVERTIDO) {
+			valorDecimal = ConversorValorSaque.converterComBigDecimal(valorSaque);
+			ResultadoValidacaoSaqueEnum resultado = atendimento.validar(valorDecimal);
+			if (!resultado.isValido()) {
+				return rejeitar(resultado, null, valorSaque);
+			}
+		} else {
+			valorDecimal = BigDecimal.valueOf(valor);
+		}
+		
+		MediaType formato = formatoComposicao(accept);
+		return cacheRespostas.responder(ifNoneMatch, AtendimentoCalculoCedulas.chave(valorDecimal),
+				formato == COMPOSICAO_BINARIA ? VARIANTE_COMPOSICAO_BINARIA : VARIANTE_COMPOSICAO_JSON,
+				HttpHeaders.ACCEPT, formato, () -> operationService.saqueComposicao(valorDecimal));
+	}
+	
+	@PostMapping(value = CaixaEletronicoRest.PATH_CALCULAR_CEDULAS_LOTE,
+			consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE, CalculoLoteService.MEDIA_TYPE_NDJSON},
+			produces = CalculoLoteService.MEDIA_TYPE_NDJSON)
+	@ApiOperation(value = "Determina a composição de um lote de saques (array JSON ou um valor por linha), retornando uma linha NDJSON por valor à medida que os cálculos terminam.")
+	public ResponseEntity<StreamingResponseBody> calcularCedulasLote(HttpServletRequest request) throws IOException {
+		InputStream entrada = request.getInputStream();
+		boolean json = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
 		
-		return ResponseEntity.ok(operationService.saque(valorSaque));
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(CalculoLoteService.MEDIA_TYPE_NDJSON))
+				.body(saida -> calculoLoteService.processarLote(entrada, json, saida));
+	}
+	
+	@PostMapping(value = CaixaEletronicoRest.PATH_SAQUE_TERMINAL)
+	@ApiOperation(value = "Efetua um saque em um terminal, limitado ao estoque de cédulas do terminal, e retorna a composição das cédulas dispensadas.")
+	public ResponseEntity<?> sacar(
+			@PathVariable(value = "id-terminal") 
+			@ApiParam(value = "Identificador do terminal.", required = true) 
+			String idTerminal,
+			@PathVariable(value = "valor-saque") 
+			@ApiParam(value = "Valor pretendido do saque.", required = true) 
+			String valorSaque,
+			@RequestParam(value = "estrategia", required = false)
+			@ApiParam(value = "Estratégia de dispensação deste saque; sem ela, vale a estratégia do terminal.")
+			EstrategiaDispensacaoEnum estrategia,
+			@RequestParam(value = "aguardar-gravacao", required = false, defaultValue = "false")
+			@ApiParam(value = "Responde apenas depois de o saque ser gravado; 202 se a gravação falhar, com o saque já efetuado no terminal.")
+			boolean aguardarGravacao,
+			@ApiIgnore Locale idioma) {
+		
+		long valor = ConversorValorSaque.converter(valorSaque, conjuntoCedulas);
+		
+		if (ConversorValorSaque.isRejeicao(valor)) {
+			return rejeitar(ConversorValorSaque.getRejeicao(valor), idTerminal, valorSaque);
+		}
+		
+		BigDecimal valorDecimal = valor == ConversorValorSaque.VALOR_NAO_CONVERTIDO
+				? ConversorValorSaque.converterComBigDecimal(valorSaque)
+				: BigDecimal.valueOf(valor);
+		if (valorDecimal == null) {
+			return rejeitar(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO, idTerminal, valorSaque);
+		}
+		if (!aguardarGravacao) {
+			return ResponseEntity.ok(operationService.saque(idTerminal, valorDecimal, idioma, estrategia));
+		}
+		
+		SaqueTerminal saque = operationService.saqueTerminal(idTerminal, valorDecimal, estrategia);
+		// as mensagens são geradas nesta thread, e não na gravadora, que conclui o futuro
+		List<String> resumos = operationService.gerarResumos(saque.getComposicao(), idioma);
+		try {
+			saque.getGravacao().join();
+			return ResponseEntity.ok(resumos);
+		} catch (CompletionException e) {
+			// o saque já foi efetuado: com uma resposta 5xx, a repetição com a mesma Idempotency-Key entregaria as cédulas de novo
+			return ResponseEntity.status(HttpStatus.ACCEPTED).body(resumos);
+		}
+	}
+	
+	/**
+	 * Formato da composição pedido em Accept, com a preferência do Spring (especificidade e qualidade), fixado na resposta
+	 * para que a ETag identifique a representação: JSON, salvo quando apenas o binário é aceito.
+	 * @param accept
+	 * @return
+	 */
+	private static MediaType formatoComposicao(String accept) {
+		if (accept != null) {
+			List<MediaType> aceitos = MediaType.parseMediaTypes(accept);
+			MediaType.sortBySpecificityAndQuality(aceitos);
+			for (MediaType aceito : aceitos) {
+				if (aceito.isCompatibleWith(COMPOSICAO_JSON)) {
+					return COMPOSICAO_JSON;
+				} else if (aceito.isCompatibleWith(COMPOSICAO_BINARIA)) {
+					return COMPOSICAO_BINARIA;
+				}
+			}
+		}
+		return COMPOSICAO_JSON;
+	}
+	
+	private ResponseEntity<?> rejeitar(ResultadoValidacaoSaqueEnum rejeicao, String idTerminal, String valorSaque) {
+		return atendimento.rejeitar(rejeicao, idTerminal, valorSaque);
 	}
 }
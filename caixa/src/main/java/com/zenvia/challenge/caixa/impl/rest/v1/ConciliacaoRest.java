@@ -0,0 +1,80 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zenvia.challenge.caixa.impl.model.FechamentoCedulas;
+import com.zenvia.challenge.caixa.impl.model.TotaisCedulas;
+import com.zenvia.challenge.caixa.impl.services.TotaisCedulasService;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping(value = ConciliacaoRest.PATH)
+@Api(value = "API de conciliação das cédulas dispensadas pelos terminais")
+@CrossOrigin(origins = "*")
+public class ConciliacaoRest {
+	
+	public static final String PATH = "/caixa-eletronico/api/conciliacao/v1";
+	
+	public static final String PATH_TOTAIS = "/totais";
+	
+	public static final String PATH_TOTAIS_TERMINAL = "/totais/{id-terminal}";
+	
+	public static final String PATH_FECHAMENTO = "/fechamento";
+	
+	public static final String PATH_FECHAMENTO_DATA = "/fechamento/{data}";
+	
+	private TotaisCedulasService totais;
+	
+	@Autowired
+	public ConciliacaoRest(TotaisCedulasService totais) {
+		this.totais = totais;
+	}
+	
+	@GetMapping(value = ConciliacaoRest.PATH_TOTAIS)
+	@ApiOperation(value = "Consulta as cédulas dispensadas na data de movimento em andamento, no total e por terminal.")
+	public ResponseEntity<FechamentoCedulas> consultarTotais() {
+		return ResponseEntity.ok(totais.consultar());
+	}
+	
+	@GetMapping(value = ConciliacaoRest.PATH_TOTAIS_TERMINAL)
+	@ApiOperation(value = "Consulta as cédulas dispensadas por um terminal na data de movimento em andamento.")
+	public ResponseEntity<TotaisCedulas> consultarTotaisTerminal(
+			@PathVariable(value = "id-terminal")
+			@ApiParam(value = "Identificador do terminal.", required = true)
+			String idTerminal) {
+		
+		return ResponseEntity.ok(totais.consultar(idTerminal));
+	}
+	
+	@PostMapping(value = ConciliacaoRest.PATH_FECHAMENTO)
+	@ApiOperation(value = "Encerra a data de movimento em andamento e retorna o seu fechamento.")
+	public ResponseEntity<FechamentoCedulas> virarDia() {
+		return ResponseEntity.ok(totais.virarDia());
+	}
+	
+	@GetMapping(value = ConciliacaoRest.PATH_FECHAMENTO_DATA)
+	@ApiOperation(value = "Consulta o fechamento de uma data de movimento encerrada.")
+	public ResponseEntity<FechamentoCedulas> consultarFechamento(
+			@PathVariable(value = "data")
+			@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+			@ApiParam(value = "Data de movimento (aaaa-mm-dd).", required = true)
+			LocalDate data) {
+		
+		return ResponseEntity.ok(totais.getFechamento(data));
+	}
+}
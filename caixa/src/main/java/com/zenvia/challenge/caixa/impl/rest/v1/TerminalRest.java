@@ -0,0 +1,119 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.services.EstoqueCedulas;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+import com.zenvia.challenge.caixa.impl.services.Terminal;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping(value = TerminalRest.PATH)
+@Api(value = "API de cadastro e abastecimento dos terminais de caixa eletrônico")
+@CrossOrigin(origins = "*")
+public class TerminalRest {
+	
+	public static final String PATH = "/caixa-eletronico/api/terminal/v1";
+	
+	public static final String PATH_TERMINAL = "/{id-terminal}";
+	
+	public static final String PATH_ABASTECIMENTO = "/{id-terminal}/abastecimento";
+	
+	public static final String PATH_ESTRATEGIA = "/{id-terminal}/estrategia/{estrategia}";
+	
+	private RegistroTerminaisService registroTerminais;
+	
+	@Autowired
+	public TerminalRest(RegistroTerminaisService registroTerminais) {
+		this.registroTerminais = registroTerminais;
+	}
+	
+	@PutMapping(value = TerminalRest.PATH_TERMINAL)
+	@ApiOperation(value = "Cadastra um terminal com o estoque inicial de cédulas de cada tipo.")
+	public ResponseEntity<Map<TipoCedulaEnum, Integer>> cadastrar(
+			@PathVariable(value = "id-terminal") 
+			@ApiParam(value = "Identificador do terminal.", required = true) 
+			String idTerminal,
+			@RequestBody 
+			@ApiParam(value = "Quantidade inicial de cédulas de cada tipo.", required = true) 
+			Map<TipoCedulaEnum, Integer> estoqueInicial,
+			@RequestParam(value = "estrategia", required = false)
+			@ApiParam(value = "Estratégia de dispensação dos saques do terminal; sem ela, vale a estratégia padrão da instalação.")
+			EstrategiaDispensacaoEnum estrategia) {
+		
+		Terminal terminal = registroTerminais.cadastrar(idTerminal, new EstoqueCedulas(estoqueInicial), estrategia);
+		
+		return ResponseEntity.status(HttpStatus.CREATED).body(terminal.getEstoque().getDisponiveis());
+	}
+	
+	@GetMapping(value = TerminalRest.PATH_TERMINAL)
+	@ApiOperation(value = "Consulta o estoque de cédulas de um terminal.")
+	public ResponseEntity<Map<TipoCedulaEnum, Integer>> consultarEstoque(
+			@PathVariable(value = "id-terminal") 
+			@ApiParam(value = "Identificador do terminal.", required = true) 
+			String idTerminal) {
+		
+		return ResponseEntity.ok(registroTerminais.obter(idTerminal).getEstoque().getDisponiveis());
+	}
+	
+	@PostMapping(value = TerminalRest.PATH_ABASTECIMENTO)
+	@ApiOperation(value = "Acrescenta cédulas ao estoque de um terminal.")
+	public ResponseEntity<Map<TipoCedulaEnum, Integer>> abastecer(
+			@PathVariable(value = "id-terminal") 
+			@ApiParam(value = "Identificador do terminal.", required = true) 
+			String idTerminal,
+			@RequestBody 
+			@ApiParam(value = "Quantidade de cédulas de cada tipo a acrescentar.", required = true) 
+			Map<TipoCedulaEnum, Integer> abastecimento) {
+		
+		EstoqueCedulas estoque = registroTerminais.abastecer(idTerminal, abastecimento);
+		
+		return ResponseEntity.ok(estoque.getDisponiveis());
+	}
+	
+	@PutMapping(value = TerminalRest.PATH_ESTRATEGIA)
+	@ApiOperation(value = "Altera a estratégia de dispensação dos próximos saques de um terminal.")
+	public ResponseEntity<EstrategiaDispensacaoEnum> definirEstrategia(
+			@PathVariable(value = "id-terminal") 
+			@ApiParam(value = "Identificador do terminal.", required = true) 
+			String idTerminal,
+			@PathVariable(value = "estrategia") 
+			@ApiParam(value = "Estratégia de dispensação.", required = true) 
+			EstrategiaDispensacaoEnum estrategia) {
+		
+		return ResponseEntity.ok(registroTerminais.definirEstrategia(idTerminal, estrategia).getEstrategia());
+	}
+	
+	@DeleteMapping(value = TerminalRest.PATH_TERMINAL)
+	@ApiOperation(value = "Retira um terminal da frota.")
+	public ResponseEntity<Void> retirar(
+			@PathVariable(value = "id-terminal") 
+			@ApiParam(value = "Identificador do terminal.", required = true) 
+			String idTerminal) {
+		
+		registroTerminais.retirar(idTerminal);
+		
+		return ResponseEntity.noContent().build();
+	}
+}
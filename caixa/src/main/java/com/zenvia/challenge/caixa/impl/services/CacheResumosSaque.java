@@ -0,0 +1,97 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Cache limitado dos resumos de saque já renderizados, indexado pelo valor do saque.
+ * <p>
+ * Cada valor ocupa uma única posição (mapeamento direto): um acerto devolve a instância imutável
+ * compartilhada sem alocação nem bloqueio, e um valor novo substitui o que ocupava a sua posição.
+ * Requisições simultâneas de um mesmo valor ausente são agrupadas em um único cálculo.
+ */
+public class CacheResumosSaque {
+	
+	private final AtomicReferenceArray<Entrada> entradas;
+	
+	private final int deslocamento;
+	
+	private final LongFunction<List<String>> calculo;
+	
+	private final ConcurrentMap<Long, Entrada> emCalculo = new ConcurrentHashMap<>();
+	
+	private final LongAdder acertos = new LongAdder();
+	
+	private final LongAdder falhas = new LongAdder();
+	
+	/**
+	 * @param capacidade Quantidade de posições do cache (arredondada para a próxima potência de 2).
+	 * @param calculo Cálculo dos resumos de um valor; o resultado deve ser imutável, pois é compartilhado.
+	 */
+	public CacheResumosSaque(int capacidade, LongFunction<List<String>> calculo) {
+		if (capacidade < 1 || capacidade > (1 << 30)) {
+			throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+		}
+		int bits = 32 - Integer.numberOfLeadingZeros(capacidade - 1);
+		
+		this.entradas = new AtomicReferenceArray<>(1 << bits);
+		this.deslocamento = 64 - bits;
+		this.calculo = calculo;
+	}
+
+	/**
+	 * Retorna os resumos de um valor, calculando-os apenas se não estiverem no cache.
+	 * @param valor
+	 * @return Instância imutável compartilhada entre as requisições do mesmo valor.
+	 */
+	public List<String> obter(long valor) {
+		int posicao = posicao(valor);
+		Entrada entrada = entradas.get(posicao);
+		
+		if (entrada != null && entrada.valor == valor) {
+			acertos.increment();
+			return entrada.resumos;
+		}
+		
+		falhas.increment();
+		Long chave = valor;
+		Entrada calculada = emCalculo.computeIfAbsent(chave, v -> new Entrada(valor, calculo.apply(valor)));
+		entradas.set(posicao, calculada);
+		emCalculo.remove(chave, calculada);
+		
+		return calculada.resumos;
+	}
+	
+	private int posicao(long valor) {
+		// hash de Fibonacci: espalha valores múltiplos de 10 pelas posições
+		return deslocamento == 64 ? 0 : (int) ((valor * 0x9E3779B97F4A7C15L) >>> deslocamento);
+	}
+	
+	public int getCapacidade() {
+		return entradas.length();
+	}
+
+	public long getAcertos() {
+		return acertos.sum();
+	}
+
+	public long getFalhas() {
+		return falhas.sum();
+	}
+	
+	private static final class Entrada {
+		
+		private final long valor;
+		
+		private final List<String> resumos;
+
+		private Entrada(long valor, List<String> resumos) {
+			this.valor = valor;
+			this.resumos = resumos;
+		}
+	}
+}
@@ -2,26 +2,314 @@ package com.zenvia.challenge.caixa.impl.services;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.zenvia.challenge.caixa.arch.auditoria.TrilhaAuditoria;
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.arch.metricas.MetricasSaque;
+import com.zenvia.challenge.caixa.arch.persistencia.PersistenciaSaques;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
 @Service
 public class CaixaEletronicoOperationService {
 	
 	@Autowired
 	private SaqueService saqueService;
 	
-	public CaixaEletronicoOperationService(SaqueService saqueService) {
+	@Autowired
+	private RegistroTerminaisService registroTerminais;
+	
+	@Autowired
+	private MetricasSaque metricas;
+	
+	@Autowired
+	private TrilhaAuditoria auditoria;
+	
+	@Autowired
+	private TotaisCedulasService totais;
+	
+	@Autowired
+	private PersistenciaSaques persistencia;
+	
+	public CaixaEletronicoOperationService(SaqueService saqueService, RegistroTerminaisService registroTerminais) {
+		this(saqueService, registroTerminais, MetricasSaque.desabilitadas());
+	}
+	
+	public CaixaEletronicoOperationService(SaqueService saqueService, RegistroTerminaisService registroTerminais, MetricasSaque metricas) {
+		this(saqueService, registroTerminais, metricas, TrilhaAuditoria.desabilitada());
+	}
+	
+	public CaixaEletronicoOperationService(SaqueService saqueService, RegistroTerminaisService registroTerminais, MetricasSaque metricas,
+			TrilhaAuditoria auditoria) {
+		this(saqueService, registroTerminais, metricas, auditoria, TotaisCedulasService.semViradaAutomatica(saqueService.getConjuntoCedulas()),
+				PersistenciaSaques.desabilitada());
+	}
+	
+	@Autowired
+	public CaixaEletronicoOperationService(SaqueService saqueService, RegistroTerminaisService registroTerminais, MetricasSaque metricas,
+			TrilhaAuditoria auditoria, TotaisCedulasService totais, PersistenciaSaques persistencia) {
 		this.saqueService = saqueService;
+		this.registroTerminais = registroTerminais;
+		this.metricas = metricas;
+		this.auditoria = auditoria;
+		this.totais = totais;
+		this.persistencia = persistencia;
 	}
-
+	
 	/**
 	 * Método para encaminhamento da requisição de saque.
 	 * @param valorPretendidoSaque Valor do saque.
 	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
 	 */
 	public List<String> saque(BigDecimal valorPretendidoSaque) {
-		return saqueService.processarSaque(valorPretendidoSaque);
+		long inicio = System.nanoTime();
+		try {
+			List<String> resumos = saqueService.processarSaque(valorPretendidoSaque);
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, valorPretendidoSaque, resumos, null, System.nanoTime() - inicio);
+			return resumos;
+		} catch (BusinessException e) {
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, valorPretendidoSaque, null, e.getMessage(), System.nanoTime() - inicio);
+			throw e;
+		} finally {
+			metricas.registrarOperacaoCalculo(System.nanoTime() - inicio);
+		}
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque com as mensagens no idioma do cliente.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @param idioma Idioma das mensagens.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> saque(BigDecimal valorPretendidoSaque, Locale idioma) {
+		long inicio = System.nanoTime();
+		try {
+			List<String> resumos = saqueService.processarSaque(valorPretendidoSaque, idioma);
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, valorPretendidoSaque, resumos, null, System.nanoTime() - inicio);
+			return resumos;
+		} catch (BusinessException e) {
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, valorPretendidoSaque, null, e.getMessage(), System.nanoTime() - inicio);
+			throw e;
+		} finally {
+			metricas.registrarOperacaoCalculo(System.nanoTime() - inicio);
+		}
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque cujo valor já foi convertido e validado.
+	 * @param valorSaque Valor do saque em reais.
+	 * @param idioma Idioma das mensagens.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> saque(long valorSaque, Locale idioma) {
+		long inicio = System.nanoTime();
+		try {
+			List<String> resumos = saqueService.processarSaque(valorSaque, idioma);
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, valorSaque, resumos, null, System.nanoTime() - inicio);
+			return resumos;
+		} catch (BusinessException e) {
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, valorSaque, null, e.getMessage(), System.nanoTime() - inicio);
+			throw e;
+		} finally {
+			metricas.registrarOperacaoCalculo(System.nanoTime() - inicio);
+		}
+	}
+	
+	/**
+	 * Contabiliza e audita um saque rejeitado na conversão do valor, antes de chegar ao serviço.
+	 * @param resultado
+	 * @param idTerminal Terminal do saque, ou null para os cálculos.
+	 * @param valorSaque Valor como recebido na requisição.
+	 */
+	public void registrarRejeicao(ResultadoValidacaoSaqueEnum resultado, String idTerminal, String valorSaque) {
+		metricas.registrarRejeicao(resultado);
+		if (!resultado.isValido()) {
+			auditoria.registrar(OperacaoAuditadaEnum.CONVERSAO, idTerminal, valorSaque, null, saqueService.getExcecao(resultado).getMessage(), 0);
+		}
+	}
+	
+	/**
+	 * Valida o valor de um saque convertido em BigDecimal sem lançar exceção, com as mesmas regras do serviço de saque.
+	 * @param valorPretendidoSaque
+	 * @return
+	 */
+	public ResultadoValidacaoSaqueEnum validar(BigDecimal valorPretendidoSaque) {
+		return saqueService.validar(valorPretendidoSaque);
+	}
+	
+	/**
+	 * Idioma em que as mensagens são de fato geradas para o idioma pedido.
+	 * @param idioma
+	 * @return
+	 */
+	public Locale getIdiomaAtendido(Locale idioma) {
+		return saqueService.getIdiomaAtendido(idioma);
+	}
+	
+	/**
+	 * Mensagens de uma composição no idioma do cliente, como as dos métodos de saque.
+	 * @param composicao
+	 * @param idioma
+	 * @return
+	 */
+	public List<String> gerarResumos(ComposicaoSaque composicao, Locale idioma) {
+		return saqueService.gerarResumos(composicao, idioma);
+	}
+	
+	/**
+	 * Mensagem de uma rejeição da validação, com o valor mínimo do conjunto de cédulas da instalação.
+	 * @param resultado
+	 * @return
+	 */
+	public String getMensagemRejeicao(ResultadoValidacaoSaqueEnum resultado) {
+		return saqueService.getMensagem(resultado);
+	}
+	
+	/**
+	 * Cédulas atendidas pela instalação.
+	 * @return
+	 */
+	public ConjuntoCedulas getConjuntoCedulas() {
+		return saqueService.getConjuntoCedulas();
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque com resposta estruturada.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @return Quantidade de cédulas de cada tipo a entregar no saque.
+	 */
+	public ComposicaoSaque saqueComposicao(BigDecimal valorPretendidoSaque) {
+		long inicio = System.nanoTime();
+		try {
+			ComposicaoSaque composicao = saqueService.processarComposicao(valorPretendidoSaque);
+			auditoria.registrar(OperacaoAuditadaEnum.COMPOSICAO, null, valorPretendidoSaque, composicao, null, System.nanoTime() - inicio);
+			return composicao;
+		} catch (BusinessException e) {
+			auditoria.registrar(OperacaoAuditadaEnum.COMPOSICAO, null, valorPretendidoSaque, null, e.getMessage(), System.nanoTime() - inicio);
+			throw e;
+		} finally {
+			metricas.registrarOperacaoCalculo(System.nanoTime() - inicio);
+		}
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque em um terminal, limitada ao estoque de cédulas do terminal.
+	 * @param idTerminal Identificador do terminal.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> saque(String idTerminal, BigDecimal valorPretendidoSaque) {
+		return saque(idTerminal, valorPretendidoSaque, RenderizadorResumos.IDIOMA_PADRAO);
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque em um terminal com as mensagens no idioma do cliente.
+	 * @param idTerminal Identificador do terminal.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @param idioma Idioma das mensagens.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> saque(String idTerminal, BigDecimal valorPretendidoSaque, Locale idioma) {
+		return saque(idTerminal, valorPretendidoSaque, idioma, null);
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque em um terminal com a estratégia de dispensação da requisição.
+	 * @param idTerminal Identificador do terminal.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @param idioma Idioma das mensagens.
+	 * @param estrategia Estratégia de dispensação deste saque, ou null para a estratégia do terminal.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> saque(String idTerminal, BigDecimal valorPretendidoSaque, Locale idioma, EstrategiaDispensacaoEnum estrategia) {
+		return saqueService.gerarResumos(saqueComposicao(idTerminal, valorPretendidoSaque, estrategia), idioma);
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque em um terminal com resposta estruturada.
+	 * @param idTerminal Identificador do terminal.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @param estrategia Estratégia de dispensação deste saque, ou null para a estratégia do terminal.
+	 * @return Quantidade de cédulas de cada tipo dispensadas no saque.
+	 */
+	public ComposicaoSaque saqueComposicao(String idTerminal, BigDecimal valorPretendidoSaque, EstrategiaDispensacaoEnum estrategia) {
+		return saqueTerminal(idTerminal, valorPretendidoSaque, estrategia).getComposicao();
+	}
+	
+	/**
+	 * Método para encaminhamento da requisição de saque em um terminal para quem precisa da durabilidade do saque. As
+	 * rejeições do saque são lançadas como em {@link #saqueComposicao(String, BigDecimal, EstrategiaDispensacaoEnum)}.
+	 * @param idTerminal Identificador do terminal.
+	 * @param valorPretendidoSaque Valor do saque.
+	 * @param estrategia Estratégia de dispensação deste saque, ou null para a estratégia do terminal.
+	 * @return As cédulas dispensadas e o futuro da gravação do saque por {@link PersistenciaSaques}.
+	 */
+	public SaqueTerminal saqueTerminal(String idTerminal, BigDecimal valorPretendidoSaque, EstrategiaDispensacaoEnum estrategia) {
+		long inicio = System.nanoTime();
+		try {
+			ReservaCedulas reserva;
+			try {
+				Terminal terminal = registroTerminais.obter(idTerminal);
+				reserva = saqueService.reservarSaque(valorPretendidoSaque, terminal.getEstoque(),
+						estrategia == null ? terminal.getEstrategia() : estrategia);
+				
+				// o serviço não recebe retorno do dispensador: a entrega é confirmada assim que as cédulas são reservadas
+				registroTerminais.confirmarSaque(terminal, reserva);
+			} catch (BusinessException e) {
+				auditoria.registrar(OperacaoAuditadaEnum.TERMINAL, idTerminal, valorPretendidoSaque, null, e.getMessage(), System.nanoTime() - inicio);
+				throw e;
+			}
+			
+			// as cédulas já foram entregues: uma falha nos registros seguintes não chega a quem pediu o saque, que o
+			// repetiria e receberia as cédulas de novo; ela é apenas contada
+			ComposicaoSaque composicao = reserva.getComposicao();
+			aposConfirmacao(() -> metricas.registrarCedulasDispensadas(composicao));
+			aposConfirmacao(() -> totais.registrar(idTerminal, composicao));
+			// a gravação segue em lotes; sem quem espere por ela, as falhas são apenas contadas nas métricas da persistência
+			CompletableFuture<Void> gravacao = gravar(idTerminal, composicao);
+			aposConfirmacao(() -> auditoria.registrar(OperacaoAuditadaEnum.TERMINAL, idTerminal, valorPretendidoSaque, composicao, null,
+					System.nanoTime() - inicio));
+			
+			return new SaqueTerminal(composicao, gravacao);
+		} finally {
+			metricas.registrarOperacaoTerminal(System.nanoTime() - inicio);
+		}
+	}
+	
+	/**
+	 * Executa um registro posterior à confirmação de um saque, contando a falha em vez de lançá-la.
+	 * @param etapa
+	 */
+	private void aposConfirmacao(Runnable etapa) {
+		try {
+			etapa.run();
+		} catch (RuntimeException e) {
+			metricas.registrarFalhaAposConfirmacao();
+		}
+	}
+	
+	/**
+	 * Entrega um saque confirmado à persistência.
+	 * @param idTerminal
+	 * @param composicao
+	 * @return Futuro da gravação; falha com a exceção da persistência, que não é lançada.
+	 */
+	private CompletableFuture<Void> gravar(String idTerminal, ComposicaoSaque composicao) {
+		try {
+			return persistencia.registrar(idTerminal, System.currentTimeMillis(), composicao.getValorTotal() * 100);
+		} catch (RuntimeException e) {
+			metricas.registrarFalhaAposConfirmacao();
+			CompletableFuture<Void> falha = new CompletableFuture<>();
+			falha.completeExceptionally(e);
+			return falha;
+		}
 	}
 }
@@ -0,0 +1,315 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.zenvia.challenge.caixa.arch.conversores.ConversorValorSaque;
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.config.CalculoLoteProperties;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.impl.model.ResultadoItemLote;
+
+/**
+ * Cálculo de cédulas para lotes de valores de saque.
+ * <p>
+ * Os valores são lidos um a um da entrada, calculados em paralelo e escritos na saída como NDJSON
+ * (uma linha por item) à medida que ficam prontos, sem manter o lote inteiro em memória.
+ * Erros de um item (validação ou formato) são reportados na linha do próprio item.
+ */
+@Service
+public class CalculoLoteService {
+	
+	public static final String MEDIA_TYPE_NDJSON = "application/x-ndjson";
+	
+	public static final String MSG_VALOR_SAQUE_INVALIDO = "Valor do saque pretendido inválido.";
+	
+	public static final String MSG_LOTE_EXCEDE_TAMANHO_MAXIMO = "Lote excede o tamanho máximo de %d itens.";
+	
+	public static final String MSG_LOTE_INVALIDO = "Conteúdo do lote inválido.";
+	
+	public static final String MSG_ERRO_CALCULO_ITEM = "Não foi possível calcular as cédulas deste item.";
+	
+	private static final int FIM_DE_LINHA = '\n';
+	
+	private final CaixaEletronicoOperationService operationService;
+	
+	private final ObjectMapper objectMapper;
+	
+	private final ObjectWriter writer;
+	
+	private final CalculoLoteProperties properties;
+	
+	private final ExecutorService executor;
+	
+	@Autowired
+	public CalculoLoteService(CaixaEletronicoOperationService operationService, ObjectMapper objectMapper, CalculoLoteProperties properties) {
+		this.operationService = operationService;
+		this.objectMapper = objectMapper;
+		this.writer = objectMapper.writerFor(ResultadoItemLote.class);
+		this.properties = properties;
+		this.executor = Executors.newFixedThreadPool(properties.getParalelismo(), new CalculoLoteThreadFactory());
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Processa um lote de valores de saque.
+	 * @param entrada Valores do lote: um array JSON ou um valor por linha.
+	 * @param json Indica se a entrada é um array JSON.
+	 * @param saida Recebe uma linha NDJSON por item, na ordem em que os cálculos terminam.
+	 * @throws IOException
+	 */
+	public void processarLote(InputStream entrada, boolean json, OutputStream saida) throws IOException {
+		BlockingQueue<byte[]> resultados = new LinkedBlockingQueue<>();
+		int limiteEmCalculo = properties.getParalelismo() * properties.getItensEmCalculoPorThread();
+		int emCalculo = 0;
+		long indice = 0;
+		
+		try {
+			Iterator<String> valores = json
+					? new LeitorValoresJson(objectMapper.getFactory().createParser(entrada))
+					: new LeitorValoresTexto(entrada);
+			
+			while (valores.hasNext()) {
+				String valor = valores.next();
+				
+				if (indice == properties.getTamanhoMaximo()) {
+					escrever(saida, serializar(ResultadoItemLote.erro(indice, valor,
+							String.format(MSG_LOTE_EXCEDE_TAMANHO_MAXIMO, properties.getTamanhoMaximo()))));
+					break;
+				}
+				
+				// limita os itens pendentes: a leitura aguarda a escrita de um resultado
+				if (emCalculo == limiteEmCalculo) {
+					escrever(saida, aguardarResultado(resultados, saida));
+					emCalculo--;
+				}
+				
+				long indiceItem = indice++;
+				executor.execute(() -> resultados.add(calcular(indiceItem, valor)));
+				emCalculo++;
+				
+				for (byte[] resultado = resultados.poll(); resultado != null; resultado = resultados.poll()) {
+					escrever(saida, resultado);
+					emCalculo--;
+				}
+			}
+		} catch (UncheckedIOException | JsonProcessingException e) {
+			escrever(saida, serializar(ResultadoItemLote.erro(indice, null, MSG_LOTE_INVALIDO)));
+		} finally {
+			while (emCalculo > 0) {
+				escrever(saida, aguardarResultado(resultados, saida));
+				emCalculo--;
+			}
+			saida.flush();
+		}
+	}
+	
+	/**
+	 * Calcula um item do lote e serializa o seu resultado. O valor é convertido por {@link ConversorValorSaque}, como no
+	 * cálculo de um único valor: um expoente enorme não chega à validação, que levaria segundos com o valor expandido.
+	 * @param indice
+	 * @param valor
+	 * @return
+	 */
+	protected byte[] calcular(long indice, String valor) {
+		ResultadoItemLote resultado;
+		
+		try {
+			resultado = valor == null
+					? ResultadoItemLote.sucesso(indice, null, operationService.saque(null))
+					: calcularConvertido(indice, valor);
+		} catch (BusinessException e) {
+			resultado = ResultadoItemLote.erro(indice, valor, e.getMessage());
+		} catch (RuntimeException e) {
+			// todo item precisa produzir uma linha, senão a escrita do lote aguardaria indefinidamente
+			resultado = ResultadoItemLote.erro(indice, valor, MSG_ERRO_CALCULO_ITEM);
+		}
+		
+		return serializar(resultado);
+	}
+	
+	private ResultadoItemLote calcularConvertido(long indice, String valor) {
+		long valorSaque = ConversorValorSaque.converter(valor, operationService.getConjuntoCedulas());
+		
+		if (ConversorValorSaque.isRejeicao(valorSaque)) {
+			return rejeitar(indice, valor, ConversorValorSaque.getRejeicao(valorSaque));
+		} else if (valorSaque != ConversorValorSaque.VALOR_NAO_CONVERTIDO) {
+			return ResultadoItemLote.sucesso(indice, valor, operationService.saque(valorSaque, RenderizadorResumos.IDIOMA_PADRAO));
+		}
+		
+		BigDecimal valorDecimal = ConversorValorSaque.converterComBigDecimal(valor);
+		return valorDecimal == null
+				? rejeitar(indice, valor, ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO)
+				: ResultadoItemLote.sucesso(indice, valor, operationService.saque(valorDecimal));
+	}
+	
+	private ResultadoItemLote rejeitar(long indice, String valor, ResultadoValidacaoSaqueEnum rejeicao) {
+		operationService.registrarRejeicao(rejeicao, null, valor);
+		return ResultadoItemLote.erro(indice, valor, rejeicao == ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO
+				? MSG_VALOR_SAQUE_INVALIDO
+				: operationService.getMensagemRejeicao(rejeicao));
+	}
+	
+	private byte[] serializar(ResultadoItemLote resultado) {
+		try {
+			return writer.writeValueAsBytes(resultado);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static byte[] aguardarResultado(BlockingQueue<byte[]> resultados, OutputStream saida) throws IOException {
+		byte[] resultado = resultados.poll();
+		if (resultado != null) {
+			return resultado;
+		}
+		
+		// envia ao cliente o que já foi escrito antes de bloquear
+		saida.flush();
+		try {
+			return resultados.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Processamento do lote interrompido.");
+		}
+	}
+	
+	private static void escrever(OutputStream saida, byte[] resultado) throws IOException {
+		saida.write(resultado);
+		saida.write(FIM_DE_LINHA);
+	}
+	
+	/**
+	 * Lê os valores de um array JSON, token a token.
+	 */
+	private static class LeitorValoresJson implements Iterator<String> {
+		
+		private final JsonParser parser;
+		
+		private JsonToken token;
+		
+		private LeitorValoresJson(JsonParser parser) throws IOException {
+			this.parser = parser;
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new JsonParseException(parser, "Lote deve ser um array JSON.");
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				if (token == null) {
+					token = parser.nextToken();
+				}
+				if (token == null) {
+					throw new JsonParseException(parser, "Array JSON do lote não foi finalizado.");
+				}
+				return token != JsonToken.END_ARRAY;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			
+			try {
+				String valor = token == JsonToken.VALUE_NULL ? null : parser.getText();
+				// objetos e arrays aninhados não são valores: são descartados e reportados como inválidos
+				parser.skipChildren();
+				token = null;
+				return valor;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	/**
+	 * Lê um valor por linha, ignorando linhas em branco.
+	 */
+	private static class LeitorValoresTexto implements Iterator<String> {
+		
+		private final BufferedReader reader;
+		
+		private String linha;
+		
+		private LeitorValoresTexto(InputStream entrada) {
+			this.reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (linha == null) {
+					String lida = reader.readLine();
+					if (lida == null) {
+						return false;
+					}
+					if (!lida.trim().isEmpty()) {
+						linha = lida.trim();
+					}
+				}
+				return true;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			
+			String valor = linha;
+			linha = null;
+			return valor;
+		}
+	}
+	
+	private static class CalculoLoteThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger contador = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "calculo-lote-" + contador.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
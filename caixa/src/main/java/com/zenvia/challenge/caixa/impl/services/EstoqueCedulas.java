@@ -0,0 +1,261 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+
+/**
+ * Estoque de cédulas dos cassetes de um terminal, com um contador por tipo de cédula.
+ * <p>
+ * As reservas são feitas sem bloqueio: cada contador é decrementado por CAS e, se algum tipo não tiver
+ * cédulas suficientes, os tipos já decrementados são devolvidos. Um contador nunca fica negativo,
+ * portanto saques simultâneos nunca dispensam mais cédulas do que o cassete possui.
+ * <p>
+ * Cada tipo tem também a carga do cassete: as cédulas disponíveis mais as reservadas ainda não confirmadas. O
+ * abastecimento ocupa a carga de todos os tipos, limitada a {@link Integer#MAX_VALUE}, antes de tornar qualquer cédula
+ * disponível; como o disponível nunca passa da carga, as devoluções de reservas canceladas não estouram o contador.
+ */
+public class EstoqueCedulas {
+	
+	public static final String MSG_QUANTIDADE_ABASTECIMENTO_INVALIDA = "Quantidade de cédulas para abastecimento não pode ser negativa.";
+	
+	public static final String MSG_CAPACIDADE_CASSETE_EXCEDIDA = "Abastecimento excede a quantidade máxima de cédulas do cassete.";
+	
+	/**
+	 * Espaçamento entre os contadores no vetor (16 ints = 64 bytes), para que cada um ocupe a sua própria linha de cache.
+	 */
+	private static final int ESPACAMENTO = 16;
+	
+	/**
+	 * Posição da carga de um tipo, na mesma linha de cache do seu contador de disponíveis.
+	 */
+	private static final int DESLOCAMENTO_CARGA = 1;
+	
+	private final AtomicIntegerArray disponiveis = new AtomicIntegerArray(TipoCedulaEnum.values().length * ESPACAMENTO);
+	
+	public EstoqueCedulas() {
+	}
+	
+	/**
+	 * @param quantidades Quantidades iniciais indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 */
+	public EstoqueCedulas(int[] quantidades) {
+		abastecer(quantidades);
+	}
+	
+	/**
+	 * Cria um estoque a partir das quantidades de cada tipo de cédula; tipos ausentes começam vazios.
+	 * @param quantidades
+	 */
+	public EstoqueCedulas(Map<TipoCedulaEnum, Integer> quantidades) {
+		abastecer(quantidades);
+	}
+	
+	/**
+	 * Converte as quantidades de cada tipo de cédula para um vetor indexado pelo ordinal do tipo; tipos ausentes valem zero.
+	 * @param quantidades
+	 * @return
+	 */
+	public static int[] converterQuantidades(Map<TipoCedulaEnum, Integer> quantidades) {
+		int[] vetor = new int[TipoCedulaEnum.values().length];
+		quantidades.forEach((tipoCedula, quantidade) -> {
+			if (quantidade != null && quantidade < 0) {
+				throw new BusinessException(MSG_QUANTIDADE_ABASTECIMENTO_INVALIDA);
+			}
+			vetor[tipoCedula.ordinal()] = quantidade == null ? 0 : quantidade;
+		});
+		return vetor;
+	}
+	
+	/**
+	 * Acrescenta cédulas aos cassetes dos tipos informados.
+	 * @param quantidades
+	 */
+	public void abastecer(Map<TipoCedulaEnum, Integer> quantidades) {
+		abastecer(converterQuantidades(quantidades));
+	}
+	
+	/**
+	 * Acrescenta cédulas aos cassetes. Se algum cassete exceder a quantidade máxima, nenhum tipo é abastecido: as cédulas
+	 * só ficam disponíveis depois que a carga de todos os tipos foi ocupada, e nenhum saque as reserva antes da recusa.
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}; vetores mais curtos, gravados antes
+	 * da inclusão de novos tipos de cédula, abastecem apenas os primeiros tipos.
+	 */
+	public void abastecer(int[] quantidades) {
+		int tipos = Math.min(quantidades.length, TipoCedulaEnum.values().length);
+		for (int i = 0; i < tipos; i++) {
+			if (quantidades[i] < 0) {
+				throw new BusinessException(MSG_QUANTIDADE_ABASTECIMENTO_INVALIDA);
+			}
+		}
+		
+		for (int i = 0; i < tipos; i++) {
+			if (!ocuparCarga(i, quantidades[i])) {
+				for (int j = 0; j < i; j++) {
+					liberarCarga(j, quantidades[j]);
+				}
+				throw new BusinessException(MSG_CAPACIDADE_CASSETE_EXCEDIDA);
+			}
+		}
+		for (int i = 0; i < tipos; i++) {
+			devolver(i, quantidades[i]);
+		}
+	}
+	
+	/**
+	 * Acrescenta cédulas ao cassete de um tipo.
+	 * @param tipoCedula
+	 * @param quantidade
+	 */
+	public void abastecer(TipoCedulaEnum tipoCedula, int quantidade) {
+		if (quantidade < 0) {
+			throw new BusinessException(MSG_QUANTIDADE_ABASTECIMENTO_INVALIDA);
+		}
+		if (!ocuparCarga(tipoCedula.ordinal(), quantidade)) {
+			throw new BusinessException(MSG_CAPACIDADE_CASSETE_EXCEDIDA);
+		}
+		devolver(tipoCedula.ordinal(), quantidade);
+	}
+	
+	/**
+	 * Verifica, sem alterar o estoque, se um abastecimento cabe nos cassetes; a verificação definitiva é a do
+	 * {@link #abastecer(int[])}, já que saques cancelados podem devolver cédulas entre as duas.
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 */
+	public void validarAbastecimento(int[] quantidades) {
+		for (int i = 0; i < Math.min(quantidades.length, TipoCedulaEnum.values().length); i++) {
+			if (quantidades[i] < 0) {
+				throw new BusinessException(MSG_QUANTIDADE_ABASTECIMENTO_INVALIDA);
+			}
+			if (disponiveis.get(posicao(i) + DESLOCAMENTO_CARGA) > Integer.MAX_VALUE - quantidades[i]) {
+				throw new BusinessException(MSG_CAPACIDADE_CASSETE_EXCEDIDA);
+			}
+		}
+	}
+	
+	public int getDisponivel(TipoCedulaEnum tipoCedula) {
+		return disponiveis.get(posicao(tipoCedula.ordinal()));
+	}
+	
+	/**
+	 * Retorna as quantidades disponíveis de cada tipo de cédula.
+	 * @return
+	 */
+	public Map<TipoCedulaEnum, Integer> getDisponiveis() {
+		Map<TipoCedulaEnum, Integer> quantidades = new EnumMap<>(TipoCedulaEnum.class);
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			quantidades.put(tipoCedula, getDisponivel(tipoCedula));
+		}
+		return quantidades;
+	}
+	
+	/**
+	 * Copia as quantidades disponíveis para um vetor fornecido pelo chamador (indexado pelo ordinal do tipo de cédula).
+	 * A cópia não é uma fotografia atômica do estoque: serve de base para o cálculo, que é confirmado por {@link #reservar(int[])}.
+	 * @param destino
+	 */
+	public void copiarDisponiveis(int[] destino) {
+		for (int i = 0; i < destino.length; i++) {
+			destino[i] = disponiveis.get(posicao(i));
+		}
+	}
+	
+	/**
+	 * Reserva as cédulas de uma composição, retirando-as do estoque.
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return A reserva, ou null se algum tipo de cédula não tiver estoque suficiente (nesse caso nada é retirado).
+	 */
+	public ReservaCedulas reservar(int[] quantidades) {
+		for (int i = 0; i < quantidades.length; i++) {
+			if (!retirar(i, quantidades[i])) {
+				for (int j = 0; j < i; j++) {
+					devolver(j, quantidades[j]);
+				}
+				return null;
+			}
+		}
+		
+		return new ReservaCedulas(this, new ComposicaoSaque(quantidades));
+	}
+	
+	/**
+	 * Devolve ao estoque as cédulas de uma reserva cancelada.
+	 * @param composicao
+	 */
+	void devolver(ComposicaoSaque composicao) {
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			devolver(tipoCedula.ordinal(), composicao.getQuantidade(tipoCedula));
+		}
+	}
+	
+	/**
+	 * Retira da carga dos cassetes as cédulas de uma reserva confirmada, que deixaram o terminal.
+	 * @param composicao
+	 */
+	void confirmar(ComposicaoSaque composicao) {
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			liberarCarga(tipoCedula.ordinal(), composicao.getQuantidade(tipoCedula));
+		}
+	}
+	
+	private boolean retirar(int indice, int quantidade) {
+		if (quantidade == 0) {
+			return true;
+		}
+		
+		int posicao = posicao(indice);
+		int disponivel;
+		do {
+			disponivel = disponiveis.get(posicao);
+			if (disponivel < quantidade) {
+				return false;
+			}
+		} while (!disponiveis.compareAndSet(posicao, disponivel, disponivel - quantidade));
+		
+		return true;
+	}
+	
+	/**
+	 * Acrescenta cédulas à carga de um tipo por CAS, recusando o acréscimo que ultrapassaria {@link Integer#MAX_VALUE}.
+	 * @return false se a carga excederia o máximo (nesse caso nada é acrescentado).
+	 */
+	private boolean ocuparCarga(int indice, int quantidade) {
+		if (quantidade == 0) {
+			return true;
+		}
+		
+		int posicao = posicao(indice) + DESLOCAMENTO_CARGA;
+		int disponivel;
+		do {
+			disponivel = disponiveis.get(posicao);
+			if (disponivel > Integer.MAX_VALUE - quantidade) {
+				return false;
+			}
+		} while (!disponiveis.compareAndSet(posicao, disponivel, disponivel + quantidade));
+		
+		return true;
+	}
+	
+	private void liberarCarga(int indice, int quantidade) {
+		if (quantidade != 0) {
+			disponiveis.addAndGet(posicao(indice) + DESLOCAMENTO_CARGA, -quantidade);
+		}
+	}
+	
+	/**
+	 * Torna disponíveis cédulas que já estão na carga do tipo; o contador não passa da carga, e portanto do máximo.
+	 */
+	private void devolver(int indice, int quantidade) {
+		if (quantidade != 0) {
+			disponiveis.addAndGet(posicao(indice), quantidade);
+		}
+	}
+	
+	private static int posicao(int indice) {
+		return indice * ESPACAMENTO;
+	}
+}
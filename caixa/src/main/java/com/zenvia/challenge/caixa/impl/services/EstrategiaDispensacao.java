@@ -0,0 +1,163 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Política de escolha das cédulas de um saque limitado ao estoque de um terminal.
+ * <p>
+ * Cada estratégia é montada uma única vez para o conjunto de cédulas da instalação ({@link #compilar}), com as tabelas
+ * de que precisa, e é compartilhada entre as threads: o cálculo de um saque apenas consulta as tabelas e o estoque
+ * informado, sem busca nem alocação no caso comum. Quando a política não encontra uma composição dentro do estoque,
+ * a composição com o menor número de cédulas é procurada pela busca exata ({@link SolucionadorCedulasLimitadas}),
+ * de modo que nenhuma estratégia recusa um saque que outra pagaria.
+ * <p>
+ * Uma nova política é incluída com uma constante em {@link EstrategiaDispensacaoEnum} e a sua subclasse em {@link #compilar}.
+ */
+public abstract class EstrategiaDispensacao {
+	
+	protected static final int QUANTIDADE_TIPOS = TipoCedulaEnum.values().length;
+	
+	protected final TipoCedulaEnum[] cedulasDecrescentes;
+	
+	/**
+	 * Valores de face e ordinais dos tipos, em ordem decrescente de valor de face.
+	 */
+	protected final int[] valores;
+	
+	protected final int[] ordinais;
+	
+	protected final int mdc;
+	
+	private final SolucionadorCedulas solucionador;
+	
+	private final SolucionadorCedulasLimitadas solucionadorLimitado;
+	
+	protected EstrategiaDispensacao(ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		this.cedulasDecrescentes = conjunto.getTiposDecrescentes();
+		this.valores = new int[cedulasDecrescentes.length];
+		this.ordinais = new int[cedulasDecrescentes.length];
+		this.mdc = conjunto.getMultiploSaque();
+		this.solucionador = solucionador;
+		this.solucionadorLimitado = new SolucionadorCedulasLimitadas(cedulasDecrescentes);
+		
+		for (int i = 0; i < cedulasDecrescentes.length; i++) {
+			valores[i] = cedulasDecrescentes[i].getValorFaceCedula();
+			ordinais[i] = cedulasDecrescentes[i].ordinal();
+		}
+	}
+	
+	/**
+	 * Monta uma estratégia para o conjunto de cédulas.
+	 * @param tipo
+	 * @param conjunto
+	 * @param solucionador Solucionador compilado para o mesmo conjunto ({@link SolucionadorCedulas#compilar(ConjuntoCedulas)}).
+	 * @return
+	 */
+	public static EstrategiaDispensacao compilar(EstrategiaDispensacaoEnum tipo, ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		switch (tipo) {
+		case MENOR_QUANTIDADE:
+			return new EstrategiaDispensacaoMenorQuantidade(conjunto, solucionador);
+		case TROCO:
+			return new EstrategiaDispensacaoTroco(conjunto, solucionador);
+		case EQUILIBRIO:
+			return new EstrategiaDispensacaoEquilibrio(conjunto, solucionador);
+		case PRESERVACAO:
+			return new EstrategiaDispensacaoPreservacao(conjunto, solucionador);
+		default:
+			throw new IllegalArgumentException("Estratégia de dispensação desconhecida: " + tipo);
+		}
+	}
+	
+	/**
+	 * Monta todas as estratégias para o conjunto de cédulas.
+	 * @param conjunto
+	 * @param solucionador
+	 * @return Estratégias indexadas pelo ordinal de {@link EstrategiaDispensacaoEnum}.
+	 */
+	public static EstrategiaDispensacao[] compilarTodas(ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		EstrategiaDispensacaoEnum[] tipos = EstrategiaDispensacaoEnum.values();
+		EstrategiaDispensacao[] estrategias = new EstrategiaDispensacao[tipos.length];
+		for (EstrategiaDispensacaoEnum tipo : tipos) {
+			estrategias[tipo.ordinal()] = compilar(tipo, conjunto, solucionador);
+		}
+		return estrategias;
+	}
+	
+	public abstract EstrategiaDispensacaoEnum getTipo();
+	
+	/**
+	 * Calcula a composição de um saque limitada às cédulas disponíveis de cada tipo.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link SaqueService#VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @param quantidades Vetor que recebe as quantidades de cédulas, indexado pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param disponiveis Cédulas disponíveis de cada tipo, indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return false se nenhuma composição dentro do estoque paga o valor.
+	 */
+	public abstract boolean calcular(long valorSaque, int[] quantidades, int[] disponiveis);
+	
+	/**
+	 * Composição com o menor número de cédulas dentro do estoque: em conjuntos canônicos a decomposição gulosa é a
+	 * primeira tentativa, e a busca exata só é usada quando ela falha.
+	 * @param valorSaque
+	 * @param quantidades
+	 * @param disponiveis
+	 * @return false se nenhuma composição dentro do estoque paga o valor.
+	 */
+	protected boolean calcularMenorQuantidade(long valorSaque, int[] quantidades, int[] disponiveis) {
+		return solucionador.isGuloso() && calcularGuloso(cedulasDecrescentes, valorSaque, quantidades, disponiveis) == 0
+				|| solucionadorLimitado.resolver(valorSaque, disponiveis, quantidades);
+	}
+	
+	/**
+	 * Decomposição gulosa limitada ao estoque, tipo a tipo, do maior para o menor valor de face.
+	 * @param tipos Tipos de cédula em ordem decrescente de valor de face.
+	 * @param valorSaque
+	 * @param quantidades
+	 * @param disponiveis
+	 * @return Valor residual que não pôde ser decomposto com as cédulas disponíveis.
+	 */
+	static long calcularGuloso(TipoCedulaEnum[] tipos, long valorSaque, int[] quantidades, int[] disponiveis) {
+		long valorADecompor = valorSaque;
+		
+		for (TipoCedulaEnum tipoCedula : tipos) {
+			int valorFace = tipoCedula.getValorFaceCedula();
+			int quantidadeDeCedulas = (int) Math.min(valorADecompor / valorFace, disponiveis[tipoCedula.ordinal()]);
+			
+			quantidades[tipoCedula.ordinal()] = quantidadeDeCedulas;
+			valorADecompor -= (long) quantidadeDeCedulas * valorFace;
+		}
+		
+		return valorADecompor;
+	}
+	
+	/**
+	 * Verifica se uma composição, somada a cédulas excedentes de um tipo, cabe no estoque.
+	 * @param composicao Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param ordinalExcedente Ordinal do tipo das cédulas excedentes.
+	 * @param excedente Quantidade de cédulas excedentes, que pode ser zero.
+	 * @param disponiveis
+	 * @return
+	 */
+	protected static boolean isDisponivel(int[] composicao, int ordinalExcedente, long excedente, int[] disponiveis) {
+		for (int ordinal = 0; ordinal < composicao.length; ordinal++) {
+			long quantidade = ordinal == ordinalExcedente ? composicao[ordinal] + excedente : composicao[ordinal];
+			if (quantidade > disponiveis[ordinal]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Copia uma composição da tabela, somada às cédulas excedentes, para o vetor do chamador.
+	 * @param composicao
+	 * @param ordinalExcedente
+	 * @param excedente
+	 * @param quantidades
+	 */
+	protected static void copiar(int[] composicao, int ordinalExcedente, long excedente, int[] quantidades) {
+		System.arraycopy(composicao, 0, quantidades, 0, composicao.length);
+		quantidades[ordinalExcedente] += (int) excedente;
+	}
+}
@@ -0,0 +1,98 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Retira as cédulas proporcionalmente ao estoque de cada cassete: entre as composições candidatas do valor, o saque
+ * recebe a que consome a menor fração do cassete mais exigido ({@code quantidade / disponíveis} do tipo), e, em caso de
+ * empate, a de menos cédulas. Com os cassetes equilibrados o resultado coincide com o menor número de cédulas; quando
+ * um cassete está mais vazio que os demais, os saques passam a poupá-lo, e os cassetes tendem a se esgotar juntos.
+ * <p>
+ * As candidatas cobrem os valores até {@value #MULTIPLO_LIMITE} vezes a maior cédula. Acima disso, o excedente é pago
+ * com o tipo de cédula em que ele representa a menor fração do cassete, e as candidatas são avaliadas para o resto.
+ */
+class EstrategiaDispensacaoEquilibrio extends EstrategiaDispensacao {
+	
+	static final int MULTIPLO_LIMITE = 3;
+	
+	private static final int FOLGA = 4;
+	
+	private static final int MAXIMO_CANDIDATOS = 32;
+	
+	private final TabelaComposicoesCandidatas tabela;
+	
+	EstrategiaDispensacaoEquilibrio(ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		super(conjunto, solucionador);
+		this.tabela = new TabelaComposicoesCandidatas(conjunto, (long) MULTIPLO_LIMITE * conjunto.getMaiorCedula().getValorFaceCedula(),
+				FOLGA, MAXIMO_CANDIDATOS, TabelaComposicoesCandidatas.menosCedulas(cedulasDecrescentes));
+	}
+	
+	@Override
+	public EstrategiaDispensacaoEnum getTipo() {
+		return EstrategiaDispensacaoEnum.EQUILIBRIO;
+	}
+	
+	@Override
+	public boolean calcular(long valorSaque, int[] quantidades, int[] disponiveis) {
+		long limite = tabela.getLimite();
+		int ordinalExcedente = ordinais[0];
+		long excedente = 0L;
+		long resto = valorSaque;
+		
+		if (valorSaque > limite) {
+			// tipo em que o excedente consome a menor fração do cassete: excedente / disponíveis
+			int escolhido = -1;
+			for (int i = 0; i < valores.length; i++) {
+				long quantidade = (valorSaque - limite + valores[i] - 1) / valores[i];
+				if (quantidade <= disponiveis[ordinais[i]]
+						&& (escolhido < 0 || quantidade * disponiveis[ordinais[escolhido]] < excedente * disponiveis[ordinais[i]])) {
+					escolhido = i;
+					excedente = quantidade;
+				}
+			}
+			if (escolhido < 0) {
+				return calcularMenorQuantidade(valorSaque, quantidades, disponiveis);
+			}
+			ordinalExcedente = ordinais[escolhido];
+			resto = valorSaque - excedente * valores[escolhido];
+		}
+		
+		int[] escolhida = null;
+		long maiorQuantidadeEscolhida = 0L;
+		long disponiveisEscolhida = 1L;
+		
+		for (int[] candidata : tabela.getCandidatas(resto)) {
+			if (!isDisponivel(candidata, ordinalExcedente, excedente, disponiveis)) {
+				continue;
+			}
+			
+			// maior fração consumida de um cassete: quantidade / disponíveis
+			long maiorQuantidade = 0L;
+			long disponiveisMaior = 1L;
+			for (int ordinal : ordinais) {
+				long quantidade = ordinal == ordinalExcedente ? candidata[ordinal] + excedente : candidata[ordinal];
+				if (quantidade > 0 && quantidade * disponiveisMaior > maiorQuantidade * disponiveis[ordinal]) {
+					maiorQuantidade = quantidade;
+					disponiveisMaior = disponiveis[ordinal];
+				}
+			}
+			
+			if (escolhida == null || maiorQuantidade * disponiveisEscolhida < maiorQuantidadeEscolhida * disponiveisMaior) {
+				escolhida = candidata;
+				maiorQuantidadeEscolhida = maiorQuantidade;
+				disponiveisEscolhida = disponiveisMaior;
+			}
+		}
+		
+		if (escolhida == null) {
+			return calcularMenorQuantidade(valorSaque, quantidades, disponiveis);
+		}
+		copiar(escolhida, ordinalExcedente, excedente, quantidades);
+		return true;
+	}
+	
+	TabelaComposicoesCandidatas getTabela() {
+		return tabela;
+	}
+}
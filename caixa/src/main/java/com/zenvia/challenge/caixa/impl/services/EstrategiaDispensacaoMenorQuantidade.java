@@ -0,0 +1,24 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Menor número de cédulas dentro do estoque, sobre as tabelas do {@link SolucionadorCedulas} e a busca exata.
+ */
+class EstrategiaDispensacaoMenorQuantidade extends EstrategiaDispensacao {
+	
+	EstrategiaDispensacaoMenorQuantidade(ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		super(conjunto, solucionador);
+	}
+	
+	@Override
+	public EstrategiaDispensacaoEnum getTipo() {
+		return EstrategiaDispensacaoEnum.MENOR_QUANTIDADE;
+	}
+	
+	@Override
+	public boolean calcular(long valorSaque, int[] quantidades, int[] disponiveis) {
+		return calcularMenorQuantidade(valorSaque, quantidades, disponiveis);
+	}
+}
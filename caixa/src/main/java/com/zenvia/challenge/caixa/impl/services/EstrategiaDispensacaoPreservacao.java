@@ -0,0 +1,101 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Poupa a cédula que está acabando: a cada saque, os tipos com o menor estoque positivo do terminal são os escassos, e
+ * entre as composições candidatas do valor o saque recebe a que usa menos cédulas escassas e, em caso de empate, menos
+ * cédulas no total. Com 100,00 acabando, 200,00 sai como 50,00 + 50,00 + 50,00 + 50,00 em vez de duas cédulas de 100,00;
+ * com todos os cassetes no mesmo nível, todos são escassos e o resultado coincide com o menor número de cédulas.
+ * <p>
+ * As candidatas cobrem os valores até {@value #MULTIPLO_LIMITE} vezes a maior cédula. Acima disso, o excedente é pago
+ * com a maior cédula que não é escassa (ou com a maior cédula, se todas forem), e as candidatas são avaliadas para o resto.
+ */
+class EstrategiaDispensacaoPreservacao extends EstrategiaDispensacao {
+	
+	static final int MULTIPLO_LIMITE = 3;
+	
+	private static final int FOLGA = 4;
+	
+	private static final int MAXIMO_CANDIDATOS = 32;
+	
+	private final TabelaComposicoesCandidatas tabela;
+	
+	EstrategiaDispensacaoPreservacao(ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		super(conjunto, solucionador);
+		this.tabela = new TabelaComposicoesCandidatas(conjunto, (long) MULTIPLO_LIMITE * conjunto.getMaiorCedula().getValorFaceCedula(),
+				FOLGA, MAXIMO_CANDIDATOS, TabelaComposicoesCandidatas.menosCedulas(cedulasDecrescentes));
+	}
+	
+	@Override
+	public EstrategiaDispensacaoEnum getTipo() {
+		return EstrategiaDispensacaoEnum.PRESERVACAO;
+	}
+	
+	@Override
+	public boolean calcular(long valorSaque, int[] quantidades, int[] disponiveis) {
+		int menorEstoque = Integer.MAX_VALUE;
+		for (int ordinal : ordinais) {
+			if (disponiveis[ordinal] > 0) {
+				menorEstoque = Math.min(menorEstoque, disponiveis[ordinal]);
+			}
+		}
+		
+		long limite = tabela.getLimite();
+		int ordinalExcedente = ordinais[0];
+		long excedente = 0L;
+		long resto = valorSaque;
+		
+		if (valorSaque > limite) {
+			int escolhido = -1;
+			for (int i = 0; i < valores.length; i++) {
+				long quantidade = (valorSaque - limite + valores[i] - 1) / valores[i];
+				if (quantidade > disponiveis[ordinais[i]]) {
+					continue;
+				}
+				// a maior cédula que paga o excedente, trocada pela maior que não é escassa
+				if (escolhido < 0 || disponiveis[ordinais[escolhido]] == menorEstoque && disponiveis[ordinais[i]] > menorEstoque) {
+					escolhido = i;
+					excedente = quantidade;
+				}
+			}
+			if (escolhido < 0) {
+				return calcularMenorQuantidade(valorSaque, quantidades, disponiveis);
+			}
+			ordinalExcedente = ordinais[escolhido];
+			resto = valorSaque - excedente * valores[escolhido];
+		}
+		
+		int[] escolhida = null;
+		long escassasEscolhida = Long.MAX_VALUE;
+		
+		for (int[] candidata : tabela.getCandidatas(resto)) {
+			if (!isDisponivel(candidata, ordinalExcedente, excedente, disponiveis)) {
+				continue;
+			}
+			
+			long escassas = 0L;
+			for (int ordinal : ordinais) {
+				if (disponiveis[ordinal] == menorEstoque) {
+					escassas += ordinal == ordinalExcedente ? candidata[ordinal] + excedente : candidata[ordinal];
+				}
+			}
+			
+			if (escassas < escassasEscolhida) {
+				escolhida = candidata;
+				escassasEscolhida = escassas;
+			}
+		}
+		
+		if (escolhida == null) {
+			return calcularMenorQuantidade(valorSaque, quantidades, disponiveis);
+		}
+		copiar(escolhida, ordinalExcedente, excedente, quantidades);
+		return true;
+	}
+	
+	TabelaComposicoesCandidatas getTabela() {
+		return tabela;
+	}
+}
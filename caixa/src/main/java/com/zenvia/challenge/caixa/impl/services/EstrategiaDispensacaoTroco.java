@@ -0,0 +1,65 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.Comparator;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Saques pequenos, até {@value #MULTIPLO_SAQUE_PEQUENO} vezes a maior cédula, com a composição de mais tipos de cédula
+ * (e, entre elas, a de menos cédulas): com as cédulas de 10,00 a 100,00, 100,00 sai como 50,00 + 20,00 + 20,00 + 10,00
+ * e 150,00 como 100,00 + 20,00 + 20,00 + 10,00. As composições de cada valor pequeno ficam pré-ordenadas na tabela, e o
+ * saque recebe a primeira que cabe no estoque. Saques maiores usam o menor número de cédulas.
+ */
+class EstrategiaDispensacaoTroco extends EstrategiaDispensacao {
+	
+	static final int MULTIPLO_SAQUE_PEQUENO = 2;
+	
+	private static final int FOLGA = 4;
+	
+	private static final int MAXIMO_CANDIDATOS = 16;
+	
+	private final TabelaComposicoesCandidatas tabela;
+	
+	EstrategiaDispensacaoTroco(ConjuntoCedulas conjunto, SolucionadorCedulas solucionador) {
+		super(conjunto, solucionador);
+		
+		Comparator<int[]> maisTipos = Comparator.comparingInt(EstrategiaDispensacaoTroco::contarTipos).reversed();
+		this.tabela = new TabelaComposicoesCandidatas(conjunto, (long) MULTIPLO_SAQUE_PEQUENO * conjunto.getMaiorCedula().getValorFaceCedula(),
+				FOLGA, MAXIMO_CANDIDATOS, maisTipos.thenComparing(TabelaComposicoesCandidatas.menosCedulas(cedulasDecrescentes)));
+	}
+	
+	@Override
+	public EstrategiaDispensacaoEnum getTipo() {
+		return EstrategiaDispensacaoEnum.TROCO;
+	}
+	
+	@Override
+	public boolean calcular(long valorSaque, int[] quantidades, int[] disponiveis) {
+		if (valorSaque <= tabela.getLimite()) {
+			for (int[] candidata : tabela.getCandidatas(valorSaque)) {
+				if (isDisponivel(candidata, 0, 0L, disponiveis)) {
+					copiar(candidata, 0, 0L, quantidades);
+					return true;
+				}
+			}
+		}
+		
+		return calcularMenorQuantidade(valorSaque, quantidades, disponiveis);
+	}
+	
+	private static int contarTipos(int[] composicao) {
+		int tipos = 0;
+		for (int quantidade : composicao) {
+			if (quantidade > 0) {
+				tipos++;
+			}
+		}
+		return tipos;
+	}
+	
+	TabelaComposicoesCandidatas getTabela() {
+		return tabela;
+	}
+}
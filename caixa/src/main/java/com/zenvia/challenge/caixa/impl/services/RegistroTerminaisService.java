@@ -0,0 +1,255 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.arch.journal.JournalTerminais;
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.config.CedulasProperties;
+import com.zenvia.challenge.caixa.config.RegistroTerminaisProperties;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.enums.TipoEventoTerminalEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Registro dos terminais da frota atendida por esta instância do serviço.
+ * <p>
+ * Os terminais ficam em um {@link ConcurrentHashMap}: a consulta não bloqueia e o cadastro e a retirada
+ * bloqueiam apenas a posição do terminal afetado. Como cada terminal tem o seu próprio estado,
+ * o tráfego de terminais diferentes não disputa nenhum recurso compartilhado.
+ * <p>
+ * Cadastros, abastecimentos, saques e retiradas são registrados no {@link JournalTerminais} antes de
+ * serem efetivados, e a frota é restaurada a partir dele na inicialização.
+ */
+@Service
+public class RegistroTerminaisService {
+	
+	public static final String MSG_ID_TERMINAL_OBRIGATORIO = "Identificador do terminal é obrigatório.";
+	
+	public static final String MSG_ID_TERMINAL_MUITO_LONGO = "Identificador do terminal deve ter no máximo "
+			+ TrilhaSaques.TAMANHO_MAXIMO_ID + " bytes.";
+	
+	public static final String MSG_TERMINAL_NAO_CADASTRADO = "Terminal não cadastrado.";
+	
+	public static final String MSG_TERMINAL_JA_CADASTRADO = "Terminal já cadastrado.";
+	
+	public static final String MSG_CEDULA_NAO_ATENDIDA = "Tipo de cédula não atendido por esta instalação.";
+	
+	private final ConcurrentMap<String, Terminal> terminais;
+	
+	private final JournalTerminais journal;
+	
+	/**
+	 * Cédulas da instalação: o estoque de cada terminal é formado por um subconjunto delas.
+	 */
+	private final ConjuntoCedulas conjunto;
+	
+	/**
+	 * Estratégia de dispensação dos terminais cadastrados sem estratégia; a estratégia não é gravada no journal,
+	 * e os terminais restaurados também recebem esta.
+	 */
+	private final EstrategiaDispensacaoEnum estrategiaPadrao;
+	
+	@Autowired
+	public RegistroTerminaisService(RegistroTerminaisProperties properties, JournalTerminais journal, CedulasProperties cedulas) {
+		this(properties, journal, ConjuntoCedulas.de(cedulas.getValores()));
+	}
+	
+	public RegistroTerminaisService(RegistroTerminaisProperties properties, JournalTerminais journal, ConjuntoCedulas conjunto) {
+		this.terminais = new ConcurrentHashMap<>(Math.max(properties.getCapacidadeInicial(), journal.getEstoquesRecuperados().size()));
+		this.journal = journal;
+		this.conjunto = conjunto;
+		this.estrategiaPadrao = properties.getEstrategiaPadrao();
+		
+		journal.getEstoquesRecuperados().forEach((idTerminal, quantidades) ->
+				terminais.put(idTerminal, new Terminal(idTerminal, new EstoqueCedulas(quantidades), estrategiaPadrao)));
+	}
+	
+	public RegistroTerminaisService() {
+		this(new RegistroTerminaisProperties(), JournalTerminais.desabilitado(), ConjuntoCedulas.PADRAO);
+	}
+	
+	/**
+	 * Cadastra um terminal com o estoque inicial de cédulas.
+	 * @param idTerminal
+	 * @param estoque
+	 * @return
+	 */
+	public Terminal cadastrar(String idTerminal, EstoqueCedulas estoque) {
+		return cadastrar(idTerminal, estoque, null);
+	}
+	
+	/**
+	 * Cadastra um terminal com o estoque inicial de cédulas e a estratégia de dispensação dos seus saques.
+	 * @param idTerminal
+	 * @param estoque
+	 * @param estrategia Estratégia de dispensação, ou null para a estratégia padrão da instalação.
+	 * @return
+	 */
+	public Terminal cadastrar(String idTerminal, EstoqueCedulas estoque, EstrategiaDispensacaoEnum estrategia) {
+		validarIdTerminal(idTerminal);
+		// o identificador é gravado no journal e na persistência dos saques: um terminal que não cabe neles não é cadastrado
+		if (idTerminal.getBytes(StandardCharsets.UTF_8).length > TrilhaSaques.TAMANHO_MAXIMO_ID) {
+			throw new BusinessException(MSG_ID_TERMINAL_MUITO_LONGO);
+		}
+		validarCedulas(quantidades(estoque));
+		
+		// o terminal ocupa o identificador ainda pendente, recusando operações até o cadastro ser gravado no journal:
+		// nenhum evento dele precede o cadastro, e a gravação não é feita com a posição do mapa bloqueada
+		Terminal terminal = new Terminal(idTerminal, estoque, estrategia == null ? estrategiaPadrao : estrategia, true);
+		if (terminais.putIfAbsent(idTerminal, terminal) != null) {
+			throw new BusinessException(MSG_TERMINAL_JA_CADASTRADO);
+		}
+		try {
+			journal.registrar(TipoEventoTerminalEnum.CADASTRO, idTerminal, quantidades(estoque));
+		} catch (RuntimeException e) {
+			terminais.remove(idTerminal, terminal);
+			throw e;
+		}
+		terminal.ativar();
+		
+		return terminal;
+	}
+	
+	/**
+	 * Retira um terminal da frota. Saques já em gravação no journal são concluídos normalmente; os que ainda não chegaram
+	 * a ela são recusados, e as suas cédulas voltam ao estoque.
+	 * @param idTerminal
+	 * @return O terminal retirado.
+	 */
+	public Terminal retirar(String idTerminal) {
+		validarIdTerminal(idTerminal);
+		
+		Terminal terminal = obter(idTerminal);
+		if (!terminal.retirar()) {
+			throw new BusinessException(MSG_TERMINAL_NAO_CADASTRADO);
+		}
+		// o identificador só é liberado para um novo cadastro depois que a retirada está no journal
+		try {
+			journal.registrar(TipoEventoTerminalEnum.RETIRADA, idTerminal, new int[0]);
+		} catch (RuntimeException e) {
+			terminal.cancelarRetirada();
+			throw e;
+		}
+		terminais.remove(idTerminal, terminal);
+		
+		return terminal;
+	}
+	
+	/**
+	 * Acrescenta cédulas ao estoque de um terminal.
+	 * @param idTerminal
+	 * @param abastecimento Quantidade de cédulas de cada tipo a acrescentar.
+	 * @return O estoque do terminal.
+	 */
+	public EstoqueCedulas abastecer(String idTerminal, Map<TipoCedulaEnum, Integer> abastecimento) {
+		Terminal terminal = obter(idTerminal);
+		EstoqueCedulas estoque = terminal.getEstoque();
+		int[] quantidades = EstoqueCedulas.converterQuantidades(abastecimento);
+		validarCedulas(quantidades);
+		// recusa o abastecimento que estouraria um cassete antes de gravá-lo no journal
+		estoque.validarAbastecimento(quantidades);
+		
+		if (!terminal.iniciarOperacao()) {
+			throw new BusinessException(MSG_TERMINAL_NAO_CADASTRADO);
+		}
+		try {
+			journal.registrar(TipoEventoTerminalEnum.ABASTECIMENTO, idTerminal, quantidades);
+			estoque.abastecer(quantidades);
+		} finally {
+			terminal.concluirOperacao();
+		}
+		
+		return estoque;
+	}
+	
+	/**
+	 * Altera a estratégia de dispensação dos próximos saques de um terminal.
+	 * @param idTerminal
+	 * @param estrategia
+	 * @return O terminal.
+	 */
+	public Terminal definirEstrategia(String idTerminal, EstrategiaDispensacaoEnum estrategia) {
+		Terminal terminal = obter(idTerminal);
+		terminal.setEstrategia(estrategia);
+		
+		return terminal;
+	}
+	
+	/**
+	 * Confirma um saque reservado no estoque de um terminal, depois de registrá-lo no journal.
+	 * Se o registro falhar, ou se o terminal tiver sido retirado depois da reserva, a reserva é cancelada e as cédulas
+	 * voltam ao estoque.
+	 * @param terminal
+	 * @param reserva
+	 */
+	public void confirmarSaque(Terminal terminal, ReservaCedulas reserva) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		reserva.getComposicao().copiarQuantidades(quantidades);
+		
+		if (!terminal.iniciarOperacao()) {
+			reserva.cancelar();
+			throw new BusinessException(MSG_TERMINAL_NAO_CADASTRADO);
+		}
+		try {
+			journal.registrar(TipoEventoTerminalEnum.SAQUE, terminal.getId(), quantidades);
+		} catch (RuntimeException e) {
+			reserva.cancelar();
+			throw e;
+		} finally {
+			terminal.concluirOperacao();
+		}
+		reserva.confirmar();
+	}
+	
+	/**
+	 * Consulta um terminal cadastrado.
+	 * @param idTerminal
+	 * @return
+	 */
+	public Terminal obter(String idTerminal) {
+		validarIdTerminal(idTerminal);
+		
+		Terminal terminal = terminais.get(idTerminal);
+		if (terminal == null) {
+			throw new BusinessException(MSG_TERMINAL_NAO_CADASTRADO);
+		}
+		
+		return terminal;
+	}
+	
+	public int getQuantidadeTerminais() {
+		return terminais.size();
+	}
+	
+	private static int[] quantidades(EstoqueCedulas estoque) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		estoque.copiarDisponiveis(quantidades);
+		return quantidades;
+	}
+	
+	/**
+	 * Rejeita cédulas de tipos fora do conjunto da instalação, que nenhum saque conseguiria dispensar.
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 */
+	private void validarCedulas(int[] quantidades) {
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			if (quantidades[tipoCedula.ordinal()] > 0 && !conjunto.contem(tipoCedula)) {
+				throw new BusinessException(MSG_CEDULA_NAO_ATENDIDA);
+			}
+		}
+	}
+	
+	private static void validarIdTerminal(String idTerminal) {
+		if (idTerminal == null || idTerminal.trim().isEmpty()) {
+			throw new BusinessException(MSG_ID_TERMINAL_OBRIGATORIO);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import org.springframework.stereotype.Component;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Renderização das linhas de resumo de um saque ("Entregar 2 cédula(s) de R$100,00.") nos idiomas atendidos.
+ * <p>
+ * O modelo de cada idioma (arquivos {@code mensagens/resumos*.properties}) é compilado uma única vez: o valor de face
+ * de cada {@link TipoCedulaEnum} já é formatado no trecho que sucede a quantidade, e as linhas com as quantidades
+ * mais comuns ficam prontas. Uma requisição apenas devolve uma linha pronta ou insere a quantidade entre dois trechos fixos.
+ */
+@Component
+public class RenderizadorResumos {
+	
+	public static final Locale IDIOMA_PADRAO = Locale.forLanguageTag("pt-BR");
+	
+	/**
+	 * Idiomas atendidos, na ordem dos índices de {@link #getIndice(Locale)}; o primeiro é o padrão.
+	 */
+	private static final Locale[] IDIOMAS = { IDIOMA_PADRAO, Locale.ENGLISH, Locale.forLanguageTag("es") };
+	
+	/**
+	 * Quantidade de cédulas até a qual as linhas de cada tipo ficam prontas.
+	 */
+	public static final int QUANTIDADE_LINHAS_PRONTAS = 128;
+	
+	private static final String BASE_MODELOS = "mensagens/resumos";
+	
+	private static final String MARCADOR_QUANTIDADE = "{0}";
+	
+	private static final String MARCADOR_VALOR_FACE = "{1}";
+	
+	private final ModeloResumo[] modelos = new ModeloResumo[IDIOMAS.length];
+	
+	private final Map<String, Integer> indicesPorIdioma = new HashMap<>();
+	
+	public RenderizadorResumos() {
+		for (int i = 0; i < IDIOMAS.length; i++) {
+			modelos[i] = compilar(IDIOMAS[i]);
+			indicesPorIdioma.putIfAbsent(IDIOMAS[i].getLanguage(), i);
+		}
+	}
+	
+	/**
+	 * Índice do modelo do idioma; idiomas não atendidos usam o {@link #IDIOMA_PADRAO}.
+	 * @param idioma
+	 * @return
+	 */
+	public int getIndice(Locale idioma) {
+		if (idioma == null) {
+			return 0;
+		}
+		Integer indice = indicesPorIdioma.get(idioma.getLanguage());
+		return indice == null ? 0 : indice;
+	}
+	
+	/**
+	 * Idioma atendido de um índice de {@link #getIndice(Locale)}.
+	 * @param indice
+	 * @return
+	 */
+	public Locale getIdioma(int indice) {
+		return IDIOMAS[indice];
+	}
+	
+	public int getQuantidadeIdiomas() {
+		return modelos.length;
+	}
+	
+	public ModeloResumo getModelo(int indice) {
+		return modelos[indice];
+	}
+	
+	public ModeloResumo getModelo(Locale idioma) {
+		return modelos[getIndice(idioma)];
+	}
+	
+	private static ModeloResumo compilar(Locale idioma) {
+		ResourceBundle modelos = ResourceBundle.getBundle(BASE_MODELOS, idioma,
+				ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+		String modelo = modelos.getString("resumo.cedula");
+		DecimalFormat formatoValor = new DecimalFormat(modelos.getString("resumo.formato-valor"), DecimalFormatSymbols.getInstance(idioma));
+		
+		int posicaoQuantidade = modelo.indexOf(MARCADOR_QUANTIDADE);
+		if (posicaoQuantidade < 0 || modelo.indexOf(MARCADOR_QUANTIDADE, posicaoQuantidade + 1) >= 0
+				|| modelo.indexOf(MARCADOR_VALOR_FACE, posicaoQuantidade) < 0) {
+			throw new IllegalStateException("Modelo de resumo inválido para " + idioma + ": " + modelo);
+		}
+		
+		String prefixo = modelo.substring(0, posicaoQuantidade);
+		String sufixo = modelo.substring(posicaoQuantidade + MARCADOR_QUANTIDADE.length());
+		
+		String[] sufixos = new String[TipoCedulaEnum.values().length];
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			sufixos[tipoCedula.ordinal()] = sufixo.replace(MARCADOR_VALOR_FACE, formatoValor.format(tipoCedula.getValorFaceCedula()));
+		}
+		
+		return new ModeloResumo(prefixo, sufixos);
+	}
+	
+	/**
+	 * Modelo compilado de um idioma: trecho anterior à quantidade, trecho posterior de cada tipo de cédula e linhas prontas.
+	 */
+	public static final class ModeloResumo {
+		
+		private final String prefixo;
+		
+		private final String[] sufixos;
+		
+		private final String[][] linhasProntas;
+		
+		private ModeloResumo(String prefixo, String[] sufixos) {
+			this.prefixo = prefixo;
+			this.sufixos = sufixos;
+			this.linhasProntas = new String[sufixos.length][QUANTIDADE_LINHAS_PRONTAS];
+			
+			for (int tipo = 0; tipo < sufixos.length; tipo++) {
+				for (int quantidade = 0; quantidade < QUANTIDADE_LINHAS_PRONTAS; quantidade++) {
+					linhasProntas[tipo][quantidade] = juntar(Integer.toString(quantidade), sufixos[tipo]);
+				}
+			}
+		}
+		
+		/**
+		 * Linha de resumo de um tipo de cédula.
+		 * @param tipoCedula
+		 * @param quantidadeDeCedulas
+		 * @return
+		 */
+		public String renderizar(TipoCedulaEnum tipoCedula, long quantidadeDeCedulas) {
+			if (quantidadeDeCedulas >= 0 && quantidadeDeCedulas < QUANTIDADE_LINHAS_PRONTAS) {
+				return linhasProntas[tipoCedula.ordinal()][(int) quantidadeDeCedulas];
+			}
+			String sufixo = sufixos[tipoCedula.ordinal()];
+			return new StringBuilder(prefixo.length() + 20 + sufixo.length())
+					.append(prefixo)
+					.append(quantidadeDeCedulas)
+					.append(sufixo)
+					.toString();
+		}
+		
+		/**
+		 * Linha de resumo de um tipo de cédula, para quantidades de qualquer tipo numérico (inclusive BigInteger).
+		 * @param tipoCedula
+		 * @param quantidadeDeCedulas
+		 * @return
+		 */
+		public String renderizar(TipoCedulaEnum tipoCedula, Number quantidadeDeCedulas) {
+			if (quantidadeDeCedulas instanceof Integer || quantidadeDeCedulas instanceof Long) {
+				return renderizar(tipoCedula, quantidadeDeCedulas.longValue());
+			}
+			return juntar(quantidadeDeCedulas.toString(), sufixos[tipoCedula.ordinal()]);
+		}
+		
+		private String juntar(String quantidade, String sufixo) {
+			return new StringBuilder(prefixo.length() + quantidade.length() + sufixo.length())
+					.append(prefixo)
+					.append(quantidade)
+					.append(sufixo)
+					.toString();
+		}
+	}
+}
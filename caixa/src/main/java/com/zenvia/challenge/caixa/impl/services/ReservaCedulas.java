@@ -0,0 +1,57 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.zenvia.challenge.caixa.enums.SituacaoReservaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+
+/**
+ * Reserva das cédulas de um saque no estoque de um terminal.
+ * As cédulas saem do estoque no momento da reserva; a confirmação torna a retirada definitiva
+ * e o cancelamento as devolve. Apenas a primeira das duas operações tem efeito.
+ */
+public class ReservaCedulas {
+	
+	private final EstoqueCedulas estoque;
+	
+	private final ComposicaoSaque composicao;
+	
+	private final AtomicReference<SituacaoReservaEnum> situacao = new AtomicReference<>(SituacaoReservaEnum.PENDENTE);
+
+	ReservaCedulas(EstoqueCedulas estoque, ComposicaoSaque composicao) {
+		this.estoque = estoque;
+		this.composicao = composicao;
+	}
+	
+	/**
+	 * Confirma a dispensação das cédulas reservadas.
+	 * @return false se a reserva já havia sido confirmada ou cancelada.
+	 */
+	public boolean confirmar() {
+		if (!situacao.compareAndSet(SituacaoReservaEnum.PENDENTE, SituacaoReservaEnum.CONFIRMADA)) {
+			return false;
+		}
+		estoque.confirmar(composicao);
+		return true;
+	}
+	
+	/**
+	 * Cancela a reserva, devolvendo as cédulas ao estoque.
+	 * @return false se a reserva já havia sido confirmada ou cancelada.
+	 */
+	public boolean cancelar() {
+		if (!situacao.compareAndSet(SituacaoReservaEnum.PENDENTE, SituacaoReservaEnum.CANCELADA)) {
+			return false;
+		}
+		estoque.devolver(composicao);
+		return true;
+	}
+
+	public ComposicaoSaque getComposicao() {
+		return composicao;
+	}
+
+	public SituacaoReservaEnum getSituacao() {
+		return situacao.get();
+	}
+}
@@ -1,73 +1,534 @@
 package com.zenvia.challenge.caixa.impl.services;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.arch.metricas.MetricasSaque;
+import com.zenvia.challenge.caixa.config.CedulasProperties;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
 import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.services.RenderizadorResumos.ModeloResumo;
 
 @Service
 public class SaqueService {
 	
 	public static final String MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO = "Não é possível sacar esse valor com as cédulas disponíveis.";
-
+	
 	public static final String MSG_VALOR_MINIMO_SAQUE = "Valor mínimo de saque é de R$ 10,00.";
-
+	
+	/**
+	 * Mensagem de valor mínimo para um conjunto de cédulas, formatada com o valor da menor cédula.
+	 */
+	public static final String MODELO_MSG_VALOR_MINIMO_SAQUE = "Valor mínimo de saque é de R$ %d,00.";
+	
 	public static final String MSG_VALOR_SAQUE_MAIOR_QUE_ZERO = "Valor do saque pretendido deve ser maior que zero.";
-
+	
 	public static final String MSG_VALOR_SAQUE_OBRIGATORIO = "Valor do saque pretendido é obrigatório.";
-
+	
+	public static final String MSG_VALOR_SAQUE_INVALIDO = "Valor do saque pretendido não é um número válido.";
+	
+	public static final String MSG_CEDULAS_INSUFICIENTES = "Não há cédulas disponíveis no caixa eletrônico para compor esse valor.";
+	
+	public static final String MSG_VALOR_SAQUE_ACIMA_DO_LIMITE = "Valor do saque excede o limite de R$ 21.474.836.470,00 para a composição estruturada.";
+	
+	/**
+	 * Precisão até a qual um valor de escala zero é convertido para long sem perda.
+	 */
+	private static final int PRECISAO_MAXIMA_LONG = 18;
+	
+	/**
+	 * Quantidade de vezes que a reserva é recalculada quando outro saque altera o estoque entre o cálculo e a reserva.
+	 */
+	private static final int TENTATIVAS_RESERVA = 8;
+	
+	/**
+	 * Maior valor tratado pelo cálculo primitivo (long): garante que a quantidade de cédulas de cada tipo caiba em um int,
+	 * já que a maior cédula de qualquer conjunto vale ao menos {@link ConjuntoCedulas#VALOR_MINIMO_MAIOR_CEDULA}.
+	 */
+	public static final long VALOR_MAXIMO_CALCULO_PRIMITIVO = (long) Integer.MAX_VALUE * ConjuntoCedulas.VALOR_MINIMO_MAIOR_CEDULA;
+	
+	/**
+	 * Indica que o valor não pode ser tratado pelo cálculo primitivo.
+	 */
+	protected static final long VALOR_FORA_DO_CALCULO_PRIMITIVO = -1L;
+	
+	private static final BigDecimal VALOR_MAXIMO_CALCULO_PRIMITIVO_DECIMAL = BigDecimal.valueOf(VALOR_MAXIMO_CALCULO_PRIMITIVO);
+	
+	/**
+	 * Quantidade de posições do cache de resumos renderizados.
+	 */
+	public static final int CAPACIDADE_CACHE_RESUMOS = 4096;
+	
+	private final ConjuntoCedulas conjunto;
+	
+	private final TipoCedulaEnum[] cedulasDecrescentes;
+	
+	private final TipoCedulaEnum maiorCedula;
+	
+	/**
+	 * Cálculo especializado para o conjunto de cédulas, montado na inicialização.
+	 */
+	private final SolucionadorCedulas solucionador;
+	
+	/**
+	 * Estratégias de dispensação dos saques limitados ao estoque, montadas na inicialização e indexadas pelo ordinal
+	 * de {@link EstrategiaDispensacaoEnum}.
+	 */
+	private final EstrategiaDispensacao[] estrategias;
+	
+	private final BigDecimal valorMinimoSaque;
+	
+	private final BigDecimal multiploSaque;
+	
+	private final BigDecimal limiteTabela;
+	
+	/**
+	 * Rejeição de valor mínimo com a menor cédula do conjunto; as demais rejeições vêm de {@link ResultadoValidacaoSaqueEnum}.
+	 */
+	private final BusinessException rejeicaoValorMinimo;
+	
+	private final RenderizadorResumos renderizador;
+	
+	/**
+	 * Caches de resumos renderizados, um por idioma, indexados por {@link RenderizadorResumos#getIndice(Locale)}.
+	 */
+	private final CacheResumosSaque[] cachesResumos;
+	
+	private final MetricasSaque metricas;
+	
+	public SaqueService() {
+		this(MetricasSaque.desabilitadas());
+	}
+	
+	public SaqueService(MetricasSaque metricas) {
+		this(metricas, new RenderizadorResumos());
+	}
+	
+	public SaqueService(MetricasSaque metricas, RenderizadorResumos renderizador) {
+		this(metricas, renderizador, ConjuntoCedulas.PADRAO);
+	}
+	
+	public SaqueService(ConjuntoCedulas conjunto) {
+		this(MetricasSaque.desabilitadas(), new RenderizadorResumos(), conjunto);
+	}
+	
+	@Autowired
+	public SaqueService(MetricasSaque metricas, RenderizadorResumos renderizador, CedulasProperties cedulas) {
+		this(metricas, renderizador, ConjuntoCedulas.de(cedulas.getValores()));
+	}
+	
+	public SaqueService(MetricasSaque metricas, RenderizadorResumos renderizador, ConjuntoCedulas conjunto) {
+		this.metricas = metricas;
+		this.renderizador = renderizador;
+		this.conjunto = conjunto;
+		this.cedulasDecrescentes = conjunto.getTiposDecrescentes();
+		this.maiorCedula = conjunto.getMaiorCedula();
+		this.solucionador = SolucionadorCedulas.compilar(conjunto);
+		this.estrategias = EstrategiaDispensacao.compilarTodas(conjunto, solucionador);
+		this.valorMinimoSaque = BigDecimal.valueOf(conjunto.getValorMinimoSaque());
+		this.multiploSaque = BigDecimal.valueOf(conjunto.getMultiploSaque());
+		this.limiteTabela = BigDecimal.valueOf(solucionador.getLimiteTabela());
+		this.rejeicaoValorMinimo = conjunto.getValorMinimoSaque() == TipoCedulaEnum.CEDULA_10.getValorFaceCedula()
+				? ResultadoValidacaoSaqueEnum.VALOR_MINIMO_SAQUE.getExcecao()
+				: new BusinessException(String.format(MODELO_MSG_VALOR_MINIMO_SAQUE, conjunto.getValorMinimoSaque()));
+		this.cachesResumos = new CacheResumosSaque[renderizador.getQuantidadeIdiomas()];
+		
+		for (int i = 0; i < cachesResumos.length; i++) {
+			ModeloResumo modelo = renderizador.getModelo(i);
+			cachesResumos[i] = new CacheResumosSaque(CAPACIDADE_CACHE_RESUMOS, valorSaque -> calcularResumos(valorSaque, modelo));
+		}
+	}
+	
 	/**
 	 * Método para tratamento de um saque
 	 * @param valorPretendidoSaque
 	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
 	 */
 	public List<String> processarSaque(BigDecimal valorPretendidoSaque) {
-		validarValorPretendidoSaque(valorPretendidoSaque);
+		validarComMetricas(valorPretendidoSaque);
+		
+		long inicioCalculo = System.nanoTime();
+		List<String> resumos = calcularCedulas(valorPretendidoSaque);
+		metricas.registrarCalculo(System.nanoTime() - inicioCalculo);
+		
+		return resumos;
+	}
+	
+	/**
+	 * Método para tratamento de um saque com as mensagens no idioma solicitado
+	 * @param valorPretendidoSaque
+	 * @param idioma Idioma das mensagens; idiomas não atendidos usam o {@link RenderizadorResumos#IDIOMA_PADRAO}.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> processarSaque(BigDecimal valorPretendidoSaque, Locale idioma) {
+		validarComMetricas(valorPretendidoSaque);
+		
+		long inicioCalculo = System.nanoTime();
+		List<String> resumos = calcularCedulas(valorPretendidoSaque, renderizador.getIndice(idioma));
+		metricas.registrarCalculo(System.nanoTime() - inicioCalculo);
+		
+		return resumos;
+	}
+	
+	/**
+	 * Método para tratamento de um saque cujo valor já foi convertido e validado (por exemplo, por
+	 * {@link com.zenvia.challenge.caixa.arch.conversores.ConversorValorSaque}), dispensando o BigDecimal.
+	 * @param valorSaque Valor em reais.
+	 * @param idioma Idioma das mensagens.
+	 * @return Coleção de mensagens detalhando a entrega de cédulas no saque.
+	 */
+	public List<String> processarSaque(long valorSaque, Locale idioma) {
+		ResultadoValidacaoSaqueEnum resultado = validar(valorSaque);
+		if (!resultado.isValido()) {
+			metricas.registrarRejeicao(resultado);
+			throw getExcecao(resultado);
+		}
+		
+		long inicioCalculo = System.nanoTime();
+		int indiceIdioma = renderizador.getIndice(idioma);
+		List<String> resumos = valorSaque > VALOR_MAXIMO_CALCULO_PRIMITIVO
+				? calcularCedulasComBigDecimal(BigDecimal.valueOf(valorSaque), renderizador.getModelo(indiceIdioma))
+				: calcularCedulas(valorSaque, indiceIdioma);
+		metricas.registrarCalculo(System.nanoTime() - inicioCalculo);
 		
-		return calcularCedulas(valorPretendidoSaque);
+		return resumos;
+	}
+	
+	/**
+	 * Tratamento de um saque retornando a composição estruturada (quantidade de cédulas de cada tipo) em vez das mensagens.
+	 * Limitado aos valores do cálculo primitivo, em que a quantidade de cada tipo de cédula cabe em um int.
+	 * @param valorPretendidoSaque
+	 * @return
+	 */
+	public ComposicaoSaque processarComposicao(BigDecimal valorPretendidoSaque) {
+		validarComMetricas(valorPretendidoSaque);
+		
+		long inicioCalculo = System.nanoTime();
+		long valorSaque = converterParaValorPrimitivo(valorPretendidoSaque);
+		if (valorSaque == VALOR_FORA_DO_CALCULO_PRIMITIVO) {
+			BusinessException rejeicao = new BusinessException(MSG_VALOR_SAQUE_ACIMA_DO_LIMITE);
+			metricas.registrarRejeicao(rejeicao);
+			throw rejeicao;
+		}
+		
+		ComposicaoSaque composicao = calcularComposicao(valorSaque);
+		metricas.registrarCalculo(System.nanoTime() - inicioCalculo);
+		
+		return composicao;
+	}
+	
+	private void validarComMetricas(BigDecimal valorPretendidoSaque) {
+		long inicio = System.nanoTime();
+		try {
+			validarValorPretendidoSaque(valorPretendidoSaque);
+		} catch (BusinessException e) {
+			metricas.registrarRejeicao(e);
+			throw e;
+		} finally {
+			metricas.registrarValidacao(System.nanoTime() - inicio);
+		}
 	}
 	
 	/**
 	 * Calcula as respectivas quantidades e tipos de cédulas para a dispensação em um saque.
+	 * Valores que cabem em um long são calculados pelo caminho primitivo; o BigDecimal fica restrito aos valores excedentes.
 	 * @param valorSaque
 	 * @return
 	 */
 	protected List<String> calcularCedulas(BigDecimal valorSaque) {
-		Integer quantidadeDeCedulas = 0;
-		BigDecimal valorADecompor = new BigDecimal(valorSaque.doubleValue());
-		List<String> resumos = new ArrayList<>();
-		
-		// verifica a quantidade de cédulas necessárias de cada tipo
-		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.getDecrescentValues()) {
-			if (valorADecompor.compareTo(tipoCedula.getValor()) >= 0) {
-				quantidadeDeCedulas = valorADecompor.divide(tipoCedula.getValor()).abs().intValue();
-				valorADecompor = valorADecompor.subtract(tipoCedula.getValor().multiply(BigDecimal.valueOf(quantidadeDeCedulas)));
-				resumos.add(gerarResumo(tipoCedula, quantidadeDeCedulas));
+		return calcularCedulas(valorSaque, renderizador.getIndice(RenderizadorResumos.IDIOMA_PADRAO));
+	}
+	
+	private List<String> calcularCedulas(BigDecimal valorSaque, int indiceIdioma) {
+		long valorPrimitivo = converterParaValorPrimitivo(valorSaque);
+		
+		if (valorPrimitivo == VALOR_FORA_DO_CALCULO_PRIMITIVO) {
+			return calcularCedulasComBigDecimal(valorSaque, renderizador.getModelo(indiceIdioma));
+		}
+		
+		return calcularCedulas(valorPrimitivo, indiceIdioma);
+	}
+	
+	private List<String> calcularCedulas(long valorPrimitivo, int indiceIdioma) {
+		return cachesResumos[indiceIdioma].obter(valorPrimitivo);
+	}
+	
+	/**
+	 * Trata um saque limitado ao estoque de cédulas de um terminal, reservando as cédulas que serão dispensadas.
+	 * @param valorPretendidoSaque
+	 * @param estoque Estoque de cédulas do terminal.
+	 * @return Reserva pendente, que deve ser confirmada após a dispensação ou cancelada em caso de falha.
+	 */
+	public ReservaCedulas reservarSaque(BigDecimal valorPretendidoSaque, EstoqueCedulas estoque) {
+		return reservarSaque(valorPretendidoSaque, estoque, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE);
+	}
+	
+	/**
+	 * Trata um saque limitado ao estoque de cédulas de um terminal, com as cédulas escolhidas pela estratégia informada.
+	 * @param valorPretendidoSaque
+	 * @param estoque Estoque de cédulas do terminal.
+	 * @param estrategia Estratégia de dispensação.
+	 * @return Reserva pendente, que deve ser confirmada após a dispensação ou cancelada em caso de falha.
+	 */
+	public ReservaCedulas reservarSaque(BigDecimal valorPretendidoSaque, EstoqueCedulas estoque, EstrategiaDispensacaoEnum estrategia) {
+		try {
+			return reservar(valorPretendidoSaque, estoque, estrategias[estrategia.ordinal()]);
+		} catch (BusinessException e) {
+			metricas.registrarRejeicao(e);
+			throw e;
+		}
+	}
+	
+	private ReservaCedulas reservar(BigDecimal valorPretendidoSaque, EstoqueCedulas estoque, EstrategiaDispensacao estrategia) {
+		validarValorPretendidoSaque(valorPretendidoSaque);
+		
+		long valorSaque = converterParaValorPrimitivo(valorPretendidoSaque);
+		if (valorSaque == VALOR_FORA_DO_CALCULO_PRIMITIVO) {
+			throw new BusinessException(MSG_CEDULAS_INSUFICIENTES);
+		}
+		
+		int[] disponiveis = new int[TipoCedulaEnum.values().length];
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		
+		for (int tentativa = 0; tentativa < TENTATIVAS_RESERVA; tentativa++) {
+			estoque.copiarDisponiveis(disponiveis);
+			
+			if (!estrategia.calcular(valorSaque, quantidades, disponiveis)) {
+				throw new BusinessException(MSG_CEDULAS_INSUFICIENTES);
+			}
+			
+			ReservaCedulas reserva = estoque.reservar(quantidades);
+			if (reserva != null) {
+				return reserva;
 			}
 		}
 		
+		throw new BusinessException(MSG_CEDULAS_INSUFICIENTES);
+	}
+	
+	/**
+	 * Calcula e renderiza os resumos imutáveis de um valor; usado pelo cache de resumos em caso de falha.
+	 * @param valorSaque
+	 * @param modelo Modelo de resumo do idioma do cache.
+	 * @return
+	 */
+	protected List<String> calcularResumos(long valorSaque, ModeloResumo modelo) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		calcularCedulas(valorSaque, quantidades);
+		
+		return Collections.unmodifiableList(gerarResumos(quantidades, modelo));
+	}
+	
+	/**
+	 * Calcula a composição de um saque em reais inteiros, sem alocar BigDecimal.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link #VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @param quantidades Vetor fornecido pelo chamador, indexado pelo ordinal de {@link TipoCedulaEnum}, que recebe as quantidades de cédulas.
+	 * @return Valor residual que não pôde ser decomposto (zero para os valores pagáveis com o conjunto de cédulas).
+	 */
+	public long calcularCedulas(long valorSaque, int[] quantidades) {
+		return solucionador.calcular(valorSaque, quantidades);
+	}
+	
+	/**
+	 * Calcula a composição de um saque limitada às cédulas disponíveis de cada tipo.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link #VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @param quantidades Vetor que recebe as quantidades de cédulas, indexado pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param disponiveis Cédulas disponíveis de cada tipo, indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return Valor residual que não pôde ser decomposto com as cédulas disponíveis.
+	 */
+	public long calcularCedulas(long valorSaque, int[] quantidades, int[] disponiveis) {
+		return EstrategiaDispensacao.calcularGuloso(cedulasDecrescentes, valorSaque, quantidades, disponiveis);
+	}
+	
+	/**
+	 * Calcula a composição de um saque limitada ao estoque, como na reserva de um saque em terminal: em conjuntos canônicos
+	 * a decomposição gulosa é a primeira tentativa, e a busca exata só é usada quando ela falha.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link #VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @param quantidades Vetor que recebe as quantidades de cédulas, indexado pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param disponiveis Cédulas disponíveis de cada tipo, indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return false se nenhuma composição dentro do estoque paga o valor.
+	 */
+	public boolean calcularCedulasLimitadas(long valorSaque, int[] quantidades, int[] disponiveis) {
+		return calcularCedulasLimitadas(valorSaque, quantidades, disponiveis, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE);
+	}
+	
+	/**
+	 * Calcula a composição de um saque limitada ao estoque com as cédulas escolhidas pela estratégia informada.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link #VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @param quantidades Vetor que recebe as quantidades de cédulas, indexado pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param disponiveis Cédulas disponíveis de cada tipo, indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param estrategia Estratégia de dispensação.
+	 * @return false se nenhuma composição dentro do estoque paga o valor.
+	 */
+	public boolean calcularCedulasLimitadas(long valorSaque, int[] quantidades, int[] disponiveis, EstrategiaDispensacaoEnum estrategia) {
+		return estrategias[estrategia.ordinal()].calcular(valorSaque, quantidades, disponiveis);
+	}
+	
+	/**
+	 * Estratégia de dispensação montada para o conjunto de cédulas do serviço.
+	 * @param estrategia
+	 * @return
+	 */
+	public EstrategiaDispensacao getEstrategia(EstrategiaDispensacaoEnum estrategia) {
+		return estrategias[estrategia.ordinal()];
+	}
+	
+	/**
+	 * Calcula a composição de um saque em reais inteiros.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link #VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @return
+	 */
+	public ComposicaoSaque calcularComposicao(long valorSaque) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		calcularCedulas(valorSaque, quantidades);
+		
+		return new ComposicaoSaque(quantidades, conjunto);
+	}
+	
+	/**
+	 * Cache dos resumos renderizados no idioma padrão, com contadores de acertos e falhas.
+	 * @return
+	 */
+	public CacheResumosSaque getCacheResumos() {
+		return getCacheResumos(RenderizadorResumos.IDIOMA_PADRAO);
+	}
+	
+	public CacheResumosSaque getCacheResumos(Locale idioma) {
+		return cachesResumos[renderizador.getIndice(idioma)];
+	}
+	
+	/**
+	 * Idioma em que as mensagens são de fato geradas para o idioma pedido.
+	 * @param idioma
+	 * @return O idioma atendido correspondente, ou o {@link RenderizadorResumos#IDIOMA_PADRAO}.
+	 */
+	public Locale getIdiomaAtendido(Locale idioma) {
+		return renderizador.getIdioma(renderizador.getIndice(idioma));
+	}
+	
+	/**
+	 * Converte o valor do saque para reais inteiros quando ele cabe no cálculo primitivo.
+	 * @param valorSaque
+	 * @return Valor em reais ou {@link #VALOR_FORA_DO_CALCULO_PRIMITIVO}.
+	 */
+	protected long converterParaValorPrimitivo(BigDecimal valorSaque) {
+		if (valorSaque.signum() < 0 || valorSaque.compareTo(VALOR_MAXIMO_CALCULO_PRIMITIVO_DECIMAL) > 0) {
+			return VALOR_FORA_DO_CALCULO_PRIMITIVO;
+		}
+		
+		// para escala zero (caso comum), longValue não aloca
+		return valorSaque.longValue();
+	}
+	
+	/**
+	 * Cálculo das cédulas em BigDecimal, usado apenas para valores que não cabem no cálculo primitivo:
+	 * somente a quantidade excedente de cédulas de maior valor é calculada em BigDecimal; o resto vem da tabela do solucionador.
+	 * @param valorSaque Valor já validado.
+	 * @return
+	 */
+	private List<String> calcularCedulasComBigDecimal(BigDecimal valorSaque, ModeloResumo modelo) {
+		BigDecimal excedente = getQuantidadeExcedente(valorSaque);
+		long resto = valorSaque.subtract(maiorCedula.getValor().multiply(excedente)).longValue();
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		solucionador.calcular(resto, quantidades);
+		
+		List<String> resumos = new ArrayList<>(cedulasDecrescentes.length);
+		for (TipoCedulaEnum tipoCedula : cedulasDecrescentes) {
+			int quantidadeDeCedulas = quantidades[tipoCedula.ordinal()];
+			
+			if (tipoCedula == maiorCedula) {
+				BigInteger quantidadeTotal = excedente.toBigInteger().add(BigInteger.valueOf(quantidadeDeCedulas));
+				resumos.add(modelo.renderizar(tipoCedula, quantidadeTotal));
+			} else if (quantidadeDeCedulas > 0) {
+				resumos.add(modelo.renderizar(tipoCedula, quantidadeDeCedulas));
+			}
+		}
+		
+		return resumos;
+	}
+	
+	/**
+	 * Quantidade de cédulas de maior valor retiradas antes da consulta à tabela do solucionador, para valores em BigDecimal.
+	 * @param valorSaque
+	 * @return
+	 */
+	private BigDecimal getQuantidadeExcedente(BigDecimal valorSaque) {
+		BigDecimal excedente = valorSaque.subtract(limiteTabela).divide(maiorCedula.getValor(), 0, RoundingMode.CEILING);
+		return excedente.signum() > 0 ? excedente : BigDecimal.ZERO;
+	}
+	
+	/**
+	 * Cria os detalhamentos de uma composição, em ordem decrescente de valor de face.
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return
+	 */
+	protected List<String> gerarResumos(int[] quantidades) {
+		return gerarResumos(quantidades, renderizador.getModelo(RenderizadorResumos.IDIOMA_PADRAO));
+	}
+	
+	/**
+	 * Cria os detalhamentos de uma composição em um idioma, em ordem decrescente de valor de face.
+	 * @param quantidades Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param modelo
+	 * @return
+	 */
+	protected List<String> gerarResumos(int[] quantidades, ModeloResumo modelo) {
+		long inicio = System.nanoTime();
+		List<String> resumos = new ArrayList<>(cedulasDecrescentes.length);
+		
+		for (TipoCedulaEnum tipoCedula : cedulasDecrescentes) {
+			int quantidadeDeCedulas = quantidades[tipoCedula.ordinal()];
+			if (quantidadeDeCedulas > 0) {
+				resumos.add(modelo.renderizar(tipoCedula, quantidadeDeCedulas));
+			}
+		}
+		
+		metricas.registrarResumo(System.nanoTime() - inicio);
 		return resumos;
 	}
 	
 	/**
-	 * Cria o detalhamento sobre um tipo e respectiva quantidade de cédulas a serem dispensadas em um saque.
+	 * Cria os detalhamentos de uma composição, em ordem decrescente de valor de face.
+	 * @param composicao
+	 * @return
+	 */
+	public List<String> gerarResumos(ComposicaoSaque composicao) {
+		return gerarResumos(composicao, RenderizadorResumos.IDIOMA_PADRAO);
+	}
+	
+	/**
+	 * Cria os detalhamentos de uma composição em um idioma, em ordem decrescente de valor de face.
+	 * @param composicao
+	 * @param idioma
+	 * @return
+	 */
+	public List<String> gerarResumos(ComposicaoSaque composicao, Locale idioma) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		composicao.copiarQuantidades(quantidades);
+		
+		return gerarResumos(quantidades, renderizador.getModelo(idioma));
+	}
+	
+	/**
+	 * Cria o detalhamento, no idioma padrão, sobre um tipo e respectiva quantidade de cédulas a serem dispensadas em um saque.
 	 * @param tipoCedula
 	 * @param quantidadeDeCedulas
 	 * @return
 	 */
-	protected String gerarResumo(TipoCedulaEnum tipoCedula, Integer quantidadeDeCedulas) {
-		StringBuilder resumo = new StringBuilder("Entregar ");
-		
-		resumo.append(quantidadeDeCedulas);
-		resumo.append(" cédula(s) de R$");
-		resumo.append(tipoCedula.getValorFaceCedula());
-		resumo.append(",00.");
-
-		return resumo.toString();
+	protected String gerarResumo(TipoCedulaEnum tipoCedula, Number quantidadeDeCedulas) {
+		return renderizador.getModelo(RenderizadorResumos.IDIOMA_PADRAO).renderizar(tipoCedula, quantidadeDeCedulas);
 	}
 	
 	/**
@@ -75,17 +536,86 @@ public class SaqueService {
 	 * @param valorPretendidoSaque
 	 */
 	protected void validarValorPretendidoSaque(BigDecimal valorPretendidoSaque) {
-		BigDecimal dez = new BigDecimal(TipoCedulaEnum.CEDULA_10.getValorFaceCedula());
+		ResultadoValidacaoSaqueEnum resultado = validar(valorPretendidoSaque);
 		
+		if (!resultado.isValido()) {
+			throw getExcecao(resultado);
+		}
+	}
+	
+	/**
+	 * Valida o valor solicitado de saque sem lançar exceção.
+	 * @param valorPretendidoSaque
+	 * @return O resultado da validação; as rejeições seguem a ordem de {@link #validarValorPretendidoSaque(BigDecimal)}.
+	 */
+	public ResultadoValidacaoSaqueEnum validar(BigDecimal valorPretendidoSaque) {
 		if (valorPretendidoSaque == null) {
-			throw new BusinessException(MSG_VALOR_SAQUE_OBRIGATORIO);
+			return ResultadoValidacaoSaqueEnum.VALOR_SAQUE_OBRIGATORIO;
 		} else if (valorPretendidoSaque.signum() < 1) {
-			throw new BusinessException(MSG_VALOR_SAQUE_MAIOR_QUE_ZERO);
-		} else if (valorPretendidoSaque.compareTo(dez) == -1) {
-			throw new BusinessException(MSG_VALOR_MINIMO_SAQUE);
-		} else if (valorPretendidoSaque.remainder(dez).compareTo(BigDecimal.ZERO) != 0) {
-			throw new BusinessException(MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO);
+			return ResultadoValidacaoSaqueEnum.VALOR_SAQUE_MAIOR_QUE_ZERO;
+		} else if (valorPretendidoSaque.compareTo(valorMinimoSaque) < 0) {
+			return ResultadoValidacaoSaqueEnum.VALOR_MINIMO_SAQUE;
+		}
+		
+		// escala zero e até 18 dígitos (caso comum): o resto é calculado em long, sem alocar
+		if (valorPretendidoSaque.scale() == 0 && valorPretendidoSaque.precision() <= PRECISAO_MAXIMA_LONG) {
+			return validarComposicao(valorPretendidoSaque.longValue());
+		} else if (valorPretendidoSaque.remainder(multiploSaque).signum() != 0) {
+			return ResultadoValidacaoSaqueEnum.VALOR_SAQUE_DEVE_SER_MULTIPLO;
+		}
+		
+		BigDecimal resto = valorPretendidoSaque.subtract(maiorCedula.getValor().multiply(getQuantidadeExcedente(valorPretendidoSaque)));
+		return solucionador.isPagavel(resto.longValue())
+				? ResultadoValidacaoSaqueEnum.VALIDO : ResultadoValidacaoSaqueEnum.VALOR_SAQUE_DEVE_SER_MULTIPLO;
+	}
+	
+	/**
+	 * Valida um valor de saque em reais inteiros sem lançar exceção.
+	 * @param valorSaque
+	 * @return
+	 */
+	public ResultadoValidacaoSaqueEnum validar(long valorSaque) {
+		if (valorSaque < 1) {
+			return ResultadoValidacaoSaqueEnum.VALOR_SAQUE_MAIOR_QUE_ZERO;
+		} else if (valorSaque < conjunto.getValorMinimoSaque()) {
+			return ResultadoValidacaoSaqueEnum.VALOR_MINIMO_SAQUE;
 		}
+		
+		return validarComposicao(valorSaque);
+	}
+	
+	/**
+	 * Verifica se o valor é múltiplo do mdc das cédulas e pagável com elas (em conjuntos não canônicos,
+	 * um múltiplo do mdc pode não ser pagável, como 3,00 com cédulas de 2,00 e 5,00).
+	 * @param valorSaque
+	 * @return
+	 */
+	private ResultadoValidacaoSaqueEnum validarComposicao(long valorSaque) {
+		return valorSaque % conjunto.getMultiploSaque() == 0 && solucionador.isPagavel(valorSaque)
+				? ResultadoValidacaoSaqueEnum.VALIDO : ResultadoValidacaoSaqueEnum.VALOR_SAQUE_DEVE_SER_MULTIPLO;
+	}
+	
+	/**
+	 * Exceção de uma rejeição da validação, com a mensagem de valor mínimo do conjunto de cédulas.
+	 * @param resultado
+	 * @return A exceção, ou null para {@link ResultadoValidacaoSaqueEnum#VALIDO}.
+	 */
+	public BusinessException getExcecao(ResultadoValidacaoSaqueEnum resultado) {
+		return resultado == ResultadoValidacaoSaqueEnum.VALOR_MINIMO_SAQUE ? rejeicaoValorMinimo : resultado.getExcecao();
+	}
+	
+	/**
+	 * Mensagem de uma rejeição da validação, com o valor mínimo do conjunto de cédulas.
+	 * @param resultado
+	 * @return
+	 */
+	public String getMensagem(ResultadoValidacaoSaqueEnum resultado) {
+		BusinessException excecao = getExcecao(resultado);
+		return excecao == null ? null : excecao.getMessage();
+	}
+	
+	public ConjuntoCedulas getConjuntoCedulas() {
+		return conjunto;
 	}
 	
 }
@@ -0,0 +1,32 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+
+/**
+ * Saque efetuado em um terminal: as cédulas entregues e a gravação do saque, que segue em segundo plano.
+ */
+public final class SaqueTerminal {
+	
+	private final ComposicaoSaque composicao;
+	
+	private final CompletableFuture<Void> gravacao;
+	
+	SaqueTerminal(ComposicaoSaque composicao, CompletableFuture<Void> gravacao) {
+		this.composicao = composicao;
+		this.gravacao = gravacao;
+	}
+	
+	public ComposicaoSaque getComposicao() {
+		return composicao;
+	}
+	
+	/**
+	 * Gravação do saque pela persistência dos saques. Uma falha não desfaz o saque, que já foi confirmado no terminal.
+	 * @return Futuro concluído quando o saque estiver gravado, ou com a falha da gravação.
+	 */
+	public CompletableFuture<Void> getGravacao() {
+		return gravacao;
+	}
+}
@@ -0,0 +1,349 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.model.EsgotamentoTerminal;
+
+/**
+ * Simulação do esgotamento das cédulas dos terminais a partir de trilhas históricas de saques ({@link TrilhaSaques}),
+ * com a mesma dispensação dos saques em terminal: validação do valor e composição limitada ao estoque pela estratégia
+ * de dispensação simulada ({@link EstrategiaDispensacao}), o que permite comparar o esgotamento entre as estratégias.
+ * <p>
+ * Os terminais são divididos em partições pelo hash do identificador, com uma tarefa por partição no {@link ForkJoinPool}.
+ * Cada tarefa percorre todas as trilhas, em ordem, pelas janelas mapeadas, e simula apenas os terminais da sua partição:
+ * o estado de um terminal pertence a uma única thread e os seus saques são aplicados na ordem das trilhas, sem
+ * sincronização. As trilhas não são carregadas no heap, e a memória usada é proporcional à quantidade de terminais.
+ * <p>
+ * As trilhas devem ser informadas em ordem cronológica, e cada uma deve estar em ordem cronológica para cada terminal.
+ */
+public class SimuladorEsgotamento {
+	
+	private static final int QUANTIDADE_TIPOS = TipoCedulaEnum.values().length;
+	
+	private final SaqueService saqueService;
+	
+	private final ForkJoinPool pool;
+	
+	private final EstrategiaDispensacao estrategia;
+	
+	/**
+	 * @param saqueService Serviço com o conjunto de cédulas da simulação.
+	 * @param pool Pool de execução; uma partição de terminais por nível de paralelismo.
+	 */
+	public SimuladorEsgotamento(SaqueService saqueService, ForkJoinPool pool) {
+		this(saqueService, pool, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE);
+	}
+	
+	/**
+	 * @param saqueService Serviço com o conjunto de cédulas da simulação.
+	 * @param pool Pool de execução; uma partição de terminais por nível de paralelismo.
+	 * @param estrategia Estratégia de dispensação de todos os terminais.
+	 */
+	public SimuladorEsgotamento(SaqueService saqueService, ForkJoinPool pool, EstrategiaDispensacaoEnum estrategia) {
+		this.saqueService = saqueService;
+		this.pool = pool;
+		this.estrategia = saqueService.getEstrategia(estrategia);
+	}
+	
+	/**
+	 * Simula os saques das trilhas sobre terminais abastecidos igualmente.
+	 * @param trilhas Arquivos CSV ou binários, em ordem cronológica.
+	 * @param abastecimento Cédulas de cada terminal no início, indexadas pelo ordinal de {@link TipoCedulaEnum};
+	 * tipos fora do conjunto de cédulas são ignorados.
+	 * @return Resultado de cada terminal, em ordem de identificador.
+	 * @throws IOException Se alguma trilha não puder ser lida.
+	 */
+	public List<EsgotamentoTerminal> simular(List<Path> trilhas, int[] abastecimento) throws IOException {
+		ConjuntoCedulas conjunto = saqueService.getConjuntoCedulas();
+		int[] abastecimentoConjunto = new int[QUANTIDADE_TIPOS];
+		for (TipoCedulaEnum tipoCedula : conjunto.getTiposDecrescentes()) {
+			abastecimentoConjunto[tipoCedula.ordinal()] = abastecimento[tipoCedula.ordinal()];
+		}
+		
+		int particoes = pool.getParallelism();
+		List<ForkJoinTask<List<EsgotamentoTerminal>>> tarefas = new ArrayList<>(particoes);
+		for (int particao = 0; particao < particoes; particao++) {
+			tarefas.add(pool.submit(new Particao(particao, particoes, trilhas, abastecimentoConjunto)));
+		}
+		
+		List<EsgotamentoTerminal> resultados = new ArrayList<>();
+		try {
+			for (ForkJoinTask<List<EsgotamentoTerminal>> tarefa : tarefas) {
+				resultados.addAll(tarefa.join());
+			}
+		} catch (UncheckedIOException e) {
+			tarefas.forEach(tarefa -> tarefa.cancel(true));
+			throw e.getCause();
+		}
+		
+		resultados.sort(Comparator.comparing(EsgotamentoTerminal::getTerminal));
+		return resultados;
+	}
+	
+	/**
+	 * Grava o resultado em CSV: uma linha por terminal com os saques atendidos e rejeitados e, para cada cédula do conjunto,
+	 * o instante de esgotamento (ISO-8601, vazio se não se esgotou) e as cédulas restantes.
+	 * @param resultados
+	 * @param conjunto
+	 * @param saida
+	 * @throws IOException
+	 */
+	public static void gravarRelatorio(List<EsgotamentoTerminal> resultados, ConjuntoCedulas conjunto, Writer saida) throws IOException {
+		TipoCedulaEnum[] tipos = conjunto.getTiposDecrescentes();
+		
+		saida.write("terminal,saques_atendidos,rejeitados_valor,rejeitados_cedulas");
+		for (TipoCedulaEnum tipoCedula : tipos) {
+			saida.write(",esgotamento_" + tipoCedula.getValorFaceCedula());
+		}
+		for (TipoCedulaEnum tipoCedula : tipos) {
+			saida.write(",restantes_" + tipoCedula.getValorFaceCedula());
+		}
+		saida.write('\n');
+		
+		StringBuilder linha = new StringBuilder();
+		for (EsgotamentoTerminal resultado : resultados) {
+			linha.setLength(0);
+			linha.append(resultado.getTerminal()).append(',')
+					.append(resultado.getSaquesAtendidos()).append(',')
+					.append(resultado.getRejeitadosPorValor()).append(',')
+					.append(resultado.getRejeitadosPorCedulas());
+			for (TipoCedulaEnum tipoCedula : tipos) {
+				long esgotamento = resultado.getEsgotamento(tipoCedula);
+				linha.append(',');
+				if (esgotamento != EsgotamentoTerminal.SEM_ESGOTAMENTO) {
+					linha.append(Instant.ofEpochMilli(esgotamento));
+				}
+			}
+			for (TipoCedulaEnum tipoCedula : tipos) {
+				linha.append(',').append(resultado.getRestantes(tipoCedula));
+			}
+			saida.append(linha).append('\n');
+		}
+	}
+	
+	/**
+	 * Execução pela linha de comando ({@code ./gradlew simularEsgotamento --args='trilha-1.csv trilha-2.bin'}).
+	 * <p>
+	 * Argumentos: trilhas em ordem cronológica. Propriedades de sistema: {@code simulacao.cedulas} (padrão 10,20,50,100),
+	 * {@code simulacao.abastecimento} (cédulas de cada tipo por terminal, padrão 2000), {@code simulacao.estrategia}
+	 * (estratégia de dispensação, padrão MENOR_QUANTIDADE) e {@code simulacao.relatorio} (padrão esgotamento.csv).
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		List<Integer> valores = new ArrayList<>();
+		for (String valor : System.getProperty("simulacao.cedulas", "10,20,50,100").split(",")) {
+			valores.add(Integer.valueOf(valor.trim()));
+		}
+		int[] abastecimento = new int[QUANTIDADE_TIPOS];
+		Arrays.fill(abastecimento, Integer.getInteger("simulacao.abastecimento", 2000));
+		EstrategiaDispensacaoEnum estrategia = EstrategiaDispensacaoEnum.valueOf(
+				System.getProperty("simulacao.estrategia", EstrategiaDispensacaoEnum.MENOR_QUANTIDADE.name()));
+		Path relatorio = Paths.get(System.getProperty("simulacao.relatorio", "esgotamento.csv"));
+		
+		List<Path> trilhas = new ArrayList<>();
+		for (String arquivo : args) {
+			trilhas.add(Paths.get(arquivo));
+		}
+		
+		ConjuntoCedulas conjunto = ConjuntoCedulas.de(valores);
+		SimuladorEsgotamento simulador = new SimuladorEsgotamento(new SaqueService(conjunto), ForkJoinPool.commonPool(), estrategia);
+		
+		long inicio = System.nanoTime();
+		List<EsgotamentoTerminal> resultados = simulador.simular(trilhas, abastecimento);
+		double segundos = (System.nanoTime() - inicio) / 1e9;
+		
+		long saques = 0;
+		long rejeitados = 0;
+		for (EsgotamentoTerminal resultado : resultados) {
+			saques += resultado.getSaquesAtendidos() + resultado.getRejeitados();
+			rejeitados += resultado.getRejeitados();
+		}
+		
+		try (Writer saida = Files.newBufferedWriter(relatorio, StandardCharsets.UTF_8)) {
+			gravarRelatorio(resultados, conjunto, saida);
+		}
+		System.out.println(String.format("%d terminais, %d saques (%d rejeitados) em %.2f s (%.0f saques/s); relatório: %s",
+				resultados.size(), saques, rejeitados, segundos, saques / segundos, relatorio.toAbsolutePath()));
+	}
+	
+	/**
+	 * Estado de um terminal durante a simulação, acessado por uma única thread.
+	 */
+	private static final class EstadoTerminal {
+		
+		private final byte[] terminal;
+		
+		private final int[] disponiveis;
+		
+		private final long[] esgotamentos = new long[QUANTIDADE_TIPOS];
+		
+		private long saquesAtendidos;
+		
+		private long rejeitadosPorValor;
+		
+		private long rejeitadosPorCedulas;
+		
+		private EstadoTerminal(byte[] terminal, int[] abastecimento) {
+			this.terminal = terminal;
+			this.disponiveis = abastecimento.clone();
+			Arrays.fill(esgotamentos, EsgotamentoTerminal.SEM_ESGOTAMENTO);
+		}
+		
+		private EsgotamentoTerminal getResultado() {
+			return new EsgotamentoTerminal(new String(terminal, StandardCharsets.UTF_8), saquesAtendidos, rejeitadosPorValor,
+					rejeitadosPorCedulas, disponiveis, esgotamentos);
+		}
+	}
+	
+	/**
+	 * Simulação dos terminais de uma partição: percorre todas as trilhas e aplica os saques dos seus terminais.
+	 * <p>
+	 * Os estados ficam em uma tabela de endereçamento aberto indexada pelos bytes do identificador, de modo que um
+	 * registro é localizado sem criar a String do terminal.
+	 */
+	private final class Particao extends RecursiveTask<List<EsgotamentoTerminal>> implements TrilhaSaques.Consumidor {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int particao;
+		
+		private final int particoes;
+		
+		private final List<Path> trilhas;
+		
+		private final int[] abastecimento;
+		
+		private final int[] quantidades = new int[QUANTIDADE_TIPOS];
+		
+		private EstadoTerminal[] estados = new EstadoTerminal[1024];
+		
+		private int[] hashes = new int[1024];
+		
+		private int quantidadeTerminais;
+		
+		private Particao(int particao, int particoes, List<Path> trilhas, int[] abastecimento) {
+			this.particao = particao;
+			this.particoes = particoes;
+			this.trilhas = trilhas;
+			this.abastecimento = abastecimento;
+		}
+		
+		@Override
+		protected List<EsgotamentoTerminal> compute() {
+			try {
+				for (Path trilha : trilhas) {
+					TrilhaSaques.percorrer(trilha, this);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			
+			List<EsgotamentoTerminal> resultados = new ArrayList<>(quantidadeTerminais);
+			for (EstadoTerminal estado : estados) {
+				if (estado != null) {
+					resultados.add(estado.getResultado());
+				}
+			}
+			return resultados;
+		}
+		
+		@Override
+		public void aceitar(TrilhaSaques.Registro registro) {
+			int hash = misturar(registro.getHashTerminal());
+			// os bits altos escolhem a partição e os baixos, a posição na tabela
+			if ((int) (((hash & 0xFFFFFFFFL) * particoes) >>> 32) != particao) {
+				return;
+			}
+			
+			EstadoTerminal estado = obter(registro, hash);
+			long centavos = registro.getValorCentavos();
+			long valorSaque = centavos / 100;
+			if (centavos == TrilhaSaques.VALOR_INVALIDO || centavos % 100 != 0
+					|| saqueService.validar(valorSaque) != ResultadoValidacaoSaqueEnum.VALIDO) {
+				estado.rejeitadosPorValor++;
+				return;
+			}
+			
+			int[] disponiveis = estado.disponiveis;
+			if (valorSaque > SaqueService.VALOR_MAXIMO_CALCULO_PRIMITIVO
+					|| !estrategia.calcular(valorSaque, quantidades, disponiveis)) {
+				estado.rejeitadosPorCedulas++;
+				return;
+			}
+			
+			for (int i = 0; i < QUANTIDADE_TIPOS; i++) {
+				if (quantidades[i] != 0) {
+					disponiveis[i] -= quantidades[i];
+					if (disponiveis[i] == 0) {
+						estado.esgotamentos[i] = registro.getInstante();
+					}
+				}
+			}
+			estado.saquesAtendidos++;
+		}
+		
+		private EstadoTerminal obter(TrilhaSaques.Registro registro, int hash) {
+			int mascara = estados.length - 1;
+			int posicao = hash & mascara;
+			EstadoTerminal estado;
+			while ((estado = estados[posicao]) != null) {
+				if (hashes[posicao] == hash && registro.isTerminal(estado.terminal)) {
+					return estado;
+				}
+				posicao = (posicao + 1) & mascara;
+			}
+			
+			estado = new EstadoTerminal(registro.copiarTerminal(), abastecimento);
+			estados[posicao] = estado;
+			hashes[posicao] = hash;
+			if (++quantidadeTerminais * 2 > estados.length) {
+				redimensionar();
+			}
+			return estado;
+		}
+		
+		private void redimensionar() {
+			EstadoTerminal[] estadosAnteriores = estados;
+			int[] hashesAnteriores = hashes;
+			estados = new EstadoTerminal[estadosAnteriores.length * 2];
+			hashes = new int[estados.length];
+			int mascara = estados.length - 1;
+			
+			for (int i = 0; i < estadosAnteriores.length; i++) {
+				if (estadosAnteriores[i] != null) {
+					int posicao = hashesAnteriores[i] & mascara;
+					while (estados[posicao] != null) {
+						posicao = (posicao + 1) & mascara;
+					}
+					estados[posicao] = estadosAnteriores[i];
+					hashes[posicao] = hashesAnteriores[i];
+				}
+			}
+		}
+	}
+	
+	private static int misturar(int hash) {
+		int h = hash * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
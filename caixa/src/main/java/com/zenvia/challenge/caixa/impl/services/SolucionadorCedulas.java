@@ -0,0 +1,207 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.Arrays;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Cálculo da composição com o menor número de cédulas de um {@link ConjuntoCedulas}, sem limite de estoque.
+ * <p>
+ * Toda composição é montada como uma quantidade excedente de cédulas de maior valor mais uma composição
+ * pré-calculada para o resto, de modo que o cálculo de um saque é O(tipos) e não aloca. O conjunto é analisado
+ * uma única vez por {@link #compilar(ConjuntoCedulas)}:
+ * <ul>
+ * <li>se a decomposição gulosa é ótima para todos os valores (conjunto canônico, como 10,00, 20,00, 50,00 e 100,00),
+ * basta a tabela dos restos inferiores à maior cédula ({@link SolucionadorCedulasGuloso});</li>
+ * <li>caso contrário (por exemplo, com cédulas de 2,00 e 5,00 o guloso não paga 6,00 nem 8,00), as composições ótimas
+ * são calculadas por programação dinâmica até o limite a partir do qual toda composição ótima contém a maior
+ * cédula ({@link SolucionadorCedulasTabelado}).</li>
+ * </ul>
+ * O limite vem de um argumento de troca: em uma composição ótima sem a maior cédula, qualquer grupo de
+ * {@code maior / mdc} cédulas menores contém um subconjunto cuja soma é múltipla da maior cédula, e trocá-lo por
+ * cédulas de maior valor reduziria o total; portanto uma composição sem a maior cédula tem menos de {@code maior / mdc}
+ * cédulas, todas no máximo da segunda maior. Acima de {@code (maior / mdc - 1) * segunda + maior} o valor é reduzido
+ * pela maior cédula até cair na tabela, tanto no guloso quanto na programação dinâmica, e a comparação entre os dois
+ * nesse intervalo decide se o conjunto é canônico.
+ */
+public abstract class SolucionadorCedulas {
+	
+	private static final int INALCANCAVEL = Integer.MAX_VALUE;
+	
+	protected final TipoCedulaEnum[] cedulasDecrescentes;
+	
+	protected final int mdc;
+	
+	private final int valorMaiorCedula;
+	
+	private final int ordinalMaiorCedula;
+	
+	private final long limiteTabela;
+	
+	protected SolucionadorCedulas(ConjuntoCedulas conjunto, long limiteTabela) {
+		this.cedulasDecrescentes = conjunto.getTiposDecrescentes();
+		this.mdc = conjunto.getMultiploSaque();
+		this.valorMaiorCedula = conjunto.getMaiorCedula().getValorFaceCedula();
+		this.ordinalMaiorCedula = conjunto.getMaiorCedula().ordinal();
+		this.limiteTabela = limiteTabela;
+	}
+	
+	/**
+	 * Analisa o conjunto de cédulas e monta o solucionador especializado para ele.
+	 * @param conjunto
+	 * @return {@link SolucionadorCedulasGuloso} para conjuntos canônicos, {@link SolucionadorCedulasTabelado} para os demais.
+	 */
+	public static SolucionadorCedulas compilar(ConjuntoCedulas conjunto) {
+		TipoCedulaEnum[] tipos = conjunto.getTiposDecrescentes();
+		int mdc = conjunto.getMultiploSaque();
+		int maior = tipos[0].getValorFaceCedula();
+		int segunda = tipos.length > 1 ? tipos[1].getValorFaceCedula() : 0;
+		int limite = (maior / mdc - 1) * segunda + maior;
+		int posicoes = limite / mdc + 1;
+		
+		// programação dinâmica: menor quantidade de cédulas de cada múltiplo do mdc até o limite
+		int[] minimo = new int[posicoes];
+		int[] ultimoTipo = new int[posicoes];
+		Arrays.fill(minimo, 1, posicoes, INALCANCAVEL);
+		for (int i = 1; i < posicoes; i++) {
+			for (int t = 0; t < tipos.length; t++) {
+				int passo = tipos[t].getValorFaceCedula() / mdc;
+				if (passo <= i && minimo[i - passo] != INALCANCAVEL && minimo[i - passo] + 1 < minimo[i]) {
+					minimo[i] = minimo[i - passo] + 1;
+					ultimoTipo[i] = t;
+				}
+			}
+		}
+		
+		if (isGulosoOtimo(tipos, mdc, minimo)) {
+			return new SolucionadorCedulasGuloso(conjunto);
+		}
+		
+		int[][] composicoes = new int[posicoes][];
+		composicoes[0] = new int[TipoCedulaEnum.values().length];
+		for (int i = 1; i < posicoes; i++) {
+			if (minimo[i] != INALCANCAVEL) {
+				TipoCedulaEnum tipoCedula = tipos[ultimoTipo[i]];
+				composicoes[i] = composicoes[i - tipoCedula.getValorFaceCedula() / mdc].clone();
+				composicoes[i][tipoCedula.ordinal()]++;
+			}
+		}
+		
+		return new SolucionadorCedulasTabelado(conjunto, limite, composicoes);
+	}
+	
+	/**
+	 * Compara a decomposição gulosa com a ótima em cada posição da tabela.
+	 * @return true se o guloso paga exatamente todo valor pagável, sempre com o menor número de cédulas.
+	 */
+	private static boolean isGulosoOtimo(TipoCedulaEnum[] tipos, int mdc, int[] minimo) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		
+		for (int i = 0; i < minimo.length; i++) {
+			long residuo = calcularCedulasPorTipo(tipos, (long) i * mdc, quantidades);
+			boolean pagavel = minimo[i] != INALCANCAVEL;
+			
+			if (pagavel != (residuo == 0) || (pagavel && somar(quantidades) != minimo[i])) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Calcula a composição de um saque.
+	 * @param valorSaque Valor do saque em reais, entre zero e {@link SaqueService#VALOR_MAXIMO_CALCULO_PRIMITIVO}.
+	 * @param quantidades Vetor que recebe as quantidades de cédulas, indexado pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return Valor residual que não pôde ser decomposto (zero quando o valor é pagável com o conjunto).
+	 */
+	public long calcular(long valorSaque, int[] quantidades) {
+		long excedente = getQuantidadeExcedente(valorSaque);
+		int[] composicaoResto = getComposicaoResto(valorSaque - excedente * valorMaiorCedula);
+		
+		if (composicaoResto == null) {
+			return calcularSemComposicaoExata(valorSaque, quantidades);
+		}
+		
+		System.arraycopy(composicaoResto, 0, quantidades, 0, composicaoResto.length);
+		quantidades[ordinalMaiorCedula] += (int) excedente;
+		return 0L;
+	}
+	
+	/**
+	 * Indica se o valor é pagável com as cédulas do conjunto, sem calcular a composição.
+	 * @param valorSaque Valor do saque em reais, a partir de zero.
+	 * @return
+	 */
+	public boolean isPagavel(long valorSaque) {
+		return getComposicaoResto(valorSaque - getQuantidadeExcedente(valorSaque) * valorMaiorCedula) != null;
+	}
+	
+	/**
+	 * Quantidade de cédulas de maior valor retiradas antes da consulta à tabela.
+	 * @param valorSaque Valor do saque em reais, a partir de zero.
+	 * @return
+	 */
+	public long getQuantidadeExcedente(long valorSaque) {
+		return valorSaque > limiteTabela ? (valorSaque - limiteTabela + valorMaiorCedula - 1) / valorMaiorCedula : 0L;
+	}
+	
+	/**
+	 * Maior resto coberto pela tabela; valores acima dele são reduzidos pela maior cédula.
+	 * @return
+	 */
+	public long getLimiteTabela() {
+		return limiteTabela;
+	}
+	
+	/**
+	 * Composição pré-calculada de um resto, compartilhada entre as chamadas e que não deve ser alterada.
+	 * @param resto Valor entre zero e {@link #getLimiteTabela()}.
+	 * @return Quantidades indexadas pelo ordinal de {@link TipoCedulaEnum}, ou null se o resto não for pagável.
+	 */
+	public abstract int[] getComposicaoResto(long resto);
+	
+	/**
+	 * Indica se o conjunto é canônico, isto é, se a decomposição gulosa é sempre ótima.
+	 * @return
+	 */
+	public abstract boolean isGuloso();
+	
+	/**
+	 * Cálculo para os valores que não são pagáveis com o conjunto.
+	 * @param valorSaque
+	 * @param quantidades
+	 * @return Valor residual, diferente de zero.
+	 */
+	protected abstract long calcularSemComposicaoExata(long valorSaque, int[] quantidades);
+	
+	/**
+	 * Decomposição gulosa, tipo a tipo, do maior para o menor valor de face.
+	 * @param tipos Tipos de cédula em ordem decrescente de valor de face.
+	 * @param valorSaque
+	 * @param quantidades
+	 * @return Valor residual que não pôde ser decomposto.
+	 */
+	protected static long calcularCedulasPorTipo(TipoCedulaEnum[] tipos, long valorSaque, int[] quantidades) {
+		long valorADecompor = valorSaque;
+		
+		for (TipoCedulaEnum tipoCedula : tipos) {
+			int valorFace = tipoCedula.getValorFaceCedula();
+			int quantidadeDeCedulas = (int) (valorADecompor / valorFace);
+			
+			quantidades[tipoCedula.ordinal()] = quantidadeDeCedulas;
+			valorADecompor -= (long) quantidadeDeCedulas * valorFace;
+		}
+		
+		return valorADecompor;
+	}
+	
+	private static int somar(int[] quantidades) {
+		int total = 0;
+		for (int quantidade : quantidades) {
+			total += quantidade;
+		}
+		return total;
+	}
+}
@@ -0,0 +1,50 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Solucionador de conjuntos canônicos: cédulas de maior valor mais a composição gulosa pré-calculada do resto,
+ * indexada por resto / mdc (para 10,00, 20,00, 50,00 e 100,00: 0,00, 10,00, ..., 90,00).
+ */
+class SolucionadorCedulasGuloso extends SolucionadorCedulas {
+	
+	/**
+	 * Composições gulosas dos restos inferiores à maior cédula, com os respectivos resíduos.
+	 */
+	private final int[][] tabelaRestos;
+	
+	private final long[] residuos;
+	
+	SolucionadorCedulasGuloso(ConjuntoCedulas conjunto) {
+		super(conjunto, conjunto.getMaiorCedula().getValorFaceCedula() - 1L);
+		
+		int posicoes = conjunto.getMaiorCedula().getValorFaceCedula() / mdc;
+		this.tabelaRestos = new int[posicoes][];
+		this.residuos = new long[posicoes];
+		for (int i = 0; i < posicoes; i++) {
+			tabelaRestos[i] = new int[TipoCedulaEnum.values().length];
+			residuos[i] = calcularCedulasPorTipo(cedulasDecrescentes, (long) i * mdc, tabelaRestos[i]);
+		}
+	}
+	
+	@Override
+	public int[] getComposicaoResto(long resto) {
+		if (resto % mdc != 0) {
+			return null;
+		}
+		
+		int indice = (int) (resto / mdc);
+		return residuos[indice] == 0 ? tabelaRestos[indice] : null;
+	}
+	
+	@Override
+	public boolean isGuloso() {
+		return true;
+	}
+	
+	@Override
+	protected long calcularSemComposicaoExata(long valorSaque, int[] quantidades) {
+		return calcularCedulasPorTipo(cedulasDecrescentes, valorSaque, quantidades);
+	}
+}
@@ -0,0 +1,130 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+/**
+ * Solucionador da composição com o menor número de cédulas quando o estoque de cada tipo é limitado,
+ * usado quando a decomposição gulosa não encontra uma composição pagável.
+ * <p>
+ * Busca com poda (branch-and-bound) do maior para o menor valor de face. Para cada tipo de cédula basta
+ * testar as {@code valorFace / mdc} maiores quantidades possíveis: qualquer conjunto com essa quantidade
+ * de cédulas menores contém um subconjunto cuja soma é múltipla do valor de face, e trocá-lo por cédulas
+ * maiores reduziria o total de cédulas. As tabelas que dependem apenas do conjunto de cédulas (valores,
+ * janelas e mdc) são montadas uma única vez; a única informação que depende do estoque, a capacidade das
+ * cédulas restantes, é obtida do estoque corrente em O(tipos) a cada chamada.
+ */
+public class SolucionadorCedulasLimitadas {
+	
+	private final int[] valores;
+	
+	private final int[] ordinais;
+	
+	private final int[] janelas;
+	
+	private final int[] mdcSufixo;
+	
+	/**
+	 * @param cedulasDecrescentes Tipos de cédula em ordem decrescente de valor de face.
+	 */
+	public SolucionadorCedulasLimitadas(TipoCedulaEnum[] cedulasDecrescentes) {
+		int quantidadeTipos = cedulasDecrescentes.length;
+		this.valores = new int[quantidadeTipos];
+		this.ordinais = new int[quantidadeTipos];
+		this.janelas = new int[quantidadeTipos];
+		this.mdcSufixo = new int[quantidadeTipos];
+		
+		for (int i = 0; i < quantidadeTipos; i++) {
+			valores[i] = cedulasDecrescentes[i].getValorFaceCedula();
+			ordinais[i] = cedulasDecrescentes[i].ordinal();
+		}
+		
+		int mdc = 0;
+		for (int i = quantidadeTipos - 1; i >= 0; i--) {
+			mdc = mdc(mdc, valores[i]);
+			mdcSufixo[i] = mdc;
+		}
+		for (int i = 0; i < quantidadeTipos; i++) {
+			janelas[i] = valores[i] / mdcSufixo[0];
+		}
+	}
+	
+	/**
+	 * Procura a composição com o menor número de cédulas dentro do estoque.
+	 * @param valorSaque Valor do saque em reais.
+	 * @param disponiveis Cédulas disponíveis, indexadas pelo ordinal de {@link TipoCedulaEnum}.
+	 * @param quantidades Vetor que recebe a composição encontrada, indexado pelo ordinal de {@link TipoCedulaEnum}.
+	 * @return false se nenhuma composição dentro do estoque paga o valor.
+	 */
+	public boolean resolver(long valorSaque, int[] disponiveis, int[] quantidades) {
+		Busca busca = new Busca(disponiveis);
+		busca.buscar(0, valorSaque, 0L);
+		
+		if (busca.melhorTotal == Long.MAX_VALUE) {
+			return false;
+		}
+		
+		System.arraycopy(busca.melhor, 0, quantidades, 0, quantidades.length);
+		return true;
+	}
+	
+	private static int mdc(int a, int b) {
+		return b == 0 ? a : mdc(b, a % b);
+	}
+	
+	/**
+	 * Estado de uma busca: composição corrente, melhor composição e capacidade do estoque por sufixo.
+	 */
+	private final class Busca {
+		
+		private final int[] disponiveis;
+		
+		private final long[] capacidadeSufixo;
+		
+		private final int[] atual;
+		
+		private final int[] melhor;
+		
+		private long melhorTotal = Long.MAX_VALUE;
+		
+		private Busca(int[] disponiveis) {
+			this.disponiveis = disponiveis;
+			this.capacidadeSufixo = new long[valores.length + 1];
+			this.atual = new int[disponiveis.length];
+			this.melhor = new int[disponiveis.length];
+			
+			for (int i = valores.length - 1; i >= 0; i--) {
+				capacidadeSufixo[i] = capacidadeSufixo[i + 1] + (long) valores[i] * disponiveis[ordinais[i]];
+			}
+		}
+		
+		private void buscar(int indice, long resto, long totalCedulas) {
+			if (resto == 0) {
+				if (totalCedulas < melhorTotal) {
+					melhorTotal = totalCedulas;
+					System.arraycopy(atual, 0, melhor, 0, atual.length);
+				}
+				return;
+			}
+			
+			if (indice == valores.length || resto % mdcSufixo[indice] != 0 || resto > capacidadeSufixo[indice]) {
+				return;
+			}
+			
+			int valorFace = valores[indice];
+			// limite inferior: nenhuma composição do resto usa menos cédulas do que só com a cédula corrente
+			if (totalCedulas + (resto + valorFace - 1) / valorFace >= melhorTotal) {
+				return;
+			}
+			
+			int ordinal = ordinais[indice];
+			int maximo = (int) Math.min(disponiveis[ordinal], resto / valorFace);
+			int minimo = Math.max(0, maximo - janelas[indice] + 1);
+			
+			for (int quantidade = maximo; quantidade >= minimo; quantidade--) {
+				atual[ordinal] = quantidade;
+				buscar(indice + 1, resto - (long) quantidade * valorFace, totalCedulas + quantidade);
+			}
+			atual[ordinal] = 0;
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.Arrays;
+
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Solucionador de conjuntos não canônicos: composições ótimas calculadas por programação dinâmica na inicialização,
+ * indexadas por resto / mdc. Para as cédulas de 2,00 a 200,00 a tabela tem pouco mais de 20 mil posições.
+ */
+class SolucionadorCedulasTabelado extends SolucionadorCedulas {
+	
+	/**
+	 * Composições ótimas de cada múltiplo do mdc até o limite; null para os valores não pagáveis.
+	 */
+	private final int[][] composicoes;
+	
+	SolucionadorCedulasTabelado(ConjuntoCedulas conjunto, long limiteTabela, int[][] composicoes) {
+		super(conjunto, limiteTabela);
+		this.composicoes = composicoes;
+	}
+	
+	@Override
+	public int[] getComposicaoResto(long resto) {
+		return resto % mdc == 0 ? composicoes[(int) (resto / mdc)] : null;
+	}
+	
+	@Override
+	public boolean isGuloso() {
+		return false;
+	}
+	
+	/**
+	 * Sem composição exata nada é decomposto: uma composição parcial ótima não é definida para esses valores.
+	 */
+	@Override
+	protected long calcularSemComposicaoExata(long valorSaque, int[] quantidades) {
+		Arrays.fill(quantidades, 0);
+		return valorSaque;
+	}
+}
@@ -0,0 +1,166 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+/**
+ * Composições candidatas de cada múltiplo do mdc até um limite, calculadas na inicialização para as estratégias
+ * de dispensação que escolhem entre alternativas à composição com o menor número de cédulas.
+ * <p>
+ * Para cada valor são enumeradas as composições com até {@code folga} cédulas além do mínimo (calculado por programação
+ * dinâmica), ordenadas pela preferência da estratégia e limitadas às {@code maximoCandidatos} primeiras. A folga
+ * limita a enumeração: uma composição muito mais longa que a mínima não é uma alternativa razoável para nenhuma política.
+ */
+final class TabelaComposicoesCandidatas {
+	
+	private static final int INALCANCAVEL = Integer.MAX_VALUE;
+	
+	private static final int[][] SEM_CANDIDATOS = new int[0][];
+	
+	private final int mdc;
+	
+	private final long limite;
+	
+	/**
+	 * Candidatas de cada múltiplo do mdc, indexadas por valor / mdc; cada composição é indexada pelo ordinal de {@link TipoCedulaEnum}.
+	 */
+	private final int[][][] candidatas;
+	
+	/**
+	 * @param conjunto
+	 * @param limite Maior valor da tabela, em reais.
+	 * @param folga Cédulas além do mínimo admitidas em uma candidata.
+	 * @param maximoCandidatos Candidatas mantidas por valor.
+	 * @param preferencia Ordem das candidatas, da preferida para a última.
+	 */
+	TabelaComposicoesCandidatas(ConjuntoCedulas conjunto, long limite, int folga, int maximoCandidatos, Comparator<int[]> preferencia) {
+		TipoCedulaEnum[] tipos = conjunto.getTiposDecrescentes();
+		this.mdc = conjunto.getMultiploSaque();
+		this.limite = limite;
+		
+		int posicoes = (int) (limite / mdc) + 1;
+		int[] minimo = new int[posicoes];
+		Arrays.fill(minimo, 1, posicoes, INALCANCAVEL);
+		for (int i = 1; i < posicoes; i++) {
+			for (TipoCedulaEnum tipoCedula : tipos) {
+				int passo = tipoCedula.getValorFaceCedula() / mdc;
+				if (passo <= i && minimo[i - passo] != INALCANCAVEL) {
+					minimo[i] = Math.min(minimo[i], minimo[i - passo] + 1);
+				}
+			}
+		}
+		
+		this.candidatas = new int[posicoes][][];
+		List<int[]> enumeradas = new ArrayList<>();
+		for (int i = 0; i < posicoes; i++) {
+			if (minimo[i] == INALCANCAVEL) {
+				candidatas[i] = SEM_CANDIDATOS;
+				continue;
+			}
+			
+			enumeradas.clear();
+			enumerar(tipos, 0, (long) i * mdc, minimo[i] + folga, new int[TipoCedulaEnum.values().length], enumeradas);
+			enumeradas.sort(preferencia);
+			candidatas[i] = enumeradas.subList(0, Math.min(maximoCandidatos, enumeradas.size())).toArray(SEM_CANDIDATOS);
+		}
+	}
+	
+	/**
+	 * Enumera as composições do resto com os tipos a partir do índice, com no máximo o orçamento de cédulas.
+	 */
+	private static void enumerar(TipoCedulaEnum[] tipos, int indice, long resto, int orcamento, int[] atual, List<int[]> enumeradas) {
+		if (resto == 0) {
+			enumeradas.add(atual.clone());
+			return;
+		}
+		if (indice == tipos.length) {
+			return;
+		}
+		
+		int valorFace = tipos[indice].getValorFaceCedula();
+		int ordinal = tipos[indice].ordinal();
+		int maximo = (int) Math.min(resto / valorFace, orcamento);
+		int valorFaceSeguinte = indice + 1 < tipos.length ? tipos[indice + 1].getValorFaceCedula() : 0;
+		
+		for (int quantidade = maximo; quantidade >= 0; quantidade--) {
+			long restante = resto - (long) quantidade * valorFace;
+			// limite inferior: o restante exige ao menos restante / cédula seguinte cédulas
+			if (restante > 0 && (valorFaceSeguinte == 0
+					|| quantidade + (restante + valorFaceSeguinte - 1) / valorFaceSeguinte > orcamento)) {
+				continue;
+			}
+			atual[ordinal] = quantidade;
+			enumerar(tipos, indice + 1, restante, orcamento - quantidade, atual, enumeradas);
+		}
+		atual[ordinal] = 0;
+	}
+	
+	/**
+	 * Candidatas de um valor, compartilhadas entre as chamadas e que não devem ser alteradas.
+	 * @param valor Valor entre zero e {@link #getLimite()}.
+	 * @return Composições em ordem de preferência; vazio se o valor não for pagável.
+	 */
+	int[][] getCandidatas(long valor) {
+		return valor % mdc == 0 ? candidatas[(int) (valor / mdc)] : SEM_CANDIDATOS;
+	}
+	
+	long getLimite() {
+		return limite;
+	}
+	
+	/**
+	 * Total de candidatas da tabela.
+	 * @return
+	 */
+	int getQuantidadeCandidatas() {
+		int total = 0;
+		for (int[][] candidatasValor : candidatas) {
+			total += candidatasValor.length;
+		}
+		return total;
+	}
+	
+	/**
+	 * Quantidade de cédulas de uma composição.
+	 * @param composicao
+	 * @return
+	 */
+	static int contarCedulas(int[] composicao) {
+		int total = 0;
+		for (int quantidade : composicao) {
+			total += quantidade;
+		}
+		return total;
+	}
+	
+	/**
+	 * Menos cédulas primeiro; entre as de mesma quantidade, mais cédulas de maior valor.
+	 * @param tipos Tipos em ordem decrescente de valor de face.
+	 * @return
+	 */
+	static Comparator<int[]> menosCedulas(TipoCedulaEnum[] tipos) {
+		return Comparator.<int[]>comparingInt(TabelaComposicoesCandidatas::contarCedulas).thenComparing(maioresPrimeiro(tipos));
+	}
+	
+	/**
+	 * Ordem lexicográfica decrescente das quantidades, da maior para a menor cédula.
+	 * @param tipos Tipos em ordem decrescente de valor de face.
+	 * @return
+	 */
+	static Comparator<int[]> maioresPrimeiro(TipoCedulaEnum[] tipos) {
+		return (a, b) -> {
+			for (TipoCedulaEnum tipoCedula : tipos) {
+				int comparacao = Integer.compare(b[tipoCedula.ordinal()], a[tipoCedula.ordinal()]);
+				if (comparacao != 0) {
+					return comparacao;
+				}
+			}
+			return 0;
+		};
+	}
+}
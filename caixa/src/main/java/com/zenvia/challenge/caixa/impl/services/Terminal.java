@@ -0,0 +1,133 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+
+/**
+ * Estado de um terminal (caixa eletrônico físico) atendido pelo serviço.
+ * Cada terminal tem o seu próprio estado, de modo que saques em terminais diferentes não disputam recursos.
+ * <p>
+ * As operações que gravam eventos do terminal no journal (saques e abastecimentos) são contadas enquanto estão em
+ * andamento: um terminal só é dado como ativo depois que o seu cadastro foi gravado, e a retirada espera as operações
+ * em andamento antes de gravar a sua. Assim, nenhum evento de uma instância retirada chega ao journal depois da
+ * retirada, onde seria aplicado a um novo cadastro com o mesmo identificador.
+ */
+public class Terminal {
+	
+	/** Cadastro ainda não gravado no journal. */
+	private static final long PENDENTE = 1L << 62;
+	
+	/** Terminal retirado, ou em retirada. */
+	private static final long RETIRADO = 1L << 61;
+	
+	private static final long OPERACOES = RETIRADO - 1;
+	
+	private static final long PAUSA_RETIRADA_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+	
+	private final String id;
+	
+	private final EstoqueCedulas estoque;
+	
+	/**
+	 * Estratégia de dispensação dos saques que não informam outra; pode ser alterada com o terminal em operação.
+	 */
+	private volatile EstrategiaDispensacaoEnum estrategia;
+	
+	/**
+	 * Marcas {@link #PENDENTE} e {@link #RETIRADO} e quantidade de operações em andamento.
+	 */
+	private final AtomicLong situacao;
+	
+	public Terminal(String id, EstoqueCedulas estoque) {
+		this(id, estoque, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE);
+	}
+	
+	public Terminal(String id, EstoqueCedulas estoque, EstrategiaDispensacaoEnum estrategia) {
+		this(id, estoque, estrategia, false);
+	}
+	
+	/**
+	 * @param id
+	 * @param estoque
+	 * @param estrategia
+	 * @param pendente Se true, o terminal recusa operações até {@link #ativar()}.
+	 */
+	Terminal(String id, EstoqueCedulas estoque, EstrategiaDispensacaoEnum estrategia, boolean pendente) {
+		this.id = id;
+		this.estoque = estoque;
+		this.estrategia = estrategia;
+		this.situacao = new AtomicLong(pendente ? PENDENTE : 0);
+	}
+	
+	/**
+	 * Inicia uma operação que grava um evento do terminal no journal.
+	 * @return false se o terminal ainda não foi ativado ou já foi retirado; nesse caso nada deve ser gravado.
+	 */
+	boolean iniciarOperacao() {
+		long atual;
+		do {
+			atual = situacao.get();
+			if ((atual & (PENDENTE | RETIRADO)) != 0) {
+				return false;
+			}
+		} while (!situacao.compareAndSet(atual, atual + 1));
+		return true;
+	}
+	
+	void concluirOperacao() {
+		situacao.decrementAndGet();
+	}
+	
+	/**
+	 * Libera as operações de um terminal cujo cadastro já foi gravado.
+	 */
+	void ativar() {
+		situacao.getAndUpdate(atual -> atual & ~PENDENTE);
+	}
+	
+	/**
+	 * Marca o terminal como retirado e espera as operações em andamento terminarem.
+	 * @return false se o terminal não estava ativo.
+	 */
+	boolean retirar() {
+		long atual;
+		do {
+			atual = situacao.get();
+			if ((atual & (PENDENTE | RETIRADO)) != 0) {
+				return false;
+			}
+		} while (!situacao.compareAndSet(atual, atual | RETIRADO));
+		
+		// as operações em andamento esperam apenas a gravação do próprio evento no journal
+		while ((situacao.get() & OPERACOES) != 0) {
+			LockSupport.parkNanos(PAUSA_RETIRADA_NANOS);
+		}
+		return true;
+	}
+	
+	/**
+	 * Desfaz uma retirada cuja gravação no journal falhou.
+	 */
+	void cancelarRetirada() {
+		situacao.getAndUpdate(atual -> atual & ~RETIRADO);
+	}
+	
+	public String getId() {
+		return id;
+	}
+	
+	public EstoqueCedulas getEstoque() {
+		return estoque;
+	}
+	
+	public EstrategiaDispensacaoEnum getEstrategia() {
+		return estrategia;
+	}
+	
+	public void setEstrategia(EstrategiaDispensacaoEnum estrategia) {
+		this.estrategia = estrategia;
+	}
+}
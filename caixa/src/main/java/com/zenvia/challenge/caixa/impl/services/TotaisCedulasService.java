@@ -0,0 +1,324 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.config.CedulasProperties;
+import com.zenvia.challenge.caixa.config.ConciliacaoProperties;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.model.FechamentoCedulas;
+import com.zenvia.challenge.caixa.impl.model.TotaisCedulas;
+
+/**
+ * Totais de cédulas dispensadas na data de movimento, por terminal e no agregado, para a conciliação.
+ * <p>
+ * Os saques são somados em um segmento ativo de {@link LongAdder}s: cada contador se espalha em células por thread
+ * quando há disputa, e o registro de um saque não usa trava nem disputa uma mesma posição de memória com os demais.
+ * Consultas e a virada do dia trocam o segmento ativo por um novo, esperam os saques em andamento no antigo terminarem
+ * (contadores de entrada e saída do segmento) e o incorporam aos totais consolidados. Assim a fotografia é consistente,
+ * com cada saque inteiro ou ausente, e a virada do dia não perde nenhum saque concorrente: o que chega depois da troca
+ * é somado ao novo segmento, que já pertence à data seguinte.
+ * <p>
+ * Consultas e viradas são serializadas entre si; o registro de saques nunca as espera.
+ */
+@Service
+public class TotaisCedulasService {
+	
+	public static final String MSG_FECHAMENTO_NAO_ENCONTRADO = "Não há fechamento para a data informada.";
+	
+	private static final TipoCedulaEnum[] TIPOS = TipoCedulaEnum.values();
+	
+	/**
+	 * Posição da quantidade de saques nos contadores, depois das quantidades de cada tipo de cédula.
+	 */
+	private static final int SAQUES = TIPOS.length;
+	
+	/**
+	 * Espera até conferir de novo a data quando a virada agendada dispara antes da meia-noite do relógio.
+	 */
+	private static final long ESPERA_NOVA_TENTATIVA_MILISSEGUNDOS = 1000;
+	
+	private final ConjuntoCedulas conjunto;
+	
+	private final Clock relogio;
+	
+	private final int diasRetidos;
+	
+	private volatile Segmento ativo = new Segmento();
+	
+	/**
+	 * Totais consolidados da data de movimento, alterados apenas com o monitor da instância.
+	 */
+	private final long[] consolidado = new long[SAQUES + 1];
+	
+	private final Map<String, long[]> consolidadoPorTerminal = new HashMap<>();
+	
+	private final TreeMap<LocalDate, FechamentoCedulas> fechamentos = new TreeMap<>();
+	
+	private LocalDate dataMovimento;
+	
+	private final ScheduledExecutorService agendador;
+	
+	@Autowired
+	public TotaisCedulasService(ConciliacaoProperties properties, CedulasProperties cedulas) {
+		this(properties, ConjuntoCedulas.de(cedulas.getValores()), Clock.system(ZoneId.of(properties.getFuso())));
+	}
+	
+	/**
+	 * @param properties
+	 * @param conjunto Cédulas listadas nos totais.
+	 * @param relogio Relógio no fuso que define a virada do dia.
+	 */
+	public TotaisCedulasService(ConciliacaoProperties properties, ConjuntoCedulas conjunto, Clock relogio) {
+		this.conjunto = conjunto;
+		this.relogio = relogio;
+		this.diasRetidos = Math.max(1, properties.getDiasRetidos());
+		this.dataMovimento = LocalDate.now(relogio);
+		
+		if (!properties.isViradaAutomatica()) {
+			this.agendador = null;
+			return;
+		}
+		this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+			Thread thread = new Thread(tarefa, "conciliacao-virada");
+			thread.setDaemon(true);
+			return thread;
+		});
+		agendarVirada();
+	}
+	
+	/**
+	 * Totais sem virada automática, para uso fora do contexto Spring.
+	 * @param conjunto
+	 * @return
+	 */
+	public static TotaisCedulasService semViradaAutomatica(ConjuntoCedulas conjunto) {
+		ConciliacaoProperties properties = new ConciliacaoProperties();
+		properties.setViradaAutomatica(false);
+		return new TotaisCedulasService(properties, conjunto, Clock.system(ZoneId.of(properties.getFuso())));
+	}
+	
+	/**
+	 * Soma um saque entregue pelo terminal aos totais da data de movimento.
+	 * @param idTerminal
+	 * @param composicao Cédulas entregues.
+	 */
+	public void registrar(String idTerminal, ComposicaoSaque composicao) {
+		while (true) {
+			Segmento segmento = ativo;
+			segmento.entradas.increment();
+			try {
+				// se o segmento foi trocado entre a leitura e a entrada, a consolidação pode já ter lido os seus totais
+				if (segmento == ativo) {
+					segmento.somar(idTerminal, composicao);
+					return;
+				}
+			} finally {
+				segmento.saidas.increment();
+			}
+		}
+	}
+	
+	/**
+	 * Fotografia dos totais da data de movimento em andamento.
+	 * @return
+	 */
+	public synchronized FechamentoCedulas consultar() {
+		consolidar();
+		return fotografar(false);
+	}
+	
+	/**
+	 * Totais de um terminal na data de movimento em andamento.
+	 * @param idTerminal
+	 * @return Totais zerados se o terminal não teve saques na data.
+	 */
+	public synchronized TotaisCedulas consultar(String idTerminal) {
+		consolidar();
+		long[] totais = consolidadoPorTerminal.get(idTerminal);
+		return new TotaisCedulas(totais == null ? 0 : totais[SAQUES], quantidades(totais), conjunto);
+	}
+	
+	/**
+	 * Encerra a data de movimento em andamento: os totais viram o fechamento da data e a contagem recomeça zerada
+	 * na data seguinte, ou na data corrente do relógio se ela for posterior.
+	 * @return Fechamento da data encerrada.
+	 */
+	public synchronized FechamentoCedulas virarDia() {
+		consolidar();
+		FechamentoCedulas fechamento = fotografar(true);
+		fechamentos.put(dataMovimento, fechamento);
+		while (fechamentos.size() > diasRetidos) {
+			fechamentos.pollFirstEntry();
+		}
+		
+		Arrays.fill(consolidado, 0);
+		consolidadoPorTerminal.clear();
+		LocalDate seguinte = dataMovimento.plusDays(1);
+		LocalDate hoje = LocalDate.now(relogio);
+		dataMovimento = hoje.isAfter(seguinte) ? hoje : seguinte;
+		return fechamento;
+	}
+	
+	/**
+	 * Fechamento de uma data já encerrada.
+	 * @param data
+	 * @return
+	 * @throws BusinessException Se a data não foi encerrada ou o seu fechamento não é mais retido.
+	 */
+	public synchronized FechamentoCedulas getFechamento(LocalDate data) {
+		FechamentoCedulas fechamento = fechamentos.get(data);
+		if (fechamento == null) {
+			throw new BusinessException(MSG_FECHAMENTO_NAO_ENCONTRADO);
+		}
+		return fechamento;
+	}
+	
+	public synchronized LocalDate getDataMovimento() {
+		return dataMovimento;
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		if (agendador != null) {
+			agendador.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Troca o segmento ativo e incorpora o antigo aos totais consolidados, assim que os saques em andamento nele terminam.
+	 */
+	private void consolidar() {
+		Segmento antigo = ativo;
+		ativo = new Segmento();
+		
+		// as saídas são lidas antes das entradas: somas iguais garantem que toda entrada já saiu
+		while (antigo.saidas.sum() != antigo.entradas.sum()) {
+			Thread.yield();
+		}
+		
+		antigo.incorporar(consolidado);
+		for (Map.Entry<String, LongAdder[]> terminal : antigo.porTerminal.entrySet()) {
+			antigo.incorporar(terminal.getValue(), consolidadoPorTerminal.computeIfAbsent(terminal.getKey(), id -> new long[SAQUES + 1]));
+		}
+	}
+	
+	private FechamentoCedulas fotografar(boolean encerrado) {
+		Map<String, TotaisCedulas> terminais = new HashMap<>();
+		for (Map.Entry<String, long[]> terminal : consolidadoPorTerminal.entrySet()) {
+			terminais.put(terminal.getKey(), new TotaisCedulas(terminal.getValue()[SAQUES], quantidades(terminal.getValue()), conjunto));
+		}
+		return new FechamentoCedulas(dataMovimento, encerrado, relogio.instant(),
+				new TotaisCedulas(consolidado[SAQUES], quantidades(consolidado), conjunto), terminais);
+	}
+	
+	private static long[] quantidades(long[] totais) {
+		long[] quantidades = new long[SAQUES];
+		if (totais != null) {
+			System.arraycopy(totais, 0, quantidades, 0, SAQUES);
+		}
+		return quantidades;
+	}
+	
+	private void agendarVirada() {
+		ZonedDateTime agora = ZonedDateTime.now(relogio);
+		LocalDate alvo = agora.toLocalDate().plusDays(1);
+		long espera = Duration.between(agora, alvo.atStartOfDay(agora.getZone())).toMillis();
+		agendador.schedule(() -> virarDiaAgendado(alvo), espera, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Virada disparada pelo agendador. A espera corre no relógio monotônico e o relógio de parede pode ter sido
+	 * ajustado nesse meio tempo: se a data alvo ainda não chegou, confere de novo em instantes em vez de agendar a
+	 * meia-noite seguinte, o que pularia a virada e juntaria dois dias no mesmo fechamento.
+	 * @param alvo Data que começa na meia-noite agendada.
+	 */
+	private void virarDiaAgendado(LocalDate alvo) {
+		boolean adiantada = false;
+		try {
+			synchronized (this) {
+				LocalDate hoje = LocalDate.now(relogio);
+				adiantada = hoje.isBefore(alvo);
+				// uma virada manual antes da meia-noite já encerrou a data
+				if (!adiantada && dataMovimento.isBefore(hoje)) {
+					virarDia();
+				}
+			}
+		} finally {
+			if (adiantada) {
+				agendador.schedule(() -> virarDiaAgendado(alvo), ESPERA_NOVA_TENTATIVA_MILISSEGUNDOS, TimeUnit.MILLISECONDS);
+			} else {
+				agendarVirada();
+			}
+		}
+	}
+	
+	/**
+	 * Contadores dos saques registrados desde a última consolidação.
+	 */
+	private static final class Segmento {
+		
+		private final LongAdder entradas = new LongAdder();
+		
+		private final LongAdder saidas = new LongAdder();
+		
+		private final LongAdder[] total = novosContadores();
+		
+		private final ConcurrentMap<String, LongAdder[]> porTerminal = new ConcurrentHashMap<>();
+		
+		private void somar(String idTerminal, ComposicaoSaque composicao) {
+			LongAdder[] terminal = porTerminal.get(idTerminal);
+			if (terminal == null) {
+				terminal = porTerminal.computeIfAbsent(idTerminal, id -> novosContadores());
+			}
+			for (TipoCedulaEnum tipoCedula : TIPOS) {
+				int quantidade = composicao.getQuantidade(tipoCedula);
+				if (quantidade > 0) {
+					total[tipoCedula.ordinal()].add(quantidade);
+					terminal[tipoCedula.ordinal()].add(quantidade);
+				}
+			}
+			total[SAQUES].increment();
+			terminal[SAQUES].increment();
+		}
+		
+		private void incorporar(long[] destino) {
+			incorporar(total, destino);
+		}
+		
+		private void incorporar(LongAdder[] contadores, long[] destino) {
+			for (int i = 0; i < contadores.length; i++) {
+				destino[i] += contadores[i].sum();
+			}
+		}
+		
+		private static LongAdder[] novosContadores() {
+			LongAdder[] contadores = new LongAdder[SAQUES + 1];
+			for (int i = 0; i < contadores.length; i++) {
+				contadores[i] = new LongAdder();
+			}
+			return contadores;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.zenvia.challenge.caixa.arch.admissao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class LimitadorRequisicoesTest {
+	
+	private static final long MILISSEGUNDO = TimeUnit.MILLISECONDS.toNanos(1);
+	
+	/**
+	 * Teste unitário da rajada até a capacidade, da espera informada na recusa e da reposição das fichas.
+	 */
+	@Test
+	public void admitirRajadaAteCapacidadeEReporFichasTest() {
+		// given
+		AtomicLong relogio = new AtomicLong();
+		LimitadorRequisicoes limitador = new LimitadorRequisicoes(5, 10, TimeUnit.MINUTES.toNanos(1), relogio::get);
+		
+		// when - then
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limitador.admitir("terminal:1"));
+		}
+		assertEquals(100 * MILISSEGUNDO, limitador.admitir("terminal:1"));
+		
+		relogio.addAndGet(40 * MILISSEGUNDO);
+		assertEquals(60 * MILISSEGUNDO, limitador.admitir("terminal:1"));
+		
+		relogio.addAndGet(60 * MILISSEGUNDO);
+		assertEquals(0, limitador.admitir("terminal:1"));
+		assertTrue(limitador.admitir("terminal:1") > 0);
+	}
+	
+	/**
+	 * Teste unitário de justiça: um cliente que envia cem vezes a sua taxa não reduz as admissões dos demais,
+	 * e recebe apenas a rajada mais a taxa sustentada.
+	 */
+	@Test
+	public void clienteRuidosoNaoEsgotaOsDemaisTest() {
+		// given
+		AtomicLong relogio = new AtomicLong();
+		LimitadorRequisicoes limitador = new LimitadorRequisicoes(20, 100, TimeUnit.MINUTES.toNanos(1), relogio::get);
+		int clientes = 200;
+		int admitidasRuidoso = 0;
+		int[] admitidas = new int[clientes];
+		
+		// when: dois segundos; o ruidoso envia 10 requisições por milissegundo, os demais 1 a cada 20 milissegundos
+		for (int milissegundo = 0; milissegundo < 2_000; milissegundo++) {
+			for (int i = 0; i < 10; i++) {
+				if (limitador.admitir("chave:ruidoso") == 0) {
+					admitidasRuidoso++;
+				}
+			}
+			for (int cliente = 0; cliente < clientes; cliente++) {
+				if (milissegundo % 20 == cliente % 20 && limitador.admitir("chave:" + cliente) == 0) {
+					admitidas[cliente]++;
+				}
+			}
+			relogio.addAndGet(MILISSEGUNDO);
+		}
+		
+		// then
+		for (int cliente = 0; cliente < clientes; cliente++) {
+			assertEquals(100, admitidas[cliente], "cliente " + cliente);
+		}
+		assertTrue(admitidasRuidoso >= 20 + 199 && admitidasRuidoso <= 20 + 200, "ruidoso admitido " + admitidasRuidoso + " vezes");
+	}
+	
+	/**
+	 * Teste unitário de concorrência: com o relógio parado, threads disputando o mesmo balde admitem exatamente a
+	 * capacidade, enquanto os clientes de outras threads continuam sendo admitidos.
+	 * @throws Exception
+	 */
+	@Test
+	public void admitirConcorrentementeSemExcederCapacidadeTest() throws Exception {
+		// given
+		LimitadorRequisicoes limitador = new LimitadorRequisicoes(1_000, 1, TimeUnit.MINUTES.toNanos(1), () -> 0L);
+		int threadsRuidosas = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threadsRuidosas + 1);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<Integer>> admitidasRuidoso = new ArrayList<>();
+		
+		try {
+			for (int t = 0; t < threadsRuidosas; t++) {
+				Callable<Integer> ruidoso = () -> {
+					largada.await();
+					int admitidas = 0;
+					for (int i = 0; i < 10_000; i++) {
+						if (limitador.admitir("chave:ruidoso") == 0) {
+							admitidas++;
+						}
+					}
+					return admitidas;
+				};
+				admitidasRuidoso.add(executor.submit(ruidoso));
+			}
+			Future<Integer> demais = executor.submit(() -> {
+				largada.await();
+				int admitidas = 0;
+				for (int cliente = 0; cliente < 5_000; cliente++) {
+					if (limitador.admitir("chave:" + cliente) == 0) {
+						admitidas++;
+					}
+				}
+				return admitidas;
+			});
+			
+			// when
+			largada.countDown();
+			
+			// then
+			int total = 0;
+			for (Future<Integer> admitidas : admitidasRuidoso) {
+				total += admitidas.get();
+			}
+			assertEquals(1_000, total);
+			assertEquals(5_000, demais.get().intValue());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Teste unitário da remoção dos baldes ociosos: só os cheios são removidos, e recriá-los não concede fichas extras.
+	 */
+	@Test
+	public void varrerBaldesOciososTest() {
+		// given
+		AtomicLong relogio = new AtomicLong();
+		LimitadorRequisicoes limitador = new LimitadorRequisicoes(2, 10, TimeUnit.SECONDS.toNanos(1), relogio::get);
+		for (int cliente = 0; cliente < 100_000; cliente++) {
+			limitador.admitir("ip:" + cliente);
+		}
+		limitador.admitir("chave:ativo");
+		limitador.admitir("chave:ativo");
+		assertEquals(100_001, limitador.getQuantidadeClientes());
+		
+		// when: os baldes de uma requisição reabastecem em 100 ms; o do cliente ativo, em 200 ms
+		relogio.addAndGet(150 * MILISSEGUNDO);
+		int removidos = limitador.varrer();
+		
+		// then
+		assertEquals(100_000, removidos);
+		assertEquals(1, limitador.getQuantidadeClientes());
+		assertEquals(0, limitador.admitir("chave:ativo"));
+		assertTrue(limitador.admitir("chave:ativo") > 0);
+		
+		// a varredura periódica é disparada pelas próprias requisições
+		relogio.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		limitador.admitir("ip:novo");
+		assertEquals(1, limitador.getQuantidadeClientes());
+	}
+}
@@ -0,0 +1,155 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+import com.zenvia.challenge.caixa.enums.PoliticaBufferAuditoriaEnum;
+
+public class AnelAuditoriaTest {
+	
+	/**
+	 * Teste unitário para confirmar que, com a política DESCARTAR, os eventos que não cabem são contados e descartados
+	 * e que as posições liberadas pelo consumidor voltam a ser usadas.
+	 */
+	@Test
+	public void descartarComBufferCheioTest() {
+		// given
+		AnelAuditoria anel = new AnelAuditoria(4, PoliticaBufferAuditoriaEnum.DESCARTAR, 1);
+		
+		// when
+		int aceitos = 0;
+		for (int valor = 10; valor <= 60; valor += 10) {
+			aceitos += publicar(anel, valor) ? 1 : 0;
+		}
+		List<Long> valores = new ArrayList<>();
+		int lidos = anel.drenar(evento -> valores.add(evento.getValor()), 100);
+		
+		// then
+		assertEquals(4, aceitos);
+		assertEquals(2, anel.getDescartados());
+		assertEquals(4, lidos);
+		assertEquals(Arrays.asList(10L, 20L, 30L, 40L), valores);
+		assertTrue(anel.isVazio());
+		
+		// e a volta seguinte do anel reaproveita as posições
+		assertTrue(publicar(anel, 70));
+		anel.drenar(evento -> valores.add(evento.getValor()), 100);
+		assertEquals(70L, valores.get(4));
+	}
+	
+	/**
+	 * Teste unitário para confirmar que, com a política AMOSTRAR, a partir de metade da capacidade apenas um a cada N
+	 * eventos é publicado, e que com o buffer cheio o evento é descartado.
+	 */
+	@Test
+	public void amostrarAcimaDaMetadeTest() {
+		// given
+		AnelAuditoria anel = new AnelAuditoria(8, PoliticaBufferAuditoriaEnum.AMOSTRAR, 2);
+		
+		// when
+		int aceitos = 0;
+		for (int i = 0; i < 12; i++) {
+			aceitos += publicar(anel, i) ? 1 : 0;
+		}
+		
+		// then
+		assertEquals(8, aceitos);
+		assertEquals(3, anel.getNaoAmostrados());
+		assertEquals(1, anel.getDescartados());
+	}
+	
+	/**
+	 * Teste unitário para confirmar que, com a política BLOQUEAR, o produtor espera o consumidor liberar uma posição,
+	 * e que o fechamento libera os produtores que ainda esperam.
+	 */
+	@Test
+	public void bloquearAteConsumidorLiberarTest() throws InterruptedException {
+		// given
+		AnelAuditoria anel = new AnelAuditoria(2, PoliticaBufferAuditoriaEnum.BLOQUEAR, 1);
+		publicar(anel, 10);
+		publicar(anel, 20);
+		Thread produtor = new Thread(() -> publicar(anel, 30));
+		
+		// when
+		produtor.start();
+		produtor.join(200);
+		boolean esperavaEspaco = produtor.isAlive();
+		List<Long> valores = new ArrayList<>();
+		anel.drenar(evento -> valores.add(evento.getValor()), 1);
+		produtor.join(TimeUnit.SECONDS.toMillis(5));
+		anel.drenar(evento -> valores.add(evento.getValor()), 100);
+		
+		// then
+		assertTrue(esperavaEspaco);
+		assertFalse(produtor.isAlive());
+		assertEquals(Arrays.asList(10L, 20L, 30L), valores);
+		assertEquals(0, anel.getDescartados());
+		
+		// e, com o buffer cheio, o fechamento libera o produtor que espera
+		publicar(anel, 40);
+		publicar(anel, 50);
+		Thread bloqueado = new Thread(() -> publicar(anel, 60));
+		bloqueado.start();
+		anel.fechar();
+		bloqueado.join(TimeUnit.SECONDS.toMillis(5));
+		assertFalse(bloqueado.isAlive());
+		assertEquals(1, anel.getDescartados());
+	}
+	
+	/**
+	 * Teste unitário para confirmar que os eventos de vários produtores simultâneos são todos consumidos, cada um
+	 * uma única vez, e na ordem em que cada produtor os publicou.
+	 */
+	@Test
+	public void variosProdutoresTest() throws InterruptedException {
+		// given
+		int produtores = 4;
+		int eventosPorProdutor = 20_000;
+		AnelAuditoria anel = new AnelAuditoria(64, PoliticaBufferAuditoriaEnum.BLOQUEAR, 1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < produtores; p++) {
+			String terminal = "ATM-" + p;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < eventosPorProdutor; i++) {
+					anel.publicar(OperacaoAuditadaEnum.TERMINAL, terminal, i, null, null, null, 0, 0);
+				}
+			}));
+		}
+		
+		// when
+		long[] proximos = new long[produtores];
+		long[] consumidos = new long[1];
+		boolean[] foraDeOrdem = new boolean[1];
+		threads.forEach(Thread::start);
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (consumidos[0] < (long) produtores * eventosPorProdutor && System.nanoTime() < limite) {
+			anel.drenar(evento -> {
+				int p = evento.getTerminal().charAt(4) - '0';
+				foraDeOrdem[0] |= evento.getValor() != proximos[p] || evento.getSequencia() != consumidos[0];
+				proximos[p]++;
+				consumidos[0]++;
+			}, 16);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		// then
+		assertEquals((long) produtores * eventosPorProdutor, consumidos[0]);
+		assertFalse(foraDeOrdem[0]);
+		assertTrue(anel.isVazio());
+	}
+	
+	private static boolean publicar(AnelAuditoria anel, long valor) {
+		return anel.publicar(OperacaoAuditadaEnum.CALCULO, null, valor, null, null, null, 0, 0);
+	}
+}
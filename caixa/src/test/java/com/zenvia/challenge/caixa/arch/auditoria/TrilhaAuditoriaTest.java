@@ -0,0 +1,155 @@
+package com.zenvia.challenge.caixa.arch.auditoria;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zenvia.challenge.caixa.config.AuditoriaProperties;
+import com.zenvia.challenge.caixa.enums.OperacaoAuditadaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TrilhaAuditoriaTest {
+	
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+	
+	/**
+	 * Teste unitário para confirmar que os eventos pendentes são gravados, uma linha JSON por evento, no encerramento,
+	 * e que os eventos posteriores ao encerramento são descartados.
+	 */
+	@Test
+	public void gravarEventosNoEncerramentoTest() throws Exception {
+		// given
+		Path diretorio = pasta.getRoot().toPath();
+		TrilhaAuditoria auditoria = new TrilhaAuditoria(propriedades(diretorio, 64L * 1024 * 1024), new SimpleMeterRegistry());
+		
+		// when
+		auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, 30, Arrays.asList("Entregar 1 cédula(s) de R$20,00.",
+				"Entregar 1 cédula(s) de R$10,00."), null, 1500);
+		auditoria.registrar(OperacaoAuditadaEnum.TERMINAL, "ATM-1", new BigDecimal("160.00"),
+				new ComposicaoSaque(new int[] { 1, 0, 1, 1, 0, 0, 0 }), null, 2500);
+		auditoria.registrar(OperacaoAuditadaEnum.CONVERSAO, null, "12\"a", null, SaqueService.MSG_VALOR_SAQUE_INVALIDO, 0);
+		auditoria.encerrar();
+		boolean registradoAposEncerramento = auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, 10, null, null, 0);
+		
+		// then
+		List<String> linhas = lerLinhas(diretorio);
+		assertEquals(3, linhas.size());
+		assertTrue(linhas.get(0).matches("\\{\"sequencia\":0,\"instante\":\"\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}Z\".*"));
+		assertTrue(linhas.get(0).endsWith("\",\"operacao\":\"CALCULO\",\"terminal\":null,\"valor\":\"30\",\"situacao\":\"ATENDIDO\","
+				+ "\"cedulas\":[\"Entregar 1 cédula(s) de R$20,00.\",\"Entregar 1 cédula(s) de R$10,00.\"],\"mensagem\":null,\"duracaoNanos\":1500}"));
+		assertTrue(linhas.get(1).endsWith("\"operacao\":\"TERMINAL\",\"terminal\":\"ATM-1\",\"valor\":\"160.00\",\"situacao\":\"ATENDIDO\","
+				+ "\"cedulas\":{\"CEDULA_10\":1,\"CEDULA_50\":1,\"CEDULA_100\":1},\"mensagem\":null,\"duracaoNanos\":2500}"));
+		assertTrue(linhas.get(2).endsWith("\"operacao\":\"CONVERSAO\",\"terminal\":null,\"valor\":\"12\\\"a\",\"situacao\":\"REJEITADO\","
+				+ "\"cedulas\":null,\"mensagem\":\"" + SaqueService.MSG_VALOR_SAQUE_INVALIDO + "\",\"duracaoNanos\":0}"));
+		assertFalse(registradoAposEncerramento);
+		assertEquals(1, auditoria.getDescartados());
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um valor com expoente enorme é gravado sem ser expandido e que um evento que falha
+	 * na codificação é descartado e contado, sem interromper a gravação dos seguintes.
+	 */
+	@Test
+	public void descartarEventoComFalhaNaCodificacaoTest() throws Exception {
+		// given
+		Path diretorio = pasta.getRoot().toPath();
+		TrilhaAuditoria auditoria = new TrilhaAuditoria(propriedades(diretorio, 64L * 1024 * 1024), new SimpleMeterRegistry());
+		Object resumoComFalha = new Object() {
+			@Override
+			public String toString() {
+				throw new IllegalStateException("resumo inválido");
+			}
+		};
+		
+		// when
+		auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, new BigDecimal("1e500000000"), null,
+				SaqueService.MSG_VALOR_SAQUE_INVALIDO, 0);
+		auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, 30, Arrays.asList("Entregar 1 cédula(s) de R$20,00.", resumoComFalha),
+				null, 0);
+		auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, 10, null, null, 0);
+		auditoria.encerrar();
+		
+		// then
+		List<String> linhas = lerLinhas(diretorio);
+		assertEquals(2, linhas.size());
+		assertTrue(linhas.get(0).contains("\"valor\":\"1E+500000000\""));
+		assertTrue(linhas.get(1).startsWith("{\"sequencia\":2,"));
+		assertTrue(linhas.get(1).contains("\"valor\":\"10\""));
+		assertEquals(1, auditoria.getPerdidosCodificacao());
+	}
+	
+	/**
+	 * Teste unitário para confirmar que a trilha passa para um novo arquivo ao atingir o tamanho máximo,
+	 * sem perder nem reordenar eventos.
+	 */
+	@Test
+	public void rotacionarArquivosTest() throws Exception {
+		// given
+		Path diretorio = pasta.getRoot().toPath();
+		TrilhaAuditoria auditoria = new TrilhaAuditoria(propriedades(diretorio, 1024), new SimpleMeterRegistry());
+		
+		// when
+		for (int i = 0; i < 500; i++) {
+			auditoria.registrar(OperacaoAuditadaEnum.CALCULO, null, i, null, SaqueService.MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO, 0);
+			if (i % 50 == 0) {
+				// dá tempo ao consumidor para gravar lotes menores que o arquivo
+				Thread.sleep(5);
+			}
+		}
+		auditoria.encerrar();
+		
+		// then
+		List<String> linhas = lerLinhas(diretorio);
+		long arquivos;
+		try (Stream<Path> listagem = Files.list(diretorio)) {
+			arquivos = listagem.count();
+		}
+		assertTrue(arquivos > 1);
+		assertEquals(500, linhas.size());
+		for (int i = 0; i < linhas.size(); i++) {
+			assertTrue(linhas.get(i).startsWith("{\"sequencia\":" + i + ","));
+		}
+	}
+	
+	private static AuditoriaProperties propriedades(Path diretorio, long tamanhoArquivo) {
+		AuditoriaProperties properties = new AuditoriaProperties();
+		properties.setDiretorio(diretorio.toString());
+		properties.setTamanhoArquivo(tamanhoArquivo);
+		properties.setLoteMaximo(64);
+		return properties;
+	}
+	
+	/**
+	 * Linhas de todos os arquivos da trilha, na ordem dos nomes dos arquivos.
+	 */
+	private static List<String> lerLinhas(Path diretorio) throws IOException {
+		List<Path> arquivos;
+		try (Stream<Path> listagem = Files.list(diretorio)) {
+			arquivos = listagem.sorted().collect(Collectors.toList());
+		}
+		List<String> linhas = new ArrayList<>();
+		for (Path arquivo : arquivos) {
+			linhas.addAll(Files.readAllLines(arquivo, StandardCharsets.UTF_8));
+		}
+		return linhas;
+	}
+}
@@ -0,0 +1,106 @@
+package com.zenvia.challenge.caixa.arch.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+public class CacheRespostasTest {
+	
+	/**
+	 * Teste unitário da comparação de If-None-Match: listas, ETags fracas, "*" e valores malformados.
+	 */
+	@Test
+	public void compararIfNoneMatchTest() {
+		// given
+		String etag = "\"1a2b3c4d-150-resumo-pt-BR\"";
+		
+		// when - then
+		assertTrue(CacheRespostas.isNaoModificado(etag, etag));
+		assertTrue(CacheRespostas.isNaoModificado("W/" + etag, etag));
+		assertTrue(CacheRespostas.isNaoModificado("\"outra\", W/\"mais-uma\" ,\t" + etag, etag));
+		assertTrue(CacheRespostas.isNaoModificado("malformada, " + etag, etag));
+		
+		assertFalse(CacheRespostas.isNaoModificado(null, etag));
+		assertFalse(CacheRespostas.isNaoModificado("", etag));
+		assertFalse(CacheRespostas.isNaoModificado("*", etag));
+		assertFalse(CacheRespostas.isNaoModificado("\"1a2b3c4d-150-resumo-pt\"", etag));
+		assertFalse(CacheRespostas.isNaoModificado("\"1a2b3c4d-150-resumo-pt-BR-en\"", etag));
+		assertFalse(CacheRespostas.isNaoModificado("1a2b3c4d-150-resumo-pt-BR", etag));
+		assertFalse(CacheRespostas.isNaoModificado("\"1a2b3c4d-150-resumo-pt-BR", etag));
+	}
+	
+	/**
+	 * Teste unitário da resposta 304 sem cálculo do corpo, e da resposta 200 com ETag, Cache-Control e Vary.
+	 */
+	@Test
+	public void responderSemCalcularCorpoQuandoNaoModificadoTest() {
+		// given
+		CacheRespostas cache = new CacheRespostas(ConjuntoCedulas.PADRAO.getVersao(), 5, TimeUnit.MINUTES);
+		AtomicInteger calculos = new AtomicInteger();
+		
+		// when
+		ResponseEntity<?> completa = cache.responder(null, "150", "resumo-pt-BR", HttpHeaders.ACCEPT_LANGUAGE, null,
+				() -> calculos.incrementAndGet());
+		String etag = completa.getHeaders().getETag();
+		ResponseEntity<?> naoModificada = cache.responder("W/" + etag, "150", "resumo-pt-BR", HttpHeaders.ACCEPT_LANGUAGE, null,
+				() -> calculos.incrementAndGet());
+		
+		// then
+		assertEquals(HttpStatus.OK, completa.getStatusCode());
+		assertEquals("\"" + ConjuntoCedulas.PADRAO.getVersao() + "-150-resumo-pt-BR\"", etag);
+		assertEquals("max-age=300, public", completa.getHeaders().getCacheControl());
+		assertEquals(HttpHeaders.ACCEPT_LANGUAGE, completa.getHeaders().getFirst(HttpHeaders.VARY));
+		
+		assertEquals(HttpStatus.NOT_MODIFIED, naoModificada.getStatusCode());
+		assertNull(naoModificada.getBody());
+		assertEquals(etag, naoModificada.getHeaders().getETag());
+		assertEquals("max-age=300, public", naoModificada.getHeaders().getCacheControl());
+		assertEquals(1, calculos.get());
+	}
+	
+	/**
+	 * Teste unitário da versão das ETags: muda com o conjunto de cédulas e é estável para o mesmo conjunto.
+	 */
+	@Test
+	public void mudarEtagComConjuntoCedulasTest() {
+		// given
+		CacheRespostas padrao = new CacheRespostas(ConjuntoCedulas.PADRAO.getVersao(), 5, TimeUnit.MINUTES);
+		CacheRespostas mesmasCedulas = new CacheRespostas(ConjuntoCedulas.de(100, 50, 20, 10).getVersao(), 5, TimeUnit.MINUTES);
+		CacheRespostas outrasCedulas = new CacheRespostas(ConjuntoCedulas.de(200, 100, 50, 20, 10).getVersao(), 5, TimeUnit.MINUTES);
+		
+		// when - then
+		assertEquals(padrao.etag("150", "composicao-json"), mesmasCedulas.etag("150", "composicao-json"));
+		assertNotEquals(padrao.etag("150", "composicao-json"), outrasCedulas.etag("150", "composicao-json"));
+		assertNotEquals(padrao.etag("150", "composicao-json"), padrao.etag("150", "composicao-binaria"));
+	}
+	
+	/**
+	 * Teste unitário do cache desabilitado: corpo sempre calculado, sem ETag nem Cache-Control.
+	 */
+	@Test
+	public void responderComCacheDesabilitadoTest() {
+		// given
+		CacheRespostas cache = CacheRespostas.desabilitado();
+		
+		// when
+		ResponseEntity<?> resposta = cache.responder("*", "150", "resumo-pt-BR", HttpHeaders.ACCEPT_LANGUAGE, null, () -> "corpo");
+		
+		// then
+		assertEquals(HttpStatus.OK, resposta.getStatusCode());
+		assertEquals("corpo", resposta.getBody());
+		assertNull(resposta.getHeaders().getETag());
+		assertNull(resposta.getHeaders().getCacheControl());
+	}
+}
@@ -0,0 +1,59 @@
+package com.zenvia.challenge.caixa.arch.conversores;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.enums.ResultadoValidacaoSaqueEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+public class ConversorValorSaqueTest {
+	
+	private final SaqueService saqueService = new SaqueService();
+	
+	/**
+	 * Teste unitário para confirmar que a conversão rápida chega ao mesmo resultado da conversão em BigDecimal seguida da validação.
+	 */
+	@Test
+	public void converterComoBigDecimalTest() {
+		String[] textos = { "10", "380", "100.00", "0010", "+20", " 50 ", "1 000", ".5", "5.", "9.99", "0", "-0", "0.00",
+				"-10", "-0.01", "15", "15.5", "100.01", "120.000", "999999999999999990", "2147483647000" };
+		
+		for (String texto : textos) {
+			BigDecimal valorDecimal = ConversorValorSaque.converterComBigDecimal(texto);
+			ResultadoValidacaoSaqueEnum esperado = saqueService.validar(valorDecimal);
+			
+			long valor = ConversorValorSaque.converter(texto, ConjuntoCedulas.PADRAO);
+			
+			assertEquals(esperado, ConversorValorSaque.getRejeicao(valor), texto);
+			if (esperado.isValido()) {
+				assertEquals(valorDecimal.longValueExact(), valor, texto);
+			}
+		}
+	}
+	
+	/**
+	 * Teste unitário para textos que não são números, rejeitados sem exceção, e para os casos deixados à conversão em BigDecimal.
+	 */
+	@Test
+	public void rejeitarTextoInvalidoTest() {
+		for (String texto : new String[] { "dez", "1O0", "100reais", "--10", "12.3.4", "0x64", ".", "+", "10-" }) {
+			assertEquals(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_INVALIDO, ConversorValorSaque.getRejeicao(ConversorValorSaque.converter(texto, ConjuntoCedulas.PADRAO)), texto);
+			assertNull(ConversorValorSaque.converterComBigDecimal(texto), texto);
+		}
+		
+		assertEquals(ResultadoValidacaoSaqueEnum.VALOR_SAQUE_OBRIGATORIO, ConversorValorSaque.getRejeicao(ConversorValorSaque.converter(" ", ConjuntoCedulas.PADRAO)));
+		assertEquals(ConversorValorSaque.VALOR_NAO_CONVERTIDO, ConversorValorSaque.converter("1E+3", ConjuntoCedulas.PADRAO));
+		assertEquals(ConversorValorSaque.VALOR_NAO_CONVERTIDO, ConversorValorSaque.converter("99999999999999999990", ConjuntoCedulas.PADRAO));
+		assertTrue(ConversorValorSaque.getRejeicao(ConversorValorSaque.converter("1E+3", ConjuntoCedulas.PADRAO)).isValido());
+		
+		// expoentes além do tamanho de um valor em notação comum não são expandidos
+		assertEquals(0, BigDecimal.valueOf(1000).compareTo(ConversorValorSaque.converterComBigDecimal("1E+3")));
+		assertNull(ConversorValorSaque.converterComBigDecimal("1e500000000"));
+	}
+}
@@ -0,0 +1,139 @@
+package com.zenvia.challenge.caixa.arch.idempotencia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.arch.idempotencia.CacheIdempotencia.Registro;
+
+public class CacheIdempotenciaTest {
+	
+	/**
+	 * Teste unitário do registro de uma chave: só o primeiro assume a execução, e a repetição recebe o resultado armazenado.
+	 * @throws Exception
+	 */
+	@Test
+	public void registrarChaveERepetirResultadoTest() throws Exception {
+		// given
+		CacheIdempotencia<String> cache = new CacheIdempotencia<>(10, 1, TimeUnit.MINUTES);
+		Registro<String> original = cache.registrar("chave-1");
+		
+		// when
+		assertTrue(original.assumir());
+		assertFalse(original.assumir());
+		Registro<String> repeticao = cache.registrar("chave-1");
+		assertThrows(TimeoutException.class, () -> repeticao.aguardar(1, TimeUnit.MILLISECONDS));
+		original.concluir("resposta");
+		
+		// then
+		assertSame(original, repeticao);
+		assertFalse(repeticao.assumir());
+		assertEquals("resposta", repeticao.aguardar(0, TimeUnit.MILLISECONDS));
+	}
+	
+	/**
+	 * Teste unitário do cancelamento: as repetições em espera são liberadas sem resultado e a chave pode ser executada de novo.
+	 * @throws Exception
+	 */
+	@Test
+	public void cancelarRegistroPermiteNovaExecucaoTest() throws Exception {
+		// given
+		CacheIdempotencia<String> cache = new CacheIdempotencia<>(10, 1, TimeUnit.MINUTES);
+		Registro<String> original = cache.registrar("chave-1");
+		original.assumir();
+		Registro<String> repeticao = cache.registrar("chave-1");
+		
+		// when
+		original.cancelar();
+		
+		// then
+		assertNull(repeticao.aguardar(0, TimeUnit.MILLISECONDS));
+		assertEquals(0, cache.getQuantidadeChaves());
+		Registro<String> novaTentativa = cache.registrar("chave-1");
+		assertNotSame(original, novaTentativa);
+		assertTrue(novaTentativa.assumir());
+	}
+	
+	/**
+	 * Teste unitário dos limites: as chaves expiram pela validade e as mais antigas saem quando a capacidade é excedida.
+	 */
+	@Test
+	public void expirarEDescartarChavesMaisAntigasTest() {
+		// given
+		AtomicLong relogio = new AtomicLong();
+		CacheIdempotencia<String> cache = new CacheIdempotencia<>(1_000, TimeUnit.SECONDS.toNanos(60), relogio::get);
+		
+		// when - then: capacidade
+		for (int i = 0; i < 1_500; i++) {
+			cache.registrar("chave-" + i).concluir("resposta-" + i);
+			relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		assertEquals(1_000, cache.getQuantidadeChaves());
+		assertNull(cache.consultar("chave-499"));
+		assertTrue(cache.consultar("chave-500") != null);
+		
+		// when - then: validade (as chaves 500 a 900, registradas até 0,9 s, expiram)
+		relogio.set(TimeUnit.MILLISECONDS.toNanos(60_900));
+		assertNull(cache.consultar("chave-500"));
+		cache.registrar("chave-nova");
+		assertEquals(600, cache.getQuantidadeChaves());
+		assertTrue(cache.consultar("chave-1499") != null);
+	}
+	
+	/**
+	 * Teste unitário de concorrência: entre várias threads com a mesma chave, exatamente uma executa e as demais recebem o seu resultado.
+	 * @throws Exception
+	 */
+	@Test
+	public void registrarMesmaChaveConcorrentementeTest() throws Exception {
+		// given
+		CacheIdempotencia<String> cache = new CacheIdempotencia<>(1_000, 1, TimeUnit.MINUTES);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+		AtomicInteger execucoes = new AtomicInteger();
+		List<Future<String>> respostas = new ArrayList<>();
+		
+		try {
+			for (int t = 0; t < threads; t++) {
+				respostas.add(executor.submit(() -> {
+					largada.await();
+					Registro<String> registro = cache.registrar("chave-1");
+					if (registro.assumir()) {
+						Thread.sleep(20);
+						registro.concluir("resposta-" + execucoes.incrementAndGet());
+					}
+					return registro.aguardar(5, TimeUnit.SECONDS);
+				}));
+			}
+			
+			// when
+			largada.countDown();
+			
+			// then
+			for (Future<String> resposta : respostas) {
+				assertEquals("resposta-1", resposta.get());
+			}
+			assertEquals(1, execucoes.get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.zenvia.challenge.caixa.arch.journal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zenvia.challenge.caixa.enums.TipoEventoTerminalEnum;
+
+public class JournalMapeadoTest {
+	
+	private static final long TAMANHO_SEGMENTO = JournalMapeado.TAMANHO_MINIMO_SEGMENTO;
+	
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+	
+	/**
+	 * Teste unitário para confirmar que o estado é recuperado do snapshot e da cauda do journal,
+	 * inclusive quando os eventos ocupam vários segmentos.
+	 */
+	@Test
+	public void recuperarSnapshotECaudaTest() throws IOException {
+		// given
+		Path diretorio = pasta.getRoot().toPath();
+		try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, true)) {
+			journal.registrar(TipoEventoTerminalEnum.CADASTRO, "ATM-1", new int[] { 0, 0, 0, 10 });
+			journal.registrar(TipoEventoTerminalEnum.CADASTRO, "ATM-2", new int[] { 5, 5, 5, 5 });
+			for (int i = 0; i < 2000; i++) {
+				journal.registrar(TipoEventoTerminalEnum.ABASTECIMENTO, "ATM-1", new int[] { 1, 0, 0, 0 });
+			}
+			journal.gravarSnapshot();
+			for (int i = 0; i < 2000; i++) {
+				journal.registrar(TipoEventoTerminalEnum.SAQUE, "ATM-1", new int[] { 1, 0, 0, 0 });
+			}
+			journal.registrar(TipoEventoTerminalEnum.RETIRADA, "ATM-2", new int[0]);
+		}
+		
+		// when
+		try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, true)) {
+			
+			// then
+			EstadoTerminais estado = journal.copiarEstado();
+			assertEquals(4003, journal.getSequencia());
+			assertEquals(1, estado.getEstoques().size());
+			assertArrayEquals(new int[] { 0, 0, 0, 10 }, estado.getEstoques().get("ATM-1"));
+			
+			// e a escrita continua a partir da sequência recuperada
+			assertEquals(4004, journal.registrar(TipoEventoTerminalEnum.SAQUE, "ATM-1", new int[] { 0, 0, 0, 1 }));
+		}
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um registro interrompido no fim do journal é descartado na recuperação.
+	 */
+	@Test
+	public void recuperarComRegistroInterrompidoTest() throws IOException {
+		// given
+		Path diretorio = pasta.getRoot().toPath();
+		try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, false)) {
+			journal.registrar(TipoEventoTerminalEnum.CADASTRO, "ATM-1", new int[] { 0, 0, 0, 10 });
+			journal.registrar(TipoEventoTerminalEnum.SAQUE, "ATM-1", new int[] { 0, 0, 0, 3 });
+		}
+		Path segmento;
+		try (Stream<Path> arquivos = Files.list(diretorio)) {
+			segmento = arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith("journal-")).findFirst().get();
+		}
+		corromperUltimoByte(segmento);
+		
+		// when
+		try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, false)) {
+			
+			// then
+			assertEquals(1, journal.getSequencia());
+			assertArrayEquals(new int[] { 0, 0, 0, 10 }, journal.copiarEstado().getEstoques().get("ATM-1"));
+			
+			journal.registrar(TipoEventoTerminalEnum.SAQUE, "ATM-1", new int[] { 0, 0, 0, 4 });
+		}
+		try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, false)) {
+			assertEquals(2, journal.getSequencia());
+			assertArrayEquals(new int[] { 0, 0, 0, 6 }, journal.copiarEstado().getEstoques().get("ATM-1"));
+		}
+	}
+	
+	/**
+	 * Teste unitário para confirmar que o snapshot remove os segmentos que ele torna desnecessários.
+	 */
+	@Test
+	public void snapshotRemoveSegmentosCobertosTest() throws IOException {
+		// given
+		Path diretorio = pasta.getRoot().toPath();
+		try (JournalMapeado journal = JournalMapeado.abrir(diretorio, TAMANHO_SEGMENTO, false)) {
+			journal.registrar(TipoEventoTerminalEnum.CADASTRO, "ATM-1", new int[] { 0, 0, 0, 0 });
+			for (int i = 0; i < 5000; i++) {
+				journal.registrar(TipoEventoTerminalEnum.ABASTECIMENTO, "ATM-1", new int[] { 0, 0, 0, 1 });
+			}
+			
+			// when
+			journal.gravarSnapshot();
+			
+			// then
+			try (Stream<Path> arquivos = Files.list(diretorio)) {
+				assertEquals(1, arquivos.filter(arquivo -> arquivo.getFileName().toString().startsWith("journal-")).count());
+			}
+			assertFalse(journal.getEventosDesdeSnapshot() > 0);
+		}
+	}
+	
+	/**
+	 * Simula uma escrita interrompida: o último byte do corpo do último registro é alterado, invalidando o CRC.
+	 */
+	private static void corromperUltimoByte(Path segmento) throws IOException {
+		try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer tamanho = ByteBuffer.allocate(4);
+			long posicao = 0;
+			long ultimo = -1;
+			while (true) {
+				tamanho.clear();
+				canal.read(tamanho, posicao);
+				int tamanhoCorpo = tamanho.getInt(0);
+				if (tamanhoCorpo == 0) {
+					break;
+				}
+				ultimo = posicao + 8 + tamanhoCorpo - 1;
+				posicao += 8 + tamanhoCorpo;
+			}
+			canal.write(ByteBuffer.wrap(new byte[] { 0x7F }), ultimo);
+		}
+	}
+}
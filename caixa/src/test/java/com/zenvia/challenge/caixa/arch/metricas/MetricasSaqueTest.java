@@ -0,0 +1,70 @@
+package com.zenvia.challenge.caixa.arch.metricas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasSaqueTest {
+	
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	
+	private final MetricasSaque metricas = new MetricasSaque(registry);
+	
+	private final SaqueService saqueService = new SaqueService(metricas);
+	
+	/**
+	 * Teste unitário para confirmar que somente as cédulas entregues pelos terminais são contadas como dispensadas
+	 * e o registro da duração das etapas.
+	 */
+	@Test
+	public void registrarCedulasEEtapasTest() {
+		// when
+		saqueService.processarSaque(BigDecimal.valueOf(380));
+		ComposicaoSaque composicao = saqueService.processarComposicao(BigDecimal.valueOf(380));
+		
+		// then
+		for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+			assertEquals(0, cedulasDispensadas(tipoCedula));
+		}
+		
+		metricas.registrarCedulasDispensadas(composicao);
+		assertEquals(3, cedulasDispensadas(TipoCedulaEnum.CEDULA_100));
+		assertEquals(1, cedulasDispensadas(TipoCedulaEnum.CEDULA_50));
+		assertEquals(1, cedulasDispensadas(TipoCedulaEnum.CEDULA_20));
+		assertEquals(1, cedulasDispensadas(TipoCedulaEnum.CEDULA_10));
+		assertEquals(2, registry.get(MetricasSaque.METRICA_ETAPA).tag("etapa", "validacao").timer().count());
+		assertEquals(2, registry.get(MetricasSaque.METRICA_ETAPA).tag("etapa", "calculo").timer().count());
+		// a composição estruturada não gera resumos
+		assertEquals(1, registry.get(MetricasSaque.METRICA_ETAPA).tag("etapa", "resumo").timer().count());
+	}
+	
+	/**
+	 * Teste unitário para confirmar a contagem das rejeições por motivo.
+	 */
+	@Test
+	public void registrarRejeicoesPorMotivoTest() {
+		// when
+		assertThrows(BusinessException.class, () -> saqueService.processarSaque(BigDecimal.valueOf(5)));
+		assertThrows(BusinessException.class, () -> saqueService.processarSaque(BigDecimal.valueOf(15)));
+		assertThrows(BusinessException.class, () -> saqueService.processarSaque(BigDecimal.valueOf(25)));
+		
+		// then
+		assertEquals(1.0, registry.get(MetricasSaque.METRICA_REJEICOES).tag("motivo", "VALOR_MINIMO_SAQUE").counter().count());
+		assertEquals(2.0, registry.get(MetricasSaque.METRICA_REJEICOES).tag("motivo", "VALOR_SAQUE_DEVE_SER_MULTIPLO").counter().count());
+		assertEquals(0.0, registry.get(MetricasSaque.METRICA_REJEICOES).tag("motivo", "OUTROS").counter().count());
+	}
+	
+	private long cedulasDispensadas(TipoCedulaEnum tipoCedula) {
+		return (long) registry.get(MetricasSaque.METRICA_CEDULAS_DISPENSADAS).tag("cedula", tipoCedula.name()).counter().count();
+	}
+}
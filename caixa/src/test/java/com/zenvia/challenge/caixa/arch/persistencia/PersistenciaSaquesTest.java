@@ -0,0 +1,135 @@
+package com.zenvia.challenge.caixa.arch.persistencia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.config.PersistenciaSaquesProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PersistenciaSaquesTest {
+	
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+	
+	private static PersistenciaSaquesProperties propriedades(Path arquivo, int tamanhoLote) {
+		PersistenciaSaquesProperties properties = new PersistenciaSaquesProperties();
+		properties.setArquivo(arquivo.toString());
+		properties.setTamanhoLote(tamanhoLote);
+		properties.setJanelaLoteMicrossegundos(20_000);
+		properties.setSincronizar(false);
+		return properties;
+	}
+	
+	private static List<String> ler(Path arquivo) throws IOException {
+		List<String> registros = new ArrayList<>();
+		TrilhaSaques.percorrer(arquivo, registro -> registros.add(registro.getTerminal() + "," + registro.getInstante() + ","
+				+ registro.getValorCentavos()));
+		return registros;
+	}
+	
+	/**
+	 * Teste unitário para confirmar que os saques são gravados em lotes limitados ao tamanho configurado, na ordem
+	 * de chegada, em uma trilha binária legível por {@link TrilhaSaques}, e que os futuros são concluídos.
+	 */
+	@Test
+	public void gravarEmLotesTest() throws Exception {
+		// given
+		Path arquivo = pasta.getRoot().toPath().resolve("saques.trilha");
+		PersistenciaSaques persistencia = new PersistenciaSaques(propriedades(arquivo, 100), new SimpleMeterRegistry());
+		
+		// when
+		List<CompletableFuture<Void>> conclusoes = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			conclusoes.add(persistencia.registrar("ATM-" + i % 3, 1_583_020_800_000L + i, 1000L * i));
+		}
+		CompletableFuture.allOf(conclusoes.toArray(new CompletableFuture<?>[0])).get();
+		
+		// then
+		assertEquals(1000, persistencia.getGravados());
+		assertTrue(persistencia.getLotes() >= 10 && persistencia.getLotes() < 1000, "lotes: " + persistencia.getLotes());
+		persistencia.encerrar();
+		
+		List<String> registros = ler(arquivo);
+		assertEquals(1000, registros.size());
+		assertEquals("ATM-0,1583020800000,0", registros.get(0));
+		assertEquals("ATM-0,1583020800999,999000", registros.get(999));
+	}
+	
+	/**
+	 * Teste unitário para confirmar que o arquivo reaberto recebe os novos saques depois dos anteriores, descartando
+	 * um registro incompleto no fim, e que os saques posteriores ao encerramento são rejeitados.
+	 */
+	@Test
+	public void reabrirArquivoTest() throws Exception {
+		// given
+		Path arquivo = pasta.getRoot().toPath().resolve("saques.trilha");
+		PersistenciaSaques primeira = new PersistenciaSaques(propriedades(arquivo, 16), new SimpleMeterRegistry());
+		primeira.registrar("ATM-1", 1000, 15000).get();
+		primeira.encerrar();
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.APPEND)) {
+			canal.write(ByteBuffer.wrap(new byte[] { 0, 5, 'A', 'T' }));
+		}
+		
+		// when
+		PersistenciaSaques segunda = new PersistenciaSaques(propriedades(arquivo, 16), new SimpleMeterRegistry());
+		segunda.registrar("ATM-2", 2000, 5000).get();
+		segunda.encerrar();
+		CompletableFuture<Void> aposEncerramento = segunda.registrar("ATM-3", 3000, 1000);
+		
+		// then
+		List<String> registros = ler(arquivo);
+		assertEquals(2, registros.size());
+		assertEquals("ATM-1,1000,15000", registros.get(0));
+		assertEquals("ATM-2,2000,5000", registros.get(1));
+		
+		ExecutionException excecao = assertThrows(ExecutionException.class, aposEncerramento::get);
+		assertTrue(excecao.getCause() instanceof RejectedExecutionException);
+		assertEquals(1, segunda.getRejeitados());
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um identificador de terminal que não cabe na trilha falha o futuro, sem lançar
+	 * exceção para quem já atendeu o saque, e não é gravado.
+	 */
+	@Test
+	public void registrarIdTerminalMuitoLongoTest() throws Exception {
+		// given
+		Path arquivo = pasta.getRoot().toPath().resolve("saques.trilha");
+		PersistenciaSaques persistencia = new PersistenciaSaques(propriedades(arquivo, 16), new SimpleMeterRegistry());
+		char[] id = new char[TrilhaSaques.TAMANHO_MAXIMO_ID + 1];
+		Arrays.fill(id, 'A');
+		
+		// when
+		CompletableFuture<Void> longo = persistencia.registrar(new String(id), 1000, 15000);
+		persistencia.registrar("ATM-1", 2000, 5000).get();
+		persistencia.encerrar();
+		
+		// then
+		ExecutionException excecao = assertThrows(ExecutionException.class, longo::get);
+		assertTrue(excecao.getCause() instanceof IllegalArgumentException);
+		assertEquals(PersistenciaSaques.MSG_ID_TERMINAL_INVALIDO, excecao.getCause().getMessage());
+		assertEquals(1, persistencia.getRejeitados());
+		List<String> registros = ler(arquivo);
+		assertEquals(1, registros.size());
+		assertEquals("ATM-1,2000,5000", registros.get(0));
+	}
+}
@@ -0,0 +1,235 @@
+package com.zenvia.challenge.caixa.arch.protocolo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.config.ProtocoloBinarioProperties;
+import com.zenvia.challenge.caixa.enums.CodigoRespostaTerminalEnum;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.services.CaixaEletronicoOperationService;
+import com.zenvia.challenge.caixa.impl.services.EstoqueCedulas;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+public class ServidorBinarioTerminaisTest {
+	
+	private RegistroTerminaisService registroTerminais;
+	
+	private ServidorBinarioTerminais servidor;
+	
+	@Before
+	public void setup() throws IOException {
+		registroTerminais = new RegistroTerminaisService();
+		servidor = novoServidor(new CaixaEletronicoOperationService(new SaqueService(), registroTerminais));
+	}
+	
+	private static ServidorBinarioTerminais novoServidor(CaixaEletronicoOperationService operationService) throws IOException {
+		ProtocoloBinarioProperties properties = new ProtocoloBinarioProperties();
+		properties.setHabilitado(true);
+		properties.setEndereco("127.0.0.1");
+		properties.setPorta(0);
+		properties.setReatores(1);
+		properties.setThreadsSaque(2);
+		properties.setTamanhoBuffer(256);
+		properties.setBuffersPorReator(4);
+		return new ServidorBinarioTerminais(properties, operationService);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		servidor.encerrar();
+	}
+	
+	/**
+	 * Teste unitário para confirmar que requisições enviadas de uma vez em uma conexão são respondidas em ordem,
+	 * com as cédulas do saque ou o código da rejeição.
+	 */
+	@Test
+	public void atenderRequisicoesEncadeadasTest() throws IOException {
+		// given
+		// estoque indexado pelo ordinal: 10, 20, 50, 100, 2, 5, 200
+		registroTerminais.cadastrar("ATM-1", new EstoqueCedulas(new int[] { 5, 5, 0, 1, 0, 0, 0 }));
+		ByteBuffer requisicoes = ByteBuffer.allocate(6 * ProtocoloBinarioTerminal.TAMANHO_REQUISICAO);
+		ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_CONSULTA_COMPOSICAO, null, 1, 38000, null);
+		ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_SAQUE_TERMINAL, null, 2, 15000, "ATM-1");
+		ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_SAQUE_TERMINAL,
+				EstrategiaDispensacaoEnum.TROCO, 3, 3000, "ATM-1");
+		ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_SAQUE_TERMINAL, null, 4, 50000, "ATM-1");
+		ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_CONSULTA_COMPOSICAO, null, 5, 1550, null);
+		ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, (short) 800, null, 6, 1000, "ATM-2");
+		
+		// when
+		List<int[]> respostas;
+		try (SocketChannel canal = conectar()) {
+			requisicoes.flip();
+			while (requisicoes.hasRemaining()) {
+				canal.write(requisicoes);
+			}
+			respostas = lerRespostas(canal, 6);
+		}
+		
+		// then: mti, código, rastreio e as cédulas de 200 a 2
+		assertResposta(respostas.get(0), 110, CodigoRespostaTerminalEnum.APROVADO, 1, 0, 3, 1, 1, 1, 0, 0);
+		assertResposta(respostas.get(1), 210, CodigoRespostaTerminalEnum.APROVADO, 2, 0, 1, 0, 2, 1, 0, 0);
+		assertResposta(respostas.get(2), 210, CodigoRespostaTerminalEnum.APROVADO, 3, 0, 0, 0, 1, 1, 0, 0);
+		assertResposta(respostas.get(3), 210, CodigoRespostaTerminalEnum.CEDULAS_INSUFICIENTES, 4, 0, 0, 0, 0, 0, 0, 0);
+		assertResposta(respostas.get(4), 110, CodigoRespostaTerminalEnum.VALOR_INVALIDO, 5, 0, 0, 0, 0, 0, 0, 0);
+		assertResposta(respostas.get(5), 810, CodigoRespostaTerminalEnum.TRANSACAO_INVALIDA, 6, 0, 0, 0, 0, 0, 0, 0);
+		assertEquals(2, registroTerminais.obter("ATM-1").getEstoque().getDisponivel(TipoCedulaEnum.CEDULA_20));
+	}
+	
+	/**
+	 * Teste unitário para confirmar que várias conexões simultâneas, cada uma com mais requisições em andamento do que
+	 * cabem nos buffers do reator, recebem todas as respostas.
+	 */
+	@Test
+	public void atenderVariasConexoesTest() throws Exception {
+		// given
+		int conexoes = 50;
+		int requisicoesPorConexao = 200;
+		List<SocketChannel> canais = new ArrayList<>();
+		for (int i = 0; i < conexoes; i++) {
+			canais.add(conectar());
+		}
+		
+		// when
+		for (int i = 0; i < conexoes; i++) {
+			ByteBuffer requisicoes = ByteBuffer.allocate(requisicoesPorConexao * ProtocoloBinarioTerminal.TAMANHO_REQUISICAO);
+			for (int n = 0; n < requisicoesPorConexao; n++) {
+				ProtocoloBinarioTerminal.gravarRequisicao(requisicoes, ProtocoloBinarioTerminal.MTI_CONSULTA_COMPOSICAO, null,
+						i * requisicoesPorConexao + n, 1000L * (n + 1), null);
+			}
+			requisicoes.flip();
+			while (requisicoes.hasRemaining()) {
+				canais.get(i).write(requisicoes);
+			}
+		}
+		
+		// then
+		for (int i = 0; i < conexoes; i++) {
+			try (SocketChannel canal = canais.get(i)) {
+				List<int[]> respostas = lerRespostas(canal, requisicoesPorConexao);
+				for (int n = 0; n < requisicoesPorConexao; n++) {
+					int[] resposta = respostas.get(n);
+					assertEquals(CodigoRespostaTerminalEnum.APROVADO.getCodigo(), resposta[1]);
+					assertEquals(i * requisicoesPorConexao + n, resposta[2]);
+					int total = 0;
+					for (int c = 0; c < ProtocoloBinarioTerminal.CEDULAS_RESPOSTA.size(); c++) {
+						total += resposta[3 + c] * ProtocoloBinarioTerminal.CEDULAS_RESPOSTA.get(c).getValorFaceCedula();
+					}
+					assertEquals(10 * (n + 1), total);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um saque em terminal parado na gravação não para o reator: as outras conexões
+	 * do mesmo reator continuam atendidas, e a conexão do saque recebe as respostas em ordem quando ele termina.
+	 */
+	@Test
+	public void atenderSaqueBloqueadoSemPararReatorTest() throws Exception {
+		// given
+		registroTerminais.cadastrar("ATM-1", new EstoqueCedulas(new int[] { 5, 5, 0, 1, 0, 0, 0 }));
+		registroTerminais.cadastrar("ATM-LENTO", new EstoqueCedulas(new int[] { 5, 5, 0, 1, 0, 0, 0 }));
+		CountDownLatch gravacao = new CountDownLatch(1);
+		servidor.encerrar();
+		servidor = novoServidor(new CaixaEletronicoOperationService(new SaqueService(), registroTerminais) {
+			@Override
+			public ComposicaoSaque saqueComposicao(String idTerminal, BigDecimal valorPretendidoSaque, EstrategiaDispensacaoEnum estrategia) {
+				ComposicaoSaque composicao = super.saqueComposicao(idTerminal, valorPretendidoSaque, estrategia);
+				if ("ATM-LENTO".equals(idTerminal)) {
+					try {
+						gravacao.await(10, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return composicao;
+			}
+		});
+		ByteBuffer lentas = ByteBuffer.allocate(2 * ProtocoloBinarioTerminal.TAMANHO_REQUISICAO);
+		ProtocoloBinarioTerminal.gravarRequisicao(lentas, ProtocoloBinarioTerminal.MTI_SAQUE_TERMINAL, null, 1, 15000, "ATM-LENTO");
+		ProtocoloBinarioTerminal.gravarRequisicao(lentas, ProtocoloBinarioTerminal.MTI_CONSULTA_COMPOSICAO, null, 2, 3000, null);
+		ByteBuffer rapidas = ByteBuffer.allocate(2 * ProtocoloBinarioTerminal.TAMANHO_REQUISICAO);
+		ProtocoloBinarioTerminal.gravarRequisicao(rapidas, ProtocoloBinarioTerminal.MTI_CONSULTA_COMPOSICAO, null, 3, 38000, null);
+		ProtocoloBinarioTerminal.gravarRequisicao(rapidas, ProtocoloBinarioTerminal.MTI_SAQUE_TERMINAL, null, 4, 15000, "ATM-1");
+		
+		try (SocketChannel lenta = conectar(); SocketChannel rapida = conectar()) {
+			// when
+			lentas.flip();
+			while (lentas.hasRemaining()) {
+				lenta.write(lentas);
+			}
+			rapidas.flip();
+			while (rapidas.hasRemaining()) {
+				rapida.write(rapidas);
+			}
+			List<int[]> respostasRapidas = lerRespostas(rapida, 2);
+			long pendentes = gravacao.getCount();
+			gravacao.countDown();
+			List<int[]> respostasLentas = lerRespostas(lenta, 2);
+			
+			// then
+			assertEquals(1, pendentes);
+			assertResposta(respostasRapidas.get(0), 110, CodigoRespostaTerminalEnum.APROVADO, 3, 0, 3, 1, 1, 1, 0, 0);
+			assertResposta(respostasRapidas.get(1), 210, CodigoRespostaTerminalEnum.APROVADO, 4, 0, 1, 0, 2, 1, 0, 0);
+			assertResposta(respostasLentas.get(0), 210, CodigoRespostaTerminalEnum.APROVADO, 1, 0, 1, 0, 2, 1, 0, 0);
+			assertResposta(respostasLentas.get(1), 110, CodigoRespostaTerminalEnum.APROVADO, 2, 0, 0, 0, 1, 1, 0, 0);
+		}
+	}
+	
+	private SocketChannel conectar() throws IOException {
+		return SocketChannel.open(new InetSocketAddress("127.0.0.1", servidor.getPorta()));
+	}
+	
+	/**
+	 * Lê respostas completas: mti, código, rastreio e as quantidades de cédulas.
+	 */
+	private static List<int[]> lerRespostas(SocketChannel canal, int quantidade) throws IOException {
+		ByteBuffer entrada = ByteBuffer.allocate(quantidade * ProtocoloBinarioTerminal.TAMANHO_RESPOSTA);
+		while (entrada.hasRemaining()) {
+			if (canal.read(entrada) < 0) {
+				throw new IOException("Conexão encerrada após " + entrada.position() + " bytes");
+			}
+		}
+		entrada.flip();
+		
+		List<int[]> respostas = new ArrayList<>();
+		for (int i = 0; i < quantidade; i++) {
+			int[] resposta = new int[3 + ProtocoloBinarioTerminal.CEDULAS_RESPOSTA.size()];
+			resposta[0] = entrada.getShort();
+			resposta[1] = entrada.getShort();
+			resposta[2] = entrada.getInt();
+			for (int c = 3; c < resposta.length; c++) {
+				resposta[c] = entrada.getInt();
+			}
+			respostas.add(resposta);
+		}
+		return respostas;
+	}
+	
+	private static void assertResposta(int[] resposta, int mti, CodigoRespostaTerminalEnum codigo, int rastreio, int... cedulas) {
+		assertEquals(mti, resposta[0]);
+		assertEquals(codigo.getCodigo(), resposta[1]);
+		assertEquals(rastreio, resposta[2]);
+		for (int c = 0; c < cedulas.length; c++) {
+			assertEquals(cedulas[c], resposta[3 + c], "cédula de " + ProtocoloBinarioTerminal.CEDULAS_RESPOSTA.get(c).getValorFaceCedula());
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.zenvia.challenge.caixa.arch.trilhas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TrilhaSaquesTest {
+	
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+	
+	private static List<String> ler(Path arquivo, long tamanhoJanela) throws IOException {
+		List<String> registros = new ArrayList<>();
+		TrilhaSaques.percorrer(arquivo, tamanhoJanela, registro -> registros.add(
+				registro.getTerminal() + "|" + registro.getInstante() + "|" + registro.getValorCentavos()));
+		return registros;
+	}
+	
+	/**
+	 * Teste unitário da leitura de CSV: cabeçalho, instantes em milissegundos e ISO-8601, valores com decimais,
+	 * linhas malformadas e registros que atravessam o fim das janelas mapeadas.
+	 * @throws IOException
+	 */
+	@Test
+	public void lerTrilhaCsvTest() throws IOException {
+		// given
+		Path arquivo = pasta.newFile("trilha.csv").toPath();
+		Files.write(arquivo, ("terminal,instante,valor\n"
+				+ "ATM-1,1583057730000,150\r\n"
+				+ " ATM-2 , 2020-03-01T10:15:30Z , 99.90\n"
+				+ "\n"
+				+ "ATM-1,2020-03-01 10:15:30.5,20.5\n"
+				+ "ATM-3,2020-03-01T10:15:30,dez\n"
+				+ "ATM-3,ontem,100\n"
+				+ "ATM-3,1583057730000\n"
+				+ "ATM-1,1583057730001,0.001\n"
+				+ "ATM-2,1583057730002,1000").getBytes(StandardCharsets.UTF_8));
+		long instante = Instant.parse("2020-03-01T10:15:30Z").toEpochMilli();
+		
+		List<String> esperados = Arrays.asList(
+				"ATM-1|1583057730000|15000",
+				"ATM-2|" + instante + "|9990",
+				"ATM-1|" + (instante + 500) + "|2050",
+				"ATM-3|" + instante + "|-1",
+				"ATM-3|" + Long.MIN_VALUE + "|-1",
+				"ATM-3|1583057730000|-1",
+				"ATM-1|1583057730001|-1",
+				"ATM-2|1583057730002|100000");
+		
+		// when - then
+		assertEquals(esperados, ler(arquivo, TrilhaSaques.TAMANHO_JANELA));
+		assertEquals(esperados, ler(arquivo, 48));
+	}
+	
+	/**
+	 * Teste unitário da trilha binária gravada pelo {@link TrilhaSaques.Gravador}, com janelas que cortam os registros,
+	 * e da recusa de uma trilha truncada.
+	 * @throws IOException
+	 */
+	@Test
+	public void lerTrilhaBinariaTest() throws IOException {
+		// given
+		Path arquivo = pasta.newFile("trilha.bin").toPath();
+		List<String> esperados = new ArrayList<>();
+		try (TrilhaSaques.Gravador gravador = new TrilhaSaques.Gravador(arquivo)) {
+			for (int i = 0; i < 1000; i++) {
+				String terminal = "ATM-" + (i % 37);
+				gravador.gravar(terminal, 1583020800000L + i * 60_000L, 1000L * (1 + i % 50));
+				esperados.add(terminal + "|" + (1583020800000L + i * 60_000L) + "|" + 1000L * (1 + i % 50));
+			}
+		}
+		
+		// when - then
+		assertEquals(esperados, ler(arquivo, TrilhaSaques.TAMANHO_JANELA));
+		assertEquals(esperados, ler(arquivo, 100));
+		
+		try (RandomAccessFile truncado = new RandomAccessFile(arquivo.toFile(), "rw")) {
+			truncado.setLength(truncado.length() - 3);
+		}
+		assertThrows(IOException.class, () -> ler(arquivo, 100));
+	}
+}
@@ -0,0 +1,81 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.arch.admissao.FiltroAdmissao;
+import com.zenvia.challenge.caixa.arch.metricas.MetricasSaque;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+				classes = CaixaApplication.class,
+				properties = {"caixa.admissao.capacidade=3", "caixa.admissao.requisicoes-por-segundo=0.01"})
+public class CaixaEletronicoAdmissaoIT {
+	
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+	
+	@Autowired
+	private FilterRegistrationBean<FiltroAdmissao> filtroAdmissao;
+	
+	@Autowired
+	private MeterRegistry registry;
+	
+	private MockMvc mvc;
+	
+	@Before
+	public void setup() {
+		mvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+				.addFilter(filtroAdmissao.getFilter(), CaixaEletronicoRest.PATH + "/*")
+				.build();
+	}
+	
+	/**
+	 * Teste integrado do limite por cliente: esgotada a rajada, a requisição recebe 429 sem chegar ao serviço,
+	 * e os demais clientes continuam sendo atendidos
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasAcimaDoLimiteDoClienteTest() throws Exception {
+		// given
+		String uri = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS;
+		for (int i = 0; i < 3; i++) {
+			mvc.perform(get(uri, BigDecimal.valueOf(150)).header(FiltroAdmissao.HEADER_CHAVE_API, "ruidoso"))
+				.andExpect(status().isOk());
+		}
+		double operacoes = registry.get(MetricasSaque.METRICA_OPERACAO).tag("tipo", "calculo").timer().count();
+		
+		// when - then
+		mvc.perform(get(uri, BigDecimal.valueOf(150)).header(FiltroAdmissao.HEADER_CHAVE_API, "ruidoso"))
+			.andExpect(status().is(HttpStatus.TOO_MANY_REQUESTS.value()))
+			.andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+			.andExpect(content().string(FiltroAdmissao.MSG_LIMITE_REQUISICOES_EXCEDIDO));
+		
+		assertEquals(operacoes, registry.get(MetricasSaque.METRICA_OPERACAO).tag("tipo", "calculo").timer().count());
+		assertEquals(1.0, registry.get(FiltroAdmissao.METRICA_REJEICOES).counter().count());
+		
+		mvc.perform(get(uri, BigDecimal.valueOf(150)).header(FiltroAdmissao.HEADER_CHAVE_API, "outro"))
+			.andExpect(status().isOk());
+	}
+}
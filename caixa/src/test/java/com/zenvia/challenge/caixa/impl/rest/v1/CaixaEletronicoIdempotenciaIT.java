@@ -0,0 +1,206 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import static org.hamcrest.Matchers.is;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.arch.idempotencia.FiltroIdempotencia;
+import com.zenvia.challenge.caixa.arch.persistencia.PersistenciaSaques;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+				classes = CaixaApplication.class)
+public class CaixaEletronicoIdempotenciaIT {
+	
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+	
+	@Autowired
+	private FilterRegistrationBean<FiltroIdempotencia> filtroIdempotencia;
+	
+	@SpyBean
+	private PersistenciaSaques persistencia;
+	
+	private MockMvc mvc;
+	
+	@Before
+	public void setup() {
+		mvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+				.addFilter(filtroIdempotencia.getFilter(), CaixaEletronicoRest.PATH + "/terminais/*")
+				.build();
+	}
+	
+	private void cadastrarTerminal(String idTerminal) throws Exception {
+		mvc.perform(
+			put(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"CEDULA_100\": 10, \"CEDULA_50\": 10}"))
+			.andExpect(status().isCreated());
+	}
+	
+	/**
+	 * Teste integrado da repetição de um saque cuja gravação falhou: o saque já foi efetuado, então a resposta (202)
+	 * é armazenada e a repetição com a mesma Idempotency-Key não entrega as cédulas de novo
+	 * @throws Exception
+	 */
+	@Test
+	public void repetirSaqueComGravacaoFalhaTest() throws Exception {
+		// given
+		String idTerminal = "ATM-IDEMPOTENCIA-GRAVACAO";
+		cadastrarTerminal(idTerminal);
+		CompletableFuture<Void> falha = new CompletableFuture<>();
+		falha.completeExceptionally(new RejectedExecutionException(PersistenciaSaques.MSG_FILA_CHEIA));
+		Mockito.doReturn(falha).when(persistencia).registrar(Mockito.eq(idTerminal), Mockito.anyLong(), Mockito.anyLong());
+		
+		MockHttpServletResponse original = mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL + "?aguardar-gravacao=true", idTerminal, BigDecimal.valueOf(150))
+				.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-gravacao"))
+			.andExpect(status().isAccepted())
+			.andExpect(jsonPath("$.[0]", is("Entregar 1 cédula(s) de R$100,00.")))
+			.andReturn().getResponse();
+		
+		// when
+		MockHttpServletResponse repeticao = mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL + "?aguardar-gravacao=true", idTerminal, BigDecimal.valueOf(150))
+				.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-gravacao"))
+			.andExpect(status().isAccepted())
+			.andExpect(header().string(FiltroIdempotencia.HEADER_REPETICAO, "true"))
+			.andReturn().getResponse();
+		
+		// then
+		assertArrayEquals(original.getContentAsByteArray(), repeticao.getContentAsByteArray());
+		Mockito.verify(persistencia).registrar(Mockito.eq(idTerminal), Mockito.anyLong(), Mockito.anyLong());
+		mvc.perform(get(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal))
+			.andExpect(jsonPath("$.CEDULA_100", is(9)))
+			.andExpect(jsonPath("$.CEDULA_50", is(9)));
+	}
+	
+	/**
+	 * Teste integrado da repetição de um saque com a mesma Idempotency-Key: resposta idêntica e cédulas retiradas uma única vez
+	 * @throws Exception
+	 */
+	@Test
+	public void repetirSaqueComMesmaChaveTest() throws Exception {
+		// given
+		String idTerminal = "ATM-IDEMPOTENCIA-1";
+		cadastrarTerminal(idTerminal);
+		
+		MockHttpServletResponse original = mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(150))
+				.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-1")
+				.header(HttpHeaders.ORIGIN, "http://terminal.local"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse();
+		
+		// when
+		MockHttpServletResponse repeticao = mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(150))
+				.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-1")
+				.header(HttpHeaders.ORIGIN, "http://terminal.local"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(FiltroIdempotencia.HEADER_REPETICAO, "true"))
+			.andReturn().getResponse();
+		
+		// then
+		assertArrayEquals(original.getContentAsByteArray(), repeticao.getContentAsByteArray());
+		assertEquals(original.getContentType(), repeticao.getContentType());
+		for (String nome : original.getHeaderNames()) {
+			assertEquals(original.getHeaders(nome), repeticao.getHeaders(nome), nome);
+		}
+		assertFalse(repeticao.getHeaders(HttpHeaders.VARY).isEmpty());
+		mvc.perform(get(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal))
+			.andExpect(jsonPath("$.CEDULA_100", is(9)))
+			.andExpect(jsonPath("$.CEDULA_50", is(9)));
+		
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100))
+				.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-1"))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(content().string(FiltroIdempotencia.MSG_CHAVE_REUTILIZADA));
+		
+		// a query string faz parte da operação: outra estratégia com a mesma chave é outra requisição
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL + "?estrategia=TROCO", idTerminal, BigDecimal.valueOf(150))
+				.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-1"))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(content().string(FiltroIdempotencia.MSG_CHAVE_REUTILIZADA));
+	}
+	
+	/**
+	 * Teste integrado de repetições simultâneas: todas aguardam a primeira tentativa e só um saque é efetuado
+	 * @throws Exception
+	 */
+	@Test
+	public void repetirSaqueSimultaneamenteTest() throws Exception {
+		// given
+		String idTerminal = "ATM-IDEMPOTENCIA-2";
+		cadastrarTerminal(idTerminal);
+		int repeticoes = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(repeticoes);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<String>> respostas = new ArrayList<>();
+		
+		try {
+			for (int i = 0; i < repeticoes; i++) {
+				respostas.add(executor.submit(() -> {
+					largada.await();
+					return mvc.perform(
+						post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100))
+							.header(FiltroIdempotencia.HEADER_CHAVE_IDEMPOTENCIA, "saque-2"))
+						.andExpect(status().isOk())
+						.andReturn().getResponse().getContentAsString();
+				}));
+			}
+			
+			// when
+			largada.countDown();
+			
+			// then
+			for (Future<String> resposta : respostas) {
+				assertEquals(respostas.get(0).get(), resposta.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		mvc.perform(get(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal))
+			.andExpect(jsonPath("$.CEDULA_100", is(9)));
+	}
+}
@@ -0,0 +1,75 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.config.InicioRapidoConfig;
+
+import springfox.documentation.spring.web.plugins.Docket;
+
+/**
+ * Tempo até a primeira resposta do calcula-cedulas no modo de inicialização rápida, sobre um servidor real.
+ * Os limites podem ser ajustados ao ambiente por {@code -Dcaixa.inicio-rapido.limite-ms} (inicialização mais primeira
+ * resposta) e {@code -Dcaixa.inicio-rapido.limite-primeira-requisicao-ms}.
+ */
+public class CaixaEletronicoInicioRapidoIT {
+	
+	private static final long LIMITE_MS = Long.getLong("caixa.inicio-rapido.limite-ms", 15_000L);
+	
+	private static final long LIMITE_PRIMEIRA_REQUISICAO_MS = Long.getLong("caixa.inicio-rapido.limite-primeira-requisicao-ms", 1_000L);
+	
+	/**
+	 * Teste integrado do tempo até o primeiro saque com sucesso no perfil rapido, sem a documentação Swagger
+	 * @throws Exception
+	 */
+	@Test
+	public void primeiraRespostaCalculaCedulasNoInicioRapidoTest() throws Exception {
+		long inicio = System.nanoTime();
+		
+		try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CaixaApplication.class)
+				.profiles(InicioRapidoConfig.PERFIL)
+				.properties("server.port=0")
+				.run()) {
+			long inicioPrimeiraRequisicao = System.nanoTime();
+			
+			// when
+			int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+			URI uri = new DefaultUriBuilderFactory("http://localhost:" + porta)
+					.expand(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS, 150);
+			HttpURLConnection conexao = (HttpURLConnection) uri.toURL().openConnection();
+			conexao.setRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+			String corpo;
+			try (InputStream resposta = conexao.getInputStream()) {
+				corpo = StreamUtils.copyToString(resposta, StandardCharsets.UTF_8);
+			}
+			long fim = System.nanoTime();
+			
+			// then
+			assertEquals(200, conexao.getResponseCode());
+			assertEquals("[\"Entregar 1 cédula(s) de R$100,00.\",\"Entregar 1 cédula(s) de R$50,00.\"]", corpo);
+			assertTrue(contexto.getBeansOfType(Docket.class).isEmpty());
+			
+			long totalMs = TimeUnit.NANOSECONDS.toMillis(fim - inicio);
+			long primeiraRequisicaoMs = TimeUnit.NANOSECONDS.toMillis(fim - inicioPrimeiraRequisicao);
+			assertTrue(totalMs <= LIMITE_MS, "Primeira resposta após " + totalMs + " ms (limite de " + LIMITE_MS + " ms)");
+			assertTrue(primeiraRequisicaoMs <= LIMITE_PRIMEIRA_REQUISICAO_MS,
+					"Primeira requisição em " + primeiraRequisicaoMs + " ms (limite de " + LIMITE_PRIMEIRA_REQUISICAO_MS + " ms)");
+		}
+	}
+}
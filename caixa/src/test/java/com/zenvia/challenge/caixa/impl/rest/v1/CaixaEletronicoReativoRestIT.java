@@ -0,0 +1,96 @@
+package com.zenvia.challenge.caixa.impl.rest.v1;
+
+import java.math.BigDecimal;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.services.SaqueService;
+
+@RunWith(SpringRunner.class)
+// o tipo de aplicação é repetido aqui porque o contexto de teste o decide antes de ler os arquivos do perfil
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK,
+				classes = CaixaApplication.class,
+				properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reativo")
+public class CaixaEletronicoReativoRestIT {
+
+	@Autowired
+	private ApplicationContext applicationContext;
+	
+	private WebTestClient client;
+	
+	@Before
+	public void setup() {
+		client = WebTestClient.bindToApplicationContext(applicationContext).build();
+	}
+	
+	/**
+	 * Teste integrado de saque com sucesso na variante reativa
+	 */
+	@Test
+	public void calcularNotasSuccessfulTest() {
+		client.get()
+			.uri(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS, BigDecimal.valueOf(150))
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody()
+			.jsonPath("$.[0]").isEqualTo("Entregar 1 cédula(s) de R$100,00.")
+			.jsonPath("$.[1]").isEqualTo("Entregar 1 cédula(s) de R$50,00.");
+	}
+	
+	/**
+	 * Teste integrado de saque com erro de valor mínimo na variante reativa: mesmo mapeamento da BusinessException
+	 */
+	@Test
+	public void calcularNotasComErroDeValorMinimoParaSaqueTest() {
+		client.get()
+			.uri(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS, BigDecimal.valueOf(9))
+			.exchange()
+			.expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+			.expectBody(String.class).isEqualTo(SaqueService.MSG_VALOR_MINIMO_SAQUE);
+	}
+	
+	/**
+	 * Teste integrado da variante reativa com o mesmo atendimento da variante servlet: idioma de Accept-Language,
+	 * ETag com 304 a If-None-Match e valor que não é número rejeitado com 400
+	 */
+	@Test
+	public void calcularNotasNoIdiomaSolicitadoComEtagTest() {
+		String path = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS;
+		String etag = "\"" + ConjuntoCedulas.PADRAO.getVersao() + "-150-resumo-en\"";
+		
+		client.get()
+			.uri(path, BigDecimal.valueOf(150))
+			.header(HttpHeaders.ACCEPT_LANGUAGE, "en-US,en;q=0.9")
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+			.expectBody()
+			.jsonPath("$.[0]").isEqualTo("Dispense 1 note(s) of R$100.00.");
+		
+		client.get()
+			.uri(path, "150.00")
+			.header(HttpHeaders.ACCEPT_LANGUAGE, "en")
+			.header(HttpHeaders.IF_NONE_MATCH, etag)
+			.exchange()
+			.expectStatus().isNotModified();
+		
+		client.get()
+			.uri(path, "abc")
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(String.class).isEqualTo(SaqueService.MSG_VALOR_SAQUE_INVALIDO);
+	}
+}
@@ -1,14 +1,23 @@
 package com.zenvia.challenge.caixa.impl.rest.v1;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Before;
@@ -16,15 +25,25 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import com.zenvia.challenge.caixa.CaixaApplication;
+import com.zenvia.challenge.caixa.arch.metricas.MetricasSaque;
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.services.CalculoLoteService;
+import com.zenvia.challenge.caixa.impl.services.RegistroTerminaisService;
 import com.zenvia.challenge.caixa.impl.services.SaqueService;
 
 @RunWith(SpringRunner.class)
@@ -32,10 +51,13 @@ import com.zenvia.challenge.caixa.impl.services.SaqueService;
 				classes = CaixaApplication.class,
 				properties = "spring.profiles.active=dev,integration_test,h2")
 public class CaixaEletronicoRestIT {
-
+	
 	@Autowired
 	private WebApplicationContext webApplicationContext;
 	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
 	private MockMvc mvc;
 	
 	@Before
@@ -114,4 +136,367 @@ public class CaixaEletronicoRestIT {
 			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
 			.andExpect(content().string(containsString(SaqueService.MSG_VALOR_SAQUE_MAIOR_QUE_ZERO)));
 	}	
+	
+	/**
+	 * Teste integrado de saque com valor que não é um número, rejeitado na conversão sem chegar ao serviço
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasComValorMalformadoTest() throws Exception {
+		mvc.perform(
+			get(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS, "cem")	
+				.contentType(MediaType.APPLICATION_JSON))
+			.andExpect(status().isBadRequest())
+			.andExpect(content().string(containsString(SaqueService.MSG_VALOR_SAQUE_INVALIDO)));
+		
+		mvc.perform(get(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS, "1E+2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0]", is("Entregar 1 cédula(s) de R$100,00.")));
+		
+		mvc.perform(get("/actuator/prometheus"))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("caixa_saque_rejeicoes_total{motivo=\"VALOR_SAQUE_INVALIDO\"")));
+	}
+	
+	/**
+	 * Teste integrado de lote em array JSON, com erros reportados na linha de cada item
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasLoteJsonTest() throws Exception {
+		// given
+		String lote = "[150, 105, \"abc\", null, \"1e1000000\", \"1.5E+2\"]";
+		
+		MvcResult resultado = mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS_LOTE)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(lote))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		
+		mvc.perform(asyncDispatch(resultado))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(CalculoLoteService.MEDIA_TYPE_NDJSON));
+		
+		// then
+		List<String> linhas = Arrays.asList(resultado.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n"));
+		assertThat(linhas, hasSize(6));
+		assertThat(linhas, hasItem("{\"indice\":0,\"valor\":\"150\",\"cedulas\":[\"Entregar 1 cédula(s) de R$100,00.\",\"Entregar 1 cédula(s) de R$50,00.\"]}"));
+		assertThat(linhas, hasItem("{\"indice\":1,\"valor\":\"105\",\"erro\":\"" + SaqueService.MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO + "\"}"));
+		assertThat(linhas, hasItem("{\"indice\":2,\"valor\":\"abc\",\"erro\":\"" + CalculoLoteService.MSG_VALOR_SAQUE_INVALIDO + "\"}"));
+		assertThat(linhas, hasItem("{\"indice\":3,\"erro\":\"" + SaqueService.MSG_VALOR_SAQUE_OBRIGATORIO + "\"}"));
+		// expoente além de ConversorValorSaque.DIGITOS_MAXIMOS_BIG_DECIMAL: rejeitado sem expandir o valor
+		assertThat(linhas, hasItem("{\"indice\":4,\"valor\":\"1e1000000\",\"erro\":\"" + CalculoLoteService.MSG_VALOR_SAQUE_INVALIDO + "\"}"));
+		assertThat(linhas, hasItem("{\"indice\":5,\"valor\":\"1.5E+2\",\"cedulas\":[\"Entregar 1 cédula(s) de R$100,00.\",\"Entregar 1 cédula(s) de R$50,00.\"]}"));
+	}
+	
+	/**
+	 * Teste integrado de lote com um valor por linha
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasLoteTextoTest() throws Exception {
+		// given
+		String lote = "10\n\n20\n9\n";
+		
+		MvcResult resultado = mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS_LOTE)
+				.contentType(MediaType.TEXT_PLAIN)
+				.content(lote))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		
+		mvc.perform(asyncDispatch(resultado))
+			.andExpect(status().isOk());
+		
+		// then
+		List<String> linhas = Arrays.asList(resultado.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n"));
+		assertThat(linhas, hasSize(3));
+		assertThat(linhas, hasItem("{\"indice\":0,\"valor\":\"10\",\"cedulas\":[\"Entregar 1 cédula(s) de R$10,00.\"]}"));
+		assertThat(linhas, hasItem("{\"indice\":1,\"valor\":\"20\",\"cedulas\":[\"Entregar 1 cédula(s) de R$20,00.\"]}"));
+		assertThat(linhas, hasItem("{\"indice\":2,\"valor\":\"9\",\"erro\":\"" + SaqueService.MSG_VALOR_MINIMO_SAQUE + "\"}"));
+	}
+	
+	/**
+	 * Teste integrado de cadastro de terminal, saques limitados ao estoque do terminal e retirada do terminal
+	 * @throws Exception
+	 */
+	@Test
+	public void sacarEmTerminalTest() throws Exception {
+		// given
+		String idTerminal = "ATM-IT-1";
+		
+		mvc.perform(
+			put(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"CEDULA_100\": 1, \"CEDULA_50\": 1, \"CEDULA_20\": 3}"))
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.CEDULA_10", is(0)));
+		
+		// saque pago pela busca exata: sem cédulas de 10,00 a decomposição gulosa falharia
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(160)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0]", is("Entregar 1 cédula(s) de R$100,00.")))
+			.andExpect(jsonPath("$.[1]", is("Entregar 3 cédula(s) de R$20,00.")));
+		
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100)))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(content().string(containsString(SaqueService.MSG_CEDULAS_INSUFICIENTES)));
+		
+		mvc.perform(get(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.CEDULA_50", is(1)))
+			.andExpect(jsonPath("$.CEDULA_100", is(0)));
+		
+		mvc.perform(delete(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal))
+			.andExpect(status().isNoContent());
+		
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(50)))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(content().string(containsString(RegistroTerminaisService.MSG_TERMINAL_NAO_CADASTRADO)));
+	}
+	
+	/**
+	 * Teste integrado do saque à espera da gravação e do cadastro recusado para um identificador maior que o gravado
+	 * @throws Exception
+	 */
+	@Test
+	public void sacarEmTerminalAguardandoGravacaoTest() throws Exception {
+		// given
+		String idTerminal = "ATM-IT-GRAVACAO";
+		char[] idLongo = new char[TrilhaSaques.TAMANHO_MAXIMO_ID + 1];
+		Arrays.fill(idLongo, 'A');
+		
+		mvc.perform(
+			put(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"CEDULA_100\": 1}"))
+			.andExpect(status().isCreated());
+		
+		// when - then
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100))
+				.param("aguardar-gravacao", "true"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", contains("Entregar 1 cédula(s) de R$100,00.")));
+		
+		mvc.perform(
+			put(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, new String(idLongo))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"CEDULA_100\": 1}"))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(content().string(containsString(RegistroTerminaisService.MSG_ID_TERMINAL_MUITO_LONGO)));
+	}
+	
+	/**
+	 * Teste integrado das estratégias de dispensação: do terminal, da requisição e alterada com o terminal em operação
+	 * @throws Exception
+	 */
+	@Test
+	public void sacarEmTerminalComEstrategiaTest() throws Exception {
+		// given
+		String idTerminal = "ATM-IT-2";
+		
+		mvc.perform(
+			put(TerminalRest.PATH + TerminalRest.PATH_TERMINAL, idTerminal)
+				.param("estrategia", "TROCO")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"CEDULA_100\": 10, \"CEDULA_50\": 10, \"CEDULA_20\": 10, \"CEDULA_10\": 10}"))
+			.andExpect(status().isCreated());
+		
+		// when - then
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", contains("Entregar 1 cédula(s) de R$50,00.", "Entregar 2 cédula(s) de R$20,00.",
+					"Entregar 1 cédula(s) de R$10,00.")));
+		
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100))
+				.param("estrategia", "MENOR_QUANTIDADE"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", contains("Entregar 1 cédula(s) de R$100,00.")));
+		
+		mvc.perform(put(TerminalRest.PATH + TerminalRest.PATH_ESTRATEGIA, idTerminal, "PRESERVACAO"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", is("PRESERVACAO")));
+		
+		// 20,00 e 10,00 são as cédulas com menor estoque (8 e 9)
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(150)))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$", contains("Entregar 1 cédula(s) de R$100,00.", "Entregar 1 cédula(s) de R$50,00.")));
+		
+		mvc.perform(
+			post(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_SAQUE_TERMINAL, idTerminal, BigDecimal.valueOf(100))
+				.param("estrategia", "INEXISTENTE"))
+			.andExpect(status().isBadRequest());
+	}
+	
+	/**
+	 * Teste integrado da exposição das métricas do saque no endpoint de coleta Prometheus
+	 * @throws Exception
+	 */
+	@Test
+	public void exporMetricasPrometheusTest() throws Exception {
+		// given
+		mvc.perform(get(CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS, BigDecimal.valueOf(150)))
+			.andExpect(status().isOk());
+		
+		mvc.perform(get("/actuator/prometheus"))
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("caixa_saque_etapa_seconds_bucket{etapa=\"calculo\"")))
+			.andExpect(content().string(containsString("caixa_cedulas_dispensadas_cedulas_total{cedula=\"CEDULA_100\"")))
+			.andExpect(content().string(containsString("caixa_saque_rejeicoes_total{motivo=\"VALOR_MINIMO_SAQUE\"")));
+	}
+	
+	/**
+	 * Teste integrado da negociação de conteúdo: lista de mensagens por padrão, composição estruturada e binária sob demanda
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasComNegociacaoDeConteudoTest() throws Exception {
+		// given
+		BigDecimal valorSaque = BigDecimal.valueOf(380);
+		String path = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS;
+		
+		mvc.perform(get(path, valorSaque).accept(MediaType.ALL))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0]", is("Entregar 3 cédula(s) de R$100,00.")));
+		
+		mvc.perform(get(path, valorSaque).accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_JSON))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_JSON))
+			.andExpect(jsonPath("$.cedulas.CEDULA_100", is(3)))
+			.andExpect(jsonPath("$.cedulas.CEDULA_50", is(1)))
+			.andExpect(jsonPath("$.cedulas.CEDULA_20", is(1)))
+			.andExpect(jsonPath("$.cedulas.CEDULA_10", is(1)))
+			.andExpect(jsonPath("$.valorTotal", is(380)));
+		
+		byte[] binario = mvc.perform(get(path, valorSaque).accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA))
+			.andReturn().getResponse().getContentAsByteArray();
+		assertThat(binario, is(new byte[] { 4, 3, 1, 1, 1 }));
+		
+		mvc.perform(get(path, BigDecimal.valueOf(105)).accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+	}
+	
+	/**
+	 * Teste integrado das mensagens no idioma do cabeçalho Accept-Language, com o português como padrão
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasNoIdiomaSolicitadoTest() throws Exception {
+		// given
+		BigDecimal valorSaque = BigDecimal.valueOf(150);
+		String path = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS;
+		
+		mvc.perform(get(path, valorSaque).header("Accept-Language", "en-US,en;q=0.9"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0]", is("Dispense 1 note(s) of R$100.00.")))
+			.andExpect(jsonPath("$.[1]", is("Dispense 1 note(s) of R$50.00.")));
+		
+		mvc.perform(get(path, valorSaque).header("Accept-Language", "es"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0]", is("Entregar 1 billete(s) de R$100,00.")));
+		
+		mvc.perform(get(path, valorSaque).header("Accept-Language", "fr"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.[0]", is("Entregar 1 cédula(s) de R$100,00.")));
+	}
+	
+	/**
+	 * Teste integrado do cache HTTP: ETag por valor, idioma e formato, 304 a If-None-Match sem calcular o saque, e rejeições sem ETag
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasComEtagTest() throws Exception {
+		// given
+		String path = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS;
+		String prefixo = "\"" + ConjuntoCedulas.PADRAO.getVersao() + "-150-";
+		Timer operacao = meterRegistry.get(MetricasSaque.METRICA_OPERACAO).tag("tipo", "calculo").timer();
+		
+		MvcResult completa = mvc.perform(get(path, BigDecimal.valueOf(150)))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, prefixo + "resumo-pt-BR\""))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+			.andReturn();
+		String etag = completa.getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(completa.getResponse().getHeaders(HttpHeaders.VARY).toString(), containsString(HttpHeaders.ACCEPT_LANGUAGE));
+		long operacoes = operacao.count();
+		
+		// when - then
+		mvc.perform(get(path, "150.00").header(HttpHeaders.IF_NONE_MATCH, "\"outra\", " + etag))
+			.andExpect(status().isNotModified())
+			.andExpect(header().string(HttpHeaders.ETAG, etag))
+			.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=300, public"))
+			.andExpect(content().string(""));
+		assertThat(operacao.count(), is(operacoes));
+		
+		mvc.perform(get(path, BigDecimal.valueOf(150)).header(HttpHeaders.ACCEPT_LANGUAGE, "en").header(HttpHeaders.IF_NONE_MATCH, etag))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, prefixo + "resumo-en\""));
+		
+		MvcResult binaria = mvc.perform(get(path, BigDecimal.valueOf(150)).accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA))
+			.andExpect(header().string(HttpHeaders.ETAG, prefixo + "composicao-binaria\""))
+			.andReturn();
+		assertThat(binaria.getResponse().getHeaders(HttpHeaders.VARY).toString(), containsString(HttpHeaders.ACCEPT));
+		
+		mvc.perform(get(path, BigDecimal.valueOf(150))
+				.accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_BINARIA)
+				.header(HttpHeaders.IF_NONE_MATCH, binaria.getResponse().getHeader(HttpHeaders.ETAG)))
+			.andExpect(status().isNotModified());
+		
+		mvc.perform(get(path, BigDecimal.valueOf(150)).accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_JSON))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, prefixo + "composicao-json\""));
+		
+		mvc.perform(get(path, BigDecimal.valueOf(109)))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+			.andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+	}
+	
+	/**
+	 * Teste integrado da ETag com o idioma atendido e da validação anterior a ela: um valor rejeitado recebe a rejeição
+	 * mesmo com uma If-None-Match que conferiria com a sua chave, e expoentes enormes são rejeitados sem expandir o valor
+	 * @throws Exception
+	 */
+	@Test
+	public void calcularNotasComEtagAposValidacaoTest() throws Exception {
+		// given
+		String path = CaixaEletronicoRest.PATH + CaixaEletronicoRest.PATH_CALCULAR_CEDULAS;
+		String versao = "\"" + ConjuntoCedulas.PADRAO.getVersao();
+		
+		// when - then
+		mvc.perform(get(path, BigDecimal.valueOf(150)).header(HttpHeaders.ACCEPT_LANGUAGE, "en-US,en;q=0.9"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, versao + "-150-resumo-en\""));
+		
+		mvc.perform(get(path, BigDecimal.valueOf(150)).header(HttpHeaders.ACCEPT_LANGUAGE, "fr"))
+			.andExpect(status().isOk())
+			.andExpect(header().string(HttpHeaders.ETAG, versao + "-150-resumo-pt-BR\""));
+		
+		mvc.perform(get(path, "1.5e1").header(HttpHeaders.IF_NONE_MATCH, versao + "-15-resumo-pt-BR\""))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+			.andExpect(content().string(SaqueService.MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO));
+		
+		mvc.perform(get(path, "1.5e1").accept(CaixaEletronicoRest.MEDIA_TYPE_COMPOSICAO_JSON)
+				.header(HttpHeaders.IF_NONE_MATCH, versao + "-15-composicao-json\""))
+			.andExpect(status().is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+		
+		mvc.perform(get(path, "1.5e2").header(HttpHeaders.IF_NONE_MATCH, versao + "-150-resumo-pt-BR\""))
+			.andExpect(status().isNotModified());
+		
+		mvc.perform(get(path, "1e500000000"))
+			.andExpect(status().isBadRequest())
+			.andExpect(content().string(SaqueService.MSG_VALOR_SAQUE_INVALIDO));
+	}
 }
@@ -2,10 +2,14 @@ package com.zenvia.challenge.caixa.impl.services;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,7 +18,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import com.zenvia.challenge.caixa.arch.auditoria.TrilhaAuditoria;
 import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.arch.metricas.MetricasSaque;
+import com.zenvia.challenge.caixa.arch.persistencia.PersistenciaSaques;
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
 
 @RunWith(MockitoJUnitRunner.class)
 public class CaixaEletronicoOperationServiceTest {
@@ -22,6 +32,21 @@ public class CaixaEletronicoOperationServiceTest {
 	@Mock
 	private SaqueService saqueService;
 	
+	@Mock
+	private RegistroTerminaisService registroTerminais;
+	
+	@Mock
+	private MetricasSaque metricas;
+	
+	@Mock
+	private TrilhaAuditoria auditoria;
+	
+	@Mock
+	private TotaisCedulasService totais;
+	
+	@Mock
+	private PersistenciaSaques persistencia;
+	
 	@InjectMocks
 	private CaixaEletronicoOperationService caixaEletronicoOperationService;
 	
@@ -61,4 +86,105 @@ public class CaixaEletronicoOperationServiceTest {
 			.isInstanceOf(BusinessException.class)
 			.hasMessage(SaqueService.MSG_VALOR_MINIMO_SAQUE);
 	}
+	
+	/**
+	 * Teste de saque em um terminal: as cédulas reservadas no estoque do terminal são confirmadas pelo registro de terminais
+	 */
+	@Test
+	public void saqueEmTerminalSuccessfulTest() {
+		// given
+		BigDecimal valorPretendidoSaque = BigDecimal.valueOf(100);
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = 1;
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades);
+		ReservaCedulas reserva = estoque.reservar(quantidades);
+		List<String> retornoArbitrado = new ArrayList<>();
+		retornoArbitrado.add("Entregar 1 cédula(s) de R$100,00.");
+		
+		Terminal terminal = new Terminal("ATM-1", estoque);
+		Mockito.when(registroTerminais.obter("ATM-1")).thenReturn(terminal);
+		Mockito.when(saqueService.reservarSaque(valorPretendidoSaque, estoque, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE)).thenReturn(reserva);
+		Mockito.when(saqueService.gerarResumos(reserva.getComposicao(), RenderizadorResumos.IDIOMA_PADRAO)).thenReturn(retornoArbitrado);
+		
+		// when
+		List<String> retornoObtido = caixaEletronicoOperationService.saque("ATM-1", valorPretendidoSaque);
+		
+		// then
+		assertEquals(retornoArbitrado, retornoObtido);
+		Mockito.verify(registroTerminais).confirmarSaque(terminal, reserva);
+	}
+	
+	/**
+	 * Teste de saque em um terminal cujos registros posteriores à confirmação falham: as cédulas já foram entregues,
+	 * então o saque é respondido normalmente, a gravação ainda é feita e as falhas são apenas contadas
+	 */
+	@Test
+	public void saqueEmTerminalComFalhaAposConfirmacaoTest() {
+		// given
+		BigDecimal valorPretendidoSaque = BigDecimal.valueOf(100);
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = 1;
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades);
+		ReservaCedulas reserva = estoque.reservar(quantidades);
+		
+		Terminal terminal = new Terminal("ATM-1", estoque);
+		Mockito.when(registroTerminais.obter("ATM-1")).thenReturn(terminal);
+		Mockito.when(saqueService.reservarSaque(valorPretendidoSaque, estoque, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE)).thenReturn(reserva);
+		Mockito.doThrow(new IllegalStateException("totais")).when(totais).registrar("ATM-1", reserva.getComposicao());
+		Mockito.doThrow(new IllegalStateException("auditoria")).when(auditoria).registrar(Mockito.any(), Mockito.eq("ATM-1"),
+				Mockito.eq(valorPretendidoSaque), Mockito.eq(reserva.getComposicao()), Mockito.isNull(), Mockito.anyLong());
+		
+		// when
+		ComposicaoSaque composicao = caixaEletronicoOperationService.saqueComposicao("ATM-1", valorPretendidoSaque, null);
+		
+		// then
+		assertEquals(reserva.getComposicao(), composicao);
+		Mockito.verify(registroTerminais).confirmarSaque(terminal, reserva);
+		Mockito.verify(persistencia).registrar(Mockito.eq("ATM-1"), Mockito.anyLong(), Mockito.eq(10000L));
+		Mockito.verify(metricas, Mockito.times(2)).registrarFalhaAposConfirmacao();
+	}
+	
+	/**
+	 * Teste de saque em um terminal com a gravação exposta: a gravação é concluída depois da resposta do serviço, e a
+	 * sua falha chega ao futuro com o saque já confirmado
+	 */
+	@Test
+	public void saqueTerminalComGravacaoTest() {
+		// given
+		BigDecimal valorPretendidoSaque = BigDecimal.valueOf(100);
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = 2;
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades);
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = 1;
+		ReservaCedulas primeira = estoque.reservar(quantidades);
+		ReservaCedulas segunda = estoque.reservar(quantidades);
+		
+		Terminal terminal = new Terminal("ATM-1", estoque);
+		CompletableFuture<Void> gravacao = new CompletableFuture<>();
+		CompletableFuture<Void> falha = new CompletableFuture<>();
+		falha.completeExceptionally(new RejectedExecutionException(PersistenciaSaques.MSG_FILA_CHEIA));
+		Mockito.when(registroTerminais.obter("ATM-1")).thenReturn(terminal);
+		Mockito.when(saqueService.reservarSaque(valorPretendidoSaque, estoque, EstrategiaDispensacaoEnum.MENOR_QUANTIDADE))
+				.thenReturn(primeira)
+				.thenReturn(segunda);
+		Mockito.when(persistencia.registrar(Mockito.eq("ATM-1"), Mockito.anyLong(), Mockito.eq(10000L)))
+				.thenReturn(gravacao)
+				.thenReturn(falha);
+		
+		// when
+		SaqueTerminal gravado = caixaEletronicoOperationService.saqueTerminal("ATM-1", valorPretendidoSaque, null);
+		boolean concluidoAntesDaGravacao = gravado.getGravacao().isDone();
+		gravacao.complete(null);
+		SaqueTerminal naoGravado = caixaEletronicoOperationService.saqueTerminal("ATM-1", valorPretendidoSaque, null);
+		
+		// then
+		assertEquals(false, concluidoAntesDaGravacao);
+		assertEquals(primeira.getComposicao(), gravado.getComposicao());
+		assertTrue(gravado.getGravacao().isDone());
+		assertEquals(segunda.getComposicao(), naoGravado.getComposicao());
+		assertThatThrownBy(naoGravado.getGravacao()::join)
+			.isInstanceOf(CompletionException.class)
+			.hasCauseInstanceOf(RejectedExecutionException.class);
+		Mockito.verify(registroTerminais).confirmarSaque(terminal, segunda);
+	}
 }
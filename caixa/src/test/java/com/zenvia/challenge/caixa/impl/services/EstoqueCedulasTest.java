@@ -0,0 +1,198 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.enums.SituacaoReservaEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+public class EstoqueCedulasTest {
+	
+	private static int[] quantidades(int cedulas10, int cedulas20, int cedulas50, int cedulas100) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_10.ordinal()] = cedulas10;
+		quantidades[TipoCedulaEnum.CEDULA_20.ordinal()] = cedulas20;
+		quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = cedulas50;
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = cedulas100;
+		return quantidades;
+	}
+	
+	/**
+	 * Teste unitário para confirmar que uma reserva sem estoque suficiente não retira nenhuma cédula.
+	 */
+	@Test
+	public void reservarSemEstoqueSuficienteNaoRetiraCedulasTest() {
+		// given
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades(5, 5, 5, 1));
+		
+		// when
+		ReservaCedulas reserva = estoque.reservar(quantidades(1, 1, 1, 2));
+		
+		// then
+		assertNull(reserva);
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_10));
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_20));
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_50));
+		assertEquals(1, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+	}
+	
+	/**
+	 * Teste unitário de cancelamento e confirmação de uma reserva.
+	 */
+	@Test
+	public void cancelarReservaDevolveCedulasTest() {
+		// given
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades(5, 5, 5, 5));
+		ReservaCedulas reserva = estoque.reservar(quantidades(1, 2, 0, 3));
+		assertNotNull(reserva);
+		assertEquals(2, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+		
+		// when
+		assertTrue(reserva.cancelar());
+		
+		// then
+		assertFalse(reserva.confirmar());
+		assertFalse(reserva.cancelar());
+		assertEquals(SituacaoReservaEnum.CANCELADA, reserva.getSituacao());
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_20));
+	}
+	
+	/**
+	 * Teste de concorrência para confirmar que saques simultâneos nunca retiram mais cédulas do que o estoque possui.
+	 * @throws Exception
+	 */
+	@Test
+	public void reservasConcorrentesNaoUltrapassamEstoqueTest() throws Exception {
+		// given
+		int threads = 8;
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades(1000, 1000, 1000, 1000));
+		int[] saque = quantidades(1, 2, 1, 3);
+		CountDownLatch largada = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<Integer>> resultados = new ArrayList<>();
+		
+		Callable<Integer> reservarAteEsgotar = () -> {
+			largada.await();
+			int reservas = 0;
+			while (estoque.reservar(saque) != null) {
+				reservas++;
+			}
+			return reservas;
+		};
+		
+		for (int i = 0; i < threads; i++) {
+			resultados.add(executor.submit(reservarAteEsgotar));
+		}
+		
+		// when
+		largada.countDown();
+		int totalReservas = 0;
+		for (Future<Integer> resultado : resultados) {
+			totalReservas += resultado.get();
+		}
+		executor.shutdown();
+		
+		// then: o cassete de 100,00 limita a 333 saques, sobrando 1 cédula
+		assertEquals(333, totalReservas);
+		assertEquals(1, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+		assertEquals(1000 - 333, estoque.getDisponivel(TipoCedulaEnum.CEDULA_10));
+		assertEquals(1000 - 666, estoque.getDisponivel(TipoCedulaEnum.CEDULA_20));
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um abastecimento que estouraria um cassete é recusado sem alterar nenhum tipo.
+	 */
+	@Test
+	public void abastecerAlemDoMaximoNaoAlteraEstoqueTest() {
+		// given
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades(5, 5, 5, Integer.MAX_VALUE - 1));
+		
+		// when
+		BusinessException excecao = assertThrows(BusinessException.class, () -> estoque.abastecer(quantidades(1, 1, 1, 2)));
+		
+		// then
+		assertEquals(EstoqueCedulas.MSG_CAPACIDADE_CASSETE_EXCEDIDA, excecao.getMessage());
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_10));
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_50));
+		assertEquals(Integer.MAX_VALUE - 1, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+		assertThrows(BusinessException.class, () -> estoque.validarAbastecimento(quantidades(0, 0, 0, 2)));
+	}
+	
+	/**
+	 * Teste unitário para confirmar que as cédulas reservadas contam no máximo do cassete: o abastecimento não ocupa
+	 * o espaço delas, e o cancelamento posterior não estoura o contador. As confirmadas liberam o espaço.
+	 */
+	@Test
+	public void cancelarReservaAposAbastecerAteMaximoTest() {
+		// given
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades(5, 0, 0, 5));
+		ReservaCedulas cancelada = estoque.reservar(quantidades(0, 0, 0, 3));
+		ReservaCedulas confirmada = estoque.reservar(quantidades(3, 0, 0, 0));
+		
+		// when
+		estoque.abastecer(quantidades(0, 0, 0, Integer.MAX_VALUE - 5));
+		BusinessException excecao = assertThrows(BusinessException.class, () -> estoque.abastecer(quantidades(0, 0, 0, 1)));
+		assertTrue(cancelada.cancelar());
+		assertTrue(confirmada.confirmar());
+		estoque.abastecer(quantidades(Integer.MAX_VALUE - 2, 0, 0, 0));
+		
+		// then
+		assertEquals(EstoqueCedulas.MSG_CAPACIDADE_CASSETE_EXCEDIDA, excecao.getMessage());
+		assertEquals(Integer.MAX_VALUE, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+		assertEquals(Integer.MAX_VALUE, estoque.getDisponivel(TipoCedulaEnum.CEDULA_10));
+		assertThrows(BusinessException.class, () -> estoque.validarAbastecimento(quantidades(1, 0, 0, 0)));
+	}
+	
+	/**
+	 * Teste de concorrência para confirmar que um abastecimento recusado não deixa cédulas à vista dos saques
+	 * simultâneos: nenhum tipo fica disponível antes de todos caberem nos cassetes.
+	 * @throws Exception
+	 */
+	@Test
+	public void abastecimentoRecusadoNaoExpoeCedulasTest() throws Exception {
+		// given
+		EstoqueCedulas estoque = new EstoqueCedulas(quantidades(0, 0, 0, Integer.MAX_VALUE - 1));
+		int[] saque = quantidades(1, 0, 0, 0);
+		int[] abastecimento = quantidades(5, 0, 0, 2);
+		CountDownLatch fim = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<Integer> reservadas = executor.submit(() -> {
+			int total = 0;
+			while (fim.getCount() > 0) {
+				if (estoque.reservar(saque) != null) {
+					total++;
+				}
+			}
+			return total;
+		});
+		
+		// when
+		for (int i = 0; i < 100_000; i++) {
+			assertThrows(BusinessException.class, () -> estoque.abastecer(abastecimento));
+		}
+		fim.countDown();
+		
+		// then
+		assertEquals(0, reservadas.get());
+		executor.shutdown();
+		assertEquals(0, estoque.getDisponivel(TipoCedulaEnum.CEDULA_10));
+		estoque.abastecer(quantidades(5, 0, 0, 1));
+		assertEquals(5, estoque.getDisponivel(TipoCedulaEnum.CEDULA_10));
+	}
+}
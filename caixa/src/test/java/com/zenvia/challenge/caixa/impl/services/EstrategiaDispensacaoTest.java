@@ -0,0 +1,126 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.enums.EstrategiaDispensacaoEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+public class EstrategiaDispensacaoTest {
+	
+	private final SaqueService saqueService = new SaqueService();
+	
+	private static int[] quantidades(int cedulas10, int cedulas20, int cedulas50, int cedulas100) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_10.ordinal()] = cedulas10;
+		quantidades[TipoCedulaEnum.CEDULA_20.ordinal()] = cedulas20;
+		quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = cedulas50;
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = cedulas100;
+		return quantidades;
+	}
+	
+	private int[] calcular(EstrategiaDispensacaoEnum estrategia, long valorSaque, int[] disponiveis) {
+		int[] composicao = new int[TipoCedulaEnum.values().length];
+		assertTrue(saqueService.calcularCedulasLimitadas(valorSaque, composicao, disponiveis, estrategia));
+		return composicao;
+	}
+	
+	/**
+	 * Teste unitário da estratégia de troco: saques pequenos com cédulas variadas, os demais com o menor número de cédulas.
+	 */
+	@Test
+	public void calcularComTrocoTest() {
+		// given
+		int[] disponiveis = quantidades(100, 100, 100, 100);
+		
+		// when - then
+		assertArrayEquals(quantidades(1, 2, 1, 0), calcular(EstrategiaDispensacaoEnum.TROCO, 100, disponiveis));
+		assertArrayEquals(quantidades(1, 2, 0, 1), calcular(EstrategiaDispensacaoEnum.TROCO, 150, disponiveis));
+		assertArrayEquals(quantidades(0, 1, 0, 0), calcular(EstrategiaDispensacaoEnum.TROCO, 20, disponiveis));
+		assertArrayEquals(quantidades(0, 0, 0, 5), calcular(EstrategiaDispensacaoEnum.TROCO, 500, disponiveis));
+		// sem cédulas de 50,00, a preferida seguinte que cabe no estoque
+		assertArrayEquals(quantidades(2, 3, 0, 0), calcular(EstrategiaDispensacaoEnum.TROCO, 80, quantidades(100, 100, 0, 100)));
+	}
+	
+	/**
+	 * Teste unitário da estratégia de equilíbrio: o cassete mais vazio é poupado, e com os cassetes equilibrados
+	 * o resultado é o menor número de cédulas.
+	 */
+	@Test
+	public void calcularComEquilibrioTest() {
+		// given
+		int[] equilibrados = quantidades(500, 500, 500, 500);
+		int[] poucas100 = quantidades(500, 500, 500, 5);
+		
+		// when - then
+		assertArrayEquals(quantidades(0, 0, 1, 1), calcular(EstrategiaDispensacaoEnum.EQUILIBRIO, 150, equilibrados));
+		// sem a cédula de 100,00, a composição que menos exige de um mesmo cassete
+		assertArrayEquals(quantidades(1, 2, 2, 0), calcular(EstrategiaDispensacaoEnum.EQUILIBRIO, 150, poucas100));
+		// acima da tabela, o excedente também sai do cassete menos exigido
+		assertEquals(0, calcular(EstrategiaDispensacaoEnum.EQUILIBRIO, 1000, poucas100)[TipoCedulaEnum.CEDULA_100.ordinal()]);
+	}
+	
+	/**
+	 * Teste unitário da estratégia de preservação: a cédula com menor estoque só é usada quando nenhuma composição a dispensa.
+	 */
+	@Test
+	public void calcularComPreservacaoTest() {
+		// given
+		int[] poucas100 = quantidades(1000, 1000, 1000, 10);
+		
+		// when - then
+		assertArrayEquals(quantidades(0, 0, 4, 0), calcular(EstrategiaDispensacaoEnum.PRESERVACAO, 200, poucas100));
+		assertArrayEquals(quantidades(0, 0, 20, 0), calcular(EstrategiaDispensacaoEnum.PRESERVACAO, 1000, poucas100));
+		assertArrayEquals(quantidades(0, 0, 1, 1), calcular(EstrategiaDispensacaoEnum.PRESERVACAO, 150, quantidades(1000, 1000, 1000, 1000)));
+		// com poucas cédulas de 50,00 além das de 100,00, só a de 50,00 é poupada
+		assertArrayEquals(quantidades(0, 0, 0, 2), calcular(EstrategiaDispensacaoEnum.PRESERVACAO, 200, quantidades(1000, 1000, 5, 10)));
+	}
+	
+	/**
+	 * Teste unitário de todas as estratégias em estoques e valores aleatórios, com as cédulas padrão e com todas as cédulas:
+	 * a composição paga exatamente o valor dentro do estoque, e nenhuma estratégia recusa um valor que a busca exata paga.
+	 */
+	@Test
+	public void calcularComparadoComMenorQuantidadeTest() {
+		Random random = new Random(20200301L);
+		
+		for (ConjuntoCedulas conjunto : new ConjuntoCedulas[] {ConjuntoCedulas.PADRAO, ConjuntoCedulas.TODAS}) {
+			SaqueService servico = new SaqueService(conjunto);
+			int[] composicao = new int[TipoCedulaEnum.values().length];
+			int[] referencia = new int[TipoCedulaEnum.values().length];
+			
+			for (int caso = 0; caso < 3000; caso++) {
+				// given
+				int[] disponiveis = new int[TipoCedulaEnum.values().length];
+				for (TipoCedulaEnum tipoCedula : conjunto.getTiposDecrescentes()) {
+					disponiveis[tipoCedula.ordinal()] = random.nextInt(4) == 0 ? random.nextInt(3) : random.nextInt(60);
+				}
+				long valor = conjunto.getMultiploSaque() * (1L + random.nextInt(random.nextBoolean() ? 40 : 400));
+				boolean pagavel = servico.getEstrategia(EstrategiaDispensacaoEnum.MENOR_QUANTIDADE).calcular(valor, referencia, disponiveis);
+				
+				for (EstrategiaDispensacaoEnum estrategia : EstrategiaDispensacaoEnum.values()) {
+					// when
+					boolean calculado = servico.calcularCedulasLimitadas(valor, composicao, disponiveis, estrategia);
+					
+					// then
+					String descricao = estrategia + " " + conjunto + " valor " + valor;
+					assertEquals(pagavel, calculado, descricao);
+					if (calculado) {
+						long valorComposto = 0;
+						for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+							assertTrue(composicao[tipoCedula.ordinal()] >= 0 && composicao[tipoCedula.ordinal()] <= disponiveis[tipoCedula.ordinal()], descricao);
+							valorComposto += (long) composicao[tipoCedula.ordinal()] * tipoCedula.getValorFaceCedula();
+						}
+						assertEquals(valor, valorComposto, descricao);
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.arch.journal.JournalTerminais;
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.config.JournalProperties;
+import com.zenvia.challenge.caixa.config.RegistroTerminaisProperties;
+import com.zenvia.challenge.caixa.enums.SituacaoReservaEnum;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+public class RegistroTerminaisServiceTest {
+	
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+	
+	private static int[] quantidades(int cedulas10, int cedulas20, int cedulas50, int cedulas100) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_10.ordinal()] = cedulas10;
+		quantidades[TipoCedulaEnum.CEDULA_20.ordinal()] = cedulas20;
+		quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = cedulas50;
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = cedulas100;
+		return quantidades;
+	}
+	
+	private JournalTerminais abrirJournal() throws IOException {
+		JournalProperties properties = new JournalProperties();
+		properties.setDiretorio(pasta.getRoot().getAbsolutePath());
+		return new JournalTerminais(properties);
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um identificador maior que o aceito pelo journal e pela persistência dos saques
+	 * é recusado no cadastro, contado em bytes UTF-8.
+	 */
+	@Test
+	public void cadastrarIdTerminalMuitoLongoTest() {
+		// given
+		RegistroTerminaisService registro = new RegistroTerminaisService();
+		char[] limite = new char[TrilhaSaques.TAMANHO_MAXIMO_ID];
+		Arrays.fill(limite, 'A');
+		char[] acentuado = new char[TrilhaSaques.TAMANHO_MAXIMO_ID / 2 + 1];
+		Arrays.fill(acentuado, 'É');
+		
+		// when
+		Terminal aceito = registro.cadastrar(new String(limite), new EstoqueCedulas(quantidades(1, 0, 0, 0)));
+		BusinessException excecao = assertThrows(BusinessException.class,
+				() -> registro.cadastrar(new String(acentuado), new EstoqueCedulas(quantidades(1, 0, 0, 0))));
+		
+		// then
+		assertEquals(new String(limite), aceito.getId());
+		assertEquals(RegistroTerminaisService.MSG_ID_TERMINAL_MUITO_LONGO, excecao.getMessage());
+		assertEquals(1, registro.getQuantidadeTerminais());
+	}
+	
+	/**
+	 * Teste unitário para confirmar que um saque reservado em um terminal retirado não é gravado no journal depois da
+	 * retirada: um novo cadastro com o mesmo identificador é recuperado com o estoque que tinha em operação.
+	 */
+	@Test
+	public void saqueEmTerminalRetiradoNaoAlteraNovoCadastroTest() throws IOException {
+		// given
+		JournalTerminais journal = abrirJournal();
+		RegistroTerminaisService registro = new RegistroTerminaisService(new RegistroTerminaisProperties(), journal, ConjuntoCedulas.PADRAO);
+		Terminal antigo = registro.cadastrar("ATM-1", new EstoqueCedulas(quantidades(10, 10, 10, 10)));
+		ReservaCedulas reserva = antigo.getEstoque().reservar(quantidades(0, 0, 0, 1));
+		
+		// when
+		registro.retirar("ATM-1");
+		Terminal novo = registro.cadastrar("ATM-1", new EstoqueCedulas(quantidades(0, 0, 0, 5)));
+		BusinessException excecao = assertThrows(BusinessException.class, () -> registro.confirmarSaque(antigo, reserva));
+		journal.encerrar();
+		
+		// then
+		assertEquals(RegistroTerminaisService.MSG_TERMINAL_NAO_CADASTRADO, excecao.getMessage());
+		assertEquals(SituacaoReservaEnum.CANCELADA, reserva.getSituacao());
+		
+		int[] vivo = new int[TipoCedulaEnum.values().length];
+		novo.getEstoque().copiarDisponiveis(vivo);
+		JournalTerminais recuperado = abrirJournal();
+		try {
+			assertArrayEquals(vivo, recuperado.getEstoquesRecuperados().get("ATM-1"));
+		} finally {
+			recuperado.encerrar();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.math.BigInteger;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.services.RenderizadorResumos.ModeloResumo;
+
+public class RenderizadorResumosTest {
+	
+	private final RenderizadorResumos renderizador = new RenderizadorResumos();
+	
+	/**
+	 * Teste unitário para confirmar que as linhas prontas e as montadas sob demanda seguem o mesmo modelo.
+	 */
+	@Test
+	public void renderizarDentroEForaDasLinhasProntasTest() {
+		// given
+		ModeloResumo modelo = renderizador.getModelo(RenderizadorResumos.IDIOMA_PADRAO);
+		int limite = RenderizadorResumos.QUANTIDADE_LINHAS_PRONTAS;
+		
+		// when - then
+		assertEquals("Entregar 1 cédula(s) de R$10,00.", modelo.renderizar(TipoCedulaEnum.CEDULA_10, 1));
+		assertEquals("Entregar " + (limite - 1) + " cédula(s) de R$20,00.", modelo.renderizar(TipoCedulaEnum.CEDULA_20, limite - 1));
+		assertEquals("Entregar " + limite + " cédula(s) de R$50,00.", modelo.renderizar(TipoCedulaEnum.CEDULA_50, limite));
+		assertEquals("Entregar 92233720368547758070 cédula(s) de R$100,00.",
+				modelo.renderizar(TipoCedulaEnum.CEDULA_100, BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN)));
+		assertSame(modelo.renderizar(TipoCedulaEnum.CEDULA_10, 7), modelo.renderizar(TipoCedulaEnum.CEDULA_10, Integer.valueOf(7)));
+	}
+	
+	/**
+	 * Teste unitário para a escolha do modelo pelo idioma, com o português como padrão.
+	 */
+	@Test
+	public void escolherModeloPorIdiomaTest() {
+		// when - then
+		assertEquals("Dispense 2 note(s) of R$100.00.", renderizador.getModelo(Locale.US).renderizar(TipoCedulaEnum.CEDULA_100, 2));
+		assertEquals("Entregar 2 billete(s) de R$50,00.", renderizador.getModelo(Locale.forLanguageTag("es-AR")).renderizar(TipoCedulaEnum.CEDULA_50, 2));
+		assertSame(renderizador.getModelo(RenderizadorResumos.IDIOMA_PADRAO), renderizador.getModelo(Locale.FRENCH));
+		assertSame(renderizador.getModelo(RenderizadorResumos.IDIOMA_PADRAO), renderizador.getModelo((Locale) null));
+	}
+}
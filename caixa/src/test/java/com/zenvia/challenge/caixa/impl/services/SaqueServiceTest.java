@@ -3,8 +3,10 @@ package com.zenvia.challenge.caixa.impl.services;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,6 +18,8 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
 import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SaqueServiceTest {
@@ -398,4 +402,199 @@ public class SaqueServiceTest {
 		// then
 		assertEquals(resumoEsperado, resumoObtido);
 	}
+	
+	/**
+	 * Teste unitário do cálculo primitivo escrevendo as quantidades em um vetor fornecido pelo chamador.
+	 */
+	@Test
+	public void calcularCedulasPrimitivoParaValor1880SuccessfulTest() {
+		// given
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		
+		// when
+		long residuo = saqueService.calcularCedulas(1880L, quantidades);
+		
+		// then
+		assertEquals(0L, residuo);
+		assertEquals(18, quantidades[TipoCedulaEnum.CEDULA_100.ordinal()]);
+		assertEquals(1, quantidades[TipoCedulaEnum.CEDULA_50.ordinal()]);
+		assertEquals(1, quantidades[TipoCedulaEnum.CEDULA_20.ordinal()]);
+		assertEquals(1, quantidades[TipoCedulaEnum.CEDULA_10.ordinal()]);
+	}
+	
+	/**
+	 * Teste unitário da composição imutável calculada pelo caminho primitivo.
+	 */
+	@Test
+	public void calcularComposicaoParaValor90SuccessfulTest() {
+		// when
+		ComposicaoSaque composicao = saqueService.calcularComposicao(90L);
+		
+		// then
+		assertEquals(90L, composicao.getValorTotal());
+		assertEquals(3, composicao.getQuantidadeTotalCedulas());
+		assertEquals(1, composicao.getQuantidade(TipoCedulaEnum.CEDULA_50));
+		assertEquals(2, composicao.getQuantidade(TipoCedulaEnum.CEDULA_20));
+	}
+	
+	/**
+	 * Teste unitário para saque acima do limite do cálculo primitivo, sem perda de precisão.
+	 */
+	@Test
+	public void calcularCedulasParaValorAcimaDoLimitePrimitivoSuccessfulTest() {
+		// given
+		BigDecimal valorSaque = new BigDecimal("123456789012345678901230");
+		List<String> resumoEsperado = new ArrayList<>();
+		resumoEsperado.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_100, new BigInteger("1234567890123456789012")));
+		resumoEsperado.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_20, 1));
+		resumoEsperado.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_10, 1));
+		
+		// when
+		List<String> resumoObtido = saqueService.processarSaque(valorSaque);
+		
+		// then
+		assertEquals(resumoEsperado, resumoObtido);
+	}
+	
+	/**
+	 * Teste unitário para confirmar que saques repetidos compartilham o mesmo resumo imutável do cache.
+	 */
+	@Test
+	public void calcularCedulasRepetidoRetornaResumoDoCacheTest() {
+		// given
+		BigDecimal valorSaque = BigDecimal.valueOf(370);
+		long acertosIniciais = saqueService.getCacheResumos().getAcertos();
+		long falhasIniciais = saqueService.getCacheResumos().getFalhas();
+		
+		// when
+		List<String> primeiroResumo = saqueService.calcularCedulas(valorSaque);
+		List<String> segundoResumo = saqueService.calcularCedulas(valorSaque);
+		
+		// then
+		assertSame(primeiroResumo, segundoResumo);
+		assertEquals(falhasIniciais + 1, saqueService.getCacheResumos().getFalhas());
+		assertEquals(acertosIniciais + 1, saqueService.getCacheResumos().getAcertos());
+		assertThatThrownBy(() -> segundoResumo.add("Entregar 1 cédula(s) de R$10,00."))
+			.isInstanceOf(UnsupportedOperationException.class);
+	}
+	
+	/**
+	 * Teste unitário para confirmar que a tabela de restos produz a mesma composição da decomposição gulosa.
+	 */
+	@Test
+	public void calcularCedulasPorTabelaDeRestosTest() {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		
+		for (long valor = 0; valor <= 2000; valor += 10) {
+			// when
+			saqueService.calcularCedulas(valor, quantidades);
+			
+			// then
+			long valorEntregue = 0;
+			int valorAbaixoDe100 = 0;
+			for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+				valorEntregue += (long) quantidades[tipoCedula.ordinal()] * tipoCedula.getValorFaceCedula();
+				if (tipoCedula != TipoCedulaEnum.CEDULA_100) {
+					valorAbaixoDe100 += quantidades[tipoCedula.ordinal()] * tipoCedula.getValorFaceCedula();
+				}
+			}
+			assertEquals(valor, valorEntregue);
+			assertEquals(valor / 100, quantidades[TipoCedulaEnum.CEDULA_100.ordinal()]);
+			assertEquals(valor % 100, valorAbaixoDe100);
+		}
+	}
+	
+	/**
+	 * Teste unitário de saque reservado no estoque de um terminal.
+	 */
+	@Test
+	public void reservarSaqueSuccessfulTest() {
+		// given
+		int[] disponiveis = new int[TipoCedulaEnum.values().length];
+		disponiveis[TipoCedulaEnum.CEDULA_100.ordinal()] = 1;
+		disponiveis[TipoCedulaEnum.CEDULA_50.ordinal()] = 10;
+		disponiveis[TipoCedulaEnum.CEDULA_20.ordinal()] = 10;
+		disponiveis[TipoCedulaEnum.CEDULA_10.ordinal()] = 10;
+		EstoqueCedulas estoque = new EstoqueCedulas(disponiveis);
+		
+		// when
+		ReservaCedulas reserva = saqueService.reservarSaque(BigDecimal.valueOf(280), estoque);
+		
+		// then
+		assertEquals(1, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_100));
+		assertEquals(3, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_50));
+		assertEquals(1, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_20));
+		assertEquals(1, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_10));
+		assertEquals(0, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+		assertEquals(7, estoque.getDisponivel(TipoCedulaEnum.CEDULA_50));
+	}
+	
+	/**
+	 * Teste unitário para confirmar mensagem de erro quando o estoque do terminal não cobre o valor do saque
+	 */
+	@Test
+	public void reservarSaqueComEstoqueInsuficienteExceptionTest() {
+		// given
+		int[] disponiveis = new int[TipoCedulaEnum.values().length];
+		disponiveis[TipoCedulaEnum.CEDULA_100.ordinal()] = 2;
+		EstoqueCedulas estoque = new EstoqueCedulas(disponiveis);
+		
+		// when - then
+		assertThatThrownBy(() -> saqueService.reservarSaque(BigDecimal.valueOf(300), estoque))
+			.isInstanceOf(BusinessException.class)
+			.hasMessage(SaqueService.MSG_CEDULAS_INSUFICIENTES);
+		assertEquals(2, estoque.getDisponivel(TipoCedulaEnum.CEDULA_100));
+	}
+	
+	/**
+	 * Teste unitário de saque que a decomposição gulosa não paga com o estoque do terminal, mas a busca exata paga.
+	 */
+	@Test
+	public void reservarSaqueQuandoDecomposicaoGulosaFalhaTest() {
+		// given
+		int[] disponiveis = new int[TipoCedulaEnum.values().length];
+		disponiveis[TipoCedulaEnum.CEDULA_100.ordinal()] = 1;
+		disponiveis[TipoCedulaEnum.CEDULA_50.ordinal()] = 2;
+		disponiveis[TipoCedulaEnum.CEDULA_20.ordinal()] = 5;
+		EstoqueCedulas estoque = new EstoqueCedulas(disponiveis);
+		
+		// when
+		ReservaCedulas reserva = saqueService.reservarSaque(BigDecimal.valueOf(130), estoque);
+		
+		// then
+		assertEquals(0, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_100));
+		assertEquals(1, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_50));
+		assertEquals(4, reserva.getComposicao().getQuantidade(TipoCedulaEnum.CEDULA_20));
+		assertEquals(1, estoque.getDisponivel(TipoCedulaEnum.CEDULA_20));
+	}
+	
+	/**
+	 * Teste unitário de saque com cédulas de 2,00 e 5,00: mínimo, múltiplo e composição derivados do conjunto configurado.
+	 */
+	@Test
+	public void processarSaqueComConjuntoDeCedulasConfiguradoTest() {
+		// given
+		SaqueService saqueServiceReal = new SaqueService(ConjuntoCedulas.de(2, 5, 10, 20, 50, 100, 200));
+		List<String> resumoEsperado = new ArrayList<>();
+		resumoEsperado.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_200, 1));
+		resumoEsperado.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_2, 3));
+		
+		List<String> resumoValorAcimaDoCalculoPrimitivo = new ArrayList<>();
+		resumoValorAcimaDoCalculoPrimitivo.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_200, new BigInteger("617283945061728394")));
+		resumoValorAcimaDoCalculoPrimitivo.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_50, 1));
+		resumoValorAcimaDoCalculoPrimitivo.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_20, 2));
+		resumoValorAcimaDoCalculoPrimitivo.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_5, 1));
+		resumoValorAcimaDoCalculoPrimitivo.add(saqueService.gerarResumo(TipoCedulaEnum.CEDULA_2, 3));
+		
+		// when - then
+		assertEquals(resumoEsperado, saqueServiceReal.processarSaque(BigDecimal.valueOf(206)));
+		assertEquals(resumoValorAcimaDoCalculoPrimitivo, saqueServiceReal.processarSaque(new BigDecimal("123456789012345678901")));
+		assertEquals(4, saqueServiceReal.calcularComposicao(8).getQuantidade(TipoCedulaEnum.CEDULA_2));
+		assertThatThrownBy(() -> saqueServiceReal.processarSaque(BigDecimal.ONE))
+			.isInstanceOf(BusinessException.class)
+			.hasMessage("Valor mínimo de saque é de R$ 2,00.");
+		assertThatThrownBy(() -> saqueServiceReal.processarSaque(BigDecimal.valueOf(3)))
+			.isInstanceOf(BusinessException.class)
+			.hasMessage(SaqueService.MSG_VALOR_SAQUE_DEVE_SER_MULTIPLO);
+	}
 }
@@ -0,0 +1,117 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.zenvia.challenge.caixa.arch.trilhas.TrilhaSaques;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.model.EsgotamentoTerminal;
+
+public class SimuladorEsgotamentoTest {
+	
+	@Rule
+	public TemporaryFolder pasta = new TemporaryFolder();
+	
+	private static int[] abastecimento(int cedulas100, int cedulas50) {
+		int[] abastecimento = new int[TipoCedulaEnum.values().length];
+		abastecimento[TipoCedulaEnum.CEDULA_100.ordinal()] = cedulas100;
+		abastecimento[TipoCedulaEnum.CEDULA_50.ordinal()] = cedulas50;
+		return abastecimento;
+	}
+	
+	/**
+	 * Teste unitário da simulação: dispensação limitada ao estoque, rejeições por valor e por cédulas e instante de esgotamento.
+	 * @throws IOException
+	 */
+	@Test
+	public void simularEsgotamentoTest() throws IOException {
+		// given
+		Path trilha = pasta.newFile("marco.csv").toPath();
+		Files.write(trilha, ("terminal,instante,valor\n"
+				+ "ATM-1,1000,150\n"
+				+ "ATM-2,1500,100\n"
+				+ "ATM-1,2000,155\n"
+				+ "ATM-1,3000,200\n"
+				+ "ATM-1,4000,150\n"
+				+ "ATM-1,5000,50\n"
+				+ "ATM-2,6000,abc\n").getBytes(StandardCharsets.UTF_8));
+		SimuladorEsgotamento simulador = new SimuladorEsgotamento(new SaqueService(), new ForkJoinPool(2));
+		
+		// when
+		List<EsgotamentoTerminal> resultados = simulador.simular(Arrays.asList(trilha), abastecimento(2, 2));
+		
+		// then
+		assertEquals(2, resultados.size());
+		
+		EsgotamentoTerminal atm1 = resultados.get(0);
+		assertEquals("ATM-1", atm1.getTerminal());
+		assertEquals(2, atm1.getSaquesAtendidos());
+		assertEquals(1, atm1.getRejeitadosPorValor());
+		// 200,00 não é pagável com uma cédula de 100,00 e uma de 50,00; 50,00 chega depois do esgotamento
+		assertEquals(2, atm1.getRejeitadosPorCedulas());
+		assertEquals(4000, atm1.getEsgotamento(TipoCedulaEnum.CEDULA_100));
+		assertEquals(4000, atm1.getEsgotamento(TipoCedulaEnum.CEDULA_50));
+		assertEquals(0, atm1.getRestantes(TipoCedulaEnum.CEDULA_100));
+		
+		EsgotamentoTerminal atm2 = resultados.get(1);
+		assertEquals("ATM-2", atm2.getTerminal());
+		assertEquals(1, atm2.getSaquesAtendidos());
+		assertEquals(1, atm2.getRejeitadosPorValor());
+		assertEquals(EsgotamentoTerminal.SEM_ESGOTAMENTO, atm2.getEsgotamento(TipoCedulaEnum.CEDULA_100));
+		assertEquals(1, atm2.getRestantes(TipoCedulaEnum.CEDULA_100));
+		assertEquals(2, atm2.getRestantes(TipoCedulaEnum.CEDULA_50));
+	}
+	
+	/**
+	 * Teste unitário da partição dos terminais: o resultado com várias partições, sobre várias trilhas, é o mesmo da
+	 * simulação com uma única partição.
+	 * @throws IOException
+	 */
+	@Test
+	public void simularEmParaleloTest() throws IOException {
+		// given
+		Random random = new Random(20200301L);
+		Path fevereiro = pasta.newFile("fevereiro.bin").toPath();
+		Path marco = pasta.newFile("marco.bin").toPath();
+		long instante = 0;
+		for (Path trilha : Arrays.asList(fevereiro, marco)) {
+			try (TrilhaSaques.Gravador gravador = new TrilhaSaques.Gravador(trilha)) {
+				for (int i = 0; i < 50_000; i++) {
+					gravador.gravar("ATM-" + random.nextInt(500), instante += 1000, 1000L * (1 + random.nextInt(60)) + (i % 97 == 0 ? 5 : 0));
+				}
+			}
+		}
+		int[] abastecimento = new int[TipoCedulaEnum.values().length];
+		Arrays.fill(abastecimento, 200);
+		SaqueService saqueService = new SaqueService();
+		
+		// when
+		List<EsgotamentoTerminal> sequencial = new SimuladorEsgotamento(saqueService, new ForkJoinPool(1))
+				.simular(Arrays.asList(fevereiro, marco), abastecimento);
+		List<EsgotamentoTerminal> paralelo = new SimuladorEsgotamento(saqueService, new ForkJoinPool(4))
+				.simular(Arrays.asList(fevereiro, marco), abastecimento);
+		
+		// then
+		StringWriter relatorioSequencial = new StringWriter();
+		StringWriter relatorioParalelo = new StringWriter();
+		SimuladorEsgotamento.gravarRelatorio(sequencial, ConjuntoCedulas.PADRAO, relatorioSequencial);
+		SimuladorEsgotamento.gravarRelatorio(paralelo, ConjuntoCedulas.PADRAO, relatorioParalelo);
+		assertEquals(500, paralelo.size());
+		assertEquals(relatorioSequencial.toString(), relatorioParalelo.toString());
+		assertEquals(100_000, paralelo.stream().mapToLong(resultado -> resultado.getSaquesAtendidos() + resultado.getRejeitados()).sum());
+	}
+}
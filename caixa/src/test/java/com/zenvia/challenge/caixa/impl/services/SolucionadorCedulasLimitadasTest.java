@@ -0,0 +1,107 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+
+public class SolucionadorCedulasLimitadasTest {
+	
+	private final SolucionadorCedulasLimitadas solucionador = new SolucionadorCedulasLimitadas(
+			TipoCedulaEnum.getDecrescentValues().toArray(new TipoCedulaEnum[0]));
+	
+	private static int[] quantidades(int cedulas10, int cedulas20, int cedulas50, int cedulas100) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_10.ordinal()] = cedulas10;
+		quantidades[TipoCedulaEnum.CEDULA_20.ordinal()] = cedulas20;
+		quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = cedulas50;
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = cedulas100;
+		return quantidades;
+	}
+	
+	/**
+	 * Teste unitário de 60,00 sem cédulas de 10,00: a decomposição gulosa usaria a cédula de 50,00 e falharia.
+	 */
+	@Test
+	public void resolverValor60SemCedulasDe10Test() {
+		// given
+		int[] composicao = new int[TipoCedulaEnum.values().length];
+		
+		// when
+		boolean resolvido = solucionador.resolver(60, quantidades(0, 3, 1, 0), composicao);
+		
+		// then
+		assertTrue(resolvido);
+		assertArrayEquals(quantidades(0, 3, 0, 0), composicao);
+	}
+	
+	/**
+	 * Teste unitário para valor que nenhuma composição dentro do estoque paga.
+	 */
+	@Test
+	public void resolverValorSemComposicaoPossivelTest() {
+		// given
+		int[] composicao = new int[TipoCedulaEnum.values().length];
+		
+		// when - then
+		assertFalse(solucionador.resolver(110, quantidades(0, 5, 0, 1), composicao));
+	}
+	
+	/**
+	 * Teste unitário comparando o solucionador com uma busca exaustiva em estoques aleatórios.
+	 */
+	@Test
+	public void resolverComparadoComBuscaExaustivaTest() {
+		Random random = new Random(42);
+		int[] composicao = new int[TipoCedulaEnum.values().length];
+		
+		for (int caso = 0; caso < 2000; caso++) {
+			// given
+			int[] disponiveis = quantidades(random.nextInt(4), random.nextInt(8), random.nextInt(5), random.nextInt(6));
+			long valor = 10L * (1 + random.nextInt(80));
+			
+			// when
+			boolean resolvido = solucionador.resolver(valor, disponiveis, composicao);
+			
+			// then
+			int minimoEsperado = menorQuantidadeCedulas(valor, disponiveis);
+			assertEquals(minimoEsperado != Integer.MAX_VALUE, resolvido, "valor " + valor);
+			if (resolvido) {
+				long valorComposto = 0;
+				int totalCedulas = 0;
+				for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+					int quantidade = composicao[tipoCedula.ordinal()];
+					assertTrue(quantidade <= disponiveis[tipoCedula.ordinal()]);
+					valorComposto += (long) quantidade * tipoCedula.getValorFaceCedula();
+					totalCedulas += quantidade;
+				}
+				assertEquals(valor, valorComposto);
+				assertEquals(minimoEsperado, totalCedulas, "valor " + valor);
+			}
+		}
+	}
+	
+	private static int menorQuantidadeCedulas(long valor, int[] disponiveis) {
+		int menor = Integer.MAX_VALUE;
+		
+		for (int c100 = 0; c100 <= disponiveis[TipoCedulaEnum.CEDULA_100.ordinal()]; c100++) {
+			for (int c50 = 0; c50 <= disponiveis[TipoCedulaEnum.CEDULA_50.ordinal()]; c50++) {
+				for (int c20 = 0; c20 <= disponiveis[TipoCedulaEnum.CEDULA_20.ordinal()]; c20++) {
+					for (int c10 = 0; c10 <= disponiveis[TipoCedulaEnum.CEDULA_10.ordinal()]; c10++) {
+						if (100L * c100 + 50L * c50 + 20L * c20 + 10L * c10 == valor) {
+							menor = Math.min(menor, c100 + c50 + c20 + c10);
+						}
+					}
+				}
+			}
+		}
+		
+		return menor;
+	}
+}
@@ -0,0 +1,113 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+
+public class SolucionadorCedulasTest {
+	
+	private static final ConjuntoCedulas CEDULAS_REAL = ConjuntoCedulas.de(2, 5, 10, 20, 50, 100, 200);
+	
+	/**
+	 * Teste unitário da análise dos conjuntos: o padrão é canônico; com cédulas de 2,00 e 5,00, ou só de 20,00 e 50,00, não.
+	 */
+	@Test
+	public void compilarConjuntosCanonicosENaoCanonicosTest() {
+		assertTrue(SolucionadorCedulas.compilar(ConjuntoCedulas.PADRAO).isGuloso());
+		assertTrue(SolucionadorCedulas.compilar(ConjuntoCedulas.de(10, 20, 50, 100, 200)).isGuloso());
+		assertFalse(SolucionadorCedulas.compilar(CEDULAS_REAL).isGuloso());
+		assertFalse(SolucionadorCedulas.compilar(ConjuntoCedulas.de(20, 50)).isGuloso());
+	}
+	
+	/**
+	 * Teste unitário de valores que a decomposição gulosa não paga com cédulas de 2,00 e 5,00.
+	 */
+	@Test
+	public void calcularValoresQueOGulosoNaoPagaTest() {
+		// given
+		SolucionadorCedulas solucionador = SolucionadorCedulas.compilar(CEDULAS_REAL);
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		
+		// when - then
+		assertEquals(0, solucionador.calcular(6, quantidades));
+		assertEquals(3, quantidades[TipoCedulaEnum.CEDULA_2.ordinal()]);
+		
+		assertEquals(0, solucionador.calcular(213, quantidades));
+		assertEquals(1, quantidades[TipoCedulaEnum.CEDULA_200.ordinal()]);
+		assertEquals(1, quantidades[TipoCedulaEnum.CEDULA_5.ordinal()]);
+		assertEquals(4, quantidades[TipoCedulaEnum.CEDULA_2.ordinal()]);
+		
+		assertFalse(solucionador.isPagavel(3));
+		assertEquals(3, solucionador.calcular(3, quantidades));
+		assertFalse(SolucionadorCedulas.compilar(ConjuntoCedulas.de(20, 50)).isPagavel(30));
+	}
+	
+	/**
+	 * Teste unitário comparando o solucionador com a programação dinâmica direta, inclusive acima da tabela.
+	 */
+	@Test
+	public void calcularComparadoComProgramacaoDinamicaTest() {
+		for (ConjuntoCedulas conjunto : Arrays.asList(ConjuntoCedulas.PADRAO, CEDULAS_REAL, ConjuntoCedulas.de(20, 50),
+				ConjuntoCedulas.de(5, 20, 50), ConjuntoCedulas.de(2, 10, 50, 200))) {
+			// given
+			SolucionadorCedulas solucionador = SolucionadorCedulas.compilar(conjunto);
+			int limite = 50_000;
+			int[] minimo = menorQuantidadeDeCedulas(conjunto, limite);
+			int[] quantidades = new int[TipoCedulaEnum.values().length];
+			
+			for (int valor = 0; valor <= limite; valor++) {
+				// when
+				long residuo = solucionador.calcular(valor, quantidades);
+				
+				// then
+				assertEquals(minimo[valor] != Integer.MAX_VALUE, residuo == 0, conjunto + " " + valor);
+				assertEquals(residuo == 0, solucionador.isPagavel(valor), conjunto + " " + valor);
+				if (residuo == 0) {
+					long valorEntregue = 0;
+					int cedulas = 0;
+					for (TipoCedulaEnum tipoCedula : TipoCedulaEnum.values()) {
+						valorEntregue += (long) quantidades[tipoCedula.ordinal()] * tipoCedula.getValorFaceCedula();
+						cedulas += quantidades[tipoCedula.ordinal()];
+					}
+					assertEquals(valor, valorEntregue, conjunto + " " + valor);
+					assertEquals(minimo[valor], cedulas, conjunto + " " + valor);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Teste unitário das configurações de cédulas rejeitadas.
+	 */
+	@Test
+	public void criarConjuntoInvalidoTest() {
+		assertThrows(IllegalArgumentException.class, () -> ConjuntoCedulas.de());
+		assertThrows(IllegalArgumentException.class, () -> ConjuntoCedulas.de(10, 25));
+		assertThrows(IllegalArgumentException.class, () -> ConjuntoCedulas.de(10, 10));
+		assertThrows(IllegalArgumentException.class, () -> ConjuntoCedulas.de(2, 5));
+	}
+	
+	private static int[] menorQuantidadeDeCedulas(ConjuntoCedulas conjunto, int limite) {
+		int[] minimo = new int[limite + 1];
+		Arrays.fill(minimo, 1, minimo.length, Integer.MAX_VALUE);
+		
+		for (int valor = 1; valor <= limite; valor++) {
+			for (TipoCedulaEnum tipoCedula : conjunto.getTiposDecrescentes()) {
+				int valorFace = tipoCedula.getValorFaceCedula();
+				if (valorFace <= valor && minimo[valor - valorFace] != Integer.MAX_VALUE) {
+					minimo[valor] = Math.min(minimo[valor], minimo[valor - valorFace] + 1);
+				}
+			}
+		}
+		
+		return minimo;
+	}
+}
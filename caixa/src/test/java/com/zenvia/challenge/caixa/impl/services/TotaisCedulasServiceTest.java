@@ -0,0 +1,218 @@
+package com.zenvia.challenge.caixa.impl.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.zenvia.challenge.caixa.arch.exceptions.handlers.BusinessException;
+import com.zenvia.challenge.caixa.config.ConciliacaoProperties;
+import com.zenvia.challenge.caixa.enums.TipoCedulaEnum;
+import com.zenvia.challenge.caixa.impl.model.ComposicaoSaque;
+import com.zenvia.challenge.caixa.impl.model.ConjuntoCedulas;
+import com.zenvia.challenge.caixa.impl.model.FechamentoCedulas;
+import com.zenvia.challenge.caixa.impl.model.TotaisCedulas;
+
+public class TotaisCedulasServiceTest {
+	
+	private static final ZoneId FUSO = ZoneId.of("America/Sao_Paulo");
+	
+	private static final LocalDate HOJE = LocalDate.of(2020, 3, 2);
+	
+	private static TotaisCedulasService novoServico(int diasRetidos) {
+		ConciliacaoProperties properties = new ConciliacaoProperties();
+		properties.setViradaAutomatica(false);
+		properties.setDiasRetidos(diasRetidos);
+		Clock relogio = Clock.fixed(HOJE.atTime(10, 0).atZone(FUSO).toInstant(), FUSO);
+		return new TotaisCedulasService(properties, ConjuntoCedulas.PADRAO, relogio);
+	}
+	
+	private static ComposicaoSaque composicao(int cedulas100, int cedulas50, int cedulas20, int cedulas10) {
+		int[] quantidades = new int[TipoCedulaEnum.values().length];
+		quantidades[TipoCedulaEnum.CEDULA_100.ordinal()] = cedulas100;
+		quantidades[TipoCedulaEnum.CEDULA_50.ordinal()] = cedulas50;
+		quantidades[TipoCedulaEnum.CEDULA_20.ordinal()] = cedulas20;
+		quantidades[TipoCedulaEnum.CEDULA_10.ordinal()] = cedulas10;
+		return new ComposicaoSaque(quantidades, ConjuntoCedulas.PADRAO);
+	}
+	
+	/**
+	 * Teste unitário dos totais do dia em andamento, por terminal e no agregado.
+	 */
+	@Test
+	public void consultarTotaisTest() {
+		// given
+		TotaisCedulasService totais = novoServico(31);
+		
+		// when
+		totais.registrar("ATM-1", composicao(1, 1, 0, 0));
+		totais.registrar("ATM-2", composicao(0, 0, 2, 0));
+		totais.registrar("ATM-1", composicao(0, 0, 0, 1));
+		FechamentoCedulas fotografia = totais.consultar();
+		
+		// then
+		assertEquals(HOJE, fotografia.getData());
+		assertEquals(false, fotografia.isEncerrado());
+		assertEquals(3, fotografia.getTotal().getSaques());
+		assertEquals(200, fotografia.getTotal().getValorTotal());
+		assertEquals(1, fotografia.getTotal().getQuantidade(TipoCedulaEnum.CEDULA_100));
+		assertEquals(2, fotografia.getTotal().getQuantidade(TipoCedulaEnum.CEDULA_20));
+		assertEquals(4, fotografia.getTotal().getCedulas().size());
+		
+		TotaisCedulas atm1 = fotografia.getTerminais().get("ATM-1");
+		assertEquals(2, atm1.getSaques());
+		assertEquals(160, atm1.getValorTotal());
+		assertEquals(40, fotografia.getTerminais().get("ATM-2").getValorTotal());
+		assertEquals(160, totais.consultar("ATM-1").getValorTotal());
+		assertEquals(0, totais.consultar("ATM-3").getSaques());
+	}
+	
+	/**
+	 * Teste unitário da virada do dia: fechamento retido por data, contagem zerada e fechamentos antigos descartados.
+	 */
+	@Test
+	public void virarDiaTest() {
+		// given
+		TotaisCedulasService totais = novoServico(2);
+		totais.registrar("ATM-1", composicao(1, 0, 0, 0));
+		
+		// when
+		FechamentoCedulas fechamento = totais.virarDia();
+		totais.registrar("ATM-1", composicao(0, 1, 0, 0));
+		totais.virarDia();
+		totais.virarDia();
+		
+		// then
+		assertEquals(HOJE, fechamento.getData());
+		assertTrue(fechamento.isEncerrado());
+		assertEquals(100, fechamento.getTotal().getValorTotal());
+		assertEquals(HOJE.plusDays(3), totais.getDataMovimento());
+		assertEquals(0, totais.consultar().getTotal().getSaques());
+		assertEquals(50, totais.getFechamento(HOJE.plusDays(1)).getTotal().getValorTotal());
+		assertEquals(0, totais.getFechamento(HOJE.plusDays(2)).getTotal().getSaques());
+		
+		BusinessException excecao = assertThrows(BusinessException.class, () -> totais.getFechamento(HOJE));
+		assertEquals(TotaisCedulasService.MSG_FECHAMENTO_NAO_ENCONTRADO, excecao.getMessage());
+	}
+	
+	/**
+	 * Teste de concorrência: viradas e consultas durante saques simultâneos não perdem saques, e toda fotografia traz
+	 * os saques inteiros (cada saque entrega uma cédula de 100 e duas de 50).
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void virarDiaComSaquesConcorrentesTest() throws InterruptedException {
+		// given
+		int threads = 4;
+		int saquesPorThread = 50_000;
+		TotaisCedulasService totais = novoServico(1000);
+		ComposicaoSaque saque = composicao(1, 2, 0, 0);
+		CountDownLatch inicio = new CountDownLatch(1);
+		CountDownLatch fim = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			String idTerminal = "ATM-" + t;
+			Thread thread = new Thread(() -> {
+				try {
+					inicio.await();
+					for (int i = 0; i < saquesPorThread; i++) {
+						totais.registrar(idTerminal, saque);
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					fim.countDown();
+				}
+			});
+			thread.start();
+		}
+		
+		// when
+		List<FechamentoCedulas> fotografias = new ArrayList<>();
+		inicio.countDown();
+		while (fim.getCount() > 0) {
+			fotografias.add(totais.consultar());
+			fotografias.add(totais.virarDia());
+		}
+		fim.await();
+		fotografias.add(totais.virarDia());
+		
+		// then
+		long saques = 0;
+		for (FechamentoCedulas fotografia : fotografias) {
+			TotaisCedulas total = fotografia.getTotal();
+			assertEquals(total.getSaques(), total.getQuantidade(TipoCedulaEnum.CEDULA_100));
+			assertEquals(2 * total.getSaques(), total.getQuantidade(TipoCedulaEnum.CEDULA_50));
+			long saquesTerminais = fotografia.getTerminais().values().stream().mapToLong(TotaisCedulas::getSaques).sum();
+			assertEquals(total.getSaques(), saquesTerminais);
+			if (fotografia.isEncerrado()) {
+				saques += total.getSaques();
+			}
+		}
+		assertEquals((long) threads * saquesPorThread, saques);
+	}
+	
+	/**
+	 * Teste unitário da virada automática disparada antes da meia-noite do relógio: a data não é pulada, a virada
+	 * acontece assim que o relógio chega à data seguinte.
+	 */
+	@Test
+	public void viradaAutomaticaAdiantadaTest() throws InterruptedException {
+		// given
+		ConciliacaoProperties properties = new ConciliacaoProperties();
+		properties.setViradaAutomatica(true);
+		RelogioAjustavel relogio = new RelogioAjustavel(HOJE.atTime(23, 59, 59, 800_000_000).atZone(FUSO).toInstant());
+		TotaisCedulasService totais = new TotaisCedulasService(properties, ConjuntoCedulas.PADRAO, relogio);
+		totais.registrar("ATM-1", composicao(1, 0, 0, 0));
+		
+		// when
+		Thread.sleep(600);
+		LocalDate antesDaMeiaNoite = totais.getDataMovimento();
+		relogio.instante = HOJE.plusDays(1).atTime(0, 0, 1).atZone(FUSO).toInstant();
+		long limite = System.currentTimeMillis() + 5000;
+		while (totais.getDataMovimento().equals(HOJE) && System.currentTimeMillis() < limite) {
+			Thread.sleep(50);
+		}
+		
+		// then
+		assertEquals(HOJE, antesDaMeiaNoite);
+		assertEquals(HOJE.plusDays(1), totais.getDataMovimento());
+		assertEquals(1, totais.getFechamento(HOJE).getTotal().getSaques());
+		totais.encerrar();
+	}
+	
+	/**
+	 * Relógio cujo instante é ajustado pelo teste, como um relógio de parede corrigido durante a espera.
+	 */
+	private static final class RelogioAjustavel extends Clock {
+		
+		private volatile Instant instante;
+		
+		RelogioAjustavel(Instant instante) {
+			this.instante = instante;
+		}
+		
+		@Override
+		public ZoneId getZone() {
+			return FUSO;
+		}
+		
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public Instant instant() {
+			return instante;
+		}
+	}
+}